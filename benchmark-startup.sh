@@ -0,0 +1,97 @@
+#!/bin/bash
+
+# Startup benchmark: launches the MCP server over stdio and reports, per variant (median of the runs)
+#   initialize       - ms from launch until the server accepts the session
+#   first tool call  - ms from launch until the first tools/call (performance_metrics) has been answered; with a
+#                      reachable model this includes one model call
+#   rss              - resident memory of the server process after the first tool call
+#   requests/s       - JSON-RPC throughput of the stdio transport: a burst of tools/list requests, no model calls
+# Usage: ./benchmark-startup.sh [runs] [burst]
+# Build the variants first; missing ones are skipped:
+#   mvn clean package -DskipTests                 -> standard jar
+#   mvn -Pfast-start clean package -DskipTests    -> target/fast-start (AOT + CDS archive, lazy web beans)
+
+RUNS=${1:-5}
+BURST=${2:-500}
+JAR=target/mcp-backend-1.0.0.jar
+FAST_START_DIR=target/fast-start
+
+INITIALIZE='{"jsonrpc":"2.0","id":1,"method":"initialize","params":{"protocolVersion":"2024-11-05","capabilities":{},"clientInfo":{"name":"startup-benchmark","version":"1.0.0"}}}'
+INITIALIZED='{"jsonrpc":"2.0","method":"notifications/initialized"}'
+TOOL_CALL='{"jsonrpc":"2.0","id":2,"method":"tools/call","params":{"name":"performance_metrics","arguments":{"request":"spring sale email campaign"}}}'
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# Reads server output until the JSON-RPC response with the given id; log lines on stdout are skipped
+await_response() {
+    local id=$1 line
+    while IFS= read -r -t 120 line <&"${SERVER[0]}"; do
+        [[ $line == *'"jsonrpc"'* && $line == *"\"id\":$id,"* ]] && return 0
+    done
+    return 1
+}
+
+# Reads server output until the given number of JSON-RPC responses arrived, in any order
+await_responses() {
+    local remaining=$1 line
+    while ((remaining > 0)) && IFS= read -r -t 120 line <&"${SERVER[0]}"; do
+        [[ $line == *'"jsonrpc"'* && $line == *'"result"'* ]] && ((remaining--))
+    done
+    ((remaining == 0))
+}
+
+# Prints "<initialize ms> <first tool call ms> <rss MB> <requests/s>" for one launch of the given command
+measure() {
+    local start initialized answered rss burst_start burst_ms id
+    start=$(now_ms)
+    coproc SERVER { exec "$@" --server.port=0 --spring.main.banner-mode=off 2>/dev/null; }
+    echo "$INITIALIZE" >&"${SERVER[1]}"
+    await_response 1 || { kill "$SERVER_PID" 2>/dev/null; echo "failed"; return 1; }
+    initialized=$(now_ms)
+    echo "$INITIALIZED" >&"${SERVER[1]}"
+    echo "$TOOL_CALL" >&"${SERVER[1]}"
+    await_response 2 || { kill "$SERVER_PID" 2>/dev/null; echo "failed"; return 1; }
+    answered=$(now_ms)
+    rss=$(awk '/^VmRSS/ { print int($2 / 1024) }' "/proc/$SERVER_PID/status")
+    burst_start=$(now_ms)
+    for ((id = 3; id < BURST + 3; id++)); do
+        echo "{\"jsonrpc\":\"2.0\",\"id\":$id,\"method\":\"tools/list\"}"
+    done >&"${SERVER[1]}"
+    await_responses "$BURST" || { kill "$SERVER_PID" 2>/dev/null; echo "failed"; return 1; }
+    burst_ms=$(( $(now_ms) - burst_start ))
+    kill "$SERVER_PID" 2>/dev/null
+    wait "$SERVER_PID" 2>/dev/null
+    echo "$((initialized - start)) $((answered - start)) $rss $((BURST * 1000 / (burst_ms > 0 ? burst_ms : 1)))"
+}
+
+median() {
+    sort -n | awk '{ values[NR] = $1 } END { print (NR % 2) ? values[(NR + 1) / 2] : int((values[NR / 2] + values[NR / 2 + 1]) / 2) }'
+}
+
+benchmark() {
+    local name=$1 inits=() calls=() rss=() throughput=() result
+    shift
+    for ((run = 1; run <= RUNS; run++)); do
+        result=$(measure "$@") || { echo "$name: run $run failed"; return; }
+        read -r -a values <<< "$result"
+        inits+=("${values[0]}")
+        calls+=("${values[1]}")
+        rss+=("${values[2]}")
+        throughput+=("${values[3]}")
+    done
+    printf "%-12s %12s %17s %8s %12s\n" "$name" \
+        "$(printf '%s\n' "${inits[@]}" | median) ms" "$(printf '%s\n' "${calls[@]}" | median) ms" \
+        "$(printf '%s\n' "${rss[@]}" | median) MB" "$(printf '%s\n' "${throughput[@]}" | median)"
+}
+
+echo "MCP server over stdio, median of $RUNS runs"
+printf "%-12s %12s %17s %8s %12s\n" "variant" "initialize" "first tool call" "rss" "requests/s"
+if [ -f "$JAR" ]; then
+    benchmark "standard" java -jar "$JAR"
+fi
+if [ -f "$FAST_START_DIR/mcp-backend-1.0.0.jar" ]; then
+    benchmark "fast-start" java -XX:SharedArchiveFile="$FAST_START_DIR/mcp-backend.jsa" -Dspring.aot.enabled=true \
+        -jar "$FAST_START_DIR/mcp-backend-1.0.0.jar" --spring.profiles.active=fast-start
+fi
@@ -0,0 +1,149 @@
+#!/bin/bash
+
+# Transport benchmark: JSON-RPC throughput of the MCP server over stdio and over HTTP/SSE (median of the runs)
+#   stdio - one host on one connection, a burst of tools/list requests written without waiting for replies
+#   http  - the given number of SSE sessions, each posting its share of the tools/list requests one after another
+#           on a keep-alive connection (a post returns once its reply is on the stream); a request counts when
+#           its reply arrived on the session's SSE stream
+# No model is called, so this measures the transports and JSON-RPC handling only.
+# Usage: ./benchmark-transports.sh [requests] [clients] [runs]
+# Needs the standard jar (mvn clean package -DskipTests) and curl; the HTTP runs use port $MCP_BENCHMARK_PORT.
+
+REQUESTS=${1:-2000}
+CLIENTS=${2:-8}
+RUNS=${3:-3}
+PORT=${MCP_BENCHMARK_PORT:-18080}
+JAR=target/mcp-backend-1.0.0.jar
+BASE="http://localhost:$PORT"
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+INITIALIZE='{"jsonrpc":"2.0","id":1,"method":"initialize","params":{"protocolVersion":"2024-11-05","capabilities":{},"clientInfo":{"name":"transport-benchmark","version":"1.0.0"}}}'
+INITIALIZED='{"jsonrpc":"2.0","method":"notifications/initialized"}'
+
+if [ ! -f "$JAR" ]; then
+    echo "$JAR not found; build it with: mvn clean package -DskipTests" >&2
+    exit 1
+fi
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+median() {
+    sort -n | awk '{ values[NR] = $1 } END { print (NR % 2) ? values[(NR + 1) / 2] : int((values[NR / 2] + values[NR / 2 + 1]) / 2) }'
+}
+
+# Counts the JSON-RPC results in the given files (server output, SSE streams)
+results() {
+    cat "$@" 2>/dev/null | grep -c '^\(data:\)\?{"jsonrpc".*"result"'
+}
+
+# Waits up to a minute until the given files hold the given number of results
+await_results() {
+    local expected=$1 attempt
+    shift
+    for ((attempt = 0; attempt < 600 && $(results "$@") < expected; attempt++)); do
+        sleep 0.1
+    done
+    (($(results "$@") >= expected))
+}
+
+# Writes a burst of tools/list requests to the stdio server
+stdio_burst() {
+    local id
+    for ((id = 2; id < REQUESTS + 2; id++)); do
+        echo "{\"jsonrpc\":\"2.0\",\"id\":$id,\"method\":\"tools/list\"}"
+    done >&"$STDIN"
+}
+
+# Prints the requests/s of one stdio burst, measured after an untimed burst that warms up the request path. Server
+# output goes to a file, as the SSE streams do, so the client does not limit the throughput
+measure_stdio() {
+    local server start elapsed status=0
+    rm -f "$WORK/stdin" "$WORK/stdout"
+    mkfifo "$WORK/stdin"
+    java -jar "$JAR" --server.port=0 --spring.main.banner-mode=off < "$WORK/stdin" > "$WORK/stdout" 2>/dev/null &
+    server=$!
+    exec {STDIN}>"$WORK/stdin"
+    echo "$INITIALIZE" >&"$STDIN"
+    await_results 1 "$WORK/stdout" || status=1
+    echo "$INITIALIZED" >&"$STDIN"
+    stdio_burst
+    await_results $((REQUESTS + 1)) "$WORK/stdout" || status=1
+    start=$(now_ms)
+    stdio_burst
+    await_results $((2 * REQUESTS + 1)) "$WORK/stdout" || status=1
+    elapsed=$(( $(now_ms) - start ))
+    exec {STDIN}>&-
+    kill "$server" 2>/dev/null
+    wait "$server" 2>/dev/null
+    ((status == 0)) || return 1
+    echo $((REQUESTS * 1000 / (elapsed > 0 ? elapsed : 1)))
+}
+
+# Prints the requests/s of the given number of HTTP/SSE sessions sharing the requests; the server is running
+measure_http() {
+    local clients=$1 client endpoint share id start elapsed attempt status=0 streams=() posts=()
+    rm -f "$WORK"/stream-* "$WORK"/posts-*
+    for ((client = 0; client < clients; client++)); do
+        curl -s -N "$BASE/mcp/sse" > "$WORK/stream-$client" &
+        streams+=($!)
+    done
+    for ((client = 0; client < clients; client++)); do
+        for ((attempt = 0; attempt < 100; attempt++)); do
+            endpoint=$(sed -n 's/^data:\(\/.*sessionId=.*\)$/\1/p' "$WORK/stream-$client")
+            [ -n "$endpoint" ] && break
+            sleep 0.1
+        done
+        curl -s -o /dev/null -H 'Content-Type: application/json' -d "$INITIALIZE" "$BASE$endpoint"
+        curl -s -o /dev/null -H 'Content-Type: application/json' -d "$INITIALIZED" "$BASE$endpoint"
+        share=$((REQUESTS / clients + (client < REQUESTS % clients ? 1 : 0)))
+        for ((id = 2; id < share + 2; id++)); do
+            ((id > 2)) && echo 'next'
+            echo "url = \"$BASE$endpoint\""
+            echo 'header = "Content-Type: application/json"'
+            echo "data = \"{\\\"jsonrpc\\\":\\\"2.0\\\",\\\"id\\\":$id,\\\"method\\\":\\\"tools/list\\\"}\""
+            echo 'output = "/dev/null"'
+        done > "$WORK/posts-$client"
+    done
+    start=$(now_ms)
+    for ((client = 0; client < clients; client++)); do
+        curl -s -K "$WORK/posts-$client" &
+        posts+=($!)
+    done
+    wait "${posts[@]}"
+    await_results $((REQUESTS + clients)) "$WORK"/stream-* || status=1
+    elapsed=$(( $(now_ms) - start ))
+    kill "${streams[@]}" 2>/dev/null
+    wait "${streams[@]}" 2>/dev/null
+    ((status == 0)) || return 1
+    echo $((REQUESTS * 1000 / (elapsed > 0 ? elapsed : 1)))
+}
+
+report() {
+    printf "%-10s %8s %12s\n" "$1" "$2" "$(median)"
+}
+
+echo "MCP transports, $REQUESTS tools/list requests, median of $RUNS runs"
+printf "%-10s %8s %12s\n" "transport" "clients" "requests/s"
+
+for ((run = 1; run <= RUNS; run++)); do
+    measure_stdio || { echo "stdio: run $run failed" >&2; break; }
+done | report stdio 1
+
+MCP_STDIO=false java -jar "$JAR" --server.port="$PORT" --spring.main.banner-mode=off > /dev/null 2>&1 &
+SERVER=$!
+for ((attempt = 0; attempt < 120; attempt++)); do
+    curl -s -o /dev/null "$BASE/actuator/health" && break
+    sleep 1
+done
+# One untimed run initializes the servlet and warms up the request path, as the first stdio burst does
+measure_http 1 > /dev/null
+for clients in 1 "$CLIENTS"; do
+    for ((run = 1; run <= RUNS; run++)); do
+        measure_http "$clients" || { echo "http: $clients clients, run $run failed" >&2; break; }
+    done | report http "$clients"
+done
+kill "$SERVER" 2>/dev/null
+wait "$SERVER" 2>/dev/null || true
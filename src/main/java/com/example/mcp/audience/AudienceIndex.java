@@ -0,0 +1,281 @@
+package com.example.mcp.audience;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Audience Index
+ * Immutable inverted index over a customer dataset with one compressed bitmap per attribute value.
+ * Row numbers are the bitmap positions; segment queries are answered with bitmap AND/OR operations.
+ */
+public class AudienceIndex {
+
+    public static final String AGE = "age";
+    public static final String LOCATION = "location";
+    public static final String OCCUPATION = "occupation";
+    public static final String INTERESTS = "interests";
+    public static final String BEHAVIOR = "behavior";
+
+    public static final int MAX_AGE = 120;
+
+    private final int size;
+    private final IntFunction<String> customerIds;
+    private final ColumnarProfileStore store;
+    private final RoaringBitmap[] ageBitmaps;
+    private final Map<String, Map<String, RoaringBitmap>> attributeBitmaps;
+    private final RoaringBitmap all;
+
+    private AudienceIndex(int size, IntFunction<String> customerIds, ColumnarProfileStore store,
+                          RoaringBitmap[] ageBitmaps, Map<String, Map<String, RoaringBitmap>> attributeBitmaps) {
+        this.size = size;
+        this.customerIds = customerIds;
+        this.store = store;
+        this.ageBitmaps = ageBitmaps;
+        this.attributeBitmaps = attributeBitmaps;
+        this.all = new RoaringBitmap();
+        if (size > 0) {
+            this.all.add(0L, size);
+        }
+    }
+
+    public static AudienceIndex empty() {
+        return new Builder().build();
+    }
+
+    /**
+     * Build an index from loaded profiles; the list position becomes the row number
+     */
+    public static AudienceIndex fromProfiles(List<CustomerProfile> profiles) {
+        Builder builder = new Builder();
+        for (CustomerProfile profile : profiles) {
+            int row = builder.addCustomer(profile.getId());
+            if (profile.getAge() != null) {
+                builder.addAge(row, profile.getAge());
+            }
+            builder.addValue(row, LOCATION, profile.getLocation());
+            builder.addValue(row, OCCUPATION, profile.getOccupation());
+            profile.getInterests().forEach(interest -> builder.addValue(row, INTERESTS, interest));
+            profile.getBehavior().forEach(behavior -> builder.addValue(row, BEHAVIOR, behavior));
+            profile.getAttributes().forEach((attribute, value) -> builder.addValue(row, attribute, value));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Build an index by scanning the columns of a profile store.
+     * Codes are grouped per dictionary entry first, so multi-valued entries are split once per code;
+     * customer ids stay in the store and are read only when members are listed.
+     */
+    public static AudienceIndex fromStore(ColumnarProfileStore store) {
+        Builder builder = new Builder();
+        int rows = store.getRowCount();
+        for (int row = 0; row < rows; row++) {
+            int age = store.getAge(row);
+            if (age >= 0) {
+                builder.addAge(row, age);
+            }
+        }
+        for (ColumnarProfileStore.StringColumn column : ColumnarProfileStore.StringColumn.values()) {
+            RoaringBitmap[] rowsByCode = new RoaringBitmap[store.getDictionary(column).size()];
+            for (int row = 0; row < rows; row++) {
+                int code = store.getCode(column, row);
+                if (code != StringDictionary.NULL_CODE) {
+                    if (rowsByCode[code] == null) {
+                        rowsByCode[code] = new RoaringBitmap();
+                    }
+                    rowsByCode[code].add(row);
+                }
+            }
+            for (int code = 0; code < rowsByCode.length; code++) {
+                if (rowsByCode[code] != null) {
+                    for (String token : store.getTokens(column, code)) {
+                        builder.addValueRows(column.getColumnName(), token, rowsByCode[code]);
+                    }
+                }
+            }
+        }
+        return builder.build(rows, store::getId, store);
+    }
+
+    /**
+     * Normalize an attribute value for indexing and lookup
+     */
+    public static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Rows having the given attribute value; the returned bitmap must not be modified
+     */
+    public RoaringBitmap lookup(String attribute, String value) {
+        Map<String, RoaringBitmap> values = attributeBitmaps.get(attribute);
+        if (values == null) {
+            return null;
+        }
+        return values.get(normalize(value));
+    }
+
+    /**
+     * Rows having any of the given values (OR of the value bitmaps)
+     */
+    public RoaringBitmap anyOf(String attribute, Collection<String> values) {
+        List<RoaringBitmap> bitmaps = new ArrayList<>();
+        for (String value : values) {
+            RoaringBitmap bitmap = lookup(attribute, value);
+            if (bitmap != null) {
+                bitmaps.add(bitmap);
+            }
+        }
+        return bitmaps.isEmpty() ? new RoaringBitmap() : FastAggregation.or(bitmaps.iterator());
+    }
+
+    /**
+     * Rows whose age lies in [fromAge, toAge]
+     */
+    public RoaringBitmap ageRange(int fromAge, int toAge) {
+        int from = Math.max(0, fromAge);
+        int to = Math.min(MAX_AGE, toAge);
+        List<RoaringBitmap> bitmaps = new ArrayList<>();
+        for (int age = from; age <= to; age++) {
+            if (ageBitmaps[age] != null) {
+                bitmaps.add(ageBitmaps[age]);
+            }
+        }
+        return bitmaps.isEmpty() ? new RoaringBitmap() : FastAggregation.or(bitmaps.iterator());
+    }
+
+    public boolean hasAttribute(String attribute) {
+        return AGE.equals(attribute) || attributeBitmaps.containsKey(attribute);
+    }
+
+    public Set<String> getAttributes() {
+        return Collections.unmodifiableSet(attributeBitmaps.keySet());
+    }
+
+    /**
+     * Distinct values of an attribute with their customer counts
+     */
+    public Map<String, Integer> getValueCounts(String attribute) {
+        Map<String, Integer> counts = new HashMap<>();
+        attributeBitmaps.getOrDefault(attribute, Map.of())
+            .forEach((value, bitmap) -> counts.put(value, bitmap.getCardinality()));
+        return counts;
+    }
+
+    public RoaringBitmap getAll() {
+        return all;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Customer id of a row; for an index built from a profile store, hold {@link #retain()} while reading ids
+     */
+    public String customerId(int row) {
+        return customerIds.apply(row);
+    }
+
+    /**
+     * Keep the profile store behind this index open while customer ids are read
+     * @return false when the store has been replaced and closed since
+     */
+    public boolean retain() {
+        return store == null || store.retain();
+    }
+
+    public void release() {
+        if (store != null) {
+            store.release();
+        }
+    }
+
+    public long getSizeInBytes() {
+        long bytes = 0;
+        for (RoaringBitmap bitmap : ageBitmaps) {
+            if (bitmap != null) {
+                bytes += bitmap.getLongSizeInBytes();
+            }
+        }
+        for (Map<String, RoaringBitmap> values : attributeBitmaps.values()) {
+            for (RoaringBitmap bitmap : values.values()) {
+                bytes += bitmap.getLongSizeInBytes();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Index Builder
+     * Rows must be added in ascending order, which keeps bitmap appends cheap
+     */
+    public static class Builder {
+        private final List<String> customerIds = new ArrayList<>();
+        private final RoaringBitmap[] ageBitmaps = new RoaringBitmap[MAX_AGE + 1];
+        private final Map<String, Map<String, RoaringBitmap>> attributeBitmaps = new HashMap<>();
+
+        public int addCustomer(String customerId) {
+            customerIds.add(customerId);
+            return customerIds.size() - 1;
+        }
+
+        public void addAge(int row, int age) {
+            if (age < 0 || age > MAX_AGE) {
+                return;
+            }
+            if (ageBitmaps[age] == null) {
+                ageBitmaps[age] = new RoaringBitmap();
+            }
+            ageBitmaps[age].add(row);
+        }
+
+        public void addValue(int row, String attribute, String value) {
+            if (value == null || value.isBlank()) {
+                return;
+            }
+            attributeBitmaps
+                .computeIfAbsent(attribute, key -> new HashMap<>())
+                .computeIfAbsent(normalize(value), key -> new RoaringBitmap())
+                .add(row);
+        }
+
+        /**
+         * Add a whole bitmap of rows for one value, used when building from columnar data
+         */
+        public void addValueRows(String attribute, String value, RoaringBitmap rows) {
+            if (value == null || value.isBlank()) {
+                return;
+            }
+            attributeBitmaps
+                .computeIfAbsent(attribute, key -> new HashMap<>())
+                .computeIfAbsent(normalize(value), key -> new RoaringBitmap())
+                .or(rows);
+        }
+
+        public AudienceIndex build() {
+            String[] ids = customerIds.toArray(new String[0]);
+            return build(ids.length, row -> ids[row], null);
+        }
+
+        AudienceIndex build(int size, IntFunction<String> idResolver, ColumnarProfileStore store) {
+            for (RoaringBitmap bitmap : ageBitmaps) {
+                if (bitmap != null) {
+                    bitmap.runOptimize();
+                }
+            }
+            attributeBitmaps.values().forEach(values -> values.values().forEach(RoaringBitmap::runOptimize));
+            return new AudienceIndex(size, idResolver, store, ageBitmaps, attributeBitmaps);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.mcp.audience;
+
+import com.example.mcp.server.CampaignNodeConfig;
+import jakarta.annotation.PostConstruct;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Audience Segment Service
+ * Resolves SegmentConfig definitions into audience members and reach estimates using the bitmap index.
+ *
+ * Values inside one field are OR-ed ("Shanghai, Beijing"), fields are AND-ed together.
+ * A field whose values match nothing in the dataset (for example free text such as "Tier 1 cities")
+ * is reported as unresolved and does not narrow the segment.
+ */
+@Service
+public class AudienceSegmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(AudienceSegmentService.class);
+
+    private static final Pattern VALUE_SEPARATOR = Pattern.compile("\\s*(?:[,，、;/|]|\\bor\\b|\\band\\b)\\s*");
+    private static final Pattern AGE_RANGE = Pattern.compile("(\\d{1,3})\\s*(?:-|~|–|to|到|至)\\s*(\\d{1,3})");
+    private static final Pattern AGE_OVER = Pattern.compile("(\\d{1,3})\\s*(?:\\+|岁以上|and over|and above)|(?:over|above)\\s*(\\d{1,3})");
+    private static final Pattern AGE_UNDER = Pattern.compile("(?:under|below)\\s*(\\d{1,3})|(\\d{1,3})\\s*岁以下");
+
+    @Autowired
+    private CustomerDataLoader dataLoader;
+
+    @Value("${campaign.audience.data-file:}")
+    private String dataFile;
+
+    @Value("${campaign.audience.data-directory:data}")
+    private String dataDirectory;
+
+    private volatile AudienceIndex index = AudienceIndex.empty();
+    private volatile String loadedFrom;
+
+    @PostConstruct
+    public void init() {
+        if (dataFile == null || dataFile.isBlank()) {
+            return;
+        }
+        try {
+            load(Path.of(dataFile));
+        } catch (Exception e) {
+            log.warn("Audience dataset not loaded from {}: {}", dataFile, e.getMessage());
+        }
+    }
+
+    /**
+     * (Re)load a customer dataset from the configured data directory and rebuild the index;
+     * queries keep using the old index until the swap
+     */
+    public Map<String, Object> reload(String path) throws IOException {
+        return load(DataPaths.resolveFile(Path.of(dataDirectory), path));
+    }
+
+    private synchronized Map<String, Object> load(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("Audience data file not found: " + file);
+        }
+        long start = System.nanoTime();
+        List<CustomerProfile> profiles = dataLoader.load(file);
+        AudienceIndex newIndex = AudienceIndex.fromProfiles(profiles);
+        this.index = newIndex;
+        this.loadedFrom = file.toString();
+        Map<String, Object> result = getStatus();
+        result.put("loadMs", (System.nanoTime() - start) / 1_000_000.0);
+        return result;
+    }
+
+    /**
+     * Replace the index directly (used by other data sources)
+     */
+    public void useIndex(AudienceIndex newIndex, String source) {
+        this.index = newIndex;
+        this.loadedFrom = source;
+    }
+
+    public AudienceIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Resolve a segment definition to its member rows
+     */
+    public SegmentResolution resolve(CampaignNodeConfig.SegmentConfig segment) {
+        return resolve(index, segment);
+    }
+
+    private SegmentResolution resolve(AudienceIndex current, CampaignNodeConfig.SegmentConfig segment) {
+        long start = System.nanoTime();
+        RoaringBitmap result = current.getAll().clone();
+        Map<String, Integer> attributeCounts = new LinkedHashMap<>();
+        Map<String, List<String>> unresolved = new LinkedHashMap<>();
+
+        if (segment.getAgeGroup() != null && !segment.getAgeGroup().isBlank()) {
+            RoaringBitmap ages = resolveAgeGroup(current, segment.getAgeGroup());
+            if (ages == null) {
+                unresolved.put("ageGroup", List.of(segment.getAgeGroup()));
+            } else {
+                attributeCounts.put("ageGroup", ages.getCardinality());
+                result.and(ages);
+            }
+        }
+        narrow(current, result, "location", AudienceIndex.LOCATION, segment.getLocation(), attributeCounts, unresolved);
+        narrow(current, result, "occupation", AudienceIndex.OCCUPATION, segment.getOccupation(), attributeCounts, unresolved);
+        narrow(current, result, "interests", AudienceIndex.INTERESTS, segment.getInterests(), attributeCounts, unresolved);
+        narrow(current, result, "behavior", AudienceIndex.BEHAVIOR, segment.getBehavior(), attributeCounts, unresolved);
+        if (segment.getCustomAttributes() != null) {
+            segment.getCustomAttributes().forEach((attribute, value) -> {
+                if (value != null) {
+                    narrow(current, result, attribute, attribute, value.toString(), attributeCounts, unresolved);
+                }
+            });
+        }
+
+        return new SegmentResolution(result, current.size(), attributeCounts, unresolved, System.nanoTime() - start);
+    }
+
+    /**
+     * Reach estimate for previews
+     */
+    public Map<String, Object> estimate(CampaignNodeConfig.SegmentConfig segment) {
+        return resolve(segment).toPreview();
+    }
+
+    /**
+     * Customer ids of the first members of a segment
+     */
+    public List<String> sampleMembers(CampaignNodeConfig.SegmentConfig segment, int limit) {
+        AudienceIndex current = index;
+        // Ids of a store-backed index are read from the store, which a concurrent import may be retiring
+        while (!current.retain()) {
+            AudienceIndex latest = index;
+            if (latest == current) {
+                throw new IllegalStateException("Profile store is closed");
+            }
+            current = latest;
+        }
+        try {
+            RoaringBitmap members = resolve(current, segment).getMembers();
+            List<String> ids = new ArrayList<>();
+            IntIterator iterator = members.getIntIterator();
+            while (iterator.hasNext() && ids.size() < limit) {
+                ids.add(current.customerId(iterator.next()));
+            }
+            return ids;
+        } finally {
+            current.release();
+        }
+    }
+
+    /**
+     * Build a SegmentConfig from recommendation data (the loosely typed map produced by the AI generator)
+     */
+    @SuppressWarnings("unchecked")
+    public static CampaignNodeConfig.SegmentConfig toSegmentConfig(Map<String, Object> data) {
+        CampaignNodeConfig.SegmentConfig segment = new CampaignNodeConfig.SegmentConfig();
+        segment.setAgeGroup(asString(data.get("ageGroup")));
+        segment.setLocation(asString(data.get("location")));
+        segment.setOccupation(asString(data.get("occupation")));
+        segment.setInterests(asString(data.get("interests")));
+        segment.setBehavior(asString(data.get("behavior")));
+        if (data.get("customAttributes") instanceof Map) {
+            segment.setCustomAttributes((Map<String, Object>) data.get("customAttributes"));
+        }
+        return segment;
+    }
+
+    public Map<String, Object> getStatus() {
+        AudienceIndex current = index;
+        Map<String, Object> status = new HashMap<>();
+        status.put("loaded", current.size() > 0);
+        status.put("source", loadedFrom);
+        status.put("customers", current.size());
+        status.put("attributes", current.getAttributes());
+        status.put("indexBytes", current.getSizeInBytes());
+        return status;
+    }
+
+    private void narrow(AudienceIndex current, RoaringBitmap result, String field, String attribute, String rawValue,
+                        Map<String, Integer> attributeCounts, Map<String, List<String>> unresolved) {
+        if (rawValue == null || rawValue.isBlank()) {
+            return;
+        }
+        List<String> values = splitValues(rawValue);
+        List<String> missing = new ArrayList<>();
+        for (String value : values) {
+            if (current.lookup(attribute, value) == null) {
+                missing.add(value);
+            }
+        }
+        if (!missing.isEmpty()) {
+            unresolved.put(field, missing);
+        }
+        if (missing.size() == values.size()) {
+            return;
+        }
+        RoaringBitmap matches = current.anyOf(attribute, values);
+        attributeCounts.put(field, matches.getCardinality());
+        result.and(matches);
+    }
+
+    /**
+     * Resolve age group text such as "25-35 years", "18+", "under 25" or "25-34, 35-44"
+     * @return matching rows, or null when no age range could be parsed
+     */
+    private RoaringBitmap resolveAgeGroup(AudienceIndex current, String ageGroup) {
+        RoaringBitmap ages = null;
+        for (String part : ageGroup.toLowerCase().split("[,，、;/|]")) {
+            int[] range = parseAgeRange(part);
+            if (range == null) {
+                continue;
+            }
+            RoaringBitmap rows = current.ageRange(range[0], range[1]);
+            ages = ages == null ? rows : RoaringBitmap.or(ages, rows);
+        }
+        return ages;
+    }
+
+    static int[] parseAgeRange(String text) {
+        Matcher range = AGE_RANGE.matcher(text);
+        if (range.find()) {
+            return new int[]{Integer.parseInt(range.group(1)), Integer.parseInt(range.group(2))};
+        }
+        Matcher over = AGE_OVER.matcher(text);
+        if (over.find()) {
+            String value = over.group(1) != null ? over.group(1) : over.group(2);
+            return new int[]{Integer.parseInt(value), AudienceIndex.MAX_AGE};
+        }
+        Matcher under = AGE_UNDER.matcher(text);
+        if (under.find()) {
+            String value = under.group(1) != null ? under.group(1) : under.group(2);
+            return new int[]{0, Integer.parseInt(value) - 1};
+        }
+        return null;
+    }
+
+    static List<String> splitValues(String rawValue) {
+        return Arrays.stream(VALUE_SEPARATOR.split(rawValue.trim()))
+            .map(String::trim)
+            .filter(value -> !value.isEmpty())
+            .toList();
+    }
+
+    private static String asString(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof List) {
+            return String.join(", ", ((List<?>) value).stream().map(String::valueOf).toList());
+        }
+        return value.toString();
+    }
+}
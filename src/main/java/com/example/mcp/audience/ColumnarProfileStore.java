@@ -0,0 +1,388 @@
+package com.example.mcp.audience;
+
+import com.example.mcp.condition.ConditionEvaluator;
+import com.example.mcp.condition.CustomerRecord;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Columnar Profile Store
+ * Read-optimized, memory-mapped columnar storage of customer profiles.
+ *
+ * Layout of a store directory:
+ * <pre>
+ * store.properties        row count and format version
+ * age.i32                 int per row, -1 when unknown
+ * spend.f32               float per row, NaN when unknown
+ * engagement.f32          float per row, NaN when unknown
+ * id.off / id.dat         long end offset per row into UTF-8 id bytes
+ * &lt;column&gt;.i32 / .dict   dictionary codes per row and the dictionary (location, occupation, interests, behavior)
+ * </pre>
+ * Column data stays in the page cache, not on the heap. Scans read primitives straight from the mappings
+ * and only {@link #materialize(int)} builds objects, so rows are materialized late and only when needed.
+ *
+ * The store is reference counted: readers that may outlive a swap to a new store {@link #retain()} it and
+ * {@link #release()} it afterwards, and {@link #close()} only drops the owner's reference, so the files are
+ * closed once the last reader is done.
+ */
+public class ColumnarProfileStore implements AutoCloseable {
+
+    public static final String META_FILE = "store.properties";
+    public static final int FORMAT_VERSION = 1;
+
+    private static final String[] NO_VALUES = new String[0];
+
+    /**
+     * Dictionary-encoded string columns
+     */
+    public enum StringColumn {
+        LOCATION("location", false),
+        OCCUPATION("occupation", false),
+        INTERESTS("interests", true),
+        BEHAVIOR("behavior", true);
+
+        private final String columnName;
+        private final boolean multiValued;
+
+        StringColumn(String columnName, boolean multiValued) {
+            this.columnName = columnName;
+            this.multiValued = multiValued;
+        }
+
+        public String getColumnName() { return columnName; }
+        public boolean isMultiValued() { return multiValued; }
+    }
+
+    private final Path directory;
+    private final int rowCount;
+    private final IntBuffer age;
+    private final FloatBuffer spend;
+    private final FloatBuffer engagement;
+    private final LongBuffer idOffsets;
+    private final FileChannel idData;
+    private final IntBuffer[] codes = new IntBuffer[StringColumn.values().length];
+    private final StringDictionary[] dictionaries = new StringDictionary[StringColumn.values().length];
+    private final String[][][] tokens = new String[StringColumn.values().length][][];
+    private final AtomicInteger references = new AtomicInteger(1);
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private ColumnarProfileStore(Path directory) throws IOException {
+        this.directory = directory;
+        Properties meta = new Properties();
+        try (InputStream in = Files.newInputStream(directory.resolve(META_FILE))) {
+            meta.load(in);
+        }
+        int version = Integer.parseInt(meta.getProperty("version", "0"));
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported profile store version " + version + " in " + directory);
+        }
+        this.rowCount = Integer.parseInt(meta.getProperty("rows"));
+        this.age = map(directory.resolve("age.i32")).asIntBuffer();
+        this.spend = map(directory.resolve("spend.f32")).asFloatBuffer();
+        this.engagement = map(directory.resolve("engagement.f32")).asFloatBuffer();
+        this.idOffsets = map(directory.resolve("id.off")).asLongBuffer();
+        this.idData = FileChannel.open(directory.resolve("id.dat"), StandardOpenOption.READ);
+        for (StringColumn column : StringColumn.values()) {
+            int i = column.ordinal();
+            codes[i] = map(directory.resolve(column.columnName + ".i32")).asIntBuffer();
+            dictionaries[i] = StringDictionary.read(directory.resolve(column.columnName + ".dict"));
+            String[] values = dictionaries[i].freeze();
+            tokens[i] = new String[values.length][];
+            for (int code = 0; code < values.length; code++) {
+                tokens[i][code] = column.multiValued
+                    ? CustomerDataLoader.splitMultiValue(values[code]).toArray(new String[0])
+                    : new String[]{values[code]};
+            }
+        }
+    }
+
+    /**
+     * Open an existing store directory
+     */
+    public static ColumnarProfileStore open(Path directory) throws IOException {
+        return new ColumnarProfileStore(directory);
+    }
+
+    public static boolean exists(Path directory) {
+        return Files.isRegularFile(directory.resolve(META_FILE));
+    }
+
+    private static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return age, or -1 when unknown
+     */
+    public int getAge(int row) {
+        return age.get(row);
+    }
+
+    /**
+     * @return spend, or NaN when unknown
+     */
+    public float getSpend(int row) {
+        return spend.get(row);
+    }
+
+    /**
+     * @return engagement score, or NaN when unknown
+     */
+    public float getEngagement(int row) {
+        return engagement.get(row);
+    }
+
+    /**
+     * @return dictionary code, or {@link StringDictionary#NULL_CODE}
+     */
+    public int getCode(StringColumn column, int row) {
+        return codes[column.ordinal()].get(row);
+    }
+
+    public StringDictionary getDictionary(StringColumn column) {
+        return dictionaries[column.ordinal()];
+    }
+
+    /**
+     * Individual values behind a dictionary code; multi-valued columns are split once per code, not per row
+     */
+    public String[] getTokens(StringColumn column, int code) {
+        return code == StringDictionary.NULL_CODE ? NO_VALUES : tokens[column.ordinal()][code];
+    }
+
+    /**
+     * Stored value of a row; multi-valued columns return their values joined with "|"
+     */
+    public String getString(StringColumn column, int row) {
+        return dictionaries[column.ordinal()].decode(getCode(column, row));
+    }
+
+    /**
+     * Individual values of a row, without allocating; single-valued columns return at most one value
+     */
+    public String[] getValues(StringColumn column, int row) {
+        return getTokens(column, getCode(column, row));
+    }
+
+    /**
+     * Customer id of a row, read from the id data file on demand
+     */
+    public String getId(int row) {
+        long start = row == 0 ? 0L : idOffsets.get(row - 1);
+        long end = idOffsets.get(row);
+        ByteBuffer bytes = ByteBuffer.allocate((int) (end - start));
+        try {
+            while (bytes.hasRemaining()) {
+                if (idData.read(bytes, start + bytes.position()) < 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read customer id for row " + row, e);
+        }
+        return new String(bytes.array(), 0, bytes.position(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Build a full profile object for one row
+     */
+    public CustomerProfile materialize(int row) {
+        CustomerProfile profile = new CustomerProfile();
+        profile.setId(getId(row));
+        int rowAge = getAge(row);
+        profile.setAge(rowAge < 0 ? null : rowAge);
+        float rowSpend = getSpend(row);
+        profile.setSpend(Float.isNaN(rowSpend) ? null : (double) rowSpend);
+        float rowEngagement = getEngagement(row);
+        profile.setEngagementScore(Float.isNaN(rowEngagement) ? null : (double) rowEngagement);
+        profile.setLocation(getString(StringColumn.LOCATION, row));
+        profile.setOccupation(getString(StringColumn.OCCUPATION, row));
+        profile.setInterests(Arrays.asList(getTokens(StringColumn.INTERESTS, getCode(StringColumn.INTERESTS, row))));
+        profile.setBehavior(Arrays.asList(getTokens(StringColumn.BEHAVIOR, getCode(StringColumn.BEHAVIOR, row))));
+        return profile;
+    }
+
+    /**
+     * Rows matching a compiled condition, evaluated with a single reusable row cursor
+     */
+    public RoaringBitmap select(ConditionEvaluator condition, long nowMillis) {
+        RoaringBitmap result = new RoaringBitmap();
+        Row cursor = new Row();
+        for (int row = 0; row < rowCount; row++) {
+            cursor.moveTo(row);
+            if (condition.evaluate(cursor, nowMillis)) {
+                result.add(row);
+            }
+        }
+        result.runOptimize();
+        return result;
+    }
+
+    /**
+     * New flyweight cursor over this store
+     */
+    public Row cursor() {
+        return new Row();
+    }
+
+    /**
+     * Take a reference that keeps the store open
+     * @return false when the store has already been closed
+     */
+    public boolean retain() {
+        while (true) {
+            int count = references.get();
+            if (count == 0) {
+                return false;
+            }
+            if (references.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Drop a reference taken with {@link #retain()}
+     */
+    public void release() {
+        if (references.decrementAndGet() == 0) {
+            try {
+                idData.close();
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to close profile store " + directory, e);
+            }
+        }
+    }
+
+    /**
+     * Drop the owner's reference; the files are closed once readers holding a reference release it
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed.compareAndSet(false, true)) {
+            release();
+        }
+    }
+
+    /**
+     * Row Cursor
+     * Flyweight {@link CustomerRecord} positioned on one row; reading attributes does not materialize the row
+     */
+    public class Row implements CustomerRecord {
+        private int row;
+
+        public Row moveTo(int row) {
+            this.row = row;
+            return this;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        @Override
+        public double getNumber(String attribute) {
+            switch (attribute) {
+                case "age": {
+                    int value = getAge(row);
+                    return value < 0 ? Double.NaN : value;
+                }
+                case "spend":
+                    return getSpend(row);
+                case "engagementScore":
+                case "engagement":
+                    return getEngagement(row);
+                default:
+                    return Double.NaN;
+            }
+        }
+
+        @Override
+        public String getString(String attribute) {
+            switch (attribute) {
+                case "location":
+                    return ColumnarProfileStore.this.getString(StringColumn.LOCATION, row);
+                case "occupation":
+                    return ColumnarProfileStore.this.getString(StringColumn.OCCUPATION, row);
+                case "interests":
+                    return ColumnarProfileStore.this.getString(StringColumn.INTERESTS, row);
+                case "behavior":
+                    return ColumnarProfileStore.this.getString(StringColumn.BEHAVIOR, row);
+                case "id":
+                    return getId(row);
+                default:
+                    return null;
+            }
+        }
+
+        @Override
+        public boolean hasValue(String attribute, String value) {
+            switch (attribute) {
+                case "location":
+                    return hasToken(StringColumn.LOCATION, value);
+                case "occupation":
+                    return hasToken(StringColumn.OCCUPATION, value);
+                case "interests":
+                    return hasToken(StringColumn.INTERESTS, value);
+                case "behavior":
+                    return hasToken(StringColumn.BEHAVIOR, value);
+                default:
+                    return CustomerRecord.super.hasValue(attribute, value);
+            }
+        }
+
+        @Override
+        public boolean isInSegment(String segment) {
+            return hasToken(StringColumn.INTERESTS, segment) || hasToken(StringColumn.BEHAVIOR, segment);
+        }
+
+        private boolean hasToken(StringColumn column, String value) {
+            int code = getCode(column, row);
+            if (code == StringDictionary.NULL_CODE) {
+                return false;
+            }
+            for (String token : tokens[column.ordinal()][code]) {
+                if (token.equalsIgnoreCase(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public long getLastEventTime(String eventType) {
+            return Long.MIN_VALUE;
+        }
+
+        @Override
+        public long getEventCount(String eventType) {
+            return 0L;
+        }
+    }
+}
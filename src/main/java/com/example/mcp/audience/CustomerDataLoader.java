@@ -0,0 +1,213 @@
+package com.example.mcp.audience;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Customer Data Loader
+ * Loads customer profiles from CSV (with a header row) or JSON Lines files.
+ *
+ * Known columns: id, age, location, occupation, interests, behavior, spend, engagementScore.
+ * Multi-valued columns (interests, behavior) use "|" or ";" as separator in CSV and may be arrays in JSON.
+ * Any other column is kept as an additional categorical attribute.
+ */
+@Component
+public class CustomerDataLoader {
+
+    private final ObjectMapper objectMapper;
+
+    public CustomerDataLoader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Load profiles, choosing the format from the file extension (.csv, otherwise JSON Lines)
+     */
+    public List<CustomerProfile> load(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".csv") ? loadCsv(file) : loadJsonLines(file);
+    }
+
+    public List<CustomerProfile> loadCsv(Path file) throws IOException {
+        List<CustomerProfile> profiles = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                return profiles;
+            }
+            String[] header = parseCsvHeader(headerLine);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                CustomerProfile profile = parseCsvRecord(header, line);
+                finish(profile, profiles.size());
+                profiles.add(profile);
+            }
+        }
+        return profiles;
+    }
+
+    public List<CustomerProfile> loadJsonLines(Path file) throws IOException {
+        List<CustomerProfile> profiles = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                CustomerProfile profile = parseJsonRecord(line);
+                finish(profile, profiles.size());
+                profiles.add(profile);
+            }
+        }
+        return profiles;
+    }
+
+    /**
+     * Split a CSV header row into trimmed column names
+     */
+    public String[] parseCsvHeader(String headerLine) {
+        return parseCsvLine(headerLine).stream().map(String::trim).toArray(String[]::new);
+    }
+
+    /**
+     * Parse one CSV data row; the id stays null when the file has no id column
+     */
+    public CustomerProfile parseCsvRecord(String[] header, String line) {
+        List<String> cells = parseCsvLine(line);
+        CustomerProfile profile = new CustomerProfile();
+        for (int i = 0; i < header.length && i < cells.size(); i++) {
+            applyField(profile, header[i], cells.get(i));
+        }
+        return profile;
+    }
+
+    /**
+     * Parse one JSON Lines record; the id stays null when the record has no id field
+     */
+    public CustomerProfile parseJsonRecord(String line) throws IOException {
+        JsonNode node = objectMapper.readTree(line);
+        CustomerProfile profile = new CustomerProfile();
+        for (Map.Entry<String, JsonNode> field : node.properties()) {
+            JsonNode value = field.getValue();
+            if (value.isArray()) {
+                List<String> values = new ArrayList<>();
+                value.forEach(item -> values.add(item.asText()));
+                applyField(profile, field.getKey(), String.join("|", values));
+            } else if (!value.isNull()) {
+                applyField(profile, field.getKey(), value.asText());
+            }
+        }
+        return profile;
+    }
+
+    static void applyField(CustomerProfile profile, String column, String rawValue) {
+        String value = rawValue == null ? "" : rawValue.trim();
+        if (value.isEmpty()) {
+            return;
+        }
+        switch (column) {
+            case "id":
+                profile.setId(value);
+                break;
+            case "age":
+                profile.setAge(parseInteger(value));
+                break;
+            case "location":
+                profile.setLocation(value);
+                break;
+            case "occupation":
+                profile.setOccupation(value);
+                break;
+            case "interests":
+                profile.setInterests(splitMultiValue(value));
+                break;
+            case "behavior":
+                profile.setBehavior(splitMultiValue(value));
+                break;
+            case "spend":
+                profile.setSpend(parseDouble(value));
+                break;
+            case "engagementScore":
+            case "engagement":
+                profile.setEngagementScore(parseDouble(value));
+                break;
+            default:
+                profile.getAttributes().put(column, value);
+        }
+    }
+
+    static List<String> splitMultiValue(String value) {
+        return Arrays.stream(value.split("[|;]"))
+            .map(String::trim)
+            .filter(item -> !item.isEmpty())
+            .toList();
+    }
+
+    private static void finish(CustomerProfile profile, int rowNumber) {
+        if (profile.getId() == null) {
+            profile.setId(String.valueOf(rowNumber));
+        }
+    }
+
+    private static Integer parseInteger(String value) {
+        try {
+            return (int) Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Double parseDouble(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Split one CSV line, honouring double-quoted cells with "" escapes
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        cells.add(current.toString());
+        return cells;
+    }
+}
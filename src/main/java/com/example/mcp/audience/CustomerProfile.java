@@ -0,0 +1,112 @@
+package com.example.mcp.audience;
+
+import com.example.mcp.condition.CustomerRecord;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Customer Profile
+ * A single customer of the audience dataset, matching the attributes used by SegmentConfig
+ */
+public class CustomerProfile implements CustomerRecord {
+
+    private String id;
+    private Integer age;
+    private String location;
+    private String occupation;
+    private List<String> interests = new ArrayList<>();
+    private List<String> behavior = new ArrayList<>();
+    private Double spend;
+    private Double engagementScore;
+    private Map<String, String> attributes = new HashMap<>(); // Additional categorical attributes
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public Integer getAge() { return age; }
+    public void setAge(Integer age) { this.age = age; }
+
+    public String getLocation() { return location; }
+    public void setLocation(String location) { this.location = location; }
+
+    public String getOccupation() { return occupation; }
+    public void setOccupation(String occupation) { this.occupation = occupation; }
+
+    public List<String> getInterests() { return interests; }
+    public void setInterests(List<String> interests) { this.interests = interests; }
+
+    public List<String> getBehavior() { return behavior; }
+    public void setBehavior(List<String> behavior) { this.behavior = behavior; }
+
+    public Double getSpend() { return spend; }
+    public void setSpend(Double spend) { this.spend = spend; }
+
+    public Double getEngagementScore() { return engagementScore; }
+    public void setEngagementScore(Double engagementScore) { this.engagementScore = engagementScore; }
+
+    public Map<String, String> getAttributes() { return attributes; }
+    public void setAttributes(Map<String, String> attributes) { this.attributes = attributes; }
+
+    // CustomerRecord view, so profiles can be routed through compiled conditions
+
+    @Override
+    public double getNumber(String attribute) {
+        switch (attribute) {
+            case "age":
+                return age != null ? age : Double.NaN;
+            case "spend":
+                return spend != null ? spend : Double.NaN;
+            case "engagementScore":
+                return engagementScore != null ? engagementScore : Double.NaN;
+            default:
+                String value = attributes.get(attribute);
+                if (value == null) {
+                    return Double.NaN;
+                }
+                try {
+                    return Double.parseDouble(value);
+                } catch (NumberFormatException e) {
+                    return Double.NaN;
+                }
+        }
+    }
+
+    @Override
+    public String getString(String attribute) {
+        switch (attribute) {
+            case "id":
+                return id;
+            case "location":
+                return location;
+            case "occupation":
+                return occupation;
+            default:
+                return attributes.get(attribute);
+        }
+    }
+
+    @Override
+    public boolean isInSegment(String segment) {
+        return interests.contains(segment) || behavior.contains(segment);
+    }
+
+    @Override
+    public long getLastEventTime(String eventType) {
+        return Long.MIN_VALUE;
+    }
+
+    @Override
+    public long getEventCount(String eventType) {
+        return 0L;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CustomerProfile{id='%s', age=%s, location='%s', occupation='%s'}",
+            id, age, location, occupation);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.mcp.audience;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Data Paths
+ * Resolves file names supplied by API callers against a configured root directory. Paths that normalize
+ * outside the root, directly or through a symbolic link, are rejected.
+ */
+public final class DataPaths {
+
+    private DataPaths() {
+    }
+
+    /**
+     * Resolve an existing regular file under the root; relative names are taken relative to the root
+     */
+    public static Path resolveFile(Path root, String requested) throws IOException {
+        if (requested == null || requested.isBlank()) {
+            throw new IllegalArgumentException("File name is required");
+        }
+        Path base = root.toAbsolutePath().normalize();
+        Path resolved = base.resolve(requested).normalize();
+        if (!resolved.startsWith(base)) {
+            throw new IllegalArgumentException("File must be inside the configured data directory");
+        }
+        if (!Files.isRegularFile(resolved)) {
+            throw new IllegalArgumentException("File not found in the configured data directory");
+        }
+        if (!resolved.toRealPath().startsWith(base.toRealPath())) {
+            throw new IllegalArgumentException("File must be inside the configured data directory");
+        }
+        return resolved;
+    }
+}
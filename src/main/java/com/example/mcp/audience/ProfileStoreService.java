@@ -0,0 +1,210 @@
+package com.example.mcp.audience;
+
+import com.example.mcp.condition.ConditionEvaluationService;
+import com.example.mcp.condition.ConditionEvaluator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Profile Store Service
+ * Owns the memory-mapped customer profile store and feeds it to segment resolution and journey conditions
+ */
+@Service
+public class ProfileStoreService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfileStoreService.class);
+
+    @Autowired
+    private CustomerDataLoader dataLoader;
+
+    @Autowired
+    private AudienceSegmentService audienceSegmentService;
+
+    @Autowired
+    private ConditionEvaluationService conditionEvaluationService;
+
+    @Value("${campaign.profile-store.directory:}")
+    private String storeDirectory;
+
+    @Value("${campaign.profile-store.import-directory:data}")
+    private String importDirectory;
+
+    @Value("${campaign.profile-store.load-threads:0}")
+    private int loadThreads;
+
+    private volatile ColumnarProfileStore store;
+
+    @PostConstruct
+    public void init() {
+        if (storeDirectory == null || storeDirectory.isBlank()) {
+            return;
+        }
+        Path directory = Path.of(storeDirectory);
+        if (!ColumnarProfileStore.exists(directory)) {
+            return;
+        }
+        try {
+            open(directory);
+        } catch (Exception e) {
+            log.warn("Profile store not opened from {}: {}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * Bulk load a CSV or JSON Lines file from the import directory into the configured store directory
+     * and switch segment resolution to it
+     */
+    public synchronized Map<String, Object> importFile(String sourcePath) throws IOException {
+        if (storeDirectory == null || storeDirectory.isBlank()) {
+            throw new IllegalArgumentException("No profile store directory configured");
+        }
+        Path source = DataPaths.resolveFile(Path.of(importDirectory), sourcePath);
+        Path directory = Path.of(storeDirectory).toAbsolutePath().normalize();
+
+        // Build into a staging directory and rename the files into place afterwards: mappings held by the
+        // current store keep pointing at the old files, so readers never see a truncated column
+        Path staging = directory.resolveSibling(directory.getFileName() + ".loading");
+        int threads = loadThreads > 0 ? loadThreads : Runtime.getRuntime().availableProcessors();
+        Map<String, Object> stats = new ProfileStoreWriter(dataLoader, threads).write(source, staging);
+        publish(staging, directory);
+        stats.putAll(open(directory));
+        return stats;
+    }
+
+    private static void publish(Path staging, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Files.deleteIfExists(directory.resolve(ColumnarProfileStore.META_FILE));
+        List<Path> files;
+        try (var stream = Files.list(staging)) {
+            files = stream.toList();
+        }
+        for (Path file : files) {
+            if (!file.getFileName().toString().equals(ColumnarProfileStore.META_FILE)) {
+                Files.move(file, directory.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(staging.resolve(ColumnarProfileStore.META_FILE), directory.resolve(ColumnarProfileStore.META_FILE),
+            StandardCopyOption.REPLACE_EXISTING);
+        Files.delete(staging);
+    }
+
+    /**
+     * Open a store and rebuild the audience index from its columns. The previous store is retired:
+     * it stays open until in-flight selections and member listings holding a reference finish.
+     */
+    public synchronized Map<String, Object> open(Path directory) throws IOException {
+        long start = System.nanoTime();
+        ColumnarProfileStore opened = ColumnarProfileStore.open(directory);
+        AudienceIndex index = AudienceIndex.fromStore(opened);
+        ColumnarProfileStore previous = this.store;
+        this.store = opened;
+        audienceSegmentService.useIndex(index, directory.toString());
+        if (previous != null) {
+            previous.close();
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("directory", directory.toString());
+        result.put("rows", opened.getRowCount());
+        result.put("indexBuildMs", (System.nanoTime() - start) / 1_000_000.0);
+        result.put("indexBytes", index.getSizeInBytes());
+        return result;
+    }
+
+    /**
+     * Count and sample the customers matching a condition expression, e.g. for journey entry criteria
+     */
+    public Map<String, Object> select(String expression, int limit) {
+        ConditionEvaluator condition = conditionEvaluationService.compile(expression);
+        ColumnarProfileStore current = retainStore();
+        try {
+            return select(current, condition, expression, limit);
+        } finally {
+            current.release();
+        }
+    }
+
+    private Map<String, Object> select(ColumnarProfileStore current, ConditionEvaluator condition, String expression,
+                                       int limit) {
+        long start = System.nanoTime();
+        RoaringBitmap rows = current.select(condition, System.currentTimeMillis());
+        long elapsed = System.nanoTime() - start;
+
+        List<Map<String, Object>> sample = new ArrayList<>();
+        IntIterator iterator = rows.getIntIterator();
+        while (iterator.hasNext() && sample.size() < limit) {
+            CustomerProfile profile = current.materialize(iterator.next());
+            Map<String, Object> item = new HashMap<>();
+            item.put("id", profile.getId());
+            item.put("age", profile.getAge());
+            item.put("location", profile.getLocation());
+            item.put("occupation", profile.getOccupation());
+            item.put("interests", profile.getInterests());
+            item.put("spend", profile.getSpend());
+            sample.add(item);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("expression", expression);
+        result.put("count", rows.getCardinality());
+        result.put("totalCustomers", current.getRowCount());
+        result.put("sample", sample);
+        result.put("scanMs", elapsed / 1_000_000.0);
+        return result;
+    }
+
+    public Map<String, Object> getStatus() {
+        ColumnarProfileStore current = store;
+        Map<String, Object> status = new HashMap<>();
+        status.put("open", current != null);
+        status.put("directory", current != null ? current.getDirectory().toString() : storeDirectory);
+        status.put("rows", current != null ? current.getRowCount() : 0);
+        return status;
+    }
+
+    public ColumnarProfileStore getStore() {
+        return store;
+    }
+
+    /**
+     * Current store with a reference taken; the caller releases it
+     */
+    private ColumnarProfileStore retainStore() {
+        while (true) {
+            ColumnarProfileStore current = store;
+            if (current == null) {
+                throw new IllegalStateException("Profile store not loaded");
+            }
+            if (current.retain()) {
+                return current;
+            }
+            if (store == current) {
+                throw new IllegalStateException("Profile store is closed");
+            }
+        }
+    }
+
+    @PreDestroy
+    public synchronized void closeStore() throws IOException {
+        if (store != null) {
+            store.close();
+            store = null;
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package com.example.mcp.audience;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Profile Store Writer
+ * Bulk loads a CSV or JSON Lines customer file into a {@link ColumnarProfileStore} directory in parallel.
+ *
+ * The input is split into line-aligned byte ranges. A first parallel pass counts the rows of every range,
+ * which fixes each range's row offset; a second parallel pass parses the ranges and writes straight into
+ * the memory-mapped column files at those offsets. Only the dictionaries and one range per worker live on
+ * the heap, so the load does not grow with the number of profiles.
+ * CSV cells must not contain line breaks.
+ */
+public class ProfileStoreWriter {
+
+    /** Largest row count whose id offset column still fits in one mapping */
+    public static final int MAX_ROWS = Integer.MAX_VALUE / Long.BYTES;
+
+    private static final long TARGET_CHUNK_BYTES = 32L * 1024 * 1024;
+
+    private final CustomerDataLoader loader;
+    private final int threads;
+
+    public ProfileStoreWriter(CustomerDataLoader loader, int threads) {
+        this.loader = loader;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Write a store for the given source file, replacing any store in the directory
+     * @return load statistics
+     */
+    public Map<String, Object> write(Path source, Path directory) throws IOException {
+        long start = System.nanoTime();
+        boolean csv = source.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv");
+        Files.createDirectories(directory);
+        Files.deleteIfExists(directory.resolve(ColumnarProfileStore.META_FILE));
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (FileChannel input = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = input.size();
+            String[] header = null;
+            long dataStart = 0;
+            if (csv) {
+                dataStart = alignToLineStart(input, 1, 0, size);
+                header = loader.parseCsvHeader(readRange(input, 0, dataStart).trim());
+            }
+            List<long[]> ranges = split(input, dataStart, size);
+
+            // Pass 1: count rows per range to fix row offsets
+            List<Future<Integer>> counts = new ArrayList<>();
+            for (long[] range : ranges) {
+                counts.add(executor.submit(() -> countLines(input, range[0], range[1])));
+            }
+            int[] rowBase = new int[ranges.size() + 1];
+            for (int i = 0; i < ranges.size(); i++) {
+                long next = (long) rowBase[i] + get(counts.get(i));
+                if (next > MAX_ROWS) {
+                    throw new IOException("Profile store supports at most " + MAX_ROWS + " rows");
+                }
+                rowBase[i + 1] = (int) next;
+            }
+            int rows = rowBase[ranges.size()];
+
+            // Pass 2: parse ranges and write columns at their row offsets
+            Columns columns = new Columns(directory, rows);
+            AtomicLong malformed = new AtomicLong();
+            String[] csvHeader = header;
+            List<Future<Long>> idBytes = new ArrayList<>();
+            for (int i = 0; i < ranges.size(); i++) {
+                long[] range = ranges.get(i);
+                int chunk = i;
+                idBytes.add(executor.submit(() -> writeRange(input, range[0], range[1], rowBase[chunk],
+                    csvHeader, columns, directory.resolve("id.dat.part" + chunk), malformed)));
+            }
+
+            // Concatenate id parts and rebase the chunk-local id offsets
+            long idBase = 0;
+            try (FileChannel idData = FileChannel.open(directory.resolve("id.dat"), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (int i = 0; i < ranges.size(); i++) {
+                    long chunkBytes = get(idBytes.get(i));
+                    Path part = directory.resolve("id.dat.part" + i);
+                    try (FileChannel partChannel = FileChannel.open(part, StandardOpenOption.READ)) {
+                        long transferred = 0;
+                        while (transferred < chunkBytes) {
+                            transferred += partChannel.transferTo(transferred, chunkBytes - transferred, idData);
+                        }
+                    }
+                    Files.delete(part);
+                    for (int row = rowBase[i]; row < rowBase[i + 1]; row++) {
+                        columns.idOffsets.putLong(row * 8, columns.idOffsets.getLong(row * 8) + idBase);
+                    }
+                    idBase += chunkBytes;
+                }
+            }
+
+            columns.finish();
+            Properties meta = new Properties();
+            meta.setProperty("version", String.valueOf(ColumnarProfileStore.FORMAT_VERSION));
+            meta.setProperty("rows", String.valueOf(rows));
+            meta.setProperty("source", source.toString());
+            try (OutputStream out = Files.newOutputStream(directory.resolve(ColumnarProfileStore.META_FILE))) {
+                meta.store(out, "Columnar profile store");
+            }
+
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("rows", rows);
+            stats.put("malformedRows", malformed.get());
+            stats.put("chunks", ranges.size());
+            stats.put("threads", threads);
+            stats.put("sourceBytes", size);
+            stats.put("elapsedMs", (System.nanoTime() - start) / 1_000_000.0);
+            return stats;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long writeRange(FileChannel input, long from, long to, int firstRow, String[] header, Columns columns,
+                            Path idPart, AtomicLong malformed) throws IOException {
+        ByteBuffer age = columns.age.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer spend = columns.spend.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer engagement = columns.engagement.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer idOffsets = columns.idOffsets.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer[] codes = new ByteBuffer[columns.codes.length];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = columns.codes[i].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        long[] idLength = {0};
+        try (OutputStream ids = new BufferedOutputStream(Files.newOutputStream(idPart))) {
+            int[] row = {firstRow};
+            forEachLine(input, from, to, line -> {
+                CustomerProfile profile;
+                try {
+                    profile = header != null ? loader.parseCsvRecord(header, line) : loader.parseJsonRecord(line);
+                } catch (Exception e) {
+                    malformed.incrementAndGet();
+                    profile = new CustomerProfile();
+                }
+                int r = row[0]++;
+                age.putInt(r * 4, profile.getAge() != null ? profile.getAge() : -1);
+                spend.putFloat(r * 4, profile.getSpend() != null ? profile.getSpend().floatValue() : Float.NaN);
+                engagement.putFloat(r * 4, profile.getEngagementScore() != null
+                    ? profile.getEngagementScore().floatValue() : Float.NaN);
+                putCode(codes, columns, ColumnarProfileStore.StringColumn.LOCATION, r, profile.getLocation());
+                putCode(codes, columns, ColumnarProfileStore.StringColumn.OCCUPATION, r, profile.getOccupation());
+                putCode(codes, columns, ColumnarProfileStore.StringColumn.INTERESTS, r, String.join("|", profile.getInterests()));
+                putCode(codes, columns, ColumnarProfileStore.StringColumn.BEHAVIOR, r, String.join("|", profile.getBehavior()));
+
+                byte[] id = (profile.getId() != null ? profile.getId() : String.valueOf(r)).getBytes(StandardCharsets.UTF_8);
+                ids.write(id);
+                idLength[0] += id.length;
+                idOffsets.putLong(r * 8, idLength[0]);
+            });
+        }
+        return idLength[0];
+    }
+
+    private static void putCode(ByteBuffer[] codes, Columns columns, ColumnarProfileStore.StringColumn column,
+                                int row, String value) {
+        int i = column.ordinal();
+        codes[i].putInt(row * 4, columns.dictionaries[i].encode(value));
+    }
+
+    /**
+     * Split [from, to) into line-aligned ranges of roughly equal size
+     */
+    private List<long[]> split(FileChannel input, long from, long to) throws IOException {
+        long length = to - from;
+        int count = (int) Math.max(threads * 4L, (length + TARGET_CHUNK_BYTES - 1) / TARGET_CHUNK_BYTES);
+        long step = Math.max(1, length / count);
+        List<long[]> ranges = new ArrayList<>();
+        long start = from;
+        for (int i = 1; i <= count && start < to; i++) {
+            long end = i == count ? to : alignToLineStart(input, from + i * step, from, to);
+            if (end > start) {
+                ranges.add(new long[]{start, end});
+                start = end;
+            }
+        }
+        if (start < to) {
+            ranges.add(new long[]{start, to});
+        }
+        return ranges;
+    }
+
+    /**
+     * First line start at or after position (the position itself when it follows a line break)
+     */
+    private static long alignToLineStart(FileChannel input, long position, long lowerBound, long size) throws IOException {
+        if (position <= lowerBound) {
+            return lowerBound;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long offset = position - 1;
+        while (offset < size) {
+            buffer.clear();
+            int read = input.read(buffer, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    private static String readRange(FileChannel input, long from, long to) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (to - from));
+        while (buffer.hasRemaining() && input.read(buffer, from + buffer.position()) > 0) {
+            // keep reading
+        }
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+    }
+
+    private interface LineVisitor {
+        void visit(String line) throws IOException;
+    }
+
+    private static int countLines(FileChannel input, long from, long to) throws IOException {
+        int[] count = {0};
+        scanLines(input, from, to, null, count);
+        return count[0];
+    }
+
+    private static void forEachLine(FileChannel input, long from, long to, LineVisitor visitor) throws IOException {
+        scanLines(input, from, to, visitor, new int[1]);
+    }
+
+    /**
+     * Visit the non-blank lines of a range; both passes use this so their row counts agree
+     */
+    private static void scanLines(FileChannel input, long from, long to, LineVisitor visitor, int[] count) throws IOException {
+        if (to <= from) {
+            return;
+        }
+        MappedByteBuffer region = input.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        byte[] scratch = new byte[4096];
+        int lineStart = 0;
+        int limit = region.limit();
+        for (int i = 0; i <= limit; i++) {
+            if (i < limit && region.get(i) != '\n') {
+                continue;
+            }
+            int lineEnd = i;
+            while (lineEnd > lineStart && region.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            if (!isBlank(region, lineStart, lineEnd)) {
+                count[0]++;
+                if (visitor != null) {
+                    int length = lineEnd - lineStart;
+                    if (scratch.length < length) {
+                        scratch = new byte[Math.max(length, scratch.length * 2)];
+                    }
+                    region.get(lineStart, scratch, 0, length);
+                    visitor.visit(new String(scratch, 0, length, StandardCharsets.UTF_8));
+                }
+            }
+            lineStart = i + 1;
+        }
+    }
+
+    private static boolean isBlank(ByteBuffer region, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = region.get(i);
+            if (b != ' ' && b != '\t' && b != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <T> T get(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Profile store load interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Profile store load failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Writable column mappings of a store being built
+     */
+    private static final class Columns {
+        final Path directory;
+        final MappedByteBuffer age;
+        final MappedByteBuffer spend;
+        final MappedByteBuffer engagement;
+        final MappedByteBuffer idOffsets;
+        final MappedByteBuffer[] codes = new MappedByteBuffer[ColumnarProfileStore.StringColumn.values().length];
+        final StringDictionary[] dictionaries = new StringDictionary[ColumnarProfileStore.StringColumn.values().length];
+
+        Columns(Path directory, int rows) throws IOException {
+            this.directory = directory;
+            this.age = create(directory.resolve("age.i32"), rows * 4L);
+            this.spend = create(directory.resolve("spend.f32"), rows * 4L);
+            this.engagement = create(directory.resolve("engagement.f32"), rows * 4L);
+            this.idOffsets = create(directory.resolve("id.off"), rows * 8L);
+            for (ColumnarProfileStore.StringColumn column : ColumnarProfileStore.StringColumn.values()) {
+                codes[column.ordinal()] = create(directory.resolve(column.getColumnName() + ".i32"), rows * 4L);
+                dictionaries[column.ordinal()] = new StringDictionary();
+            }
+        }
+
+        private static MappedByteBuffer create(Path file, long bytes) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                return buffer;
+            }
+        }
+
+        void finish() throws IOException {
+            age.force();
+            spend.force();
+            engagement.force();
+            idOffsets.force();
+            for (ColumnarProfileStore.StringColumn column : ColumnarProfileStore.StringColumn.values()) {
+                codes[column.ordinal()].force();
+                dictionaries[column.ordinal()].write(directory.resolve(column.getColumnName() + ".dict"));
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.mcp.audience;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Segment Resolution
+ * Result of resolving a SegmentConfig against the audience index
+ */
+public class SegmentResolution {
+
+    private final RoaringBitmap members;
+    private final int totalCustomers;
+    private final Map<String, Integer> attributeCounts;
+    private final Map<String, List<String>> unresolvedValues;
+    private final long elapsedNanos;
+
+    public SegmentResolution(RoaringBitmap members, int totalCustomers, Map<String, Integer> attributeCounts,
+                             Map<String, List<String>> unresolvedValues, long elapsedNanos) {
+        this.members = members;
+        this.totalCustomers = totalCustomers;
+        this.attributeCounts = attributeCounts;
+        this.unresolvedValues = unresolvedValues;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    // Getters
+    public RoaringBitmap getMembers() { return members; }
+    public int getCount() { return members.getCardinality(); }
+    public int getTotalCustomers() { return totalCustomers; }
+    public Map<String, Integer> getAttributeCounts() { return attributeCounts; }
+    public Map<String, List<String>> getUnresolvedValues() { return unresolvedValues; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    /**
+     * Preview map for REST responses and recommendation payloads
+     */
+    public Map<String, Object> toPreview() {
+        Map<String, Object> preview = new HashMap<>();
+        preview.put("estimatedReach", getCount());
+        preview.put("totalCustomers", totalCustomers);
+        preview.put("reachRatio", totalCustomers == 0 ? 0.0 : (double) getCount() / totalCustomers);
+        preview.put("attributeCounts", attributeCounts);
+        preview.put("unresolvedValues", unresolvedValues);
+        preview.put("elapsedMs", elapsedNanos / 1_000_000.0);
+        return preview;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.mcp.audience;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * String Dictionary
+ * Dictionary encoding for low-cardinality string columns. Code -1 means "no value".
+ * Encoding is thread-safe so that parallel loaders can share one dictionary per column.
+ */
+public class StringDictionary {
+
+    public static final int NULL_CODE = -1;
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private final AtomicInteger nextCode = new AtomicInteger();
+    private volatile String[] values;
+
+    public StringDictionary() {
+        this.values = new String[0];
+    }
+
+    private StringDictionary(String[] values) {
+        this.values = values;
+        for (int i = 0; i < values.length; i++) {
+            codes.put(values[i], i);
+        }
+        nextCode.set(values.length);
+    }
+
+    /**
+     * Code for a value, assigning a new code on first use
+     */
+    public int encode(String value) {
+        if (value == null || value.isEmpty()) {
+            return NULL_CODE;
+        }
+        return codes.computeIfAbsent(value, key -> nextCode.getAndIncrement());
+    }
+
+    /**
+     * Code for a value without assigning one
+     * @return the code, or {@link #NULL_CODE} when the value is unknown
+     */
+    public int lookup(String value) {
+        Integer code = value == null ? null : codes.get(value);
+        return code == null ? NULL_CODE : code;
+    }
+
+    public String decode(int code) {
+        String[] current = values;
+        if (code == NULL_CODE) {
+            return null;
+        }
+        if (code >= current.length) {
+            current = freeze();
+        }
+        return current[code];
+    }
+
+    public int size() {
+        return nextCode.get();
+    }
+
+    /**
+     * Build the code-ordered value array once all values are encoded
+     */
+    public synchronized String[] freeze() {
+        if (values.length != nextCode.get()) {
+            String[] ordered = new String[nextCode.get()];
+            codes.forEach((value, code) -> ordered[code] = value);
+            values = ordered;
+        }
+        return values;
+    }
+
+    public void write(Path file) throws IOException {
+        String[] ordered = freeze();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(ordered.length);
+            for (String value : ordered) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+
+    public static StringDictionary read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            String[] values = new String[in.readInt()];
+            for (int i = 0; i < values.length; i++) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                values[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return new StringDictionary(values);
+        }
+    }
+}
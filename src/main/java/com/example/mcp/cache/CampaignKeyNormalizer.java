@@ -0,0 +1,95 @@
+package com.example.mcp.cache;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Campaign Key Normalizer
+ * Canonical form of the campaign parameters recommendations depend on, so differently written requests for the
+ * same campaign share cache entries. Campaign types are lower-cased and mapped through
+ * campaign.recommendation-cache.campaign-types (alias to canonical name); audiences become the sorted set of
+ * their words without filler words and plural s; budgets fall into log-scale bands of one power of two.
+ */
+@Component
+public class CampaignKeyNormalizer {
+
+    private static final Set<String> AUDIENCE_FILLER = Set.of(
+        "a", "an", "the", "and", "or", "of", "for", "in", "on", "at", "to", "with", "who", "that", "are", "is",
+        "people", "users", "的", "和", "人群", "用户");
+
+    @Autowired
+    private Environment environment;
+
+    private Map<String, String> campaignTypes = Map.of();
+
+    public record CampaignKey(String campaignType, String audience, String budgetBand) {
+        @Override
+        public String toString() {
+            return campaignType + '|' + audience + '|' + budgetBand;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        Map<String, String> aliases = new HashMap<>();
+        Binder.get(environment)
+            .bind("campaign.recommendation-cache.campaign-types", Bindable.mapOf(String.class, String.class))
+            .orElse(Map.of())
+            .forEach((alias, canonical) -> aliases.put(clean(alias), clean(canonical)));
+        campaignTypes = aliases;
+    }
+
+    public CampaignKey key(String campaignType, String targetAudience, Double budget) {
+        return new CampaignKey(campaignType(campaignType), audience(targetAudience), budgetBand(budget));
+    }
+
+    public String campaignType(String campaignType) {
+        String cleaned = clean(campaignType);
+        return campaignTypes.getOrDefault(cleaned, cleaned);
+    }
+
+    public String audience(String targetAudience) {
+        Set<String> words = new TreeSet<>();
+        for (String word : clean(targetAudience).split(" ")) {
+            if (word.isEmpty() || AUDIENCE_FILLER.contains(word)) {
+                continue;
+            }
+            words.add(word.length() > 3 && word.endsWith("s") && !word.endsWith("ss")
+                ? word.substring(0, word.length() - 1) : word);
+        }
+        return String.join(" ", words);
+    }
+
+    /**
+     * Log-scale budget band: budgets within the same power of two share a band, e.g. "4096-8192"
+     */
+    public static String budgetBand(Double budget) {
+        if (budget == null || budget <= 0) {
+            return "unknown";
+        }
+        int exponent = Math.getExponent(Math.max(budget, 1.0));
+        return (1L << exponent) + "-" + (1L << (exponent + 1));
+    }
+
+    public Map<String, String> getCampaignTypes() {
+        return campaignTypes;
+    }
+
+    private static String clean(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.toLowerCase(Locale.ROOT)
+            .replaceAll("[\\p{Punct}\\p{IsPunctuation}\\s]+", " ").trim();
+    }
+}
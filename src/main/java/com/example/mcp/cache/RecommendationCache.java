@@ -0,0 +1,196 @@
+package com.example.mcp.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Recommendation Cache
+ * Node recommendations (segment, strategy, emailTemplate, condition, customerJourney) cached separately per kind
+ * under normalized campaign parameters, see {@link CampaignKeyNormalizer}. A node that depends on upstream
+ * configurations is keyed on their fingerprints too, so a cached segment fed into a fresh strategy call makes
+ * that strategy cacheable, while a changed segment gets a strategy of its own. Fingerprints ignore keys that
+ * describe how a configuration was produced (reasoning, reach, retrieval, cache). Concurrent misses for the
+ * same key share one generation; failed generations are not cached, and callers that waited on one generate
+ * the value themselves.
+ */
+@Component
+public class RecommendationCache {
+
+    /** Keys describing how a configuration was produced rather than what it is; also dropped when one is reused */
+    public static final List<String> TRANSIENT_KEYS = List.of("reasoning", "reach", "retrieval", "cache");
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${campaign.recommendation-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${campaign.recommendation-cache.ttl:6h}")
+    private Duration ttl;
+
+    /** Entries per kind; when full, expired entries and then the oldest are dropped */
+    @Value("${campaign.recommendation-cache.capacity:5000}")
+    private int capacity;
+
+    private final Map<String, Kind> kinds = new ConcurrentHashMap<>();
+
+    /**
+     * The cached recommendation for this key and these upstream configurations, or a newly generated one.
+     * Hits are returned as copies with a "cache" entry describing the hit.
+     * @param upstream configurations the recommendation was generated from, in a fixed order
+     */
+    public Map<String, Object> getOrGenerate(String kind, Object key, List<Map<String, Object>> upstream,
+                                             Supplier<Map<String, Object>> generator) {
+        if (!enabled) {
+            return generator.get();
+        }
+        StringBuilder fullKey = new StringBuilder(String.valueOf(key));
+        for (Map<String, Object> configuration : upstream) {
+            fullKey.append('|').append(fingerprint(configuration));
+        }
+        return kinds.computeIfAbsent(kind, name -> new Kind())
+            .get(fullKey.toString(), !upstream.isEmpty() && upstream.stream().allMatch(configuration -> configuration.containsKey("cache")),
+                generator);
+    }
+
+    public void invalidateAll() {
+        kinds.values().forEach(kind -> kind.entries.clear());
+    }
+
+    /**
+     * Entries, hits, misses and misses served from cached upstream nodes per kind
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> perKind = new TreeMap<>();
+        kinds.forEach((name, kind) -> perKind.put(name, kind.stats()));
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ttlSeconds", ttl.toSeconds());
+        stats.put("kinds", perKind);
+        return stats;
+    }
+
+    /**
+     * Short hash of the configuration without its transient keys, independent of map order
+     */
+    String fingerprint(Map<String, Object> configuration) {
+        Map<String, Object> stable = new TreeMap<>(configuration);
+        TRANSIENT_KEYS.forEach(stable::remove);
+        try {
+            byte[] json = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS).writeValueAsBytes(stable);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json), 0, 8);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            return Integer.toHexString(stable.toString().hashCode());
+        }
+    }
+
+    private final class Kind {
+        private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong upstreamHits = new AtomicLong();
+
+        Map<String, Object> get(String key, boolean upstreamCached, Supplier<Map<String, Object>> generator) {
+            long now = System.currentTimeMillis();
+            CompletableFuture<Map<String, Object>> generation = new CompletableFuture<>();
+            Entry entry = entries.compute(key, (k, existing) ->
+                existing != null && !existing.isExpired(now) ? existing : new Entry(generation, now));
+            if (entry.future != generation) {
+                // Cached, or another caller (possibly a prefetch) is generating it; if that generation fails or
+                // is cancelled, its entry is already gone and this caller generates instead
+                Map<String, Object> shared = await(entry);
+                if (shared == null) {
+                    return get(key, upstreamCached, generator);
+                }
+                hits.incrementAndGet();
+                shared.put("cache", Map.of("hit", true, "key", key, "ageSeconds", (System.currentTimeMillis() - entry.createdAt) / 1000));
+                return shared;
+            }
+            misses.incrementAndGet();
+            if (upstreamCached) {
+                upstreamHits.incrementAndGet();
+            }
+            try {
+                Map<String, Object> value = new HashMap<>(generator.get());
+                value.remove("cache");
+                generation.complete(Collections.unmodifiableMap(new HashMap<>(value)));
+                evictIfFull(now);
+                return value;
+            } catch (RuntimeException e) {
+                entries.remove(key, entry);
+                generation.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        private Map<String, Object> await(Entry entry) {
+            try {
+                return new HashMap<>(entry.future.join());
+            } catch (CompletionException | CancellationException e) {
+                return null;
+            }
+        }
+
+        private void evictIfFull(long now) {
+            if (entries.size() <= capacity) {
+                return;
+            }
+            entries.values().removeIf(entry -> entry.isExpired(now));
+            int excess = entries.size() - capacity;
+            if (excess > 0) {
+                entries.entrySet().stream()
+                    .sorted(Comparator.comparingLong(e -> e.getValue().createdAt))
+                    .limit(excess + capacity / 4)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(entries::remove);
+            }
+        }
+
+        Map<String, Object> stats() {
+            long total = hits.get() + misses.get();
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("entries", entries.size());
+            stats.put("hits", hits.get());
+            stats.put("misses", misses.get());
+            stats.put("hitRate", total == 0 ? 0.0 : (double) hits.get() / total);
+            stats.put("missesWithCachedUpstream", upstreamHits.get());
+            return stats;
+        }
+    }
+
+    private final class Entry {
+        private final CompletableFuture<Map<String, Object>> future;
+        private final long createdAt;
+
+        Entry(CompletableFuture<Map<String, Object>> future, long createdAt) {
+            this.future = future;
+            this.createdAt = createdAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - createdAt > ttl.toMillis();
+        }
+    }
+}
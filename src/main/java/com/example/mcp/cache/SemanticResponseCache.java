@@ -0,0 +1,378 @@
+package com.example.mcp.cache;
+
+import com.example.mcp.vector.HnswIndex;
+import com.example.mcp.vector.TextEmbedder;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Semantic Response Cache
+ * Two-tier cache for generated responses, kept per endpoint. The exact tier matches the normalized request
+ * text; the semantic tier embeds the request and serves the nearest cached request from an HNSW index when
+ * its cosine similarity reaches the endpoint's threshold (campaign.semantic-cache.thresholds, else threshold).
+ * A partition, e.g. the budget, must match exactly on both tiers. A semantic hit must also name the same
+ * subject: the words, numbers and CJK characters left after dropping filler and generic phrasing words
+ * ("create", "campaign", "products", "活动") must be the same, because requests for another product, audience
+ * or city ("life insurance" vs "car insurance", Shanghai vs Beijing) embed close to each other but need their
+ * own answer. Both checks are applied while walking the graph, so entries that fail them never crowd out a
+ * match. Storing a request that is already cached
+ * replaces its entry in place. Every sample-rate-th semantic hit is also regenerated in the background and
+ * compared with the cached answer, so the stats show whether the thresholds serve answers that agree with
+ * what the model would say now.
+ */
+@Component
+public class SemanticResponseCache {
+
+    private static final Logger log = LoggerFactory.getLogger(SemanticResponseCache.class);
+
+    private static final int EF_SEARCH = 64;
+
+    /** Words that phrase a request without changing its subject; the rest must match for a semantic hit */
+    private static final Set<String> PHRASING = Set.of(
+        "a", "an", "the", "for", "of", "to", "in", "on", "at", "with", "and", "by", "about", "our", "my", "me", "i",
+        "we", "us", "please", "can", "you", "could", "would", "want", "need", "create", "make", "build", "generate",
+        "design", "write", "give", "help", "some", "new", "campaign", "marketing", "product", "plan", "idea",
+        "一个", "帮我", "请", "我们", "我", "的", "为", "做", "创建", "生成", "设计", "需要", "想要", "产品", "活动",
+        "营销", "方案");
+
+    /** CJK phrasing words, longest first so "我们" is removed before "我" splits it */
+    private static final List<String> CJK_PHRASING = PHRASING.stream()
+        .filter(word -> Character.UnicodeScript.of(word.charAt(0)) == Character.UnicodeScript.HAN)
+        .sorted(Comparator.comparingInt(String::length).reversed())
+        .toList();
+
+    @Autowired
+    private TextEmbedder embedder;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    @Qualifier("llmExecutor")
+    private ExecutorService llmExecutor;
+
+    @Value("${campaign.semantic-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${campaign.semantic-cache.threshold:0.85}")
+    private double defaultThreshold;
+
+    @Value("${campaign.semantic-cache.capacity:2000}")
+    private int capacity;
+
+    @Value("${campaign.semantic-cache.ttl:6h}")
+    private Duration ttl;
+
+    /** 0 disables hit-quality sampling */
+    @Value("${campaign.semantic-cache.sample-rate:20}")
+    private int sampleRate;
+
+    /** Sampled answers less similar than this to the cached one count as low agreement */
+    @Value("${campaign.semantic-cache.min-agreement:0.7}")
+    private double minAgreement;
+
+    private Map<String, Double> thresholds = Map.of();
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        thresholds = Binder.get(environment)
+            .bind("campaign.semantic-cache.thresholds", Bindable.mapOf(String.class, Double.class))
+            .orElse(Map.of());
+    }
+
+    public record Hit(String value, String tier, double similarity, String matchedRequest) { }
+
+    /**
+     * The cached response for this request, if an exact or close enough one exists
+     */
+    public Optional<Hit> lookup(String endpoint, String partition, String request) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return endpoint(endpoint).lookup(partition, request);
+    }
+
+    /**
+     * Serve from the cache or generate and store; blank or null results are not cached
+     * @return the hit, or a miss wrapping the generated value
+     */
+    public Hit getOrGenerate(String endpoint, String partition, String request, Supplier<String> generator) {
+        Optional<Hit> hit = lookup(endpoint, partition, request);
+        if (hit.isPresent()) {
+            if (hit.get().tier().equals("semantic")) {
+                sample(endpoint, hit.get(), generator);
+            }
+            return hit.get();
+        }
+        String value = generator.get();
+        put(endpoint, partition, request, value);
+        return new Hit(value, "miss", 0, null);
+    }
+
+    public void put(String endpoint, String partition, String request, String value) {
+        if (!enabled || value == null || value.isBlank()) {
+            return;
+        }
+        endpoint(endpoint).put(partition, request, value);
+    }
+
+    /**
+     * Schedule a background regeneration of every sample-rate-th semantic hit and record how well it agrees
+     */
+    public void sample(String endpoint, Hit hit, Supplier<String> generator) {
+        Endpoint cache = endpoint(endpoint);
+        if (sampleRate <= 0 || cache.semanticHits.sum() % sampleRate != 0) {
+            return;
+        }
+        llmExecutor.execute(() -> {
+            try {
+                String fresh = generator.get();
+                if (fresh != null && !fresh.isBlank()) {
+                    cache.recordSample(similarity(embedder.embed(hit.value()), embedder.embed(fresh)));
+                }
+            } catch (Exception e) {
+                log.warn("Semantic cache sample for {} failed: {}", endpoint, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Entries, hits per tier, hit similarity and sampled agreement per endpoint
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        endpoints.forEach((name, endpoint) -> stats.put(name, endpoint.toMap()));
+        Map<String, Object> result = new HashMap<>();
+        result.put("enabled", enabled);
+        result.put("embedder", embedder.name());
+        result.put("endpoints", stats);
+        return result;
+    }
+
+    private Endpoint endpoint(String name) {
+        return endpoints.computeIfAbsent(name, key -> new Endpoint(thresholds.getOrDefault(key, defaultThreshold)));
+    }
+
+    static String normalize(String request) {
+        return request.toLowerCase(Locale.ROOT).replaceAll("[\\p{Punct}\\p{IsPunctuation}\\s]+", " ").trim();
+    }
+
+    /**
+     * Lower-cased words without phrasing words and plural s, numbers, and the CJK characters left after removing
+     * phrasing words from each run of CJK text
+     */
+    static Set<String> subjectTerms(String request) {
+        Set<String> terms = new TreeSet<>();
+        StringBuilder word = new StringBuilder();
+        StringBuilder cjk = new StringBuilder();
+        String lower = request.toLowerCase(Locale.ROOT);
+        for (int i = 0; i <= lower.length(); i++) {
+            char c = i < lower.length() ? lower.charAt(i) : ' ';
+            if (Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN) {
+                addWord(terms, word);
+                cjk.append(c);
+            } else if (Character.isLetterOrDigit(c)) {
+                addCjk(terms, cjk);
+                word.append(c);
+            } else {
+                addWord(terms, word);
+                addCjk(terms, cjk);
+            }
+        }
+        return terms;
+    }
+
+    private static void addWord(Set<String> terms, StringBuilder word) {
+        String token = word.toString();
+        word.setLength(0);
+        if (token.length() > 3 && token.endsWith("s") && !token.endsWith("ss")) {
+            token = token.substring(0, token.length() - 1);
+        }
+        if (!token.isEmpty() && !PHRASING.contains(token)) {
+            terms.add(token);
+        }
+    }
+
+    private static void addCjk(Set<String> terms, StringBuilder run) {
+        String text = run.toString();
+        run.setLength(0);
+        for (String phrase : CJK_PHRASING) {
+            text = text.replace(phrase, " ");
+        }
+        text.chars().filter(c -> c != ' ').forEach(c -> terms.add(String.valueOf((char) c)));
+    }
+
+    private static double similarity(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private record Entry(int id, String partition, String request, Set<String> terms, String value, long expiresAt) { }
+
+    private record Snapshot(HnswIndex index, List<Entry> entries) { }
+
+    private final class Endpoint {
+        private final double threshold;
+        private final Map<String, Entry> exact = new ConcurrentHashMap<>();
+        // Index ids are positions in the entry list; a rebuild replaces both at once
+        private volatile Snapshot snapshot;
+        private final AtomicLong live = new AtomicLong();
+
+        private final LongAdder lookups = new LongAdder();
+        private final LongAdder exactHits = new LongAdder();
+        private final LongAdder semanticHits = new LongAdder();
+        private final DoubleAdder hitSimilarity = new DoubleAdder();
+        private final LongAdder samples = new LongAdder();
+        private final DoubleAdder sampleAgreement = new DoubleAdder();
+        private final LongAdder lowAgreementSamples = new LongAdder();
+        private final LongAdder rebuilds = new LongAdder();
+
+        Endpoint(double threshold) {
+            this.threshold = threshold;
+            this.snapshot = new Snapshot(newIndex(), List.of());
+        }
+
+        Optional<Hit> lookup(String partition, String request) {
+            lookups.increment();
+            long now = System.currentTimeMillis();
+            Entry exactEntry = exact.get(key(partition, request));
+            if (exactEntry != null && exactEntry.expiresAt() > now) {
+                exactHits.increment();
+                return Optional.of(new Hit(exactEntry.value(), "exact", 1.0, exactEntry.request()));
+            }
+
+            Snapshot current = snapshot;
+            List<Entry> entries = current.entries();
+            Set<String> terms = subjectTerms(request);
+            // Searches may already see ids added after this snapshot; they are past the list and rejected
+            List<HnswIndex.Result> results = current.index().search(embedder.embed(request), 1, EF_SEARCH, id -> {
+                Entry entry = id < entries.size() ? entries.get(id) : null;
+                return entry != null && entry.partition().equals(partition) && entry.expiresAt() > now
+                    && entry.terms().equals(terms);
+            });
+            if (results.isEmpty() || results.get(0).similarity() < threshold) {
+                return Optional.empty();
+            }
+            HnswIndex.Result result = results.get(0);
+            Entry entry = entries.get(result.id());
+            semanticHits.increment();
+            hitSimilarity.add(result.similarity());
+            return Optional.of(new Hit(entry.value(), "semantic", result.similarity(), entry.request()));
+        }
+
+        synchronized void put(String partition, String request, String value) {
+            long expiresAt = System.currentTimeMillis() + ttl.toMillis();
+            String key = key(partition, request);
+            Entry existing = exact.get(key);
+            if (existing != null) {
+                // Same partition and normalized request: keep its vector and id, swap the entry
+                Snapshot current = snapshot;
+                Entry entry = new Entry(existing.id(), partition, request, existing.terms(), value, expiresAt);
+                List<Entry> entries = new ArrayList<>(current.entries());
+                entries.set(existing.id(), entry);
+                snapshot = new Snapshot(current.index(), entries);
+                exact.put(key, entry);
+                return;
+            }
+            if (live.get() >= capacity) {
+                rebuild();
+            }
+            Snapshot current = snapshot;
+            Entry entry = new Entry(current.entries().size(), partition, request, subjectTerms(request), value,
+                expiresAt);
+            List<Entry> entries = new ArrayList<>(current.entries());
+            entries.add(entry);
+            current.index().add(embedder.embed(request));
+            snapshot = new Snapshot(current.index(), entries);
+            exact.put(key, entry);
+            live.incrementAndGet();
+        }
+
+        /**
+         * Drop expired entries and the oldest quarter, then index the rest again; HNSW has no cheap delete
+         */
+        private void rebuild() {
+            long now = System.currentTimeMillis();
+            List<Entry> kept = new ArrayList<>(snapshot.entries().stream().filter(entry -> entry.expiresAt() > now).toList());
+            kept.sort(Comparator.comparingLong(Entry::expiresAt));
+            List<Entry> newest = kept.subList(Math.min(kept.size(), capacity / 4), kept.size());
+            HnswIndex rebuilt = newIndex();
+            kept = new ArrayList<>(newest.size());
+            for (Entry entry : newest) {
+                int id = rebuilt.add(embedder.embed(entry.request()));
+                kept.add(new Entry(id, entry.partition(), entry.request(), entry.terms(), entry.value(),
+                    entry.expiresAt()));
+            }
+            exact.clear();
+            kept.forEach(entry -> exact.put(key(entry.partition(), entry.request()), entry));
+            snapshot = new Snapshot(rebuilt, kept);
+            live.set(kept.size());
+            rebuilds.increment();
+        }
+
+        void recordSample(double agreement) {
+            samples.increment();
+            sampleAgreement.add(agreement);
+            if (agreement < minAgreement) {
+                lowAgreementSamples.increment();
+            }
+        }
+
+        private HnswIndex newIndex() {
+            return new HnswIndex(embedder.dimensions(), 16, 100, 256);
+        }
+
+        private String key(String partition, String request) {
+            return partition + '\u0000' + normalize(request);
+        }
+
+        Map<String, Object> toMap() {
+            long lookupCount = lookups.sum();
+            long semantic = semanticHits.sum();
+            long sampled = samples.sum();
+            Map<String, Object> map = new HashMap<>();
+            map.put("threshold", threshold);
+            map.put("entries", live.get());
+            map.put("lookups", lookupCount);
+            map.put("exactHits", exactHits.sum());
+            map.put("semanticHits", semantic);
+            map.put("hitRate", lookupCount == 0 ? 0.0 : (double) (exactHits.sum() + semantic) / lookupCount);
+            map.put("avgSemanticSimilarity", semantic == 0 ? 0.0 : hitSimilarity.sum() / semantic);
+            map.put("sampledHits", sampled);
+            map.put("avgSampleAgreement", sampled == 0 ? 0.0 : sampleAgreement.sum() / sampled);
+            map.put("lowAgreementSamples", lowAgreementSamples.sum());
+            map.put("rebuilds", rebuilds.sum());
+            return map;
+        }
+    }
+}
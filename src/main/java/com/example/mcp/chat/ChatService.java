@@ -1,5 +1,8 @@
 package com.example.mcp.chat;
 
+import com.example.mcp.cache.SemanticResponseCache;
+import com.example.mcp.prompt.PromptRegistry;
+import com.example.mcp.prompt.PromptUsageTracker;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -18,8 +21,18 @@ public class ChatService {
 
     private final ChatClient chatClient;
 
-    public ChatService(ChatClient.Builder chatClientBuilder) {
+    private final PromptRegistry prompts;
+
+    private final PromptUsageTracker usage;
+
+    private final SemanticResponseCache responseCache;
+
+    public ChatService(ChatClient.Builder chatClientBuilder, PromptRegistry prompts, PromptUsageTracker usage,
+              SemanticResponseCache responseCache) {
         this.chatClient = chatClientBuilder.build();
+        this.prompts = prompts;
+        this.usage = usage;
+        this.responseCache = responseCache;
     }
 
     /**
@@ -30,10 +43,7 @@ public class ChatService {
      */
     public Map<String, Object> processChatMessage(String userMessage) {
         try {
-            String aiResponse = this.chatClient.prompt()
-                .user(userMessage)
-                .call()
-                .content();
+            String aiResponse = usage.call("chat", this.chatClient.prompt().user(userMessage));
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -61,25 +71,13 @@ public class ChatService {
      */
     public Map<String, Object> getCampaignAdvice(String industry, String targetAudience, double budget) {
         try {
-            String prompt = String.format("""
-                Create a marketing campaign for:
-                Industry: %s
-                Target Audience: %s
-                Budget: $%.2f
-                
-                Please provide:
-                1. Campaign strategy overview
-                2. Target audience analysis
-                3. Channel recommendations
-                4. Content suggestions
-                5. Timeline and milestones
-                6. Success metrics
-                """, industry, targetAudience, budget);
+            String prompt = prompts.render("campaign.advice",
+                "industry", industry, "targetAudience", targetAudience, "budget", budget);
             
-            String advice = this.chatClient.prompt()
-                .user(prompt)
-                .call()
-                .content();
+            // Same industry and audience in other words, at the same budget, gets the cached advice
+            String advice = responseCache.getOrGenerate("campaign.advice", String.valueOf(budget),
+                industry + " | " + targetAudience,
+                () -> usage.call("campaign.advice", this.chatClient.prompt().user(prompt))).value();
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
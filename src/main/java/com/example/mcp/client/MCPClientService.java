@@ -1,31 +1,73 @@
 package com.example.mcp.client;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * MCP Client Service
- * Service for interacting with external MCP servers as a client
- * Note: This is a placeholder implementation for future MCP client functionality
+ * Service for interacting with external MCP servers as a client.
+ * Calls go through {@link McpConnectionPool}; tool, resource and prompt catalogs are served from {@link McpCatalogCache}.
  */
 @Service
 public class MCPClientService {
 
+    private static final Logger log = LoggerFactory.getLogger(MCPClientService.class);
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
     @Value("${spring.ai.mcp.client.enabled:false}")
     private boolean mcpClientEnabled;
 
     @Value("${spring.ai.mcp.client.marketing.service.path:}")
     private String marketingServicePath;
 
+    @Value("${spring.ai.mcp.client.marketing.server:}")
+    private String marketingServerName;
+
+    @Value("${campaign.mcp.client.call-timeout:30s}")
+    private Duration callTimeout;
+
+    @Value("${campaign.mcp.client.fan-out-deadline:5s}")
+    private Duration fanOutDeadline;
+
+    @Value("${campaign.mcp.client.batch-concurrency:16}")
+    private int batchConcurrency;
+
+    @Value("${campaign.mcp.client.batch-max-calls:1000}")
+    private int batchMaxCalls;
+
+    @Autowired
+    private McpConnectionPool connectionPool;
+
+    @Autowired
+    private McpCatalogCache catalogCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * Initialize MCP client connection to external marketing service
-     * Currently a placeholder for future MCP client implementation
+     * Reconnects any unhealthy sessions and warms the catalog cache of the marketing server
      */
     public void initializeMcpClient() {
         if (!mcpClientEnabled) {
@@ -33,9 +75,12 @@ public class MCPClientService {
         }
 
         try {
-            // TODO: Implement actual MCP client connection when Spring AI 1.0.1 MCP client is stable
-            // For now, this is a placeholder that logs the configuration
-            System.out.println("MCP Client would connect to: " + marketingServicePath);
+            connectionPool.reconnectUnhealthy();
+            String server = marketingServer();
+            if (connectionPool.isAvailable(server)) {
+                tools(server).block(callTimeout);
+            }
+            log.info("MCP Client using marketing server: {}", server);
         } catch (Exception e) {
             throw new RuntimeException("Failed to initialize MCP client: " + e.getMessage(), e);
         }
@@ -43,84 +88,132 @@ public class MCPClientService {
 
     /**
      * Get available tools from external marketing service
-     * Placeholder implementation
      */
     public List<Map<String, Object>> getMarketingTools() {
-        if (!mcpClientEnabled) {
-            throw new IllegalStateException("MCP client not enabled");
-        }
-
-        // Placeholder implementation
-        Map<String, Object> tool = new HashMap<>();
-        tool.put("name", "marketing_campaign_tool");
-        tool.put("description", "Create and manage marketing campaigns");
-        tool.put("status", "placeholder");
-        
-        return List.of(tool);
+        requireEnabled();
+        String server = marketingServer();
+        return tools(server).block(callTimeout).stream()
+            .map(tool -> toolToMap(server, tool))
+            .toList();
     }
 
     /**
      * Call external marketing service tool
-     * Placeholder implementation
      */
     public Map<String, Object> callMarketingTool(String toolName, Map<String, Object> arguments) {
-        if (!mcpClientEnabled) {
-            throw new IllegalStateException("MCP client not enabled");
+        requireEnabled();
+        return callTool(marketingServer(), toolName, arguments).block(callTimeout);
+    }
+
+    /**
+     * Call a tool on any configured server
+     */
+    public Mono<Map<String, Object>> callTool(String server, String toolName, Map<String, Object> arguments) {
+        return connectionPool.execute(server, connection -> connection.callTool(toolName, arguments))
+            .map(result -> toolResultToMap(server, toolName, result));
+    }
+
+    /**
+     * Call many tools at once, keeping up to {@code maxConcurrency} calls in flight across the pooled sessions.
+     * Results are emitted in completion order and carry the index of their call in the batch; a failing call
+     * produces an error result instead of ending the stream.
+     */
+    public Flux<Map<String, Object>> callToolsBatch(List<McpToolCall> calls, int maxConcurrency, Duration budget) {
+        requireEnabled();
+        if (calls.size() > batchMaxCalls) {
+            throw new IllegalArgumentException("Batch of " + calls.size() + " tool calls exceeds the limit of " + batchMaxCalls);
         }
+        int concurrency = Math.max(1, Math.min(maxConcurrency > 0 ? maxConcurrency : batchConcurrency, batchConcurrency));
+        String defaultServer = calls.stream().anyMatch(call -> call.getServer() == null || call.getServer().isBlank())
+            ? marketingServer() : null;
 
-        // Placeholder implementation
-        Map<String, Object> result = new HashMap<>();
-        result.put("tool_name", toolName);
-        result.put("arguments", arguments);
-        result.put("status", "placeholder_implementation");
-        result.put("message", "MCP client tool calling not yet implemented");
-        
-        return result;
+        return Flux.defer(() -> {
+            Flux<Map<String, Object>> results = Flux.range(0, calls.size())
+                .flatMap(index -> {
+                    McpToolCall call = calls.get(index);
+                    String server = call.getServer() != null && !call.getServer().isBlank() ? call.getServer() : defaultServer;
+                    long start = System.nanoTime();
+                    return Mono.defer(() -> {
+                            if (call.getToolName() == null || call.getToolName().isBlank()) {
+                                return Mono.error(new IllegalArgumentException("toolName is required"));
+                            }
+                            return callTool(server, call.getToolName(), call.getArguments());
+                        })
+                        .onErrorResume(error -> {
+                            Map<String, Object> item = new HashMap<>();
+                            item.put("server", server);
+                            item.put("tool_name", call.getToolName());
+                            item.put("success", false);
+                            item.put("error", String.valueOf(error.getMessage()));
+                            return Mono.just(item);
+                        })
+                        .doOnNext(item -> {
+                            item.put("index", index);
+                            item.put("latencyMs", elapsedMs(start));
+                            if (call.getId() != null) {
+                                item.put("id", call.getId());
+                            }
+                        });
+                }, concurrency);
+            if (budget == null) {
+                return results;
+            }
+            McpDeadline deadline = McpDeadline.after(budget);
+            return results.contextWrite(context -> context.put(McpDeadline.CONTEXT_KEY, deadline));
+        });
     }
 
     /**
      * Get marketing service resources
-     * Placeholder implementation
+     * @param resourceType filter on resource uri or name, "all" or blank for every resource
      */
     public List<Map<String, Object>> getMarketingResources(String resourceType) {
-        if (!mcpClientEnabled) {
-            throw new IllegalStateException("MCP client not enabled");
-        }
-
-        // Placeholder implementation
-        Map<String, Object> resource = new HashMap<>();
-        resource.put("type", resourceType);
-        resource.put("name", "placeholder_resource");
-        resource.put("status", "placeholder_implementation");
-        
-        return List.of(resource);
+        requireEnabled();
+        String server = marketingServer();
+        String filter = resourceType == null || resourceType.isBlank() || resourceType.equalsIgnoreCase("all")
+            ? null : resourceType.toLowerCase(Locale.ROOT);
+        return resources(server).block(callTimeout).stream()
+            .filter(resource -> filter == null || matches(resource, filter))
+            .map(resource -> resourceToMap(server, resource))
+            .toList();
     }
 
     /**
      * Read marketing service resource content
-     * Placeholder implementation
      */
     public String readMarketingResource(String resourceUri) {
-        if (!mcpClientEnabled) {
-            throw new IllegalStateException("MCP client not enabled");
+        requireEnabled();
+        McpSchema.ReadResourceResult result = connectionPool
+            .execute(marketingServer(), connection -> connection.readResource(resourceUri))
+            .block(callTimeout);
+        if (result == null || result.contents() == null) {
+            return "";
         }
-
-        return "Placeholder resource content for: " + resourceUri;
+        return result.contents().stream()
+            .filter(McpSchema.TextResourceContents.class::isInstance)
+            .map(content -> ((McpSchema.TextResourceContents) content).text())
+            .collect(Collectors.joining("\n"));
     }
 
     /**
      * Get marketing service schemas
-     * Placeholder implementation
+     * Input schemas of the marketing server's tools, keyed by tool name, plus its prompt templates
      */
     public Map<String, Object> getMarketingSchemas() {
-        if (!mcpClientEnabled) {
-            throw new IllegalStateException("MCP client not enabled");
+        requireEnabled();
+        String server = marketingServer();
+        Map<String, Object> toolSchemas = new LinkedHashMap<>();
+        for (McpSchema.Tool tool : tools(server).block(callTimeout)) {
+            toolSchemas.put(tool.name(), tool.inputSchema() != null ? objectMapper.convertValue(tool.inputSchema(), MAP_TYPE) : Map.of());
         }
+        List<Map<String, Object>> promptList = prompts(server).block(callTimeout).stream()
+            .map(prompt -> promptToMap(server, prompt))
+            .toList();
 
         Map<String, Object> schemas = new HashMap<>();
-        schemas.put("status", "placeholder_implementation");
-        schemas.put("message", "MCP client schemas not yet implemented");
-        
+        schemas.put("server", server);
+        schemas.put("tools", toolSchemas);
+        schemas.put("prompts", promptList);
         return schemas;
     }
 
@@ -135,7 +228,17 @@ public class MCPClientService {
      * Check if MCP client is connected
      */
     public boolean isConnected() {
-        return mcpClientEnabled; // Placeholder implementation
+        return mcpClientEnabled && !connectionPool.getServerNames().isEmpty() && connectionPool.isAvailable(marketingServer());
+    }
+
+    /**
+     * Pooled sessions per server and catalog cache statistics
+     */
+    public Map<String, Object> getConnectionStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("servers", connectionPool.getStatus());
+        status.put("catalogCache", catalogCache.getStats());
+        return status;
     }
 
     /**
@@ -145,74 +248,320 @@ public class MCPClientService {
         return marketingServicePath;
     }
 
+    /**
+     * Connection name of the marketing server; the first configured server when not set explicitly
+     */
+    public String marketingServer() {
+        if (marketingServerName != null && !marketingServerName.isBlank()) {
+            return marketingServerName;
+        }
+        return connectionPool.getServerNames().stream().sorted().findFirst()
+            .orElseThrow(() -> new IllegalStateException("No MCP server connections configured"));
+    }
+
     /**
      * Disconnect MCP client
-     * Placeholder implementation
      */
     public void disconnect() {
         if (mcpClientEnabled) {
-            System.out.println("MCP Client would disconnect from: " + marketingServicePath);
+            connectionPool.disconnectAll();
+            catalogCache.invalidateAll();
+            log.info("MCP Client disconnected from: {}", connectionPool.getServerNames());
         }
     }
 
     /**
      * Get server information
-     * Placeholder implementation
      */
     public CompletableFuture<Map<String, Object>> getServerInfo() {
         Map<String, Object> info = new HashMap<>();
-        info.put("status", "placeholder");
-        info.put("message", "MCP client server info not yet implemented");
-        return CompletableFuture.completedFuture(info);
+        for (String server : connectionPool.getServerNames()) {
+            Map<String, Object> serverInfo = new HashMap<>();
+            connectionPool.getConnections(server).stream()
+                .filter(McpConnection::isInitialized)
+                .findFirst()
+                .ifPresent(connection -> {
+                    McpSchema.Implementation implementation = connection.getServerInfo();
+                    if (implementation != null) {
+                        serverInfo.put("name", implementation.name());
+                        serverInfo.put("version", implementation.version());
+                    }
+                    if (connection.getServerCapabilities() != null) {
+                        serverInfo.put("capabilities", objectMapper.convertValue(connection.getServerCapabilities(), MAP_TYPE));
+                    }
+                    if (connection.getServerInstructions() != null) {
+                        serverInfo.put("instructions", connection.getServerInstructions());
+                    }
+                });
+            serverInfo.put("available", connectionPool.isAvailable(server));
+            info.put(server, serverInfo);
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("servers", info);
+        response.put("catalogCache", catalogCache.getStats());
+        return CompletableFuture.completedFuture(response);
     }
 
     /**
      * Check health status
-     * Placeholder implementation
+     * Pings every session of every server in parallel
      */
     public CompletableFuture<Map<String, Object>> checkHealth() {
-        Map<String, Object> health = new HashMap<>();
-        health.put("status", "placeholder");
-        health.put("message", "MCP client health check not yet implemented");
-        return CompletableFuture.completedFuture(health);
+        List<Mono<Map<String, Object>>> pings = new ArrayList<>();
+        for (McpConnection connection : connectionPool.getAllConnections()) {
+            long start = System.nanoTime();
+            pings.add(connection.ping()
+                .timeout(callTimeout)
+                .map(pong -> pingResult(connection, true, start, null))
+                .onErrorResume(error -> Mono.just(pingResult(connection, false, start, error.getMessage()))));
+        }
+        return Flux.merge(pings).collectList()
+            .map(results -> {
+                long healthy = results.stream().filter(result -> Boolean.TRUE.equals(result.get("healthy"))).count();
+                Map<String, Object> health = new HashMap<>();
+                health.put("status", results.isEmpty() ? "no_connections" : healthy == results.size() ? "healthy" : healthy > 0 ? "degraded" : "unhealthy");
+                health.put("healthyConnections", healthy);
+                health.put("totalConnections", results.size());
+                health.put("connections", results);
+                return health;
+            })
+            .toFuture();
     }
 
     /**
      * Get sync clients
-     * Placeholder implementation
      */
     public List<Map<String, Object>> getSyncClients() {
-        return new ArrayList<>();
+        return connectionPool.getAllConnections().stream()
+            .filter(connection -> !connection.isAsync())
+            .map(McpConnection::describe)
+            .toList();
     }
 
     /**
      * Get async clients
-     * Placeholder implementation
      */
     public List<Map<String, Object>> getAsyncClients() {
-        return new ArrayList<>();
+        return connectionPool.getAllConnections().stream()
+            .filter(McpConnection::isAsync)
+            .map(McpConnection::describe)
+            .toList();
     }
 
     /**
      * Get tool callbacks
-     * Placeholder implementation
+     * Tools of all servers keyed by server, fetched concurrently under the fan-out deadline
      */
     public CompletableFuture<Map<String, Object>> getToolCallbacks() {
-        Map<String, Object> callbacks = new HashMap<>();
-        callbacks.put("status", "placeholder");
-        callbacks.put("message", "MCP client tool callbacks not yet implemented");
-        return CompletableFuture.completedFuture(callbacks);
+        return fanOut(connectionPool.getServerNames(), fanOutDeadline,
+                server -> tools(server).map(list -> list.stream().map(tool -> toolToMap(server, tool)).toList()))
+            .map(result -> {
+                Map<String, Object> callbacks = result.toSummary();
+                callbacks.put("tools", result.getValues());
+                return callbacks;
+            })
+            .toFuture();
     }
 
     /**
      * Send request
-     * Placeholder implementation
+     * Matches the request text against the cached tool catalogs and returns the candidate tools
      */
     public CompletableFuture<Map<String, Object>> sendRequest(String userRequest) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", "placeholder");
-        response.put("message", "MCP client request sending not yet implemented");
-        response.put("request", userRequest);
-        return CompletableFuture.completedFuture(response);
+        String text = userRequest.toLowerCase(Locale.ROOT);
+        return Flux.fromIterable(connectionPool.getServerNames())
+            .filter(connectionPool::isAvailable)
+            .flatMap(server -> tools(server)
+                .flatMapIterable(list -> list.stream()
+                    .filter(tool -> mentions(text, tool))
+                    .map(tool -> toolToMap(server, tool))
+                    .toList())
+                .onErrorResume(error -> Flux.empty()))
+            .collectList()
+            .map(candidates -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("request", userRequest);
+                response.put("matchedTools", candidates);
+                response.put("status", candidates.isEmpty() ? "no_matching_tool" : "matched");
+                return response;
+            })
+            .toFuture();
+    }
+
+    /**
+     * Run a call against several servers concurrently under one deadline.
+     * The deadline travels into every MCP call made by {@code call}; servers that fail or run out of time are
+     * reported individually instead of failing the whole request.
+     */
+    public <T> Mono<McpFanOutResult<T>> fanOut(Collection<String> servers, Duration budget, Function<String, Mono<T>> call) {
+        return Mono.defer(() -> {
+            McpDeadline deadline = McpDeadline.after(budget);
+            long start = System.nanoTime();
+            // flatMapSequential subscribes to all servers at once but reports them in the given order
+            return Flux.fromIterable(servers)
+                .flatMapSequential(server -> {
+                    long serverStart = System.nanoTime();
+                    return deadline.attach(deadline.bound(Mono.defer(() -> call.apply(server))))
+                        .map(value -> McpFanOutResult.ServerResult.ok(server, value, elapsedMs(serverStart)))
+                        .onErrorResume(error -> Mono.just(McpFanOutResult.ServerResult.<T>failed(server, error, elapsedMs(serverStart))));
+                }, Math.max(1, servers.size()))
+                .collectList()
+                .map(results -> new McpFanOutResult<>(results, budget.toMillis(), elapsedMs(start)));
+        });
+    }
+
+    /**
+     * Tools, schemas (same shape as {@link #getMarketingSchemas()}) and resources of every configured server,
+     * fetched concurrently
+     * @param resourceType filter on resource uri or name, "all" or blank for every resource
+     */
+    public Mono<McpFanOutResult<Map<String, Object>>> getServiceCatalogs(String resourceType, Duration budget) {
+        String filter = resourceType == null || resourceType.isBlank() || resourceType.equalsIgnoreCase("all")
+            ? null : resourceType.toLowerCase(Locale.ROOT);
+        return fanOut(connectionPool.getServerNames(), budget, server -> Mono.zip(
+                tools(server),
+                resources(server),
+                prompts(server))
+            .map(catalog -> {
+                Map<String, Object> toolSchemas = new LinkedHashMap<>();
+                List<Map<String, Object>> toolList = new ArrayList<>();
+                for (McpSchema.Tool tool : catalog.getT1()) {
+                    Map<String, Object> toolMap = toolToMap(server, tool);
+                    toolList.add(toolMap);
+                    toolSchemas.put(tool.name(), toolMap.getOrDefault("inputSchema", Map.of()));
+                }
+                Map<String, Object> schemas = new HashMap<>();
+                schemas.put("server", server);
+                schemas.put("tools", toolSchemas);
+                schemas.put("prompts", catalog.getT3().stream()
+                    .map(prompt -> promptToMap(server, prompt))
+                    .toList());
+                Map<String, Object> result = new HashMap<>();
+                result.put("tools", toolList);
+                result.put("schemas", schemas);
+                result.put("resources", catalog.getT2().stream()
+                    .filter(resource -> filter == null || matches(resource, filter))
+                    .map(resource -> resourceToMap(server, resource))
+                    .toList());
+                return result;
+            }));
+    }
+
+    public Duration getFanOutDeadline() {
+        return fanOutDeadline;
+    }
+
+    private static double elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000.0;
+    }
+
+    // Catalog access through the cache
+
+    public Mono<List<McpSchema.Tool>> tools(String server) {
+        return catalogCache.getTools(server, () -> connectionPool.execute(server, McpConnection::listTools));
+    }
+
+    public Mono<List<McpSchema.Resource>> resources(String server) {
+        return catalogCache.getResources(server, () -> connectionPool.execute(server, McpConnection::listResources));
+    }
+
+    public Mono<List<McpSchema.Prompt>> prompts(String server) {
+        return catalogCache.getPrompts(server, () -> connectionPool.execute(server, McpConnection::listPrompts));
+    }
+
+    private void requireEnabled() {
+        if (!mcpClientEnabled) {
+            throw new IllegalStateException("MCP client not enabled");
+        }
+    }
+
+    private static boolean matches(McpSchema.Resource resource, String filter) {
+        return (resource.uri() != null && resource.uri().toLowerCase(Locale.ROOT).contains(filter))
+            || (resource.name() != null && resource.name().toLowerCase(Locale.ROOT).contains(filter));
+    }
+
+    private static boolean mentions(String text, McpSchema.Tool tool) {
+        String name = tool.name().toLowerCase(Locale.ROOT);
+        if (text.contains(name)) {
+            return true;
+        }
+        // snake_case and kebab-case names match when every word appears in the request
+        String[] words = name.split("[_\\-]");
+        if (words.length < 2) {
+            return false;
+        }
+        for (String word : words) {
+            if (!word.isEmpty() && !text.contains(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Map<String, Object> toolToMap(String server, McpSchema.Tool tool) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("server", server);
+        map.put("name", tool.name());
+        map.put("description", tool.description());
+        if (tool.inputSchema() != null) {
+            map.put("inputSchema", objectMapper.convertValue(tool.inputSchema(), MAP_TYPE));
+        }
+        return map;
+    }
+
+    private static Map<String, Object> resourceToMap(String server, McpSchema.Resource resource) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("server", server);
+        map.put("uri", resource.uri());
+        map.put("name", resource.name());
+        map.put("description", resource.description());
+        map.put("mimeType", resource.mimeType());
+        return map;
+    }
+
+    private static Map<String, Object> promptToMap(String server, McpSchema.Prompt prompt) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("server", server);
+        map.put("name", prompt.name());
+        map.put("description", prompt.description());
+        if (prompt.arguments() != null) {
+            map.put("arguments", prompt.arguments().stream().map(McpSchema.PromptArgument::name).toList());
+        }
+        return map;
+    }
+
+    private Map<String, Object> toolResultToMap(String server, String toolName, McpSchema.CallToolResult result) {
+        List<Object> content = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        if (result.content() != null) {
+            for (McpSchema.Content item : result.content()) {
+                if (item instanceof McpSchema.TextContent textContent) {
+                    content.add(Map.of("type", "text", "text", textContent.text()));
+                    if (text.length() > 0) {
+                        text.append('\n');
+                    }
+                    text.append(textContent.text());
+                } else {
+                    content.add(objectMapper.convertValue(item, MAP_TYPE));
+                }
+            }
+        }
+        Map<String, Object> map = new HashMap<>();
+        map.put("server", server);
+        map.put("tool_name", toolName);
+        map.put("success", !Boolean.TRUE.equals(result.isError()));
+        map.put("content", content);
+        map.put("text", text.toString());
+        return map;
+    }
+
+    private static Map<String, Object> pingResult(McpConnection connection, boolean healthy, long startNanos, String error) {
+        Map<String, Object> result = connection.describe();
+        result.put("healthy", healthy);
+        result.put("latencyMs", (System.nanoTime() - startNanos) / 1_000_000.0);
+        if (error != null) {
+            result.put("error", error);
+        }
+        return result;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,154 @@
+package com.example.mcp.client;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * MCP Catalog Cache
+ * Per-server cache of tool, resource and prompt catalogs. Entries are replaced by the list-changed
+ * notifications wired in {@link McpClientConfig}, dropped on reconnect, and expire after a TTL as a fallback.
+ * Concurrent misses for the same server share one in-flight listing.
+ */
+@Component
+public class McpCatalogCache {
+
+    private final Duration ttl;
+    private final Catalog<McpSchema.Tool> tools = new Catalog<>();
+    private final Catalog<McpSchema.Resource> resources = new Catalog<>();
+    private final Catalog<McpSchema.Prompt> prompts = new Catalog<>();
+
+    public McpCatalogCache(@Value("${campaign.mcp.client.catalog-ttl:10m}") Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Mono<List<McpSchema.Tool>> getTools(String server, Supplier<Mono<List<McpSchema.Tool>>> loader) {
+        return tools.get(server, loader);
+    }
+
+    public Mono<List<McpSchema.Resource>> getResources(String server, Supplier<Mono<List<McpSchema.Resource>>> loader) {
+        return resources.get(server, loader);
+    }
+
+    public Mono<List<McpSchema.Prompt>> getPrompts(String server, Supplier<Mono<List<McpSchema.Prompt>>> loader) {
+        return prompts.get(server, loader);
+    }
+
+    public void updateTools(String server, List<McpSchema.Tool> list) {
+        tools.put(server, list);
+    }
+
+    public void updateResources(String server, List<McpSchema.Resource> list) {
+        resources.put(server, list);
+    }
+
+    public void updatePrompts(String server, List<McpSchema.Prompt> list) {
+        prompts.put(server, list);
+    }
+
+    /**
+     * Drop all catalogs of a server, e.g. after its session was re-established
+     */
+    public void invalidate(String server) {
+        tools.invalidate(server);
+        resources.invalidate(server);
+        prompts.invalidate(server);
+    }
+
+    public void invalidateAll() {
+        tools.entries.clear();
+        resources.entries.clear();
+        prompts.entries.clear();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("ttlSeconds", ttl.toSeconds());
+        stats.put("tools", tools.stats());
+        stats.put("resources", resources.stats());
+        stats.put("prompts", prompts.stats());
+        return stats;
+    }
+
+    private final class Catalog<T> {
+        private final Map<String, Entry<T>> entries = new ConcurrentHashMap<>();
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong updates = new AtomicLong();
+
+        Mono<List<T>> get(String server, Supplier<Mono<List<T>>> loader) {
+            return Mono.defer(() -> {
+                long now = System.currentTimeMillis();
+                Entry<T> current = entries.get(server);
+                if (current != null && !current.isExpired(now)) {
+                    hits.incrementAndGet();
+                    return current.value();
+                }
+                Entry<T> entry = entries.compute(server, (key, existing) -> {
+                    if (existing != null && !existing.isExpired(now)) {
+                        return existing;
+                    }
+                    misses.incrementAndGet();
+                    // The shared listing runs to completion on its own and must not inherit the deadline
+                    // of whichever caller happened to miss first
+                    CompletableFuture<List<T>> load = loader.get()
+                        .map(List::copyOf)
+                        .contextWrite(context -> context.delete(McpDeadline.CONTEXT_KEY))
+                        .toFuture();
+                    return new Entry<>(load, now);
+                });
+                // Failed listings must not stay cached
+                entry.future.whenComplete((list, error) -> {
+                    if (error != null) {
+                        entries.remove(server, entry);
+                    }
+                });
+                // Each caller still waits only as long as its own deadline
+                return McpDeadline.boundByContext(entry.value());
+            });
+        }
+
+        void put(String server, List<T> list) {
+            updates.incrementAndGet();
+            entries.put(server, new Entry<>(CompletableFuture.completedFuture(List.copyOf(list)), System.currentTimeMillis()));
+        }
+
+        void invalidate(String server) {
+            entries.remove(server);
+        }
+
+        Map<String, Object> stats() {
+            return Map.of("servers", entries.size(), "hits", hits.get(), "misses", misses.get(),
+                "notifications", updates.get());
+        }
+    }
+
+    private final class Entry<T> {
+        private final CompletableFuture<List<T>> future;
+        private final long loadedAt;
+
+        Entry(CompletableFuture<List<T>> future, long loadedAt) {
+            this.future = future;
+            this.loadedAt = loadedAt;
+        }
+
+        Mono<List<T>> value() {
+            // Cancelling one waiting caller must not cancel the shared listing
+            return Mono.fromFuture(future, true);
+        }
+
+        boolean isExpired(long now) {
+            return now - loadedAt > ttl.toMillis();
+        }
+    }
+}
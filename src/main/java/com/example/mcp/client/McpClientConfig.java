@@ -4,23 +4,28 @@ package com.example.mcp.client;
 
 
 import io.modelcontextprotocol.client.McpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.ai.mcp.customizer.McpAsyncClientCustomizer;
 import org.springframework.ai.mcp.customizer.McpSyncClientCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.util.List;
 
 @Configuration
 public class McpClientConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(McpClientConfig.class);
     
     /**
      * MCP Client Customizer for synchronous clients
      */
     @Bean
-    public McpSyncClientCustomizer mcpSyncClientCustomizer() {
+    public McpSyncClientCustomizer mcpSyncClientCustomizer(McpCatalogCache catalogCache) {
         return new McpSyncClientCustomizer() {
             @Override
             public void customize(String serverConfigurationName, McpClient.SyncSpec spec) {
@@ -29,22 +34,25 @@ public class McpClientConfig {
                 
                 // Add tools change consumer
                 spec.toolsChangeConsumer((tools) -> {
-                    System.out.println("Tools changed for " + serverConfigurationName + ": " + tools.size() + " tools available");
+                    log.info("Tools changed for {}: {} tools available", serverConfigurationName, tools.size());
+                    catalogCache.updateTools(serverConfigurationName, tools);
                 });
                 
                 // Add resources change consumer
                 spec.resourcesChangeConsumer((resources) -> {
-                    System.out.println("Resources changed for " + serverConfigurationName + ": " + resources.size() + " resources available");
+                    log.info("Resources changed for {}: {} resources available", serverConfigurationName, resources.size());
+                    catalogCache.updateResources(serverConfigurationName, resources);
                 });
                 
                 // Add prompts change consumer
                 spec.promptsChangeConsumer((prompts) -> {
-                    System.out.println("Prompts changed for " + serverConfigurationName + ": " + prompts.size() + " prompts available");
+                    log.info("Prompts changed for {}: {} prompts available", serverConfigurationName, prompts.size());
+                    catalogCache.updatePrompts(serverConfigurationName, prompts);
                 });
                 
                 // Add logging consumer
-                /*                spec.loggingConsumer((log) -> {
-                    System.out.println("Log from " + serverConfigurationName + ": " + log.message());
+                /*                spec.loggingConsumer((notification) -> {
+                    log.info("Log from {}: {}", serverConfigurationName, notification.data());
                 });*/
             }
         };
@@ -54,12 +62,17 @@ public class McpClientConfig {
      * MCP Client Customizer for asynchronous clients
      */
     @Bean
-    public McpAsyncClientCustomizer mcpAsyncClientCustomizer() {
+    public McpAsyncClientCustomizer mcpAsyncClientCustomizer(McpCatalogCache catalogCache) {
         return new McpAsyncClientCustomizer() {
             @Override
             public void customize(String serverConfigurationName, McpClient.AsyncSpec spec) {
                 // Customize the async client configuration
                 spec.requestTimeout(Duration.ofSeconds(30));
+
+                // Keep the cached catalogs in step with list-changed notifications
+                spec.toolsChangeConsumer((tools) -> Mono.fromRunnable(() -> catalogCache.updateTools(serverConfigurationName, tools)));
+                spec.resourcesChangeConsumer((resources) -> Mono.fromRunnable(() -> catalogCache.updateResources(serverConfigurationName, resources)));
+                spec.promptsChangeConsumer((prompts) -> Mono.fromRunnable(() -> catalogCache.updatePrompts(serverConfigurationName, prompts)));
             }
         };
     }
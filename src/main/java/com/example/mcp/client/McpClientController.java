@@ -6,9 +6,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -70,6 +75,7 @@ public class McpClientController {
             "enabled", mcpClientService.isEnabled(),
             "service_path", mcpClientService.getMarketingServicePath(),
             "status", mcpClientService.isEnabled() ? "enabled" : "disabled",
+            "connections", mcpClientService.getConnectionStatus(),
             "timestamp", System.currentTimeMillis()
         );
         
@@ -107,6 +113,38 @@ public class McpClientController {
         }
     }
 
+    /**
+     * Get tools and resources of all MCP servers
+     */
+    @GetMapping("/catalog")
+    @Operation(summary = "Get Server Catalogs", description = "Query all configured MCP servers concurrently under one deadline")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Catalogs retrieved, possibly from a subset of servers"),
+        @ApiResponse(responseCode = "500", description = "Failed to get catalogs")
+    })
+    public ResponseEntity<Map<String, Object>> getCatalogs(
+        @Parameter(description = "Resource type filter") @RequestParam(defaultValue = "all") String resourceType,
+        @Parameter(description = "Deadline in milliseconds") @RequestParam(required = false) Long deadlineMs
+    ) {
+        try {
+            Duration deadline = deadlineMs != null ? Duration.ofMillis(deadlineMs) : mcpClientService.getFanOutDeadline();
+            var catalogs = mcpClientService.getServiceCatalogs(resourceType, deadline).block();
+
+            Map<String, Object> response = new HashMap<>(catalogs.toSummary());
+            response.put("success", true);
+            response.put("catalogs", catalogs.getValues());
+            response.put("timestamp", System.currentTimeMillis());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = Map.of(
+                "success", false,
+                "error", e.getMessage(),
+                "timestamp", System.currentTimeMillis()
+            );
+            return ResponseEntity.internalServerError().body(errorResponse);
+        }
+    }
+
     /**
      * Call marketing service tool
      */
@@ -144,6 +182,58 @@ public class McpClientController {
         }
     }
 
+    /**
+     * Call a batch of tools
+     */
+    @PostMapping("/call-tools")
+    @Operation(summary = "Call Tools in Batch", description = "Pipeline many tool calls with bounded concurrency; results are listed in completion order")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch completed; failed calls are reported per entry"),
+        @ApiResponse(responseCode = "500", description = "Batch could not be started")
+    })
+    public ResponseEntity<Map<String, Object>> callTools(
+        @Parameter(description = "Batch tool call request", required = true) @RequestBody BatchToolCallRequest request
+    ) {
+        try {
+            long start = System.currentTimeMillis();
+            List<Map<String, Object>> results = mcpClientService
+                .callToolsBatch(request.getCalls(), request.getMaxConcurrency(), request.getDeadline())
+                .collectList()
+                .block();
+            long failed = results.stream().filter(result -> !Boolean.TRUE.equals(result.get("success"))).count();
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", failed == 0);
+            response.put("results", results);
+            response.put("count", results.size());
+            response.put("failed", failed);
+            response.put("elapsedMs", System.currentTimeMillis() - start);
+            response.put("timestamp", System.currentTimeMillis());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = Map.of(
+                "success", false,
+                "error", e.getMessage(),
+                "timestamp", System.currentTimeMillis()
+            );
+            return ResponseEntity.internalServerError().body(errorResponse);
+        }
+    }
+
+    /**
+     * Stream the results of a batch of tool calls
+     */
+    @PostMapping(value = "/call-tools/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream Batch Tool Calls", description = "Pipeline many tool calls and stream each result as newline-delimited JSON as soon as it completes")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Result stream")
+    })
+    public Flux<Map<String, Object>> streamToolCalls(
+        @Parameter(description = "Batch tool call request", required = true) @RequestBody BatchToolCallRequest request
+    ) {
+        return mcpClientService.callToolsBatch(request.getCalls(), request.getMaxConcurrency(), request.getDeadline());
+    }
+
     /**
      * Get marketing service resources
      */
@@ -197,4 +287,22 @@ public class McpClientController {
         
         return ResponseEntity.ok(response);
     }
+
+    // Request DTOs
+    public static class BatchToolCallRequest {
+        private List<McpToolCall> calls = List.of();
+        private int maxConcurrency;
+        private Long deadlineMs;
+
+        public List<McpToolCall> getCalls() { return calls; }
+        public void setCalls(List<McpToolCall> calls) { this.calls = calls != null ? calls : List.of(); }
+
+        public int getMaxConcurrency() { return maxConcurrency; }
+        public void setMaxConcurrency(int maxConcurrency) { this.maxConcurrency = maxConcurrency; }
+
+        public Long getDeadlineMs() { return deadlineMs; }
+        public void setDeadlineMs(Long deadlineMs) { this.deadlineMs = deadlineMs; }
+
+        Duration getDeadline() { return deadlineMs != null ? Duration.ofMillis(deadlineMs) : null; }
+    }
 }
@@ -0,0 +1,262 @@
+package com.example.mcp.client;
+
+import io.modelcontextprotocol.client.McpAsyncClient;
+import io.modelcontextprotocol.client.McpSyncClient;
+import io.modelcontextprotocol.spec.McpError;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * MCP Connection
+ * One client session to an MCP server behind a reactive API, whether the underlying client is sync or async.
+ * Blocking sync clients are moved off the caller thread onto the bounded elastic scheduler.
+ */
+public class McpConnection {
+
+    private static final Logger log = LoggerFactory.getLogger(McpConnection.class);
+
+    /** Upper bound on catalog pages, guards against servers that keep returning a cursor */
+    private static final int MAX_PAGES = 100;
+
+    private final String serverName;
+    private final McpSyncClient syncClient;
+    private final McpAsyncClient asyncClient;
+    private final boolean owned;
+    private final long connectedAt = System.currentTimeMillis();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile boolean healthy = true;
+    private volatile long lastActivityAt = connectedAt;
+    private volatile String lastError;
+
+    private McpConnection(String serverName, McpSyncClient syncClient, McpAsyncClient asyncClient, boolean owned) {
+        this.serverName = serverName;
+        this.syncClient = syncClient;
+        this.asyncClient = asyncClient;
+        this.owned = owned;
+    }
+
+    /**
+     * @param owned whether the pool created the client and must close it, as opposed to an auto-configured bean
+     */
+    public static McpConnection ofSync(String serverName, McpSyncClient client, boolean owned) {
+        return new McpConnection(serverName, client, null, owned);
+    }
+
+    public static McpConnection ofAsync(String serverName, McpAsyncClient client, boolean owned) {
+        return new McpConnection(serverName, null, client, owned);
+    }
+
+    public Mono<McpSchema.InitializeResult> initialize() {
+        return track(asyncClient != null ? asyncClient.initialize() : blocking(syncClient::initialize));
+    }
+
+    public Mono<Object> ping() {
+        return track(asyncClient != null ? asyncClient.ping() : blocking(syncClient::ping));
+    }
+
+    public Mono<List<McpSchema.Tool>> listTools() {
+        if (!hasCapability(McpSchema.ServerCapabilities::tools)) {
+            return Mono.just(List.of());
+        }
+        return track(paginate(
+            cursor -> asyncClient != null ? asyncClient.listTools(cursor) : blocking(() -> syncClient.listTools(cursor)),
+            McpSchema.ListToolsResult::tools, McpSchema.ListToolsResult::nextCursor));
+    }
+
+    public Mono<List<McpSchema.Resource>> listResources() {
+        if (!hasCapability(McpSchema.ServerCapabilities::resources)) {
+            return Mono.just(List.of());
+        }
+        return track(paginate(
+            cursor -> asyncClient != null ? asyncClient.listResources(cursor) : blocking(() -> syncClient.listResources(cursor)),
+            McpSchema.ListResourcesResult::resources, McpSchema.ListResourcesResult::nextCursor));
+    }
+
+    public Mono<List<McpSchema.Prompt>> listPrompts() {
+        if (!hasCapability(McpSchema.ServerCapabilities::prompts)) {
+            return Mono.just(List.of());
+        }
+        return track(paginate(
+            cursor -> asyncClient != null ? asyncClient.listPrompts(cursor) : blocking(() -> syncClient.listPrompts(cursor)),
+            McpSchema.ListPromptsResult::prompts, McpSchema.ListPromptsResult::nextCursor));
+    }
+
+    public Mono<McpSchema.CallToolResult> callTool(String toolName, Map<String, Object> arguments) {
+        McpSchema.CallToolRequest request = new McpSchema.CallToolRequest(toolName, arguments != null ? arguments : Map.of());
+        return track(asyncClient != null ? asyncClient.callTool(request) : blocking(() -> syncClient.callTool(request)));
+    }
+
+    public Mono<McpSchema.ReadResourceResult> readResource(String uri) {
+        McpSchema.ReadResourceRequest request = new McpSchema.ReadResourceRequest(uri);
+        return track(asyncClient != null ? asyncClient.readResource(request) : blocking(() -> syncClient.readResource(request)));
+    }
+
+    /**
+     * Close the session if the pool owns it; auto-configured beans are closed by Spring on shutdown
+     */
+    public void close() {
+        close(false);
+    }
+
+    /**
+     * @param force also close auto-configured clients, used when a broken bean client is replaced
+     */
+    public void close(boolean force) {
+        if (!owned && !force) {
+            return;
+        }
+        healthy = false;
+        try {
+            if (asyncClient != null) {
+                asyncClient.closeGracefully().onErrorResume(e -> Mono.empty()).subscribe();
+            } else {
+                Schedulers.boundedElastic().schedule(syncClient::closeGracefully);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to close MCP connection to {}: {}", serverName, e.getMessage());
+        }
+    }
+
+    /**
+     * Servers that do not advertise a feature reject its list requests, so such catalogs are simply empty
+     */
+    private boolean hasCapability(Function<McpSchema.ServerCapabilities, Object> feature) {
+        McpSchema.ServerCapabilities capabilities = getServerCapabilities();
+        return capabilities == null || feature.apply(capabilities) != null;
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static <R, T> Mono<List<T>> paginate(Function<String, Mono<R>> page, Function<R, List<T>> items,
+                                                 Function<R, String> nextCursor) {
+        return page.apply(null)
+            .expand(result -> nextCursor.apply(result) == null ? Mono.empty() : page.apply(nextCursor.apply(result)))
+            .take(MAX_PAGES)
+            .concatMapIterable(result -> items.apply(result) != null ? items.apply(result) : List.<T>of())
+            .collectList();
+    }
+
+    /**
+     * Count the call in flight, record its outcome and bound it by the caller's {@link McpDeadline}, if any
+     */
+    private <T> Mono<T> track(Mono<T> call) {
+        return McpDeadline.boundByContext(Mono.defer(() -> {
+                inFlight.incrementAndGet();
+                return call;
+            })
+            .doOnSuccess(value -> recordSuccess())
+            .doOnError(this::recordFailure)
+            .doFinally(signal -> inFlight.decrementAndGet()));
+    }
+
+    private void recordSuccess() {
+        consecutiveFailures.set(0);
+        lastActivityAt = System.currentTimeMillis();
+    }
+
+    private void recordFailure(Throwable error) {
+        lastError = error.getMessage();
+        if (isServerError(error)) {
+            // The server answered with a JSON-RPC error, so the session itself is alive
+            recordSuccess();
+        } else {
+            consecutiveFailures.incrementAndGet();
+        }
+    }
+
+    /**
+     * Whether an error points at a broken session, as opposed to a server-side error or an expired caller deadline
+     */
+    public static boolean isConnectionFailure(Throwable error) {
+        return !isServerError(error) && !(error instanceof McpDeadline.DeadlineExceededException);
+    }
+
+    /**
+     * Whether an error is a JSON-RPC error answered by the server rather than a transport or timeout failure
+     */
+    public static boolean isServerError(Throwable error) {
+        return error instanceof McpError mcpError && mcpError.getJsonRpcError() != null;
+    }
+
+    public void markUnhealthy(String reason) {
+        healthy = false;
+        lastError = reason;
+    }
+
+    public String getServerName() {
+        return serverName;
+    }
+
+    public boolean isAsync() {
+        return asyncClient != null;
+    }
+
+    public boolean isOwned() {
+        return owned;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public boolean isInitialized() {
+        return asyncClient != null ? asyncClient.isInitialized() : syncClient.isInitialized();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    public long getLastActivityAt() {
+        return lastActivityAt;
+    }
+
+    public McpSchema.Implementation getServerInfo() {
+        return asyncClient != null ? asyncClient.getServerInfo() : syncClient.getServerInfo();
+    }
+
+    public McpSchema.ServerCapabilities getServerCapabilities() {
+        return asyncClient != null ? asyncClient.getServerCapabilities() : syncClient.getServerCapabilities();
+    }
+
+    public String getServerInstructions() {
+        return asyncClient != null ? asyncClient.getServerInstructions() : syncClient.getServerInstructions();
+    }
+
+    public Map<String, Object> describe() {
+        Map<String, Object> info = new HashMap<>();
+        info.put("server", serverName);
+        info.put("type", asyncClient != null ? "async" : "sync");
+        info.put("healthy", healthy);
+        info.put("initialized", isInitialized());
+        info.put("inFlight", inFlight.get());
+        info.put("consecutiveFailures", consecutiveFailures.get());
+        info.put("connectedAt", connectedAt);
+        info.put("lastActivityAt", lastActivityAt);
+        if (lastError != null) {
+            info.put("lastError", lastError);
+        }
+        McpSchema.Implementation serverInfo = getServerInfo();
+        if (serverInfo != null) {
+            info.put("serverInfo", Map.of("name", serverInfo.name(), "version", String.valueOf(serverInfo.version())));
+        }
+        return info;
+    }
+}
@@ -0,0 +1,409 @@
+package com.example.mcp.client;
+
+import io.modelcontextprotocol.client.McpAsyncClient;
+import io.modelcontextprotocol.client.McpClient;
+import io.modelcontextprotocol.client.McpSyncClient;
+import io.modelcontextprotocol.spec.McpSchema;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.mcp.client.autoconfigure.configurer.McpAsyncClientConfigurer;
+import org.springframework.ai.mcp.client.autoconfigure.configurer.McpSyncClientConfigurer;
+import org.springframework.ai.mcp.client.autoconfigure.properties.McpClientCommonProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * MCP Connection Pool
+ * Keeps a fixed number of sessions per configured MCP server, starting from the auto-configured
+ * McpSyncClient/McpAsyncClient beans. Calls go to the healthy session with the fewest calls in flight.
+ * Sessions that keep failing at the transport level are replaced in the background with exponential backoff,
+ * and idle sessions are pinged so that dead connections are noticed before the next user request.
+ */
+@Component
+public class McpConnectionPool {
+
+    private static final Logger log = LoggerFactory.getLogger(McpConnectionPool.class);
+
+    @Autowired(required = false)
+    private List<McpSyncClient> syncClients;
+
+    @Autowired(required = false)
+    private List<McpAsyncClient> asyncClients;
+
+    @Autowired(required = false)
+    private McpSyncClientConfigurer syncConfigurer;
+
+    @Autowired(required = false)
+    private McpAsyncClientConfigurer asyncConfigurer;
+
+    @Autowired(required = false)
+    private McpClientCommonProperties commonProperties;
+
+    @Autowired
+    private McpTransportFactory transportFactory;
+
+    @Autowired
+    private McpCatalogCache catalogCache;
+
+    @Value("${campaign.mcp.client.pool-size:2}")
+    private int poolSize;
+
+    @Value("${campaign.mcp.client.failure-threshold:2}")
+    private int failureThreshold;
+
+    @Value("${campaign.mcp.client.reconnect-initial-delay:1s}")
+    private Duration reconnectInitialDelay;
+
+    @Value("${campaign.mcp.client.reconnect-max-delay:60s}")
+    private Duration reconnectMaxDelay;
+
+    @Value("${campaign.mcp.client.health-check-interval:30s}")
+    private Duration healthCheckInterval;
+
+    private final Map<String, List<Slot>> servers = new ConcurrentHashMap<>();
+
+    private volatile boolean suspended;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "mcp-connection-pool");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void init() {
+        Map<String, List<McpConnection>> initial = new LinkedHashMap<>();
+        if (syncClients != null) {
+            for (McpSyncClient client : syncClients) {
+                String server = serverName(client.getClientInfo());
+                initial.computeIfAbsent(server, key -> new ArrayList<>()).add(McpConnection.ofSync(server, client, false));
+            }
+        }
+        if (asyncClients != null) {
+            for (McpAsyncClient client : asyncClients) {
+                String server = serverName(client.getClientInfo());
+                initial.computeIfAbsent(server, key -> new ArrayList<>()).add(McpConnection.ofAsync(server, client, false));
+            }
+        }
+
+        initial.forEach((server, connections) -> {
+            List<Slot> slots = new ArrayList<>();
+            for (McpConnection connection : connections) {
+                slots.add(new Slot(server, connection));
+            }
+            // Additional sessions are opened in the background so that startup does not wait on remote servers
+            int target = transportFactory.supportsMultipleSessions(server) ? Math.max(poolSize, slots.size()) : slots.size();
+            while (slots.size() < target) {
+                Slot slot = new Slot(server, null);
+                slots.add(slot);
+                scheduleReconnect(slot, null, Duration.ZERO);
+            }
+            servers.put(server, List.copyOf(slots));
+        });
+
+        long interval = healthCheckInterval.toMillis();
+        if (interval > 0) {
+            scheduler.scheduleWithFixedDelay(this::checkIdleConnections, interval, interval, TimeUnit.MILLISECONDS);
+        }
+        log.info("MCP connection pool initialized for servers: {}", servers.keySet());
+    }
+
+    /**
+     * Run a call on the least busy healthy session of a server
+     */
+    public <T> Mono<T> execute(String server, Function<McpConnection, Mono<T>> call) {
+        return Mono.defer(() -> {
+            Slot slot = acquire(server);
+            McpConnection connection = slot.connection;
+            // Auto-configured clients are only initialized eagerly when spring.ai.mcp.client.initialized is set
+            Mono<T> result = connection.isInitialized()
+                ? call.apply(connection)
+                : connection.initialize().then(Mono.defer(() -> call.apply(connection)));
+            return result.doOnError(error -> onCallFailed(slot, connection, error));
+        });
+    }
+
+    public Set<String> getServerNames() {
+        return servers.keySet();
+    }
+
+    public boolean hasServer(String server) {
+        return servers.containsKey(server);
+    }
+
+    public boolean isAvailable(String server) {
+        List<Slot> slots = servers.get(server);
+        return slots != null && slots.stream().anyMatch(Slot::isUsable);
+    }
+
+    /**
+     * Current sessions of a server, healthy or not
+     */
+    public List<McpConnection> getConnections(String server) {
+        List<McpConnection> connections = new ArrayList<>();
+        for (Slot slot : servers.getOrDefault(server, List.of())) {
+            if (slot.connection != null) {
+                connections.add(slot.connection);
+            }
+        }
+        return connections;
+    }
+
+    public List<McpConnection> getAllConnections() {
+        List<McpConnection> connections = new ArrayList<>();
+        servers.keySet().forEach(server -> connections.addAll(getConnections(server)));
+        return connections;
+    }
+
+    /**
+     * Force every unhealthy or missing session to reconnect now
+     */
+    public void reconnectUnhealthy() {
+        suspended = false;
+        servers.values().forEach(slots -> slots.forEach(slot -> {
+            if (!slot.isUsable()) {
+                scheduleReconnect(slot, slot.connection, Duration.ZERO);
+            }
+        }));
+    }
+
+    /**
+     * Close every session and stop reconnecting until {@link #reconnectUnhealthy()} is called
+     */
+    public void disconnectAll() {
+        suspended = true;
+        servers.values().forEach(slots -> slots.forEach(slot -> {
+            McpConnection connection = slot.connection;
+            if (connection != null) {
+                connection.markUnhealthy("Disconnected");
+                connection.close(true);
+            }
+        }));
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        servers.forEach((server, slots) -> {
+            List<Map<String, Object>> sessions = new ArrayList<>();
+            for (Slot slot : slots) {
+                Map<String, Object> session = slot.connection != null ? slot.connection.describe() : new HashMap<>();
+                session.put("reconnecting", slot.reconnecting.get());
+                session.put("reconnectAttempts", slot.attempts);
+                sessions.add(session);
+            }
+            status.put(server, Map.of(
+                "available", isAvailable(server),
+                "sessions", sessions
+            ));
+        });
+        return status;
+    }
+
+    private Slot acquire(String server) {
+        List<Slot> slots = servers.get(server);
+        if (slots == null) {
+            throw new IllegalArgumentException("Unknown MCP server: " + server);
+        }
+        return slots.stream()
+            .filter(Slot::isUsable)
+            .min(Comparator.comparingInt(slot -> slot.connection.getInFlight()))
+            .orElseThrow(() -> new IllegalStateException("No healthy MCP connection to server: " + server));
+    }
+
+    private void onCallFailed(Slot slot, McpConnection connection, Throwable error) {
+        if (McpConnection.isConnectionFailure(error) && connection.getConsecutiveFailures() >= failureThreshold) {
+            scheduleReconnect(slot, connection, reconnectInitialDelay);
+        }
+    }
+
+    private void checkIdleConnections() {
+        long idleSince = System.currentTimeMillis() - healthCheckInterval.toMillis();
+        servers.values().forEach(slots -> slots.forEach(slot -> {
+            McpConnection connection = slot.connection;
+            if (connection == null || slot.reconnecting.get()) {
+                return;
+            }
+            if (!connection.isHealthy()) {
+                scheduleReconnect(slot, connection, Duration.ZERO);
+            } else if (connection.getInFlight() == 0 && connection.getLastActivityAt() < idleSince) {
+                connection.ping()
+                    .timeout(healthCheckInterval)
+                    .subscribe(pong -> { }, error -> {
+                        if (McpConnection.isConnectionFailure(error)) {
+                            scheduleReconnect(slot, connection, Duration.ZERO);
+                        }
+                    });
+            }
+        }));
+    }
+
+    private void scheduleReconnect(Slot slot, McpConnection broken, Duration delay) {
+        if (suspended) {
+            return;
+        }
+        if (!transportFactory.canCreate(slot.server)) {
+            if (broken != null) {
+                broken.markUnhealthy("Connection failed and no transport configuration is available to reconnect");
+            }
+            return;
+        }
+        if (!slot.reconnecting.compareAndSet(false, true)) {
+            return;
+        }
+        if (broken != null) {
+            broken.markUnhealthy("Reconnecting after repeated failures");
+            catalogCache.invalidate(slot.server);
+        }
+        scheduler.schedule(() -> reconnect(slot), delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void reconnect(Slot slot) {
+        // disconnectAll() may have run since this attempt was scheduled; stop the retry loop until resumed
+        if (suspended) {
+            slot.reconnecting.set(false);
+            return;
+        }
+        McpConnection previous = slot.connection;
+        try {
+            McpConnection fresh = connect(slot.server);
+            if (suspended) {
+                fresh.close(true);
+                slot.reconnecting.set(false);
+                return;
+            }
+            slot.connection = fresh;
+            slot.attempts = 0;
+            slot.reconnecting.set(false);
+            if (previous != null) {
+                previous.close(true);
+            }
+            catalogCache.invalidate(slot.server);
+            log.info("MCP connection to {} established", slot.server);
+        } catch (Exception e) {
+            slot.attempts++;
+            long delay = backoff(slot.attempts);
+            log.warn("MCP connection to {} failed (attempt {}), retrying in {}ms: {}", slot.server, slot.attempts, delay,
+                e.getMessage());
+            scheduler.schedule(() -> reconnect(slot), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Open and initialize a new session the same way the auto-configuration builds its clients
+     */
+    private McpConnection connect(String server) {
+        McpSchema.Implementation clientInfo = new McpSchema.Implementation(
+            connectedClientName(server), commonProperties != null ? commonProperties.getVersion() : "1.0.0");
+        Duration requestTimeout = commonProperties != null ? commonProperties.getRequestTimeout() : Duration.ofSeconds(20);
+
+        if (isAsyncClientType()) {
+            McpClient.AsyncSpec spec = McpClient.async(transportFactory.create(server))
+                .clientInfo(clientInfo)
+                .requestTimeout(requestTimeout);
+            if (asyncConfigurer != null) {
+                spec = asyncConfigurer.configure(server, spec);
+            }
+            McpAsyncClient client = spec.build();
+            try {
+                client.initialize().block(requestTimeout);
+            } catch (RuntimeException e) {
+                client.close();
+                throw e;
+            }
+            return McpConnection.ofAsync(server, client, true);
+        }
+
+        McpClient.SyncSpec spec = McpClient.sync(transportFactory.create(server))
+            .clientInfo(clientInfo)
+            .requestTimeout(requestTimeout);
+        if (syncConfigurer != null) {
+            spec = syncConfigurer.configure(server, spec);
+        }
+        McpSyncClient client = spec.build();
+        try {
+            client.initialize();
+        } catch (RuntimeException e) {
+            client.close();
+            throw e;
+        }
+        return McpConnection.ofSync(server, client, true);
+    }
+
+    private boolean isAsyncClientType() {
+        if (commonProperties != null) {
+            return commonProperties.getType() == McpClientCommonProperties.ClientType.ASYNC;
+        }
+        return asyncClients != null && !asyncClients.isEmpty();
+    }
+
+    private long backoff(int attempts) {
+        long base = reconnectInitialDelay.toMillis() << Math.min(attempts - 1, 16);
+        long capped = Math.min(base, reconnectMaxDelay.toMillis());
+        // +/-20% jitter so that sessions to the same server do not retry in lockstep
+        return (long) (capped * (0.8 + ThreadLocalRandom.current().nextDouble() * 0.4));
+    }
+
+    private String connectedClientName(String server) {
+        String clientName = commonProperties != null ? commonProperties.getName() : "spring-ai-mcp-client";
+        return clientName + " - " + server;
+    }
+
+    /**
+     * Auto-configured clients are named "&lt;client name&gt; - &lt;connection name&gt;"
+     */
+    private String serverName(McpSchema.Implementation clientInfo) {
+        String name = clientInfo != null ? clientInfo.name() : null;
+        if (name == null) {
+            return "default";
+        }
+        int separator = name.lastIndexOf(" - ");
+        return separator >= 0 ? name.substring(separator + 3) : name;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        servers.values().forEach(slots -> slots.forEach(slot -> {
+            if (slot.connection != null) {
+                slot.connection.close();
+            }
+        }));
+    }
+
+    private static final class Slot {
+        private final String server;
+        private final AtomicBoolean reconnecting = new AtomicBoolean();
+        private volatile McpConnection connection;
+        private volatile int attempts;
+
+        Slot(String server, McpConnection connection) {
+            this.server = server;
+            this.connection = connection;
+        }
+
+        boolean isUsable() {
+            McpConnection current = connection;
+            return current != null && current.isHealthy();
+        }
+    }
+}
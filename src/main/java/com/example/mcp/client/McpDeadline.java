@@ -0,0 +1,79 @@
+package com.example.mcp.client;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * MCP Deadline
+ * Absolute point in time by which a client request must finish. A deadline attached to a reactive chain travels
+ * in the Reactor context, so every MCP call made inside it, including catalog pages and lazy initialization,
+ * is bounded by the time left rather than by its own fixed timeout.
+ */
+public final class McpDeadline {
+
+    public static final String CONTEXT_KEY = McpDeadline.class.getName();
+
+    private final long deadlineNanos;
+    private final Duration budget;
+
+    private McpDeadline(Duration budget) {
+        this.budget = budget;
+        this.deadlineNanos = System.nanoTime() + budget.toNanos();
+    }
+
+    public static McpDeadline after(Duration budget) {
+        return new McpDeadline(budget);
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0L, deadlineNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    public Duration getBudget() {
+        return budget;
+    }
+
+    /**
+     * Make the deadline visible to every MCP call inside the chain
+     */
+    public <T> Mono<T> attach(Mono<T> chain) {
+        return chain.contextWrite(context -> context.put(CONTEXT_KEY, this));
+    }
+
+    /**
+     * Fail the call once the deadline passes
+     */
+    public <T> Mono<T> bound(Mono<T> call) {
+        if (isExpired()) {
+            return Mono.error(exceeded());
+        }
+        return call.timeout(remaining(), Mono.error(this::exceeded));
+    }
+
+    /**
+     * Bound a call by the deadline in its subscriber context, if there is one
+     */
+    public static <T> Mono<T> boundByContext(Mono<T> call) {
+        return Mono.deferContextual(context -> context.<McpDeadline>getOrEmpty(CONTEXT_KEY)
+            .map(deadline -> deadline.bound(call))
+            .orElse(call));
+    }
+
+    public DeadlineExceededException exceeded() {
+        return new DeadlineExceededException("Deadline of " + budget.toMillis() + "ms exceeded");
+    }
+
+    /**
+     * Raised when a call runs past the caller's deadline; says nothing about the health of the connection
+     */
+    public static class DeadlineExceededException extends RuntimeException {
+        public DeadlineExceededException(String message) {
+            super(message);
+        }
+    }
+}
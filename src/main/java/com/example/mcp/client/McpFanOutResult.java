@@ -0,0 +1,110 @@
+package com.example.mcp.client;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MCP Fan-Out Result
+ * Per-server outcome of a request sent to several MCP servers at once. A failing or slow server only
+ * removes its own contribution; the others are still returned.
+ */
+public class McpFanOutResult<T> {
+
+    public enum Status { OK, ERROR, TIMEOUT, UNAVAILABLE }
+
+    /**
+     * Outcome for one server
+     */
+    public record ServerResult<T>(String server, Status status, T value, String error, double latencyMs) {
+
+        public static <T> ServerResult<T> ok(String server, T value, double latencyMs) {
+            return new ServerResult<>(server, Status.OK, value, null, latencyMs);
+        }
+
+        public static <T> ServerResult<T> failed(String server, Throwable error, double latencyMs) {
+            Status status = error instanceof McpDeadline.DeadlineExceededException ? Status.TIMEOUT
+                : error instanceof IllegalStateException ? Status.UNAVAILABLE
+                : Status.ERROR;
+            return new ServerResult<>(server, status, null, String.valueOf(error.getMessage()), latencyMs);
+        }
+
+        public boolean isOk() {
+            return status == Status.OK;
+        }
+    }
+
+    private final Map<String, ServerResult<T>> results = new LinkedHashMap<>();
+    private final long budgetMs;
+    private final double elapsedMs;
+
+    public McpFanOutResult(List<ServerResult<T>> serverResults, long budgetMs, double elapsedMs) {
+        serverResults.forEach(result -> results.put(result.server(), result));
+        this.budgetMs = budgetMs;
+        this.elapsedMs = elapsedMs;
+    }
+
+    /**
+     * Values of the servers that answered in time, keyed by server
+     */
+    public Map<String, T> getValues() {
+        Map<String, T> values = new LinkedHashMap<>();
+        results.values().stream().filter(ServerResult::isOk).forEach(result -> values.put(result.server(), result.value()));
+        return values;
+    }
+
+    public Map<String, ServerResult<T>> getResults() {
+        return results;
+    }
+
+    public boolean isComplete() {
+        return results.values().stream().allMatch(ServerResult::isOk);
+    }
+
+    public boolean isPartial() {
+        return !isComplete() && results.values().stream().anyMatch(ServerResult::isOk);
+    }
+
+    /**
+     * "connected" when every server answered, "partial" when some did, "disconnected" when none did
+     */
+    public String getStatus() {
+        if (results.isEmpty()) {
+            return "disconnected";
+        }
+        return isComplete() ? "connected" : isPartial() ? "partial" : "disconnected";
+    }
+
+    public double getElapsedMs() {
+        return elapsedMs;
+    }
+
+    /**
+     * Status and latency per server, without the values
+     */
+    public List<Map<String, Object>> toReport() {
+        List<Map<String, Object>> report = new ArrayList<>();
+        for (ServerResult<T> result : results.values()) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("server", result.server());
+            entry.put("status", result.status().name().toLowerCase());
+            entry.put("latencyMs", result.latencyMs());
+            if (result.error() != null) {
+                entry.put("error", result.error());
+            }
+            report.add(entry);
+        }
+        return report;
+    }
+
+    public Map<String, Object> toSummary() {
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("status", getStatus());
+        summary.put("servers", toReport());
+        summary.put("deadlineMs", budgetMs);
+        summary.put("elapsedMs", elapsedMs);
+        return summary;
+    }
+}
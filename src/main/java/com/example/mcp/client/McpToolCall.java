@@ -0,0 +1,42 @@
+package com.example.mcp.client;
+
+import java.util.Map;
+
+/**
+ * MCP Tool Call
+ * One entry of a batch tool invocation
+ */
+public class McpToolCall {
+
+    /** Caller-chosen correlation id, echoed in the result */
+    private String id;
+
+    /** Server connection name; the marketing server when not set */
+    private String server;
+
+    private String toolName;
+
+    private Map<String, Object> arguments;
+
+    public McpToolCall() {
+    }
+
+    public McpToolCall(String id, String server, String toolName, Map<String, Object> arguments) {
+        this.id = id;
+        this.server = server;
+        this.toolName = toolName;
+        this.arguments = arguments;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getServer() { return server; }
+    public void setServer(String server) { this.server = server; }
+
+    public String getToolName() { return toolName; }
+    public void setToolName(String toolName) { this.toolName = toolName; }
+
+    public Map<String, Object> getArguments() { return arguments; }
+    public void setArguments(Map<String, Object> arguments) { this.arguments = arguments; }
+}
@@ -0,0 +1,88 @@
+package com.example.mcp.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.modelcontextprotocol.client.transport.HttpClientSseClientTransport;
+import io.modelcontextprotocol.client.transport.ServerParameters;
+import io.modelcontextprotocol.client.transport.StdioClientTransport;
+import io.modelcontextprotocol.spec.McpClientTransport;
+import org.springframework.ai.mcp.client.autoconfigure.properties.McpSseClientProperties;
+import org.springframework.ai.mcp.client.autoconfigure.properties.McpStdioClientProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * MCP Transport Factory
+ * Creates fresh client transports from the spring.ai.mcp.client connection properties.
+ * A transport can only be connected once, so every pooled or reconnected session needs a new one.
+ */
+@Component
+public class McpTransportFactory {
+
+    private static final String DEFAULT_SSE_ENDPOINT = "/sse";
+
+    private final ObjectProvider<McpSseClientProperties> sseProperties;
+    private final ObjectProvider<McpStdioClientProperties> stdioProperties;
+    private final ObjectMapper objectMapper;
+
+    public McpTransportFactory(ObjectProvider<McpSseClientProperties> sseProperties,
+                               ObjectProvider<McpStdioClientProperties> stdioProperties,
+                               ObjectMapper objectMapper) {
+        this.sseProperties = sseProperties;
+        this.stdioProperties = stdioProperties;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Names of all configured server connections
+     */
+    public Set<String> getServerNames() {
+        Set<String> names = new LinkedHashSet<>();
+        McpSseClientProperties sse = sseProperties.getIfAvailable();
+        if (sse != null) {
+            names.addAll(sse.getConnections().keySet());
+        }
+        names.addAll(stdioServers().keySet());
+        return names;
+    }
+
+    public boolean canCreate(String serverName) {
+        return sseParameters(serverName) != null || stdioServers().containsKey(serverName);
+    }
+
+    /**
+     * Whether several sessions to the server can be opened side by side; stdio servers are child processes
+     * with their own state, so they get a single session
+     */
+    public boolean supportsMultipleSessions(String serverName) {
+        return sseParameters(serverName) != null;
+    }
+
+    public McpClientTransport create(String serverName) {
+        McpSseClientProperties.SseParameters sse = sseParameters(serverName);
+        if (sse != null) {
+            return HttpClientSseClientTransport.builder(sse.url())
+                .sseEndpoint(sse.sseEndpoint() != null ? sse.sseEndpoint() : DEFAULT_SSE_ENDPOINT)
+                .objectMapper(objectMapper)
+                .build();
+        }
+        ServerParameters stdio = stdioServers().get(serverName);
+        if (stdio != null) {
+            return new StdioClientTransport(stdio, objectMapper);
+        }
+        throw new IllegalStateException("No MCP connection configured for server: " + serverName);
+    }
+
+    private McpSseClientProperties.SseParameters sseParameters(String serverName) {
+        McpSseClientProperties sse = sseProperties.getIfAvailable();
+        return sse != null ? sse.getConnections().get(serverName) : null;
+    }
+
+    private Map<String, ServerParameters> stdioServers() {
+        McpStdioClientProperties stdio = stdioProperties.getIfAvailable();
+        return stdio != null ? stdio.toServerParameters() : Map.of();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.mcp.condition;
+
+import com.example.mcp.server.CampaignNodeConfig;
+
+import java.util.List;
+
+/**
+ * Compiled Condition
+ * Compiled form of a {@link CampaignNodeConfig.ConditionConfig}, ready to route customers to flow paths.
+ *
+ * The optional predicate comes from {@code conditionLogic}. Flow paths whose condition is the literal
+ * "true" or "false" are branches on that predicate; any other flow path condition is an expression of its own.
+ * Paths are checked in declaration order and the first match wins.
+ */
+public class CompiledCondition {
+
+    private final ConditionEvaluator predicate;
+    private final CampaignNodeConfig.ConditionConfig.FlowPath[] flowPaths;
+    private final ConditionEvaluator[] pathEvaluators;
+    private final byte[] branchKinds;
+
+    static final byte BRANCH_EXPRESSION = 0;
+    static final byte BRANCH_TRUE = 1;
+    static final byte BRANCH_FALSE = 2;
+
+    CompiledCondition(ConditionEvaluator predicate, List<CampaignNodeConfig.ConditionConfig.FlowPath> flowPaths,
+                      ConditionEvaluator[] pathEvaluators, byte[] branchKinds) {
+        this.predicate = predicate;
+        this.flowPaths = flowPaths.toArray(new CampaignNodeConfig.ConditionConfig.FlowPath[0]);
+        this.pathEvaluators = pathEvaluators;
+        this.branchKinds = branchKinds;
+    }
+
+    /**
+     * Select the flow path for a customer
+     * @return the first matching flow path, or null when none matches
+     */
+    public CampaignNodeConfig.ConditionConfig.FlowPath select(CustomerRecord customer, long nowMillis) {
+        int index = selectIndex(customer, nowMillis);
+        return index < 0 ? null : flowPaths[index];
+    }
+
+    /**
+     * Select the flow path index for a customer without touching the flow path objects
+     * @return index into {@link #getFlowPaths()}, or -1 when none matches
+     */
+    public int selectIndex(CustomerRecord customer, long nowMillis) {
+        boolean predicateResult = predicate.evaluate(customer, nowMillis);
+        for (int i = 0; i < pathEvaluators.length; i++) {
+            switch (branchKinds[i]) {
+                case BRANCH_TRUE:
+                    if (predicateResult) {
+                        return i;
+                    }
+                    break;
+                case BRANCH_FALSE:
+                    if (!predicateResult) {
+                        return i;
+                    }
+                    break;
+                default:
+                    if (pathEvaluators[i].evaluate(customer, nowMillis)) {
+                        return i;
+                    }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Evaluate only the condition logic predicate
+     */
+    public boolean test(CustomerRecord customer, long nowMillis) {
+        return predicate.evaluate(customer, nowMillis);
+    }
+
+    public List<CampaignNodeConfig.ConditionConfig.FlowPath> getFlowPaths() {
+        return List.of(flowPaths);
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.mcp.condition;
+
+import com.example.mcp.server.CampaignNodeConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Condition Evaluation Service
+ * Compiles condition node expressions once and caches the compiled evaluators by expression text. Expressions
+ * come from callers (REST selections, node data), so the cache keeps only the most recently used
+ * campaign.condition.expression-cache-size of them.
+ */
+@Service
+public class ConditionEvaluationService {
+
+    @Value("${campaign.condition.expression-cache-size:1024}")
+    private int expressionCacheSize;
+
+    private final Map<String, ConditionEvaluator> expressionCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ConditionEvaluator> eldest) {
+            return size() > expressionCacheSize;
+        }
+    };
+
+    /**
+     * Compile an expression, reusing the cached evaluator when the same text was compiled recently
+     */
+    public ConditionEvaluator compile(String expression) {
+        if (expression == null) {
+            throw new IllegalArgumentException("Condition expression is empty");
+        }
+        String key = expression.trim();
+        synchronized (expressionCache) {
+            ConditionEvaluator cached = expressionCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        // Compiled outside the lock; a concurrent compile of the same text just replaces an equivalent evaluator
+        ConditionEvaluator compiled = ConditionExpressionCompiler.compile(key);
+        synchronized (expressionCache) {
+            expressionCache.put(key, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * Compile a condition node configuration into a flow path router
+     */
+    public CompiledCondition compile(CampaignNodeConfig.ConditionConfig config) {
+        ConditionEvaluator predicate = compileLogic(config.getConditionLogic());
+        List<CampaignNodeConfig.ConditionConfig.FlowPath> flowPaths =
+            config.getFlowPaths() != null ? config.getFlowPaths() : List.of();
+
+        ConditionEvaluator[] evaluators = new ConditionEvaluator[flowPaths.size()];
+        byte[] branchKinds = new byte[flowPaths.size()];
+        for (int i = 0; i < flowPaths.size(); i++) {
+            String condition = flowPaths.get(i).getCondition();
+            String trimmed = condition == null ? "" : condition.trim();
+            if (trimmed.equalsIgnoreCase("true")) {
+                branchKinds[i] = CompiledCondition.BRANCH_TRUE;
+                evaluators[i] = ConditionEvaluator.TRUE;
+            } else if (trimmed.equalsIgnoreCase("false")) {
+                branchKinds[i] = CompiledCondition.BRANCH_FALSE;
+                evaluators[i] = ConditionEvaluator.FALSE;
+            } else if (trimmed.isEmpty() || trimmed.equalsIgnoreCase("else") || trimmed.equalsIgnoreCase("default")) {
+                branchKinds[i] = CompiledCondition.BRANCH_EXPRESSION;
+                evaluators[i] = ConditionEvaluator.TRUE;
+            } else {
+                branchKinds[i] = CompiledCondition.BRANCH_EXPRESSION;
+                evaluators[i] = compile(trimmed);
+            }
+        }
+        return new CompiledCondition(predicate, flowPaths, evaluators, branchKinds);
+    }
+
+    /**
+     * Compile a condition node from recommendation data (the map form stored in {@code CampaignNode.data})
+     */
+    @SuppressWarnings("unchecked")
+    public CompiledCondition compile(Map<String, Object> nodeData) {
+        CampaignNodeConfig.ConditionConfig config = new CampaignNodeConfig.ConditionConfig();
+        Object logic = nodeData.get("conditionLogic");
+        if (logic instanceof Map) {
+            config.setConditionLogic((Map<String, Object>) logic);
+        }
+        List<CampaignNodeConfig.ConditionConfig.FlowPath> flowPaths = new ArrayList<>();
+        Object paths = nodeData.get("flowPaths");
+        if (paths instanceof List) {
+            int id = 0;
+            for (Object path : (List<Object>) paths) {
+                if (!(path instanceof Map)) {
+                    continue;
+                }
+                Map<String, Object> pathData = (Map<String, Object>) path;
+                CampaignNodeConfig.ConditionConfig.FlowPath flowPath = new CampaignNodeConfig.ConditionConfig.FlowPath();
+                flowPath.setId(id++);
+                flowPath.setName(asString(pathData.get("name")));
+                flowPath.setCondition(asString(pathData.get("condition")));
+                flowPath.setTargetType(asString(pathData.get("targetType")));
+                flowPath.setTargetNodeId(asString(pathData.get("targetNodeId")));
+                flowPaths.add(flowPath);
+            }
+        }
+        config.setFlowPaths(flowPaths);
+        return compile(config);
+    }
+
+    /**
+     * Validate a condition node, returning the compile error if any
+     */
+    public Map<String, Object> validate(Map<String, Object> nodeData) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            CompiledCondition compiled = compile(nodeData);
+            result.put("valid", true);
+            result.put("flowPathCount", compiled.getFlowPaths().size());
+        } catch (IllegalArgumentException e) {
+            result.put("valid", false);
+            result.put("error", e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * Number of distinct compiled expressions held in the cache
+     */
+    public int getCachedExpressionCount() {
+        synchronized (expressionCache) {
+            return expressionCache.size();
+        }
+    }
+
+    /**
+     * Compile {@code conditionLogic}. Supported forms:
+     * {"expression": "..."}, {"all": [...]}, {"any": [...]}, {"not": ...};
+     * list entries are expression strings or nested logic maps. No logic means "always true".
+     */
+    @SuppressWarnings("unchecked")
+    private ConditionEvaluator compileLogic(Object logic) {
+        if (logic == null) {
+            return ConditionEvaluator.TRUE;
+        }
+        if (logic instanceof String) {
+            return compile((String) logic);
+        }
+        if (logic instanceof Boolean) {
+            return (Boolean) logic ? ConditionEvaluator.TRUE : ConditionEvaluator.FALSE;
+        }
+        if (!(logic instanceof Map)) {
+            throw new IllegalArgumentException("Unsupported condition logic: " + logic);
+        }
+
+        Map<String, Object> logicMap = (Map<String, Object>) logic;
+        if (logicMap.isEmpty()) {
+            return ConditionEvaluator.TRUE;
+        }
+        if (logicMap.containsKey("expression")) {
+            return compileLogic(logicMap.get("expression"));
+        }
+        if (logicMap.containsKey("not")) {
+            ConditionEvaluator operand = compileLogic(logicMap.get("not"));
+            return (customer, now) -> !operand.evaluate(customer, now);
+        }
+        boolean all = logicMap.containsKey("all");
+        Object operands = all ? logicMap.get("all") : logicMap.get("any");
+        if (!(operands instanceof List)) {
+            throw new IllegalArgumentException("Condition logic must define expression, all, any or not: " + logicMap);
+        }
+        ConditionEvaluator[] compiled = ((List<Object>) operands).stream()
+            .map(this::compileLogic)
+            .toArray(ConditionEvaluator[]::new);
+        if (all) {
+            return (customer, now) -> {
+                for (ConditionEvaluator evaluator : compiled) {
+                    if (!evaluator.evaluate(customer, now)) {
+                        return false;
+                    }
+                }
+                return true;
+            };
+        }
+        return (customer, now) -> {
+            for (ConditionEvaluator evaluator : compiled) {
+                if (evaluator.evaluate(customer, now)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    private static String asString(Object value) {
+        return value == null ? null : value.toString();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.mcp.condition;
+
+/**
+ * Condition Evaluator
+ * A compiled condition expression. Instances are immutable, thread-safe and evaluate without allocating.
+ */
+@FunctionalInterface
+public interface ConditionEvaluator {
+
+    ConditionEvaluator TRUE = (customer, nowMillis) -> true;
+    ConditionEvaluator FALSE = (customer, nowMillis) -> false;
+
+    /**
+     * Evaluate the condition for one customer
+     * @param customer Customer record
+     * @param nowMillis Evaluation time in epoch millis, used by time windows and engagement events
+     * @return true when the condition holds
+     */
+    boolean evaluate(CustomerRecord customer, long nowMillis);
+}
@@ -0,0 +1,517 @@
+package com.example.mcp.condition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Condition Expression Compiler
+ * Parses condition expressions once and compiles them into a tree of specialized evaluator objects.
+ *
+ * Grammar:
+ * <pre>
+ * condition  := or
+ * or         := and (("or" | "||") and)*
+ * and        := unary (("and" | "&&") unary)*
+ * unary      := ("not" | "!") unary | primary
+ * primary    := "(" condition ")" | "true" | "false"
+ *             | "segment" "(" STRING ")"
+ *             | "event" "(" STRING ["," DURATION] ")"
+ *             | "within" "(" IDENT "," DURATION ")"
+ *             | "hourBetween" "(" NUMBER "," NUMBER ")"
+ *             | operand op literal
+ *             | operand "in" "(" literal ("," literal)* ")"
+ *             | operand "between" NUMBER "and" NUMBER
+ * operand    := IDENT | "eventCount" "(" STRING ")"
+ * op         := "==" | "=" | "!=" | ">" | ">=" | "<" | "<="
+ * DURATION   := NUMBER ("d" | "h" | "m" | "s")
+ * </pre>
+ *
+ * Examples: {@code age >= 30 and location in ("Shanghai", "Beijing")},
+ * {@code segment("vip") or (event("email_open", 7d) and eventCount("email_click") >= 2)},
+ * {@code within(lastPurchaseAt, 30d) and hourBetween(9, 18)}.
+ * Missing numeric attributes compare as NaN, so every ordering comparison on them is false.
+ * String comparisons on multi-valued attributes test membership: {@code interests == "travel"} matches
+ * a customer whose interests include travel.
+ */
+public final class ConditionExpressionCompiler {
+
+    private ConditionExpressionCompiler() {}
+
+    /**
+     * Compile an expression into an evaluator
+     * @throws IllegalArgumentException when the expression is malformed
+     */
+    public static ConditionEvaluator compile(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("Condition expression is empty");
+        }
+        Parser parser = new Parser(expression, tokenize(expression));
+        ConditionEvaluator evaluator = parser.parseOr();
+        parser.expect(TokenType.EOF);
+        return evaluator;
+    }
+
+    // ---------------------------------------------------------------- operands
+
+    /**
+     * Numeric operand on the left-hand side of a comparison
+     */
+    private interface NumericOperand {
+        double value(CustomerRecord customer, long nowMillis);
+    }
+
+    private static NumericOperand attribute(String name) {
+        return (customer, nowMillis) -> customer.getNumber(name);
+    }
+
+    private static NumericOperand eventCount(String eventType) {
+        return (customer, nowMillis) -> customer.getEventCount(eventType);
+    }
+
+    // ---------------------------------------------------------------- specialized evaluators
+
+    private static ConditionEvaluator compareNumber(NumericOperand operand, String op, double threshold) {
+        switch (op) {
+            case "==":
+                return (customer, now) -> operand.value(customer, now) == threshold;
+            case "!=":
+                return (customer, now) -> operand.value(customer, now) != threshold;
+            case ">":
+                return (customer, now) -> operand.value(customer, now) > threshold;
+            case ">=":
+                return (customer, now) -> operand.value(customer, now) >= threshold;
+            case "<":
+                return (customer, now) -> operand.value(customer, now) < threshold;
+            case "<=":
+                return (customer, now) -> operand.value(customer, now) <= threshold;
+            default:
+                throw new IllegalArgumentException("Unsupported numeric operator: " + op);
+        }
+    }
+
+    private static ConditionEvaluator compareString(String attribute, String op, String expected) {
+        switch (op) {
+            case "==":
+                return (customer, now) -> customer.hasValue(attribute, expected);
+            case "!=":
+                return (customer, now) -> !customer.hasValue(attribute, expected);
+            default:
+                throw new IllegalArgumentException("Operator " + op + " is not supported for string attribute " + attribute);
+        }
+    }
+
+    private static ConditionEvaluator inNumbers(NumericOperand operand, double[] values) {
+        return (customer, now) -> {
+            double value = operand.value(customer, now);
+            for (double candidate : values) {
+                if (candidate == value) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    private static ConditionEvaluator inStrings(String attribute, String[] values) {
+        return (customer, now) -> {
+            for (String candidate : values) {
+                if (customer.hasValue(attribute, candidate)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    private static ConditionEvaluator between(NumericOperand operand, double low, double high) {
+        return (customer, now) -> {
+            double value = operand.value(customer, now);
+            return value >= low && value <= high;
+        };
+    }
+
+    private static ConditionEvaluator segment(String segment) {
+        return (customer, now) -> customer.isInSegment(segment);
+    }
+
+    private static ConditionEvaluator event(String eventType) {
+        return (customer, now) -> customer.getLastEventTime(eventType) != Long.MIN_VALUE;
+    }
+
+    private static ConditionEvaluator eventWithin(String eventType, long windowMillis) {
+        return (customer, now) -> {
+            long last = customer.getLastEventTime(eventType);
+            return last != Long.MIN_VALUE && now - last <= windowMillis;
+        };
+    }
+
+    private static ConditionEvaluator within(String attribute, long windowMillis) {
+        return (customer, now) -> {
+            double timestamp = customer.getNumber(attribute);
+            return timestamp <= now && now - timestamp <= windowMillis;
+        };
+    }
+
+    private static ConditionEvaluator hourBetween(int fromHour, int toHour) {
+        // UTC hour of day; a window such as 22..6 wraps around midnight
+        if (fromHour <= toHour) {
+            return (customer, now) -> {
+                long hour = Math.floorMod(now / 3_600_000L, 24L);
+                return hour >= fromHour && hour < toHour;
+            };
+        }
+        return (customer, now) -> {
+            long hour = Math.floorMod(now / 3_600_000L, 24L);
+            return hour >= fromHour || hour < toHour;
+        };
+    }
+
+    private static ConditionEvaluator and(ConditionEvaluator left, ConditionEvaluator right) {
+        if (left == ConditionEvaluator.FALSE || right == ConditionEvaluator.FALSE) {
+            return ConditionEvaluator.FALSE;
+        }
+        if (left == ConditionEvaluator.TRUE) {
+            return right;
+        }
+        if (right == ConditionEvaluator.TRUE) {
+            return left;
+        }
+        return (customer, now) -> left.evaluate(customer, now) && right.evaluate(customer, now);
+    }
+
+    private static ConditionEvaluator or(ConditionEvaluator left, ConditionEvaluator right) {
+        if (left == ConditionEvaluator.TRUE || right == ConditionEvaluator.TRUE) {
+            return ConditionEvaluator.TRUE;
+        }
+        if (left == ConditionEvaluator.FALSE) {
+            return right;
+        }
+        if (right == ConditionEvaluator.FALSE) {
+            return left;
+        }
+        return (customer, now) -> left.evaluate(customer, now) || right.evaluate(customer, now);
+    }
+
+    private static ConditionEvaluator not(ConditionEvaluator operand) {
+        if (operand == ConditionEvaluator.TRUE) {
+            return ConditionEvaluator.FALSE;
+        }
+        if (operand == ConditionEvaluator.FALSE) {
+            return ConditionEvaluator.TRUE;
+        }
+        return (customer, now) -> !operand.evaluate(customer, now);
+    }
+
+    // ---------------------------------------------------------------- tokenizer
+
+    private enum TokenType {
+        IDENT, NUMBER, DURATION, STRING, OPERATOR, LPAREN, RPAREN, COMMA, EOF
+    }
+
+    private static final class Token {
+        final TokenType type;
+        final String text;
+        final double number;
+        final int position;
+
+        Token(TokenType type, String text, double number, int position) {
+            this.type = type;
+            this.text = text;
+            this.number = number;
+            this.position = position;
+        }
+
+        boolean isKeyword(String keyword) {
+            return type == TokenType.IDENT && text.equalsIgnoreCase(keyword);
+        }
+
+        boolean isOperator(String operator) {
+            return type == TokenType.OPERATOR && text.equals(operator);
+        }
+    }
+
+    private static List<Token> tokenize(String expression) {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        int length = expression.length();
+        while (i < length) {
+            char c = expression.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(') {
+                tokens.add(new Token(TokenType.LPAREN, "(", 0, i++));
+            } else if (c == ')') {
+                tokens.add(new Token(TokenType.RPAREN, ")", 0, i++));
+            } else if (c == ',') {
+                tokens.add(new Token(TokenType.COMMA, ",", 0, i++));
+            } else if (c == '"' || c == '\'') {
+                int end = expression.indexOf(c, i + 1);
+                if (end < 0) {
+                    throw syntaxError(expression, i, "unterminated string literal");
+                }
+                tokens.add(new Token(TokenType.STRING, expression.substring(i + 1, end), 0, i));
+                i = end + 1;
+            } else if (Character.isDigit(c) || (c == '-' && i + 1 < length && Character.isDigit(expression.charAt(i + 1)))) {
+                int start = i++;
+                while (i < length && (Character.isDigit(expression.charAt(i)) || expression.charAt(i) == '.')) {
+                    i++;
+                }
+                double value = Double.parseDouble(expression.substring(start, i));
+                if (i < length && "dhms".indexOf(Character.toLowerCase(expression.charAt(i))) >= 0
+                        && (i + 1 == length || !Character.isLetterOrDigit(expression.charAt(i + 1)))) {
+                    long unit = unitMillis(Character.toLowerCase(expression.charAt(i)));
+                    tokens.add(new Token(TokenType.DURATION, expression.substring(start, i + 1), value * unit, start));
+                    i++;
+                } else {
+                    tokens.add(new Token(TokenType.NUMBER, expression.substring(start, i), value, start));
+                }
+            } else if (Character.isLetter(c) || c == '_') {
+                int start = i;
+                while (i < length && (Character.isLetterOrDigit(expression.charAt(i))
+                        || expression.charAt(i) == '_' || expression.charAt(i) == '.')) {
+                    i++;
+                }
+                tokens.add(new Token(TokenType.IDENT, expression.substring(start, i), 0, start));
+            } else {
+                String two = i + 1 < length ? expression.substring(i, i + 2) : "";
+                if (two.equals("==") || two.equals("!=") || two.equals(">=") || two.equals("<=")
+                        || two.equals("&&") || two.equals("||")) {
+                    tokens.add(new Token(TokenType.OPERATOR, two, 0, i));
+                    i += 2;
+                } else if (c == '>' || c == '<' || c == '!' || c == '=') {
+                    tokens.add(new Token(TokenType.OPERATOR, c == '=' ? "==" : String.valueOf(c), 0, i));
+                    i++;
+                } else {
+                    throw syntaxError(expression, i, "unexpected character '" + c + "'");
+                }
+            }
+        }
+        tokens.add(new Token(TokenType.EOF, "<end>", 0, length));
+        return tokens;
+    }
+
+    private static long unitMillis(char unit) {
+        switch (unit) {
+            case 'd': return 86_400_000L;
+            case 'h': return 3_600_000L;
+            case 'm': return 60_000L;
+            default: return 1_000L;
+        }
+    }
+
+    private static IllegalArgumentException syntaxError(String expression, int position, String message) {
+        return new IllegalArgumentException(
+            String.format("Invalid condition expression at position %d (%s): %s", position, message, expression));
+    }
+
+    // ---------------------------------------------------------------- parser
+
+    private static final class Parser {
+        private final String expression;
+        private final List<Token> tokens;
+        private int index;
+
+        Parser(String expression, List<Token> tokens) {
+            this.expression = expression;
+            this.tokens = tokens;
+        }
+
+        ConditionEvaluator parseOr() {
+            ConditionEvaluator left = parseAnd();
+            while (peek().isKeyword("or") || peek().isOperator("||")) {
+                index++;
+                left = or(left, parseAnd());
+            }
+            return left;
+        }
+
+        ConditionEvaluator parseAnd() {
+            ConditionEvaluator left = parseUnary();
+            while (peek().isKeyword("and") || peek().isOperator("&&")) {
+                index++;
+                left = and(left, parseUnary());
+            }
+            return left;
+        }
+
+        ConditionEvaluator parseUnary() {
+            if (peek().isKeyword("not") || peek().isOperator("!")) {
+                index++;
+                return not(parseUnary());
+            }
+            return parsePrimary();
+        }
+
+        ConditionEvaluator parsePrimary() {
+            Token token = next();
+            if (token.type == TokenType.LPAREN) {
+                ConditionEvaluator inner = parseOr();
+                expect(TokenType.RPAREN);
+                return inner;
+            }
+            if (token.type != TokenType.IDENT) {
+                throw error(token, "expected condition");
+            }
+
+            String name = token.text.toLowerCase(Locale.ROOT);
+            boolean call = peek().type == TokenType.LPAREN;
+            if (!call && name.equals("true")) {
+                return ConditionEvaluator.TRUE;
+            }
+            if (!call && name.equals("false")) {
+                return ConditionEvaluator.FALSE;
+            }
+            if (call) {
+                switch (name) {
+                    case "segment": {
+                        index++;
+                        String segment = expect(TokenType.STRING).text;
+                        expect(TokenType.RPAREN);
+                        return segment(segment);
+                    }
+                    case "event": {
+                        index++;
+                        String eventType = expect(TokenType.STRING).text;
+                        if (peek().type == TokenType.COMMA) {
+                            index++;
+                            long window = (long) expect(TokenType.DURATION).number;
+                            expect(TokenType.RPAREN);
+                            return eventWithin(eventType, window);
+                        }
+                        expect(TokenType.RPAREN);
+                        return event(eventType);
+                    }
+                    case "within": {
+                        index++;
+                        String attribute = expect(TokenType.IDENT).text;
+                        expect(TokenType.COMMA);
+                        long window = (long) expect(TokenType.DURATION).number;
+                        expect(TokenType.RPAREN);
+                        return within(attribute, window);
+                    }
+                    case "hourbetween": {
+                        index++;
+                        int from = hour(expect(TokenType.NUMBER));
+                        expect(TokenType.COMMA);
+                        int to = hour(expect(TokenType.NUMBER));
+                        expect(TokenType.RPAREN);
+                        return hourBetween(from, to);
+                    }
+                    case "eventcount": {
+                        index++;
+                        String eventType = expect(TokenType.STRING).text;
+                        expect(TokenType.RPAREN);
+                        return parseComparison(null, eventCount(eventType));
+                    }
+                    default:
+                        throw error(token, "unknown function " + token.text);
+                }
+            }
+            return parseComparison(token.text, attribute(token.text));
+        }
+
+        /**
+         * Parse the right-hand side of a comparison; attribute is null for non-attribute operands
+         */
+        private ConditionEvaluator parseComparison(String attribute, NumericOperand operand) {
+            Token token = next();
+            if (token.isKeyword("in")) {
+                expect(TokenType.LPAREN);
+                List<Token> values = new ArrayList<>();
+                do {
+                    values.add(literal());
+                } while (accept(TokenType.COMMA));
+                expect(TokenType.RPAREN);
+                if (values.stream().allMatch(v -> v.type == TokenType.STRING)) {
+                    requireAttribute(attribute, token);
+                    return inStrings(attribute, values.stream().map(v -> v.text).toArray(String[]::new));
+                }
+                if (values.stream().noneMatch(v -> v.type == TokenType.STRING)) {
+                    return inNumbers(operand, values.stream().mapToDouble(v -> v.number).toArray());
+                }
+                throw error(token, "cannot mix string and numeric values in an in-list");
+            }
+            if (token.isKeyword("between")) {
+                double low = expectNumeric().number;
+                Token and = next();
+                if (!and.isKeyword("and")) {
+                    throw error(and, "expected 'and' in between");
+                }
+                double high = expectNumeric().number;
+                return between(operand, Math.min(low, high), Math.max(low, high));
+            }
+            if (token.type != TokenType.OPERATOR || token.text.equals("!") || token.text.equals("&&") || token.text.equals("||")) {
+                throw error(token, "expected comparison operator");
+            }
+            Token value = literal();
+            if (value.type == TokenType.STRING) {
+                requireAttribute(attribute, value);
+                return compareString(attribute, token.text, value.text);
+            }
+            return compareNumber(operand, token.text, value.number);
+        }
+
+        private void requireAttribute(String attribute, Token token) {
+            if (attribute == null) {
+                throw error(token, "string comparisons require an attribute operand");
+            }
+        }
+
+        private Token literal() {
+            Token token = next();
+            if (token.type == TokenType.STRING || token.type == TokenType.NUMBER || token.type == TokenType.DURATION) {
+                return token;
+            }
+            throw error(token, "expected literal value");
+        }
+
+        private Token expectNumeric() {
+            Token token = next();
+            if (token.type == TokenType.NUMBER || token.type == TokenType.DURATION) {
+                return token;
+            }
+            throw error(token, "expected number");
+        }
+
+        private int hour(Token token) {
+            int hour = (int) token.number;
+            if (hour < 0 || hour > 24) {
+                throw error(token, "hour must be between 0 and 24");
+            }
+            return hour;
+        }
+
+        Token expect(TokenType type) {
+            Token token = next();
+            if (token.type != type) {
+                throw error(token, "expected " + type.name().toLowerCase(Locale.ROOT) + " but found '" + token.text + "'");
+            }
+            return token;
+        }
+
+        private boolean accept(TokenType type) {
+            if (peek().type == type) {
+                index++;
+                return true;
+            }
+            return false;
+        }
+
+        private Token peek() {
+            return tokens.get(index);
+        }
+
+        private Token next() {
+            Token token = tokens.get(index);
+            if (token.type != TokenType.EOF) {
+                index++;
+            }
+            return token;
+        }
+
+        private IllegalArgumentException error(Token token, String message) {
+            return syntaxError(expression, token.position, message);
+        }
+    }
+}
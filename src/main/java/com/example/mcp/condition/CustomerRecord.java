@@ -0,0 +1,45 @@
+package com.example.mcp.condition;
+
+/**
+ * Customer Record
+ * Read-only view of a single customer used when evaluating compiled conditions.
+ * Implementations should answer lookups without allocating so that evaluation stays allocation-free.
+ */
+public interface CustomerRecord {
+
+    /**
+     * Numeric attribute value (age, spend, engagement score, epoch millis timestamps)
+     * @return the value, or {@link Double#NaN} when the attribute is absent
+     */
+    double getNumber(String attribute);
+
+    /**
+     * String attribute value (location, occupation, ...)
+     * @return the value, or null when the attribute is absent
+     */
+    String getString(String attribute);
+
+    /**
+     * Check whether a string attribute holds the given value, ignoring case. Multi-valued attributes
+     * (interests, behavior) match when any of their values does; single-valued ones compare the whole value.
+     */
+    default boolean hasValue(String attribute, String value) {
+        return value.equalsIgnoreCase(getString(attribute));
+    }
+
+    /**
+     * Check segment membership
+     */
+    boolean isInSegment(String segment);
+
+    /**
+     * Last time the given engagement event happened
+     * @return epoch millis, or {@link Long#MIN_VALUE} when the event never happened
+     */
+    long getLastEventTime(String eventType);
+
+    /**
+     * Total number of times the given engagement event happened
+     */
+    long getEventCount(String eventType);
+}
@@ -0,0 +1,83 @@
+package com.example.mcp.condition;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Map-backed Customer Record
+ * Adapts loosely typed customer data (REST payloads, JSON documents) to {@link CustomerRecord}.
+ */
+public class MapCustomerRecord implements CustomerRecord {
+
+    private final Map<String, Object> attributes;
+    private final Set<String> segments;
+    private final Map<String, Long> lastEventTimes;
+    private final Map<String, Long> eventCounts;
+
+    public MapCustomerRecord(Map<String, Object> attributes) {
+        this(attributes, Collections.emptySet(), Collections.emptyMap(), Collections.emptyMap());
+    }
+
+    public MapCustomerRecord(Map<String, Object> attributes, Set<String> segments,
+                             Map<String, Long> lastEventTimes, Map<String, Long> eventCounts) {
+        this.attributes = attributes;
+        this.segments = segments;
+        this.lastEventTimes = lastEventTimes;
+        this.eventCounts = eventCounts;
+    }
+
+    @Override
+    public double getNumber(String attribute) {
+        Object value = attributes.get(attribute);
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Double.parseDouble((String) value);
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+        return Double.NaN;
+    }
+
+    @Override
+    public String getString(String attribute) {
+        Object value = attributes.get(attribute);
+        return value == null ? null : value.toString();
+    }
+
+    @Override
+    public boolean hasValue(String attribute, String value) {
+        Object current = attributes.get(attribute);
+        if (current instanceof Collection) {
+            for (Object item : (Collection<?>) current) {
+                if (item != null && value.equalsIgnoreCase(item.toString())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return current != null && value.equalsIgnoreCase(current.toString());
+    }
+
+    @Override
+    public boolean isInSegment(String segment) {
+        return segments.contains(segment);
+    }
+
+    @Override
+    public long getLastEventTime(String eventType) {
+        Long time = lastEventTimes.get(eventType);
+        return time == null ? Long.MIN_VALUE : time;
+    }
+
+    @Override
+    public long getEventCount(String eventType) {
+        Long count = eventCounts.get(eventType);
+        return count == null ? 0L : count;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.mcp.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.cors.CorsConfigurationSource;
+
+/**
+ * Fast Start Configuration
+ * The fast-start profile turns on spring.main.lazy-initialization, and this filter narrows it to the beans only the
+ * REST API uses: controllers, Swagger/springdoc and CORS. They are created on the first HTTP request that needs
+ * them, while everything a stdio host needs for its first tool call (tool specifications, services, caches and
+ * indexes with their refresh schedules) is still created during startup.
+ */
+@Configuration(proxyBeanMethods = false)
+public class FastStartConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerUnlessWebOnly() {
+        return (beanName, beanDefinition, beanType) -> !isWebOnly(beanType);
+    }
+
+    static boolean isWebOnly(Class<?> beanType) {
+        if (beanType == null) {
+            return false;
+        }
+        String name = beanType.getName();
+        return AnnotatedElementUtils.hasAnnotation(beanType, Controller.class)
+            || name.startsWith("org.springdoc.")
+            || name.startsWith("io.swagger.")
+            || beanType == SwaggerConfig.class
+            || beanType == CorsConfig.class
+            || CorsConfigurationSource.class.isAssignableFrom(beanType);
+    }
+}
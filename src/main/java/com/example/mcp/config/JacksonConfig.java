@@ -0,0 +1,22 @@
+package com.example.mcp.config;
+
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Jackson Configuration
+ * Tunes the application-wide ObjectMapper that Spring Boot builds. MVC, the MCP client and the WebSocket
+ * codec all use that one mapper (or builders derived from it), so serializers are resolved and cached once.
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Replaces reflective getter/setter calls with generated lambdas; registered on every Boot-built mapper
+     */
+    @Bean
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
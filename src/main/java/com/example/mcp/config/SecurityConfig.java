@@ -12,5 +12,6 @@ import org.springframework.context.annotation.Configuration;
 })
 public class SecurityConfig {
     // This configuration completely disables Spring Security and Actuator security
-    // since we only need stdio transport for MCP server
+    // since the MCP server is reached over stdio or, with spring.ai.mcp.server.stdio=false, over the HTTP/SSE
+    // endpoints guarded by McpHttpSessionFilter
 }
@@ -0,0 +1,191 @@
+package com.example.mcp.controller;
+
+import com.example.mcp.audience.AudienceSegmentService;
+import com.example.mcp.audience.ProfileStoreService;
+import com.example.mcp.server.CampaignNodeConfig;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Audience Controller
+ * REST endpoints for segment reach previews backed by the local audience index
+ */
+@RestController
+@RequestMapping("/api/audience")
+@Tag(name = "Audience API", description = "Audience segment resolution and reach estimates")
+@CrossOrigin(origins = "*")
+public class AudienceController {
+
+    private static final Logger log = LoggerFactory.getLogger(AudienceController.class);
+
+    @Autowired
+    private AudienceSegmentService audienceSegmentService;
+
+    @Autowired
+    private ProfileStoreService profileStoreService;
+
+    /**
+     * Get audience index status
+     */
+    @GetMapping("/status")
+    @Operation(summary = "Audience Index Status", description = "Get the loaded customer dataset and index size")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Status retrieved successfully")
+    })
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        Map<String, Object> status = audienceSegmentService.getStatus();
+        status.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(status);
+    }
+
+    /**
+     * Reload the customer dataset
+     */
+    @PostMapping("/reload")
+    @Operation(summary = "Reload Audience Data", description = "Load a CSV or JSON Lines customer file from the configured data directory and rebuild the index")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Dataset loaded successfully"),
+        @ApiResponse(responseCode = "400", description = "File is missing or outside the data directory"),
+        @ApiResponse(responseCode = "500", description = "Dataset could not be loaded")
+    })
+    public ResponseEntity<Map<String, Object>> reload(
+        @Parameter(description = "Data file name, relative to the data directory", required = true) @RequestBody Map<String, String> request
+    ) {
+        try {
+            Map<String, Object> result = audienceSegmentService.reload(request.get("path"));
+            result.put("success", true);
+            result.put("timestamp", System.currentTimeMillis());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(errorResponse(e.getMessage()));
+        } catch (Exception e) {
+            log.warn("Audience reload failed", e);
+            return ResponseEntity.status(500).body(errorResponse("Audience data could not be loaded"));
+        }
+    }
+
+    /**
+     * Estimate segment reach
+     */
+    @PostMapping("/estimate")
+    @Operation(summary = "Estimate Segment Reach", description = "Resolve a segment definition and count its members")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Estimate computed successfully")
+    })
+    public ResponseEntity<Map<String, Object>> estimate(
+        @Parameter(description = "Segment definition", required = true) @RequestBody CampaignNodeConfig.SegmentConfig segment
+    ) {
+        Map<String, Object> estimate = audienceSegmentService.estimate(segment);
+        estimate.put("success", true);
+        estimate.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(estimate);
+    }
+
+    /**
+     * Get a sample of segment members
+     */
+    @PostMapping("/members")
+    @Operation(summary = "Sample Segment Members", description = "Get customer ids of the first segment members")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Members retrieved successfully")
+    })
+    public ResponseEntity<Map<String, Object>> getMembers(
+        @Parameter(description = "Segment definition", required = true) @RequestBody CampaignNodeConfig.SegmentConfig segment,
+        @Parameter(description = "Maximum number of ids") @RequestParam(defaultValue = "100") int limit
+    ) {
+        List<String> members = audienceSegmentService.sampleMembers(segment, Math.max(0, Math.min(limit, 10_000)));
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("members", members);
+        response.put("count", members.size());
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get profile store status
+     */
+    @GetMapping("/store/status")
+    @Operation(summary = "Profile Store Status", description = "Get the memory-mapped profile store directory and row count")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Status retrieved successfully")
+    })
+    public ResponseEntity<Map<String, Object>> getStoreStatus() {
+        Map<String, Object> status = profileStoreService.getStatus();
+        status.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(status);
+    }
+
+    /**
+     * Bulk import customers into the profile store
+     */
+    @PostMapping("/store/import")
+    @Operation(summary = "Import Profile Store", description = "Bulk load a CSV or JSON Lines file from the import directory into the configured columnar profile store")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Profiles imported successfully"),
+        @ApiResponse(responseCode = "400", description = "Source file is missing or outside the import directory"),
+        @ApiResponse(responseCode = "500", description = "Profiles could not be imported")
+    })
+    public ResponseEntity<Map<String, Object>> importStore(
+        @Parameter(description = "Source file name, relative to the import directory", required = true) @RequestBody Map<String, String> request
+    ) {
+        try {
+            Map<String, Object> result = profileStoreService.importFile(request.get("source"));
+            result.put("success", true);
+            result.put("timestamp", System.currentTimeMillis());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(errorResponse(e.getMessage()));
+        } catch (Exception e) {
+            log.warn("Profile store import failed", e);
+            return ResponseEntity.status(500).body(errorResponse("Profiles could not be imported"));
+        }
+    }
+
+    /**
+     * Select customers matching a condition expression
+     */
+    @PostMapping("/store/select")
+    @Operation(summary = "Select Customers", description = "Scan the profile store with a condition expression")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Selection computed successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid expression or no store loaded")
+    })
+    public ResponseEntity<Map<String, Object>> select(
+        @Parameter(description = "Condition expression", required = true) @RequestBody Map<String, String> request,
+        @Parameter(description = "Maximum number of sampled profiles") @RequestParam(defaultValue = "20") int limit
+    ) {
+        try {
+            Map<String, Object> result = profileStoreService.select(request.get("expression"), Math.max(0, Math.min(limit, 1_000)));
+            result.put("success", true);
+            result.put("timestamp", System.currentTimeMillis());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            errorResponse.put("timestamp", System.currentTimeMillis());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+
+    private static Map<String, Object> errorResponse(String message) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("error", message);
+        errorResponse.put("timestamp", System.currentTimeMillis());
+        return errorResponse;
+    }
+}
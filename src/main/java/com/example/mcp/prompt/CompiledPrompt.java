@@ -0,0 +1,147 @@
+package com.example.mcp.prompt;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compiled Prompt
+ * A prompt template parsed once into literal segments and {{name}} placeholders. Rendering is a single pass
+ * into a builder sized for the result. {{name:.2f}} renders a number with a fixed number of decimals, as
+ * %.2f did. Single braces are ordinary text, so JSON examples need no escaping.
+ */
+public final class CompiledPrompt {
+
+    private final String name;
+    private final int version;
+    private final String source;
+    private final String[] literals;      // literals[i] precedes placeholder i; one more literal than placeholders
+    private final String[] placeholders;
+    private final int[] decimals;         // -1 = String.valueOf
+    private final int literalLength;
+
+    private CompiledPrompt(String name, int version, String source, String[] literals, String[] placeholders, int[] decimals) {
+        this.name = name;
+        this.version = version;
+        this.source = source;
+        this.literals = literals;
+        this.placeholders = placeholders;
+        this.decimals = decimals;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Parse a template body
+     * @throws IllegalArgumentException on an unterminated or malformed placeholder
+     */
+    public static CompiledPrompt compile(String name, int version, String source, String template) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        List<Integer> decimals = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = template.indexOf("{{", position);
+            if (open < 0) {
+                literals.add(template.substring(position));
+                break;
+            }
+            int close = template.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unterminated placeholder in prompt " + name + " at offset " + open);
+            }
+            literals.add(template.substring(position, open));
+            String placeholder = template.substring(open + 2, close).trim();
+            int colon = placeholder.indexOf(':');
+            String variable = colon < 0 ? placeholder : placeholder.substring(0, colon).trim();
+            if (variable.isEmpty() || !variable.chars().allMatch(c -> Character.isLetterOrDigit(c) || c == '_' || c == '.')) {
+                throw new IllegalArgumentException("Invalid placeholder {{" + placeholder + "}} in prompt " + name);
+            }
+            placeholders.add(variable);
+            decimals.add(colon < 0 ? -1 : parseDecimals(name, placeholder.substring(colon + 1).trim()));
+            position = close + 2;
+        }
+        return new CompiledPrompt(name, version, source,
+            literals.toArray(new String[0]),
+            placeholders.toArray(new String[0]),
+            decimals.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Render with name/value pairs; a placeholder without a value renders as "null", like %s did
+     */
+    public String render(Object... namesAndValues) {
+        if (namesAndValues.length % 2 != 0) {
+            throw new IllegalArgumentException("Prompt " + name + " expects name/value pairs");
+        }
+        String[] values = new String[placeholders.length];
+        int length = literalLength;
+        for (int i = 0; i < placeholders.length; i++) {
+            values[i] = format(lookup(placeholders[i], namesAndValues), decimals[i]);
+            length += values[i].length();
+        }
+
+        StringBuilder prompt = new StringBuilder(length);
+        for (int i = 0; i < placeholders.length; i++) {
+            prompt.append(literals[i]).append(values[i]);
+        }
+        return prompt.append(literals[placeholders.length]).toString();
+    }
+
+    /**
+     * Text before the first placeholder; identical for every render, which is what provider prefix caching keys on
+     */
+    public String getStaticPrefix() {
+        return literals[0];
+    }
+
+    /**
+     * Fraction of the template's literal text that comes before the first placeholder
+     */
+    public double getStaticShare() {
+        return literalLength == 0 ? 1.0 : (double) literals[0].length() / literalLength;
+    }
+
+    public Set<String> getVariables() {
+        return new LinkedHashSet<>(List.of(placeholders));
+    }
+
+    public String getName() { return name; }
+    public int getVersion() { return version; }
+    public String getSource() { return source; }
+
+    private Object lookup(String variable, Object[] namesAndValues) {
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            if (variable.equals(namesAndValues[i])) {
+                return namesAndValues[i + 1];
+            }
+        }
+        return null;
+    }
+
+    private static String format(Object value, int decimals) {
+        if (decimals < 0 || !(value instanceof Number number)
+            || (value instanceof Double d && !Double.isFinite(d)) || (value instanceof Float f && !Float.isFinite(f))) {
+            return String.valueOf(value);
+        }
+        BigDecimal decimal = number instanceof BigDecimal big ? big : new BigDecimal(number.toString());
+        return decimal.setScale(decimals, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private static int parseDecimals(String name, String format) {
+        if (format.length() >= 3 && format.charAt(0) == '.' && format.endsWith("f")) {
+            try {
+                return Integer.parseInt(format.substring(1, format.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // reported below
+            }
+        }
+        throw new IllegalArgumentException("Unsupported format '" + format + "' in prompt " + name + " (only .Nf)");
+    }
+}
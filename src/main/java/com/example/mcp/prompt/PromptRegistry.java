@@ -0,0 +1,187 @@
+package com.example.mcp.prompt;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Prompt Registry
+ * Prompt templates compiled once at startup from classpath:prompts/*.prompt. A file with the same name in
+ * campaign.prompts.directory overrides the bundled one and is recompiled when it changes, so prompts can be
+ * tuned without a redeploy. A file that fails to compile is reported and the previous version stays active.
+ * Leading "# key: value" lines are metadata; "# version: N" versions the template.
+ * Templates must be laid out static-first: instructions and schema before any {{placeholder}}, so every
+ * render of a template shares the same prefix and the provider's prompt-prefix cache can serve it. A template
+ * whose static prefix is below campaign.prompts.min-static-share of its text is rejected, unless it declares
+ * "# layout: free".
+ */
+@Component
+public class PromptRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(PromptRegistry.class);
+
+    private static final String SUFFIX = ".prompt";
+    private static final Pattern METADATA = Pattern.compile("^#\\s*([A-Za-z-]+)\\s*:\\s*(.*)$");
+
+    @Value("${campaign.prompts.directory:}")
+    private String directory;
+
+    @Value("${campaign.prompts.reload-interval:5s}")
+    private Duration reloadInterval;
+
+    @Value("${campaign.prompts.min-static-share:0.75}")
+    private double minStaticShare;
+
+    private final Map<String, CompiledPrompt> prompts = new ConcurrentHashMap<>();
+    private final Map<Path, Long> overrideModified = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "prompt-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void init() throws IOException {
+        Resource[] bundled = new PathMatchingResourcePatternResolver().getResources("classpath*:prompts/*" + SUFFIX);
+        for (Resource resource : bundled) {
+            try (InputStream in = resource.getInputStream()) {
+                String name = resource.getFilename().substring(0, resource.getFilename().length() - SUFFIX.length());
+                // Bundled templates must compile; a broken one fails startup
+                prompts.put(name, parse(name, "classpath:prompts/" + resource.getFilename(),
+                    new String(in.readAllBytes(), StandardCharsets.UTF_8)));
+            }
+        }
+
+        if (!directory.isBlank()) {
+            reloadOverrides();
+            long interval = reloadInterval.toMillis();
+            if (interval > 0) {
+                scheduler.scheduleWithFixedDelay(this::reloadOverrides, interval, interval, TimeUnit.MILLISECONDS);
+            }
+        }
+        log.info("Prompt registry loaded {} templates{}", prompts.size(),
+            directory.isBlank() ? "" : " (overrides from " + directory + ")");
+    }
+
+    /**
+     * The current version of a template
+     * @throws IllegalArgumentException when no template has this name
+     */
+    public CompiledPrompt get(String name) {
+        CompiledPrompt prompt = prompts.get(name);
+        if (prompt == null) {
+            throw new IllegalArgumentException("Unknown prompt template: " + name);
+        }
+        return prompt;
+    }
+
+    /**
+     * Render a template with name/value pairs
+     */
+    public String render(String name, Object... namesAndValues) {
+        return get(name).render(namesAndValues);
+    }
+
+    /**
+     * Name, version, source and variables of every template
+     */
+    public List<Map<String, Object>> describe() {
+        List<Map<String, Object>> templates = new ArrayList<>();
+        new TreeMap<>(prompts).values().forEach(prompt -> {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("name", prompt.getName());
+            entry.put("version", prompt.getVersion());
+            entry.put("source", prompt.getSource());
+            entry.put("variables", prompt.getVariables());
+            entry.put("staticPrefixChars", prompt.getStaticPrefix().length());
+            entry.put("staticShare", prompt.getStaticShare());
+            templates.add(entry);
+        });
+        return templates;
+    }
+
+    private void reloadOverrides() {
+        Path root = Paths.get(directory);
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root, "*" + SUFFIX)) {
+            for (Path file : files) {
+                long modified = Files.getLastModifiedTime(file).toMillis();
+                Long previous = overrideModified.put(file, modified);
+                if (previous != null && previous == modified) {
+                    continue;
+                }
+                String fileName = file.getFileName().toString();
+                String name = fileName.substring(0, fileName.length() - SUFFIX.length());
+                try {
+                    CompiledPrompt prompt = parse(name, file.toString(), Files.readString(file, StandardCharsets.UTF_8));
+                    CompiledPrompt replaced = prompts.put(name, prompt);
+                    log.info("Prompt {} v{} loaded from {}{}", name, prompt.getVersion(), file,
+                        replaced != null ? " (was v" + replaced.getVersion() + " from " + replaced.getSource() + ")" : "");
+                } catch (Exception e) {
+                    log.warn("Prompt {} in {} not loaded, keeping previous version: {}", name, file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to scan prompt directory {}: {}", root, e.getMessage());
+        }
+    }
+
+    private CompiledPrompt parse(String name, String source, String text) {
+        int version = 1;
+        boolean freeLayout = false;
+        int bodyStart = 0;
+        String[] lines = text.split("\n", -1);
+        for (String line : lines) {
+            Matcher metadata = METADATA.matcher(line.strip());
+            if (!metadata.matches()) {
+                break;
+            }
+            if (metadata.group(1).equalsIgnoreCase("version")) {
+                version = Integer.parseInt(metadata.group(2).trim());
+            } else if (metadata.group(1).equalsIgnoreCase("layout")) {
+                freeLayout = metadata.group(2).trim().equalsIgnoreCase("free");
+            }
+            bodyStart += line.length() + 1;
+        }
+        CompiledPrompt prompt = CompiledPrompt.compile(name, version, source, text.substring(Math.min(bodyStart, text.length())));
+        if (!freeLayout && prompt.getStaticShare() < minStaticShare) {
+            throw new IllegalArgumentException(String.format(
+                "Prompt %s is not static-first: only %.0f%% of its text precedes the first placeholder (minimum %.0f%%)",
+                name, prompt.getStaticShare() * 100, minStaticShare * 100));
+        }
+        return prompt;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
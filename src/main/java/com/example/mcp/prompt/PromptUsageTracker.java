@@ -0,0 +1,173 @@
+package com.example.mcp.prompt;
+
+import com.azure.ai.openai.models.CompletionsUsage;
+import jakarta.annotation.PostConstruct;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.client.DefaultChatClient;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prompt Usage Tracker
+ * Token usage per call site, taken from the usage metadata of each chat response. The cached share is
+ * the fraction of prompt tokens the provider served from its prompt-prefix cache; it only grows when
+ * prompts start with the same static text on every call (see {@link PromptRegistry}).
+ * Before a call is sent its prompt is counted locally and maxTokens is set to the call site's limit from
+ * campaign.tokenizer.max-tokens, capped by what is left of the context window; a prompt that leaves no room
+ * for min-completion-tokens fails without a round trip.
+ */
+@Component
+public class PromptUsageTracker {
+
+    private final Map<String, CallSiteUsage> callSites = new ConcurrentHashMap<>();
+
+    @Autowired
+    private TokenCounter tokens;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${campaign.tokenizer.context-window:8192}")
+    private int contextWindow;
+
+    @Value("${campaign.tokenizer.min-completion-tokens:64}")
+    private int minCompletionTokens;
+
+    // Per call site completion limits; "default" applies to call sites without their own
+    private Map<String, Integer> maxTokens = Map.of();
+    private int defaultMaxTokens;
+
+    @PostConstruct
+    public void init() {
+        maxTokens = Binder.get(environment)
+            .bind("campaign.tokenizer.max-tokens", Bindable.mapOf(String.class, Integer.class))
+            .orElse(Map.of());
+        defaultMaxTokens = maxTokens.getOrDefault("default",
+            environment.getProperty("spring.ai.azure.openai.chat.options.max-tokens", Integer.class, 4000));
+    }
+
+    /**
+     * Run a blocking call, record its usage and return the generated text
+     */
+    public String call(String callSite, ChatClient.ChatClientRequestSpec request) {
+        ChatResponse response = budget(callSite, request).call().chatResponse();
+        record(callSite, response);
+        return response == null || response.getResult() == null ? null : response.getResult().getOutput().getText();
+    }
+
+    /**
+     * Stream the generated text; usage is recorded once the stream completes, from the last chunk that carried it
+     */
+    public Flux<String> stream(String callSite, ChatClient.ChatClientRequestSpec request) {
+        AtomicReference<ChatResponse> lastWithUsage = new AtomicReference<>();
+        return budget(callSite, request).stream().chatResponse()
+            .doOnNext(response -> {
+                if (promptTokens(response) > 0) {
+                    lastWithUsage.set(response);
+                }
+            })
+            .doOnComplete(() -> record(callSite, lastWithUsage.get()))
+            .filter(response -> response.getResult() != null && response.getResult().getOutput().getText() != null)
+            .map(response -> response.getResult().getOutput().getText());
+    }
+
+    public void record(String callSite, ChatResponse response) {
+        CallSiteUsage usage = callSites.computeIfAbsent(callSite, key -> new CallSiteUsage());
+        usage.calls.increment();
+        long prompt = promptTokens(response);
+        if (prompt == 0) {
+            return;
+        }
+        Usage metadata = response.getMetadata().getUsage();
+        usage.reported.increment();
+        usage.promptTokens.add(prompt);
+        usage.cachedTokens.add(cachedTokens(metadata.getNativeUsage()));
+        usage.completionTokens.add(metadata.getCompletionTokens() == null ? 0 : metadata.getCompletionTokens());
+    }
+
+    /**
+     * Count the prompt locally and set maxTokens to what this call site may use
+     * @throws IllegalArgumentException when the prompt leaves less than min-completion-tokens of the context window
+     */
+    private ChatClient.ChatClientRequestSpec budget(String callSite, ChatClient.ChatClientRequestSpec request) {
+        if (!(request instanceof DefaultChatClient.DefaultChatClientRequestSpec spec)) {
+            return request;
+        }
+        int promptTokens = tokens.count(spec.getSystemText()) + tokens.count(spec.getUserText());
+        for (Message message : spec.getMessages()) {
+            promptTokens += tokens.count(message.getText());
+        }
+        callSites.computeIfAbsent(callSite, key -> new CallSiteUsage()).estimatedPromptTokens.add(promptTokens);
+        int available = contextWindow - promptTokens;
+        if (available < minCompletionTokens) {
+            throw new IllegalArgumentException("Prompt for " + callSite + " is " + promptTokens
+                + " tokens, leaving " + available + " of the " + contextWindow + "-token context window");
+        }
+        int limit = Math.min(maxTokens.getOrDefault(callSite, defaultMaxTokens), available);
+        return request.options(ChatOptions.builder().maxTokens(limit).build());
+    }
+
+    /**
+     * Calls, prompt/cached/completion tokens and cached share per call site
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        callSites.forEach((callSite, usage) -> stats.put(callSite, usage.toMap()));
+        return stats;
+    }
+
+    private static long promptTokens(ChatResponse response) {
+        if (response == null || response.getMetadata() == null || response.getMetadata().getUsage() == null) {
+            return 0;
+        }
+        Integer prompt = response.getMetadata().getUsage().getPromptTokens();
+        return prompt == null ? 0 : prompt;
+    }
+
+    private static long cachedTokens(Object nativeUsage) {
+        if (nativeUsage instanceof CompletionsUsage completions && completions.getPromptTokensDetails() != null) {
+            Integer cached = completions.getPromptTokensDetails().getCachedTokens();
+            return cached == null ? 0 : cached;
+        }
+        return 0;
+    }
+
+    private static final class CallSiteUsage {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder reported = new LongAdder();
+        private final LongAdder promptTokens = new LongAdder();
+        private final LongAdder cachedTokens = new LongAdder();
+        private final LongAdder completionTokens = new LongAdder();
+        private final LongAdder estimatedPromptTokens = new LongAdder();
+
+        Map<String, Object> toMap() {
+            long prompt = promptTokens.sum();
+            Map<String, Object> map = new HashMap<>();
+            map.put("calls", calls.sum());
+            map.put("callsWithUsage", reported.sum());
+            map.put("promptTokens", prompt);
+            map.put("cachedPromptTokens", cachedTokens.sum());
+            map.put("completionTokens", completionTokens.sum());
+            // Local count of the user and system text; the provider's count adds a few tokens of message framing
+            map.put("estimatedPromptTokens", estimatedPromptTokens.sum());
+            map.put("cachedShare", prompt == 0 ? 0.0 : (double) cachedTokens.sum() / prompt);
+            return map;
+        }
+    }
+}
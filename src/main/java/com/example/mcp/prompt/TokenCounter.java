@@ -0,0 +1,153 @@
+package com.example.mcp.prompt;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingRegistry;
+import com.knuddels.jtokkit.api.EncodingResult;
+import com.knuddels.jtokkit.api.GptBytePairEncodingParams;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Token Counter
+ * In-process BPE tokenizer with the deployed model's encoding, used to size prompts before they are sent.
+ * The encoding is campaign.tokenizer.encoding, or the one jtokkit maps the deployment name to (cl100k_base
+ * when the name is not a known model). campaign.tokenizer.vocabulary-file loads the merge ranks from a local
+ * tiktoken file instead of the bundled ones. Ranks are loaded once into the encoder's lookup tables; special
+ * tokens in user text are counted as ordinary text. Counting throughput is tracked for {@link #getStats()}.
+ */
+@Component
+public class TokenCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenCounter.class);
+
+    /** Split pattern of cl100k_base, for vocabulary files without their own */
+    private static final String CL100K_PATTERN = "'(?i:[sdmt]|ll|ve|re)|[^\\r\\n\\p{L}\\p{N}]?+\\p{L}+|\\p{N}{1,3}"
+        + "| ?[^\\s\\p{L}\\p{N}]++[\\r\\n]*|\\s*[\\r\\n]|\\s+(?!\\S)|\\s+";
+    private static final String FALLBACK_ENCODING = "cl100k_base";
+
+    @Value("${campaign.tokenizer.encoding:}")
+    private String encodingName;
+
+    @Value("${spring.ai.azure.openai.chat.options.deployment-name:gpt-4}")
+    private String deploymentName;
+
+    @Value("${campaign.tokenizer.vocabulary-file:}")
+    private String vocabularyFile;
+
+    @Value("${campaign.tokenizer.pattern:}")
+    private String pattern;
+
+    private Encoding encoding;
+
+    private final LongAdder counted = new LongAdder();
+    private final LongAdder countedChars = new LongAdder();
+    private final LongAdder countedTokens = new LongAdder();
+    private final LongAdder countNanos = new LongAdder();
+
+    @PostConstruct
+    public void init() throws IOException {
+        EncodingRegistry registry = Encodings.newLazyEncodingRegistry();
+        if (!vocabularyFile.isBlank()) {
+            Path file = Paths.get(vocabularyFile);
+            String name = encodingName.isBlank() ? file.getFileName().toString() : encodingName;
+            registry.registerGptBytePairEncoding(new GptBytePairEncodingParams("file:" + name,
+                Pattern.compile(pattern.isBlank() ? CL100K_PATTERN : pattern, Pattern.UNICODE_CHARACTER_CLASS),
+                loadRanks(file), Map.of()));
+            encoding = registry.getEncoding("file:" + name).orElseThrow();
+        } else if (!encodingName.isBlank()) {
+            encoding = registry.getEncoding(encodingName)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown tokenizer encoding: " + encodingName));
+        } else {
+            encoding = registry.getEncodingForModel(deploymentName)
+                .orElseGet(() -> registry.getEncoding(FALLBACK_ENCODING).orElseThrow());
+        }
+        // Warm up the lazily built lookup tables so the first prompt does not pay for them
+        encoding.countTokensOrdinary("warm up");
+        log.info("Tokenizer using {}{}", encoding.getName(),
+            vocabularyFile.isBlank() ? "" : " (vocabulary from " + vocabularyFile + ")");
+    }
+
+    public int count(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        int tokens = encoding.countTokensOrdinary(text);
+        countNanos.add(System.nanoTime() - start);
+        counted.increment();
+        countedChars.add(text.length());
+        countedTokens.add(tokens);
+        return tokens;
+    }
+
+    /**
+     * The longest prefix of the text that fits in the given number of tokens
+     */
+    public String truncate(String text, int maxTokens) {
+        if (text == null || text.isEmpty()) {
+            return text;
+        }
+        if (maxTokens <= 0) {
+            return "";
+        }
+        EncodingResult result = encoding.encodeOrdinary(text, maxTokens);
+        if (!result.isTruncated()) {
+            return text;
+        }
+        return text.substring(0, Math.max(0, result.getLastProcessedCharacterIndex() + 1));
+    }
+
+    public String getEncodingName() {
+        return encoding.getName();
+    }
+
+    /**
+     * Encoding, number of counts and counting throughput since startup
+     */
+    public Map<String, Object> getStats() {
+        double seconds = countNanos.sum() / 1e9;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("encoding", encoding.getName());
+        stats.put("counts", counted.sum());
+        stats.put("chars", countedChars.sum());
+        stats.put("tokens", countedTokens.sum());
+        stats.put("tokensPerSecond", seconds == 0 ? 0 : (long) (countedTokens.sum() / seconds));
+        stats.put("charsPerSecond", seconds == 0 ? 0 : (long) (countedChars.sum() / seconds));
+        return stats;
+    }
+
+    /**
+     * tiktoken format: one "base64(token bytes) rank" pair per line
+     */
+    private static Map<byte[], Integer> loadRanks(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        Map<byte[], Integer> ranks = new HashMap<>(lines.size() * 4 / 3 + 1);
+        for (String line : lines) {
+            if (line.isBlank()) {
+                continue;
+            }
+            int space = line.indexOf(' ');
+            if (space < 0) {
+                throw new IllegalArgumentException("Malformed line in tokenizer vocabulary " + file + ": " + line);
+            }
+            ranks.put(Base64.getDecoder().decode(line.substring(0, space)), Integer.parseInt(line.substring(space + 1).trim()));
+        }
+        return ranks;
+    }
+}
@@ -6,10 +6,18 @@ import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import com.example.mcp.audience.AudienceSegmentService;
+import com.example.mcp.cache.CampaignKeyNormalizer;
+import com.example.mcp.cache.RecommendationCache;
 import com.example.mcp.client.MCPClientService;
+import com.example.mcp.client.McpFanOutResult;
+import com.example.mcp.prompt.PromptRegistry;
+import com.example.mcp.prompt.PromptUsageTracker;
+import com.example.mcp.vector.CampaignVectorStore;
 
 /**
  * AI Recommendation Generator
@@ -24,198 +32,193 @@ public class AIRecommendationGenerator {
     @Autowired
     private MCPClientService mcpClientService;
 
+    @Autowired
+    private AudienceSegmentService audienceSegmentService;
+
 
     @Autowired
     private ChatClient chatClient;
 
+    @Autowired
+    private PromptRegistry prompts;
+
+    @Autowired
+    private PromptUsageTracker usage;
+
+    @Autowired
+    private CampaignVectorStore vectorStore;
+
+    @Autowired
+    private RecommendationRetriever retriever;
+
+    @Autowired
+    private RecommendationCache cache;
+
+    @Autowired
+    private CampaignKeyNormalizer normalizer;
+
+    /** Recommendation kinds kept in the vector store, as named in aiRecommendations */
+    public static final List<String> RETRIEVABLE_KINDS = List.of("segment", "strategy", "emailTemplate");
+
     /**
      * Generate recommendations for target segment node
+     * Served from the recommendation cache for the same normalized parameters; otherwise reuses the confirmed
+     * segment of a closely matching past campaign when there is one
      */
     public Map<String, Object> generateSegmentRecommendations(String campaignType, String targetAudience, Double budget) {
-        String prompt = String.format("""
-            Based on the following marketing campaign information, generate detailed configuration recommendations for the target segment node:
-            
-            Campaign Type: %s
-            Target Audience: %s
-            Budget: $%.2f
-            
-            Please provide recommendations for the following aspects:
-            1. Age group segmentation suggestions
-            2. Geographic location targeting suggestions
-            3. Occupation and interest tags
-            4. Behavioral characteristic analysis
-            5. Need insights
-            6. Custom attribute suggestions
-            
-            Return recommendations in JSON format with specific configuration parameters and reasoning.
-            """, campaignType, targetAudience, budget);
-        
-        String aiResponse = chatClient.prompt(prompt).call().content();
-        return parseSegmentRecommendations(aiResponse);
+        return cache.getOrGenerate("segment", normalizer.key(campaignType, targetAudience, budget), List.of(), () ->
+            retriever.recommend("segment", campaignType, targetAudience, budget, examples -> {
+                String prompt = prompts.render("recommendation.segment",
+                    "campaignType", campaignType, "targetAudience", targetAudience, "budget", budget, "examples", orNone(examples));
+
+                String aiResponse = usage.call("recommendation.segment", chatClient.prompt(prompt));
+                return parseSegmentRecommendations(aiResponse);
+            }));
     }
     
     /**
      * Generate recommendations for delivery strategy node
+     * Cached per normalized parameters and segment configuration, so a cached segment leads to a cached strategy
      */
     public Map<String, Object> generateStrategyRecommendations(String campaignType, String targetAudience, Double budget, Map<String, Object> segmentConfig) {
-        String prompt = String.format("""
-            Based on the following information, generate detailed configuration recommendations for the delivery strategy node:
-            
-            Campaign Type: %s
-            Target Audience: %s
-            Budget: $%.2f
-            Segment Configuration: %s
-            
-            Please provide recommendations for the following aspects:
-            1. Delivery channel selection (Email, SMS, Social Media, etc.)
-            2. Delivery frequency suggestions
-            3. Budget allocation strategy
-            4. Delivery timing optimization
-            5. Channel-specific settings
-            6. Optimization goal suggestions
-            
-            Return recommendations in JSON format with specific configuration parameters and strategy reasoning.
-            """, campaignType, targetAudience, budget, segmentConfig);
+        return cache.getOrGenerate("strategy", normalizer.key(campaignType, targetAudience, budget), List.of(segmentConfig), () ->
+            retriever.recommend("strategy", campaignType, targetAudience, budget, examples -> {
+                String prompt = prompts.render("recommendation.strategy",
+                    "campaignType", campaignType, "targetAudience", targetAudience, "budget", budget, "segmentConfig", segmentConfig,
+                    "examples", orNone(examples));
 
-        String aiResponse = chatClient.prompt(prompt).call().content();
-        return parseStrategyRecommendations(aiResponse);
+                String aiResponse = usage.call("recommendation.strategy", chatClient.prompt(prompt));
+                return parseStrategyRecommendations(aiResponse);
+            }));
     }
     
     /**
      * Generate recommendations for email template node
+     * Cached per normalized parameters, segment and strategy configuration
      */
-    public Map<String, Object> generateEmailTemplateRecommendations(String campaignType, String targetAudience, Map<String, Object> segmentConfig, Map<String, Object> strategyConfig) {
-        String prompt = String.format("""
-            Based on the following information, generate detailed configuration recommendations for the email template node:
-            
-            Campaign Type: %s
-            Target Audience: %s
-            Segment Configuration: %s
-            Delivery Strategy: %s
-            
-            Please provide recommendations for the following aspects:
-            1. Email subject optimization suggestions
-            2. Email body content suggestions
-            3. Call to action (CTA) suggestions
-            4. Personalization field suggestions
-            5. Template type selection
-            6. Sender information suggestions
-            
-            Return recommendations in JSON format with specific configuration parameters and content suggestions.
-            """, campaignType, targetAudience, segmentConfig, strategyConfig);
+    public Map<String, Object> generateEmailTemplateRecommendations(String campaignType, String targetAudience, Double budget,
+                                                                    Map<String, Object> segmentConfig, Map<String, Object> strategyConfig) {
+        return cache.getOrGenerate("emailTemplate", normalizer.key(campaignType, targetAudience, budget),
+            List.of(segmentConfig, strategyConfig), () ->
+            retriever.recommend("emailTemplate", campaignType, targetAudience, budget, examples -> {
+                String prompt = prompts.render("recommendation.email-template",
+                    "campaignType", campaignType, "targetAudience", targetAudience,
+                    "segmentConfig", segmentConfig, "strategyConfig", strategyConfig, "examples", orNone(examples));
 
-        String aiResponse = chatClient.prompt(prompt).call().content();
-        return parseEmailTemplateRecommendations(aiResponse);
+                String aiResponse = usage.call("recommendation.email-template", chatClient.prompt(prompt));
+                return parseEmailTemplateRecommendations(aiResponse);
+            }));
     }
     
     /**
      * Generate recommendations for condition judgment node
+     * Cached per normalized campaign type, segment and strategy configuration
      */
     public Map<String, Object> generateConditionRecommendations(String campaignType, Map<String, Object> segmentConfig, Map<String, Object> strategyConfig) {
-        String prompt = String.format("""
-            Based on the following information, generate detailed configuration recommendations for the condition judgment node:
-            
-            Campaign Type: %s
-            Segment Configuration: %s
-            Delivery Strategy: %s
-            
-            Please provide recommendations for the following aspects:
-            1. Condition type selection suggestions
-            2. Flow path design suggestions
-            3. Condition logic suggestions
-            4. Target node connection suggestions
-            5. Condition name and description suggestions
-            
-            Return recommendations in JSON format with specific configuration parameters and logic design.
-            """, campaignType, segmentConfig, strategyConfig);
+        return cache.getOrGenerate("condition", normalizer.campaignType(campaignType), List.of(segmentConfig, strategyConfig), () -> {
+            String prompt = prompts.render("recommendation.condition",
+                "campaignType", campaignType, "segmentConfig", segmentConfig, "strategyConfig", strategyConfig);
 
-        String aiResponse = chatClient.prompt(prompt).call().content();
-        return parseConditionRecommendations(aiResponse);
+            String aiResponse = usage.call("recommendation.condition", chatClient.prompt(prompt));
+            return parseConditionRecommendations(aiResponse);
+        });
     }
     
     /**
      * Generate recommendations for customer journey node
+     * Cached per normalized campaign type, audience and segment configuration
      */
     public Map<String, Object> generateCustomerJourneyRecommendations(String campaignType, String targetAudience, Map<String, Object> segmentConfig) {
-        String prompt = String.format("""
-            Based on the following information, generate detailed configuration recommendations for the customer journey node:
-            
-            Campaign Type: %s
-            Target Audience: %s
-            Segment Configuration: %s
-            
-            Please provide recommendations for the following aspects:
-            1. Customer journey stage design
-            2. Touchpoint selection suggestions
-            3. Journey duration suggestions
-            4. Journey goal setting
-            5. Journey map design
-            6. Conversion path optimization
-            
-            Return recommendations in JSON format with specific configuration parameters and journey design.
-            """, campaignType, targetAudience, segmentConfig);
+        String key = normalizer.campaignType(campaignType) + '|' + normalizer.audience(targetAudience);
+        return cache.getOrGenerate("customerJourney", key, List.of(segmentConfig), () -> {
+            String prompt = prompts.render("recommendation.journey",
+                "campaignType", campaignType, "targetAudience", targetAudience, "segmentConfig", segmentConfig);
 
-        String aiResponse = chatClient.prompt(prompt).call().content();
-        return parseCustomerJourneyRecommendations(aiResponse);
+            String aiResponse = usage.call("recommendation.journey", chatClient.prompt(prompt));
+            return parseCustomerJourneyRecommendations(aiResponse);
+        });
     }
     
     /**
      * Generate complete marketing campaign recommendations
      */
     public Map<String, Object> generateCompleteCampaignRecommendations(String campaignType, String targetAudience, Double budget, String duration) {
-        String prompt = String.format("""
-            Based on the following information, generate complete marketing campaign recommendations:
-            
-            Campaign Type: %s
-            Target Audience: %s
-            Budget: $%.2f
-            Campaign Duration: %s
-            
-            Please provide comprehensive recommendations for the entire marketing campaign, including:
-            1. Overall campaign strategy suggestions
-            2. Target segment selection suggestions
-            3. Delivery strategy suggestions
-            4. Content creative suggestions
-            5. Execution plan suggestions
-            6. Expected results assessment
-            7. Risk control suggestions
-            
-            Return complete recommendations in JSON format with configuration parameters and strategy descriptions for all nodes.
-            """, campaignType, targetAudience, budget, duration);
+        String prompt = prompts.render("recommendation.complete",
+            "campaignType", campaignType, "targetAudience", targetAudience, "budget", budget, "duration", duration);
 
-        String aiResponse = chatClient.prompt(prompt).call().content();
+        String aiResponse = usage.call("recommendation.complete", chatClient.prompt(prompt));
         return parseCompleteCampaignRecommendations(aiResponse);
     }
     
+    /**
+     * Configurations of past campaigns most similar to this campaign type and audience
+     * @param kind segment, strategy or emailTemplate
+     * @param filters further exact metadata matches (campaignType, targetAudience, budget); may be empty
+     */
+    public List<CampaignVectorStore.Match> findSimilarConfigurations(String kind, String campaignType, String targetAudience,
+                                                                     int limit, Map<String, String> filters) {
+        Map<String, String> allFilters = new HashMap<>(filters);
+        allFilters.put("kind", kind);
+        return vectorStore.search(describeCampaign(campaignType, targetAudience), limit, allFilters);
+    }
+
+    /**
+     * The text a campaign's configurations are indexed and looked up by
+     */
+    public static String describeCampaign(String campaignType, String targetAudience) {
+        return "campaign type: " + campaignType + "; audience: " + targetAudience;
+    }
+    
     /**
      * Get marketing service information through MCP client
+     * Queries all configured MCP servers concurrently; servers that fail or miss the deadline are reported
+     * under "servers" while the others still contribute their tools and resources
      */
     public Map<String, Object> getMarketingServiceInfo() {
         try {
             Map<String, Object> serviceInfo = new HashMap<>();
-            
-            // Get available tools from marketing service
-            if (mcpClientService.isConnected()) {
-                List<Map<String, Object>> tools = mcpClientService.getMarketingTools();
-                serviceInfo.put("availableTools", tools);
-                
-                // Get marketing service schemas
-                Map<String, Object> schemas = mcpClientService.getMarketingSchemas();
-                serviceInfo.put("schemas", schemas);
-                
-                // Get marketing resources
-                List<Map<String, Object>> resources = mcpClientService.getMarketingResources("campaign");
-                serviceInfo.put("campaignResources", resources);
-                
-                serviceInfo.put("status", "connected");
-                serviceInfo.put("message", "Successfully retrieved marketing service information");
-            } else {
+
+            if (!mcpClientService.isEnabled()) {
                 serviceInfo.put("status", "disconnected");
-                serviceInfo.put("message", "MCP client not connected to marketing service");
+                serviceInfo.put("message", "MCP client not enabled");
+                return serviceInfo;
             }
-            
+
+            McpFanOutResult<Map<String, Object>> catalogs = mcpClientService
+                .getServiceCatalogs("campaign", mcpClientService.getFanOutDeadline())
+                .block();
+
+            List<Object> tools = new ArrayList<>();
+            List<Object> resources = new ArrayList<>();
+            Map<String, Object> serverSchemas = new HashMap<>();
+            catalogs.getValues().forEach((server, catalog) -> {
+                tools.addAll((List<?>) catalog.get("tools"));
+                resources.addAll((List<?>) catalog.get("resources"));
+                serverSchemas.put(server, catalog.get("schemas"));
+            });
+
+            // Get available tools from marketing service
+            serviceInfo.put("availableTools", tools);
+
+            // Get marketing service schemas (tool input schemas and prompts), other servers under "serverSchemas"
+            serviceInfo.put("schemas", serverSchemas.isEmpty()
+                ? Map.of() : serverSchemas.getOrDefault(mcpClientService.marketingServer(), Map.of()));
+            serviceInfo.put("serverSchemas", serverSchemas);
+
+            // Get marketing resources
+            serviceInfo.put("campaignResources", resources);
+
+            serviceInfo.put("servers", catalogs.toReport());
+            serviceInfo.put("elapsedMs", catalogs.getElapsedMs());
+            serviceInfo.put("status", catalogs.getStatus());
+            serviceInfo.put("message", switch (catalogs.getStatus()) {
+                case "connected" -> "Successfully retrieved marketing service information";
+                case "partial" -> "Retrieved marketing service information from some MCP servers";
+                default -> "MCP client not connected to marketing service";
+            });
+
             return serviceInfo;
-            
+
         } catch (Exception e) {
             Map<String, Object> errorInfo = new HashMap<>();
             errorInfo.put("status", "error");
@@ -224,7 +227,7 @@ public class AIRecommendationGenerator {
             return errorInfo;
         }
     }
-    
+
     /**
      * Call marketing service tool through MCP client
      */
@@ -245,6 +248,10 @@ public class AIRecommendationGenerator {
         }
     }
     
+    private static String orNone(String examples) {
+        return examples.isEmpty() ? "none\n" : examples;
+    }
+
     // Helper methods for parsing AI responses
     private Map<String, Object> parseSegmentRecommendations(String aiResponse) {
         // Simplified implementation, should use JSON parser in production
@@ -256,6 +263,10 @@ public class AIRecommendationGenerator {
         recommendations.put("interests", "Technology, fashion, travel");
         recommendations.put("behavior", "Online shopping, social media active");
         recommendations.put("reasoning", aiResponse);
+        if (audienceSegmentService.getIndex().size() > 0) {
+            recommendations.put("reach", audienceSegmentService.estimate(
+                AudienceSegmentService.toSegmentConfig(recommendations)));
+        }
         return recommendations;
     }
     
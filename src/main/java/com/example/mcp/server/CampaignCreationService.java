@@ -1,5 +1,8 @@
 package com.example.mcp.server;
 
+import com.example.mcp.condition.ConditionEvaluationService;
+import com.example.mcp.cache.CampaignKeyNormalizer;
+import com.example.mcp.vector.CampaignVectorStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -20,6 +23,12 @@ public class CampaignCreationService {
     @Autowired
     private AIRecommendationGenerator recommendationGenerator;
     
+    @Autowired
+    private ConditionEvaluationService conditionEvaluationService;
+
+    @Autowired
+    private CampaignVectorStore vectorStore;
+    
     /**
      * Create complete marketing campaign
      */
@@ -53,6 +62,9 @@ public class CampaignCreationService {
             campaign.put("status", "READY");
             campaign.put("updatedAt", LocalDateTime.now());
             
+            // Remember the confirmed configurations so later campaigns can start from similar ones
+            indexConfigurations(campaignId, confirmedParams, aiRecommendations);
+            
             return campaign;
             
         } catch (Exception e) {
@@ -203,6 +215,10 @@ public class CampaignCreationService {
             data.putAll(recommendations);
         }
         
+        // Compile flow path conditions up front so malformed expressions surface at creation time
+        Map<String, Object> validation = conditionEvaluationService.validate(data);
+        data.put("conditionValidation", validation);
+        
         node.setData(data);
         node.setStatus(CampaignNode.NodeStatus.READY);
         return node;
@@ -230,6 +246,29 @@ public class CampaignCreationService {
         return node;
     }
     
+    /**
+     * Add the segment, strategy and email template configurations of a created campaign to the vector store,
+     * keyed by campaign type and audience
+     */
+    private void indexConfigurations(String campaignId, Map<String, Object> confirmedParams, Map<String, Object> aiRecommendations) {
+        String campaignType = String.valueOf(confirmedParams.get("campaignType"));
+        String targetAudience = String.valueOf(confirmedParams.get("targetAudience"));
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("campaignId", campaignId);
+        metadata.put("campaignType", campaignType);
+        metadata.put("targetAudience", targetAudience);
+        metadata.put("budget", String.valueOf(confirmedParams.get("budget")));
+        metadata.put("budgetBand", CampaignKeyNormalizer.budgetBand(
+            confirmedParams.get("budget") instanceof Number budget ? budget.doubleValue() : null));
+        for (String kind : AIRecommendationGenerator.RETRIEVABLE_KINDS) {
+            if (aiRecommendations.get(kind) instanceof Map<?, ?> configuration) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> payload = (Map<String, Object>) configuration;
+                vectorStore.add(kind, AIRecommendationGenerator.describeCampaign(campaignType, targetAudience), metadata, payload);
+            }
+        }
+    }
+    
     /**
      * Create campaign connections
      */
@@ -0,0 +1,38 @@
+package com.example.mcp.server;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Cancellable Task
+ * Like {@link CompletableFuture#supplyAsync}, except that cancelling the returned future interrupts the worker.
+ * Blocking LLM calls wait on a Reactor {@code block()}, which disposes the underlying HTTP request when
+ * interrupted, so cancellation actually aborts the call instead of only discarding its result.
+ */
+public final class CancellableTask {
+
+    private CancellableTask() {
+    }
+
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> task, ExecutorService executor) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running = executor.submit(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                result.complete(task.get());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                running.cancel(true);
+            }
+        });
+        return result;
+    }
+}
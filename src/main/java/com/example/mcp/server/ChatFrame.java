@@ -0,0 +1,84 @@
+package com.example.mcp.server;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Chat Frame
+ * Outbound WebSocket envelope: responses, streamed chunks, errors, cancellations and pongs. Unset fields are
+ * omitted, so each frame type carries only its own fields.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"id", "type", "seq", "status", "text", "data", "error", "elapsedMs", "timestamp"})
+public class ChatFrame {
+
+    private final String id;
+    private final String type;
+    private Long seq;
+    private String status;
+    private String text;
+    private Object data;
+    private String error;
+    private Long elapsedMs;
+    private final long timestamp = System.currentTimeMillis();
+
+    private ChatFrame(String id, String type) {
+        this.id = id;
+        this.type = type;
+    }
+
+    public static ChatFrame response(String id, Object data, long elapsedMs) {
+        ChatFrame frame = new ChatFrame(id, "response");
+        frame.status = "ok";
+        frame.data = data;
+        frame.elapsedMs = elapsedMs;
+        return frame;
+    }
+
+    /**
+     * Last frame of a streamed request, carrying the structured fields
+     */
+    public static ChatFrame last(String id, long seq, Object data, long elapsedMs) {
+        ChatFrame frame = new ChatFrame(id, "final");
+        frame.seq = seq;
+        frame.status = "ok";
+        frame.data = data;
+        frame.elapsedMs = elapsedMs;
+        return frame;
+    }
+
+    public static ChatFrame chunk(String id, long seq, String text) {
+        ChatFrame frame = new ChatFrame(id, "chunk");
+        frame.seq = seq;
+        frame.text = text;
+        return frame;
+    }
+
+    /**
+     * Error for a request; without an id (legacy or unparseable frames) only error and status are sent
+     */
+    public static ChatFrame error(String id, String status, String error) {
+        ChatFrame frame = new ChatFrame(id, id == null ? null : "error");
+        frame.status = status;
+        frame.error = error;
+        return frame;
+    }
+
+    public static ChatFrame cancelled(String id) {
+        return new ChatFrame(id, "cancelled");
+    }
+
+    public static ChatFrame pong(String id) {
+        return new ChatFrame(id, "pong");
+    }
+
+    public String getId() { return id; }
+    public String getType() { return type; }
+    public Long getSeq() { return seq; }
+    public String getStatus() { return status; }
+    public String getText() { return text; }
+    public Object getData() { return data; }
+    public String getError() { return error; }
+    public Long getElapsedMs() { return elapsedMs; }
+    public long getTimestamp() { return timestamp; }
+}
@@ -1,7 +1,11 @@
 package com.example.mcp.server;
 
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -19,6 +23,12 @@ public class ConversationContext {
     private UserIntent intent;
     private Map<String, Object> parameters;
     private Map<String, Object> confirmedParameters;
+    // Large generated results (e.g. aiRecommendations); kept out of the prompts, referenced by name only
+    private Map<String, Object> artifacts;
+    // Turns not yet folded into the rolling summary, oldest first
+    private final Deque<Turn> recentTurns = new ArrayDeque<>();
+    private String summary = "";
+    private int summarizedTurns;
     private String currentQuestion;
     private int turnCount;
     
@@ -49,6 +59,7 @@ public class ConversationContext {
         this.intent = UserIntent.UNKNOWN;
         this.parameters = new HashMap<>();
         this.confirmedParameters = new HashMap<>();
+        this.artifacts = new HashMap<>();
         this.turnCount = 0;
     }
     
@@ -63,6 +74,9 @@ public class ConversationContext {
     public Map<String, Object> getConfirmedParameters() { return confirmedParameters; }
     public String getCurrentQuestion() { return currentQuestion; }
     public int getTurnCount() { return turnCount; }
+    public Map<String, Object> getArtifacts() { return artifacts; }
+    public synchronized String getSummary() { return summary; }
+    public synchronized int getSummarizedTurns() { return summarizedTurns; }
     
     public void setState(ConversationState state) { 
         this.state = state; 
@@ -94,6 +108,34 @@ public class ConversationContext {
         this.lastUpdateTime = LocalDateTime.now();
     }
     
+    public void addArtifact(String key, Object value) {
+        this.artifacts.put(key, value);
+        this.lastUpdateTime = LocalDateTime.now();
+    }
+
+    public Object getArtifact(String key) {
+        return artifacts.get(key);
+    }
+
+    public synchronized void addTurn(String userMessage, String reply) {
+        recentTurns.addLast(new Turn(turnCount, userMessage, reply));
+    }
+
+    public synchronized List<Turn> getRecentTurns() {
+        return new ArrayList<>(recentTurns);
+    }
+
+    /**
+     * Replace the summary with one that also covers the oldest {@code folded} recent turns
+     */
+    public synchronized void foldIntoSummary(String newSummary, int folded) {
+        for (int i = 0; i < folded && !recentTurns.isEmpty(); i++) {
+            recentTurns.removeFirst();
+        }
+        this.summary = newSummary;
+        this.summarizedTurns += folded;
+    }
+
     public boolean hasParameter(String key) {
         return parameters.containsKey(key) || confirmedParameters.containsKey(key);
     }
@@ -114,6 +156,8 @@ public class ConversationContext {
         return state == ConversationState.CONFIRMING_PARAMS;
     }
     
+    public record Turn(int number, String userMessage, String reply) { }
+
     @Override
     public String toString() {
         return String.format("ConversationContext{sessionId='%s', userId='%s', state=%s, intent=%s, turnCount=%d}", 
@@ -0,0 +1,203 @@
+package com.example.mcp.server;
+
+import com.example.mcp.prompt.PromptRegistry;
+import com.example.mcp.prompt.PromptUsageTracker;
+import com.example.mcp.prompt.TokenCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Conversation Window Manager
+ * Builds the conversation part of each dialog prompt under a token ceiling so prompt size, and with it
+ * per-turn latency, stays flat over long conversations. Working parameters are rendered with each value
+ * capped; large artifacts such as aiRecommendations are referenced by name only. The last recent-turns
+ * turns are kept verbatim and older ones are folded into a rolling summary in the background, one batch
+ * at a time. When a prompt is still over max-prompt-tokens, the oldest recent turns are dropped first,
+ * then the summary and finally the parameters are cut.
+ */
+@Component
+public class ConversationWindowManager {
+
+    private static final Logger log = LoggerFactory.getLogger(ConversationWindowManager.class);
+
+    @Autowired
+    private ChatClient chatClient;
+
+    @Autowired
+    private PromptRegistry prompts;
+
+    @Autowired
+    private PromptUsageTracker usage;
+
+    @Autowired
+    private TokenCounter tokens;
+
+    @Autowired
+    @Qualifier("llmExecutor")
+    private ExecutorService llmExecutor;
+
+    @Value("${campaign.conversation.max-prompt-tokens:1500}")
+    private int maxPromptTokens;
+
+    @Value("${campaign.conversation.recent-turns:4}")
+    private int recentTurns;
+
+    @Value("${campaign.conversation.max-summary-tokens:300}")
+    private int maxSummaryTokens;
+
+    @Value("${campaign.conversation.max-value-tokens:120}")
+    private int maxValueTokens;
+
+    // Sessions with a summarization in flight; at most one per session
+    private final Set<String> compacting = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Render a dialog template with the conversation window ("parameters", "history", "artifacts") added to
+     * the given name/value pairs, trimmed to fit max-prompt-tokens
+     */
+    public String render(String template, ConversationContext context, Object... namesAndValues) {
+        String parameters = describeParameters(context.getParameters());
+        String artifacts = describeArtifacts(context.getArtifacts());
+        String summary = context.getSummary();
+        List<ConversationContext.Turn> turns = context.getRecentTurns();
+        int dropped = 0;
+
+        while (true) {
+            String prompt = prompts.render(template, with(namesAndValues,
+                "parameters", parameters,
+                "artifacts", artifacts,
+                "history", describeHistory(summary, turns.subList(dropped, turns.size()))));
+            int excess = tokens.count(prompt) - maxPromptTokens;
+            if (excess <= 0) {
+                return prompt;
+            }
+            if (dropped < turns.size()) {
+                dropped++;
+            } else if (!summary.isEmpty()) {
+                summary = shrink(summary, excess);
+            } else if (!parameters.isEmpty()) {
+                parameters = shrink(parameters, excess);
+            } else {
+                // The template and the fixed values alone are over the ceiling
+                return prompt;
+            }
+        }
+    }
+
+    /**
+     * Record a finished turn and start folding older turns into the summary when there are too many
+     */
+    public void recordTurn(ConversationContext context, String userMessage, String reply) {
+        context.addTurn(userMessage, reply);
+        if (context.getRecentTurns().size() > recentTurns && compacting.add(context.getSessionId())) {
+            llmExecutor.execute(() -> {
+                try {
+                    compact(context);
+                } finally {
+                    compacting.remove(context.getSessionId());
+                }
+            });
+        }
+    }
+
+    private void compact(ConversationContext context) {
+        List<ConversationContext.Turn> turns = context.getRecentTurns();
+        int fold = turns.size() - recentTurns;
+        if (fold <= 0) {
+            return;
+        }
+        List<ConversationContext.Turn> folded = turns.subList(0, fold);
+        String previous = context.getSummary();
+        String summary;
+        try {
+            String prompt = prompts.render("conversation.compact",
+                "summary", previous.isEmpty() ? "(无)" : previous, "turns", describeTurns(folded));
+            summary = usage.call("conversation.compact", chatClient.prompt().user(prompt));
+        } catch (Exception e) {
+            log.warn("Conversation summary failed for session {}, keeping an extractive summary: {}",
+                context.getSessionId(), e.getMessage());
+            summary = null;
+        }
+        if (summary == null || summary.isBlank()) {
+            summary = keepTail(previous.isEmpty() ? describeTurns(folded) : previous + "\n" + describeTurns(folded));
+        }
+        context.foldIntoSummary(tokens.truncate(summary.strip(), maxSummaryTokens), fold);
+    }
+
+    private String describeParameters(Map<String, Object> parameters) {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        new TreeMap<>(parameters).forEach((key, value) ->
+            joiner.add(key + "=" + tokens.truncate(String.valueOf(value), maxValueTokens)));
+        return joiner.toString();
+    }
+
+    private String describeArtifacts(Map<String, Object> artifacts) {
+        if (artifacts.isEmpty()) {
+            return "(无)";
+        }
+        StringJoiner joiner = new StringJoiner(", ");
+        new TreeMap<>(artifacts).keySet().forEach(key -> joiner.add(key + " (已展示给用户，未内联)"));
+        return joiner.toString();
+    }
+
+    private String describeHistory(String summary, List<ConversationContext.Turn> turns) {
+        if (summary.isEmpty() && turns.isEmpty()) {
+            return "(无)";
+        }
+        StringBuilder history = new StringBuilder();
+        if (!summary.isEmpty()) {
+            history.append("\n摘要: ").append(summary);
+        }
+        if (!turns.isEmpty()) {
+            history.append('\n').append(describeTurns(turns));
+        }
+        return history.toString();
+    }
+
+    private String describeTurns(List<ConversationContext.Turn> turns) {
+        StringJoiner joiner = new StringJoiner("\n");
+        for (ConversationContext.Turn turn : turns) {
+            joiner.add("第" + turn.number() + "轮 用户: " + tokens.truncate(turn.userMessage(), maxValueTokens)
+                + " / 回复: " + tokens.truncate(String.valueOf(turn.reply()), maxValueTokens));
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * Drop whole lines from the front until the text fits max-summary-tokens; the newest turns matter most
+     */
+    private String keepTail(String text) {
+        List<String> lines = new ArrayList<>(Arrays.asList(text.split("\n")));
+        while (lines.size() > 1 && tokens.count(String.join("\n", lines)) > maxSummaryTokens) {
+            lines.remove(0);
+        }
+        return String.join("\n", lines);
+    }
+
+    private String shrink(String text, int excess) {
+        String shorter = tokens.truncate(text, Math.max(0, tokens.count(text) - excess));
+        // Estimates are not exactly additive; make sure every step removes something
+        return shorter.length() < text.length() ? shorter : text.substring(0, text.length() / 2);
+    }
+
+    private static Object[] with(Object[] namesAndValues, Object... more) {
+        Object[] all = Arrays.copyOf(namesAndValues, namesAndValues.length + more.length);
+        System.arraycopy(more, 0, all, namesAndValues.length, more.length);
+        return all;
+    }
+}
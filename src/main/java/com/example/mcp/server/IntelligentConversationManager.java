@@ -1,5 +1,6 @@
 package com.example.mcp.server;
 
+import com.example.mcp.prompt.PromptUsageTracker;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -22,6 +23,18 @@ public class IntelligentConversationManager {
     
     @Autowired
     private AIRecommendationGenerator recommendationGenerator;
+
+    @Autowired
+    private PromptUsageTracker usage;
+
+    @Autowired
+    private ConversationWindowManager window;
+
+    @Autowired
+    private RecommendationPrefetcher prefetcher;
+
+    @Autowired
+    private CampaignCreationService campaignCreationService;
     
     // 存储活跃的对话会话
     private final Map<String, ConversationContext> activeSessions = new ConcurrentHashMap<>();
@@ -44,6 +57,7 @@ public class IntelligentConversationManager {
             
             // 更新对话状态
             updateConversationState(context, response);
+            window.recordTurn(context, message, describeReply(response));
             
             return response;
             
@@ -57,29 +71,10 @@ public class IntelligentConversationManager {
      * 分析用户意图
      */
     private UserIntentAnalysis analyzeUserIntent(String message, ConversationContext context) {
-        String prompt = String.format("""
-            分析用户的营销相关意图。用户消息: %s
-            当前对话轮次: %d
-            已收集的参数: %s
-            
-            请识别用户意图并提取关键信息。可能的意图包括:
-            - CREATE_CAMPAIGN: 创建营销活动
-            - MODIFY_CAMPAIGN: 修改活动
-            - GET_ADVICE: 获取建议
-            - ANALYZE_PERFORMANCE: 分析性能
-            - OPTIMIZE_BUDGET: 优化预算
-            
-            返回JSON格式:
-            {
-                "intent": "意图类型",
-                "confidence": 0.95,
-                "extractedParams": {"参数名": "参数值"},
-                "requiresMoreInfo": true/false,
-                "nextQuestion": "下一个问题"
-            }
-            """, message, context.getTurnCount(), context.getParameters());
+        String prompt = window.render("conversation.intent", context,
+            "message", message, "turnCount", context.getTurnCount());
         
-        String aiResponse = chatClient.prompt().user(prompt).call().content();
+        String aiResponse = usage.call("conversation.intent", chatClient.prompt().user(prompt));
         return parseIntentAnalysis(aiResponse);
     }
     
@@ -112,6 +107,9 @@ public class IntelligentConversationManager {
             intentAnalysis.getExtractedParams().forEach(context::addParameter);
         }
         
+        // 已知活动类型、受众和预算时，提前在后台生成人群和客户旅程建议
+        prefetcher.onParameters(context);
+        
         // 检查是否还需要更多信息
         if (intentAnalysis.isRequiresMoreInfo()) {
             context.setState(ConversationContext.ConversationState.GATHERING_INFO);
@@ -143,6 +141,7 @@ public class IntelligentConversationManager {
             String targetAudience = (String) context.getParameter("targetAudience");
             Double budget = (Double) context.getParameter("budget");
             String duration = (String) context.getParameter("duration");
+            prefetcher.onRecommendations(context);
             
             // 生成人群选择建议
             Map<String, Object> segmentRecommendations = recommendationGenerator.generateSegmentRecommendations(
@@ -154,7 +153,7 @@ public class IntelligentConversationManager {
             
             // 生成邮件模板建议
             Map<String, Object> emailTemplateRecommendations = recommendationGenerator.generateEmailTemplateRecommendations(
-                campaignType, targetAudience, segmentRecommendations, strategyRecommendations);
+                campaignType, targetAudience, budget, segmentRecommendations, strategyRecommendations);
             
             // 生成条件判断建议
             Map<String, Object> conditionRecommendations = recommendationGenerator.generateConditionRecommendations(
@@ -172,7 +171,8 @@ public class IntelligentConversationManager {
             allRecommendations.put("condition", conditionRecommendations);
             allRecommendations.put("customerJourney", journeyRecommendations);
             
-            context.addParameter("aiRecommendations", allRecommendations);
+            // 建议内容较大，作为结果单独保存，不再内联到后续的提示词中
+            context.addArtifact("aiRecommendations", allRecommendations);
             
             return ConversationResponse.nodeRecommendations(
                 "AI已为您的营销活动生成了详细的节点配置建议，请逐一确认：",
@@ -212,16 +212,10 @@ public class IntelligentConversationManager {
      * 生成下一个问题
      */
     private String generateNextQuestion(ConversationContext context) {
-        String prompt = String.format("""
-            基于当前已收集的营销活动参数，生成下一个问题来收集缺失的信息。
-            
-            已收集的参数: %s
-            缺失的关键参数: %s
-            
-            请生成一个自然、友好的问题来询问缺失的信息。
-            """, context.getParameters(), getMissingParameters(context));
+        String prompt = window.render("conversation.next-question", context,
+            "missingParameters", getMissingParameters(context));
         
-        return chatClient.prompt().user(prompt).call().content();
+        return usage.call("conversation.next-question", chatClient.prompt().user(prompt));
     }
     
     /**
@@ -264,14 +258,9 @@ public class IntelligentConversationManager {
      * 生成活动摘要
      */
     private String generateCampaignSummary(ConversationContext context) {
-        String prompt = String.format("""
-            基于以下参数生成营销活动摘要:
-            %s
-            
-            请生成一个简洁、专业的活动摘要，突出关键信息。
-            """, context.getParameters());
+        String prompt = window.render("conversation.summary", context);
         
-        return chatClient.prompt().user(prompt).call().content();
+        return usage.call("conversation.summary", chatClient.prompt().user(prompt));
     }
     
     /**
@@ -287,6 +276,16 @@ public class IntelligentConversationManager {
         }
     }
     
+    /**
+     * 本轮回复在对话历史中的记录；节点建议只记录说明文字，建议本身保存在结果中
+     */
+    private String describeReply(ConversationResponse response) {
+        if (response.getNextQuestion() != null) {
+            return response.getNextQuestion();
+        }
+        return response.getMessage();
+    }
+    
     /**
      * 获取或创建对话上下文
      */
@@ -332,16 +331,33 @@ public class IntelligentConversationManager {
         // 将确认的参数添加到已确认参数中
         confirmedParams.forEach(context::addConfirmedParameter);
         
-        // 创建最终的营销活动
+        // 创建最终的营销活动，已确认的节点配置同时写入向量库供后续活动检索
         context.setState(ConversationContext.ConversationState.CREATING_CAMPAIGN);
+        Map<String, Object> campaignParams = new HashMap<>(context.getParameters());
+        campaignParams.putAll(context.getConfirmedParameters());
+        Map<String, Object> campaign = campaignCreationService.createCampaign(userId, campaignParams, recommendationsOf(context));
+        if (campaign.containsKey("error")) {
+            return ConversationResponse.error(String.valueOf(campaign.get("error")));
+        }
+        context.addArtifact("campaign", campaign);
+        context.setState(ConversationContext.ConversationState.COMPLETED);
         
+        Map<String, Object> result = new HashMap<>(context.getConfirmedParameters());
+        result.put("campaignId", campaign.get("id"));
         return ConversationResponse.completed(
-            "营销活动参数已确认！正在创建活动...",
-            context.getConfirmedParameters(),
+            "营销活动参数已确认！活动已创建",
+            result,
             "活动创建成功"
         );
     }
     
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> recommendationsOf(ConversationContext context) {
+        return context.getArtifact("aiRecommendations") instanceof Map<?, ?> recommendations
+            ? (Map<String, Object>) recommendations
+            : Map.of();
+    }
+    
     /**
      * 获取会话状态
      */
@@ -353,6 +369,9 @@ public class IntelligentConversationManager {
      * 结束会话
      */
     public void endSession(String userId) {
-        activeSessions.remove(userId);
+        ConversationContext context = activeSessions.remove(userId);
+        if (context != null) {
+            prefetcher.onSessionEnd(context);
+        }
     }
 }
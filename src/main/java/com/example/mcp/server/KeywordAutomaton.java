@@ -0,0 +1,155 @@
+package com.example.mcp.server;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.function.IntConsumer;
+
+/**
+ * Keyword Automaton
+ * Aho-Corasick matcher compiled to a dense transition table: all keywords are found in one pass over the
+ * text, one table lookup per character, without lowercasing or copying the input. Matching is
+ * case-insensitive over ASCII letters and digits plus space and '-'; any other character ends a match.
+ * A keyword only matches at the start of a word, so "roi" is found in "ROI," but not in "heroic";
+ * it may run into a suffix ("plan" matches "planning").
+ */
+public final class KeywordAutomaton {
+
+    private static final int ALPHABET = 39; // 0 = separator, a-z, 0-9, ' ', '-'
+    private static final byte[] ASCII_CLASSES = new byte[128];
+
+    static {
+        for (char c = 0; c < ASCII_CLASSES.length; c++) {
+            ASCII_CLASSES[c] = (byte) classOf(c);
+        }
+    }
+
+    private final int[] transitions;   // state * ALPHABET + class -> state
+    private final int[][] outputs;     // keyword ids ending in each state, including via failure links; null if none
+    private final int[] keywordLengths;
+
+    private KeywordAutomaton(int[] transitions, int[][] outputs, int[] keywordLengths) {
+        this.transitions = transitions;
+        this.outputs = outputs;
+        this.keywordLengths = keywordLengths;
+    }
+
+    /**
+     * Compile keywords; a keyword's id is its index in the list
+     */
+    public static KeywordAutomaton compile(List<String> keywords) {
+        List<int[]> gotoTable = new ArrayList<>();
+        List<List<Integer>> stateOutputs = new ArrayList<>();
+        gotoTable.add(newState());
+        stateOutputs.add(new ArrayList<>());
+        int[] lengths = new int[keywords.size()];
+
+        for (int id = 0; id < keywords.size(); id++) {
+            String keyword = keywords.get(id);
+            if (keyword == null || keyword.isBlank()) {
+                throw new IllegalArgumentException("Empty keyword at index " + id);
+            }
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                int symbol = classOf(keyword.charAt(i));
+                if (symbol == 0) {
+                    throw new IllegalArgumentException("Unsupported character '" + keyword.charAt(i) + "' in keyword: " + keyword);
+                }
+                int next = gotoTable.get(state)[symbol];
+                if (next < 0) {
+                    next = gotoTable.size();
+                    gotoTable.add(newState());
+                    stateOutputs.add(new ArrayList<>());
+                    gotoTable.get(state)[symbol] = next;
+                }
+                state = next;
+            }
+            stateOutputs.get(state).add(id);
+            lengths[id] = keyword.length();
+        }
+
+        // Breadth-first: fill failure links and turn missing edges into DFA transitions
+        int states = gotoTable.size();
+        int[] transitions = new int[states * ALPHABET];
+        int[] failure = new int[states];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int symbol = 1; symbol < ALPHABET; symbol++) {
+            int next = gotoTable.get(0)[symbol];
+            transitions[symbol] = Math.max(next, 0);
+            if (next > 0) {
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            stateOutputs.get(state).addAll(stateOutputs.get(failure[state]));
+            for (int symbol = 1; symbol < ALPHABET; symbol++) {
+                int next = gotoTable.get(state)[symbol];
+                int fallback = transitions[failure[state] * ALPHABET + symbol];
+                if (next > 0) {
+                    failure[next] = fallback;
+                    transitions[state * ALPHABET + symbol] = next;
+                    queue.add(next);
+                } else {
+                    transitions[state * ALPHABET + symbol] = fallback;
+                }
+            }
+        }
+
+        int[][] outputs = new int[states][];
+        for (int state = 0; state < states; state++) {
+            List<Integer> ids = stateOutputs.get(state);
+            outputs[state] = ids.isEmpty() ? null : ids.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return new KeywordAutomaton(transitions, outputs, lengths);
+    }
+
+    /**
+     * Report the id of every keyword occurrence that starts at a word boundary, in text order
+     */
+    public void match(CharSequence text, IntConsumer onMatch) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            state = transitions[state * ALPHABET + (c < 128 ? ASCII_CLASSES[c] : 0)];
+            int[] ids = outputs[state];
+            if (ids == null) {
+                continue;
+            }
+            for (int id : ids) {
+                int start = i - keywordLengths[id] + 1;
+                if (start == 0 || !Character.isLetterOrDigit(text.charAt(start - 1))) {
+                    onMatch.accept(id);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return keywordLengths.length;
+    }
+
+    private static int[] newState() {
+        int[] edges = new int[ALPHABET];
+        Arrays.fill(edges, -1);
+        return edges;
+    }
+
+    private static int classOf(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return 1 + (c - 'a');
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return 1 + (c - 'A');
+        }
+        if (c >= '0' && c <= '9') {
+            return 27 + (c - '0');
+        }
+        if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+            return 37;
+        }
+        return c == '-' ? 38 : 0;
+    }
+}
@@ -2,21 +2,47 @@ package com.example.mcp.server;
 
 
 import com.example.mcp.client.MCPClientService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JsonNode;
 
-import io.modelcontextprotocol.server.McpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
-import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import reactor.core.Disposable;
 
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class MCPWebSocketHandler extends TextWebSocketHandler {
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    private final McpServer mcpServer;
+/**
+ * MCP WebSocket Handler
+ * Chat endpoint for dashboards. Requests never block the container I/O thread: the service futures complete
+ * on their own threads and their results are written through a bounded per-session send buffer, so a slow
+ * LLM call or a slow client only affects its own session. Idle connections hold no threads.
+ * JSON frames carry a request id so several requests can share one socket, answered in completion order,
+ * and can be cancelled with {"type": "cancel", "id": ...}. With "stream": true, marketing requests are
+ * answered with coalesced "chunk" frames followed by a "final" frame carrying the structured fields.
+ * Bare text frames keep the original one-in, one-out behaviour. Connections opened with ?encoding=cbor or
+ * ?encoding=smile exchange the same frames as binary messages (see {@link WebSocketPayloadCodec}).
+ */
+@Component
+public class MCPWebSocketHandler extends AbstractWebSocketHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(MCPWebSocketHandler.class);
 
     @Autowired
     private MarketingCampaignService marketingService;
@@ -24,12 +50,46 @@ public class MCPWebSocketHandler extends TextWebSocketHandler {
     @Autowired
     private MCPClientService mcpClientService;
 
-    public MCPWebSocketHandler(McpServer mcpServer) {
-        this.mcpServer = mcpServer;
-    }
+    @Autowired
+    private MarketingRequestRouter router;
+
+    @Autowired
+    private WebSocketPayloadCodec codec;
+
+    @Value("${campaign.websocket.send-time-limit:10s}")
+    private Duration sendTimeLimit;
+
+    @Value("${campaign.websocket.send-buffer-size:524288}")
+    private int sendBufferSize;
+
+    /** terminate: close a session whose buffer overflows; drop: discard its oldest buffered messages */
+    @Value("${campaign.websocket.overflow-strategy:terminate}")
+    private String overflowStrategy;
+
+    @Value("${campaign.websocket.max-in-flight:8}")
+    private int maxInFlight;
+
+    @Value("${campaign.websocket.stream-batch-size:16}")
+    private int streamBatchSize;
+
+    @Value("${campaign.websocket.stream-batch-interval:50ms}")
+    private Duration streamBatchInterval;
+
+    private final Map<String, SessionContext> sessions = new ConcurrentHashMap<>();
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        WebSocketPayloadCodec.Encoding encoding;
+        try {
+            encoding = codec.negotiate(session.getUri());
+        } catch (IllegalArgumentException e) {
+            session.close(CloseStatus.NOT_ACCEPTABLE.withReason(e.getMessage()));
+            return;
+        }
+        SessionContext context = new SessionContext(new ConcurrentWebSocketSessionDecorator(
+            session, (int) sendTimeLimit.toMillis(), sendBufferSize, overflow()), encoding);
+        sessions.put(session.getId(), context);
+
         // Send welcome message when connection is established
         Map<String, String> welcomeMessage = Map.of(
             "type", "connection",
@@ -37,41 +97,249 @@ public class MCPWebSocketHandler extends TextWebSocketHandler {
             "status", "ready",
             "capabilities", "Create campaigns, segments, strategies, templates, analyze performance, optimize budget",
             "mcp_server", "enabled",
-            "mcp_client", "enabled"
+            "mcp_client", "enabled",
+            "encoding", encoding.name().toLowerCase(Locale.ROOT)
         );
-        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(welcomeMessage)));
+        send(context, welcomeMessage);
     }
 
     @Override
     public void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        SessionContext context = sessions.get(session.getId());
+        if (context == null) {
+            return;
+        }
         String payload = message.getPayload().trim();
-        Object response;
 
+        if (!payload.startsWith("{")) {
+            // Legacy frame: bare text in, bare response out, no correlation id
+            dispatch(context, "legacy-" + context.legacySequence.incrementAndGet(), null, payload, false);
+            return;
+        }
+
+        JsonNode node;
         try {
+            node = codec.decode(payload);
+        } catch (Exception e) {
+            send(context, ChatFrame.error(null, "error", "Malformed frame: " + e.getMessage()));
+            return;
+        }
+        handleFrame(context, node);
+    }
+
+    /**
+     * Binary frames carry the same JSON frame structure in the connection's encoding (CBOR or Smile)
+     */
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+        SessionContext context = sessions.get(session.getId());
+        if (context == null) {
+            return;
+        }
+        JsonNode node;
+        try {
+            node = codec.decode(message.getPayload(), context.encoding);
+        } catch (Exception e) {
+            send(context, ChatFrame.error(null, "error", "Malformed frame: " + e.getMessage()));
+            return;
+        }
+        handleFrame(context, node);
+    }
+
+    private void handleFrame(SessionContext context, JsonNode node) {
+        Frame frame;
+        try {
+            frame = Frame.parse(node);
+        } catch (Exception e) {
+            send(context, ChatFrame.error(null, "error", "Malformed frame: " + e.getMessage()));
+            return;
+        }
+
+        switch (frame.type) {
+            case "cancel" -> cancel(context, frame.id);
+            case "ping" -> send(context, ChatFrame.pong(frame.id));
+            case "request" -> {
+                if (frame.id.isEmpty()) {
+                    send(context, ChatFrame.error(null, "error", "Request frame without an id"));
+                } else if (frame.message.isEmpty()) {
+                    send(context, ChatFrame.error(frame.id, "error", "Request frame without a payload"));
+                } else {
+                    dispatch(context, frame.id, frame.id, frame.message, frame.stream);
+                }
+            }
+            default -> send(context, ChatFrame.error(frame.id, "error", "Unknown frame type: " + frame.type));
+        }
+    }
+
+    /**
+     * Start a request and register it under its key; the reply is sent whenever it completes, so replies
+     * to framed requests may arrive in any order. {@code id} is null for legacy frames.
+     */
+    private void dispatch(SessionContext context, String key, String id, String payload, boolean stream) {
+        if (context.inFlight.incrementAndGet() > maxInFlight) {
+            context.inFlight.decrementAndGet();
+            send(context, ChatFrame.error(id, "busy", "Too many requests in flight on this connection (limit " + maxInFlight + ")"));
+            return;
+        }
+
+        CompletableFuture<Map<String, Object>> started = new CompletableFuture<>();
+        if (context.pending.putIfAbsent(key, started) != null) {
+            context.inFlight.decrementAndGet();
+            send(context, ChatFrame.error(id, "error", "Request id already in flight: " + id));
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        AtomicLong sequence = new AtomicLong();
+        CompletableFuture<Map<String, Object>> future;
+        try {
+            String marketingType = stream && !payload.startsWith("/mcp") ? router.route(payload) : null;
             // Check if this is an MCP-specific command
             if (payload.startsWith("/mcp")) {
-                response = handleMCPCommand(payload);
+                future = handleMCPCommand(payload);
+            } else if (stream && marketingType != null) {
+                future = streamMarketingRequest(context, id, marketingType, payload, sequence);
             } else {
                 // Process marketing request through service layer
-                response = processMarketingRequest(payload);
+                future = processMarketingRequest(payload);
             }
-
         } catch (Exception e) {
-            // Handle errors gracefully
-            response = Map.of(
-                "error", "Failed to process request: " + e.getMessage(),
-                "status", "error",
-                "timestamp", System.currentTimeMillis()
+            future = CompletableFuture.failedFuture(e);
+        }
+        context.pending.replace(key, started, future);
+        if (started.isCancelled()) {
+            // The session closed while the request was being started
+            future.cancel(true);
+        }
+
+        CompletableFuture<Map<String, Object>> pending = future;
+        pending.whenComplete((response, error) -> {
+            context.pending.remove(key, pending);
+            context.inFlight.decrementAndGet();
+            if (pending.isCancelled()) {
+                // The client asked for it or the session closed; a cancel frame has already been answered
+                return;
+            }
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                // Handle errors gracefully
+                send(context, ChatFrame.error(id, "error", "Failed to process request: " + cause.getMessage()));
+            } else if (id == null) {
+                send(context, response);
+            } else {
+                long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+                send(context, stream
+                    ? ChatFrame.last(id, sequence.getAndIncrement(), response, elapsedMs)
+                    : ChatFrame.response(id, response, elapsedMs));
+            }
+        });
+    }
+
+    /**
+     * Stream the generated text as {"type": "chunk"} frames numbered by "seq". Tokens are coalesced into
+     * batches of up to stream-batch-size tokens or whatever arrived within stream-batch-interval, so a fast
+     * model does not produce one frame per token. The future completes with the structured response, which
+     * becomes the "final" frame.
+     */
+    private CompletableFuture<Map<String, Object>> streamMarketingRequest(
+        SessionContext context, String id, String type, String request, AtomicLong sequence) {
+        CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+        StringBuilder content = new StringBuilder();
+        Disposable subscription = marketingService.streamContent(type, request)
+            .bufferTimeout(streamBatchSize, streamBatchInterval)
+            .map(tokens -> String.join("", tokens))
+            .filter(text -> !text.isEmpty())
+            .subscribe(
+                text -> {
+                    content.append(text);
+                    send(context, ChatFrame.chunk(id, sequence.getAndIncrement(), text));
+                },
+                result::completeExceptionally,
+                () -> result.complete(marketingService.buildResponse(type, content.toString()))
             );
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                // Cancels the model request
+                subscription.dispose();
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Cancel an in-flight request; service calls run on interruptible workers, so the LLM call is aborted too
+     */
+    private void cancel(SessionContext context, String id) {
+        CompletableFuture<?> future = id.isEmpty() ? null : context.pending.get(id);
+        if (future == null || !future.cancel(true)) {
+            send(context, ChatFrame.error(id, "error", "No request in flight with id: " + id));
+            return;
         }
+        send(context, ChatFrame.cancelled(id));
+    }
+
 
-        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        SessionContext context = sessions.remove(session.getId());
+        if (context != null) {
+            // Nobody is left to read the results
+            context.pending.values().forEach(future -> future.cancel(true));
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.warn("WebSocket transport error on session {}: {}", session.getId(), exception.getMessage());
+    }
+
+    /**
+     * Connection and buffering statistics
+     */
+    public Map<String, Object> getStats() {
+        int inFlight = 0;
+        long bufferedBytes = 0;
+        for (SessionContext context : sessions.values()) {
+            inFlight += context.inFlight.get();
+            bufferedBytes += context.session.getBufferSize();
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("sessions", sessions.size());
+        stats.put("inFlight", inFlight);
+        stats.put("bufferedBytes", bufferedBytes);
+        stats.put("maxInFlightPerSession", maxInFlight);
+        stats.put("overflowStrategy", overflow().name().toLowerCase(Locale.ROOT));
+        stats.put("encodings", codec.getStats());
+        return stats;
+    }
+
+    /**
+     * Serialize in the session's encoding and enqueue a message; the decorator writes it now or after the send already in progress
+     */
+    private void send(SessionContext context, Object payload) {
+        if (!context.session.isOpen()) {
+            return;
+        }
+        try {
+            context.session.sendMessage(codec.encode(payload, context.encoding));
+        } catch (SessionLimitExceededException e) {
+            // TERMINATE strategy: the decorator has already closed the session
+            log.debug("WebSocket session {} closed: {}", context.session.getId(), e.getMessage());
+        } catch (Exception e) {
+            log.warn("Failed to send WebSocket message on session {}: {}", context.session.getId(), e.getMessage());
+        }
+    }
+
+    private ConcurrentWebSocketSessionDecorator.OverflowStrategy overflow() {
+        return "drop".equalsIgnoreCase(overflowStrategy)
+            ? ConcurrentWebSocketSessionDecorator.OverflowStrategy.DROP
+            : ConcurrentWebSocketSessionDecorator.OverflowStrategy.TERMINATE;
     }
 
     // Handle MCP-specific commands
-    private Map<String, Object> handleMCPCommand(String command) throws Exception {
+    private CompletableFuture<Map<String, Object>> handleMCPCommand(String command) {
         if (command.equals("/mcp/status")) {
-            return Map.of(
+            return CompletableFuture.completedFuture(Map.of(
                 "type", "mcp_status",
                 "server", Map.of(
                     "name", "lcms",
@@ -82,71 +350,52 @@ public class MCPWebSocketHandler extends TextWebSocketHandler {
                     "sync_clients", mcpClientService.getSyncClients().size(),
                     "async_clients", mcpClientService.getAsyncClients().size()
                 ),
+                "websocket", getStats(),
                 "timestamp", System.currentTimeMillis()
-            );
+            ));
         } else if (command.equals("/mcp/tools")) {
-            return Map.of(
+            return mcpClientService.getToolCallbacks().thenApply(tools -> Map.of(
                 "type", "mcp_tools",
-                "tools", mcpClientService.getToolCallbacks(),
+                "tools", tools,
                 "timestamp", System.currentTimeMillis()
-            );
+            ));
         } else if (command.equals("/mcp/health")) {
-            CompletableFuture<Map<String, Object>> healthFuture = mcpClientService.checkHealth();
-            return healthFuture.get();
+            return mcpClientService.checkHealth();
+        } else if (command.startsWith("/mcp/route ")) {
+            // Show how a message would be routed, without running it
+            String message = command.substring("/mcp/route ".length());
+            return CompletableFuture.completedFuture(Map.of(
+                "type", "mcp_route",
+                "message", message,
+                "routing", router.decide(message).toMap(),
+                "timestamp", System.currentTimeMillis()
+            ));
         } else {
-            return Map.of(
+            return CompletableFuture.completedFuture(Map.of(
                 "type", "mcp_error",
                 "error", "Unknown MCP command: " + command,
-                "available_commands", List.of("/mcp/status", "/mcp/tools", "/mcp/health"),
+                "available_commands", List.of("/mcp/status", "/mcp/tools", "/mcp/health", "/mcp/route <message>"),
                 "timestamp", System.currentTimeMillis()
-            );
+            ));
         }
     }
 
     // Process marketing request through service layer
-    private Map<String, Object> processMarketingRequest(String request) throws Exception {
-        String lowerRequest = request.toLowerCase();
-
+    private CompletableFuture<Map<String, Object>> processMarketingRequest(String request) {
         // Route to appropriate service method based on request content
-        if (lowerRequest.contains("campaign") || lowerRequest.contains("create") ||
-            lowerRequest.contains("generate") || lowerRequest.contains("make")) {
-
-            CompletableFuture<Map<String, Object>> future = marketingService.createCampaign(request);
-            return future.get();
-
-        } else if (lowerRequest.contains("segment") || lowerRequest.contains("audience") ||
-                   lowerRequest.contains("people") || lowerRequest.contains("target")) {
-
-            CompletableFuture<Map<String, Object>> future = marketingService.defineAudienceSegments(request);
-            return future.get();
-
-        } else if (lowerRequest.contains("channel") || lowerRequest.contains("strategy") ||
-                   lowerRequest.contains("plan") || lowerRequest.contains("approach")) {
-
-            CompletableFuture<Map<String, Object>> future = marketingService.developChannelStrategy(request);
-            return future.get();
-
-        } else if (lowerRequest.contains("template") || lowerRequest.contains("email") ||
-                   lowerRequest.contains("content") || lowerRequest.contains("message")) {
-
-            CompletableFuture<Map<String, Object>> future = marketingService.generateEmailTemplate(request);
-            return future.get();
-
-        } else if (lowerRequest.contains("performance") || lowerRequest.contains("analyze") ||
-                   lowerRequest.contains("metrics") || lowerRequest.contains("kpi")) {
-
-            CompletableFuture<Map<String, Object>> future = marketingService.analyzeCampaignPerformance(request);
-            return future.get();
-
-        } else if (lowerRequest.contains("budget") || lowerRequest.contains("optimize") ||
-                   lowerRequest.contains("roi") || lowerRequest.contains("allocation")) {
-
-            CompletableFuture<Map<String, Object>> future = marketingService.optimizeBudgetAllocation(request);
-            return future.get();
-
+        String type = router.route(request);
+        if (type != null) {
+            return switch (type) {
+                case "campaign" -> marketingService.createCampaign(request);
+                case "segment" -> marketingService.defineAudienceSegments(request);
+                case "strategy" -> marketingService.developChannelStrategy(request);
+                case "template" -> marketingService.generateEmailTemplate(request);
+                case "analysis" -> marketingService.analyzeCampaignPerformance(request);
+                default -> marketingService.optimizeBudgetAllocation(request);
+            };
         } else {
             // General help response
-            return Map.of(
+            return CompletableFuture.completedFuture(Map.of(
                 "type", "help",
                 "message", "I can help you with marketing campaigns. Try asking about:",
                 "capabilities", List.of(
@@ -168,11 +417,58 @@ public class MCPWebSocketHandler extends TextWebSocketHandler {
                 "mcp_commands", List.of(
                     "/mcp/status - Check MCP server status",
                     "/mcp/tools - Get available MCP tools",
-                    "/mcp/health - Check MCP health"
+                    "/mcp/health - Check MCP health",
+                    "/mcp/route <message> - Show which service a message is routed to"
                 ),
                 "status", "info",
                 "timestamp", System.currentTimeMillis()
+            ));
+        }
+    }
+
+    /**
+     * Inbound frame: {"id": "...", "type": "request|cancel|ping", "payload": "...", "stream": false}
+     */
+    private static final class Frame {
+        private final String id;
+        private final String type;
+        private final String message;
+        private final boolean stream;
+
+        private Frame(String id, String type, String message, boolean stream) {
+            this.id = id;
+            this.type = type;
+            this.message = message;
+            this.stream = stream;
+        }
+
+        static Frame parse(JsonNode node) {
+            if (!node.isObject()) {
+                throw new IllegalArgumentException("expected a JSON object");
+            }
+            JsonNode payload = node.hasNonNull("payload") ? node.get("payload") : node.path("message");
+            return new Frame(
+                node.path("id").asText("").trim(),
+                node.path("type").asText("request").toLowerCase(Locale.ROOT),
+                payload.isTextual() ? payload.asText().trim() : "",
+                node.path("stream").asBoolean(false)
             );
         }
     }
+
+    /**
+     * Per-session state: the buffered session used for all sends and the requests still running, by request id
+     */
+    private static final class SessionContext {
+        private final ConcurrentWebSocketSessionDecorator session;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong legacySequence = new AtomicLong();
+        private final Map<String, CompletableFuture<?>> pending = new ConcurrentHashMap<>();
+        private final WebSocketPayloadCodec.Encoding encoding;
+
+        SessionContext(ConcurrentWebSocketSessionDecorator session, WebSocketPayloadCodec.Encoding encoding) {
+            this.session = session;
+            this.encoding = encoding;
+        }
+    }
 }
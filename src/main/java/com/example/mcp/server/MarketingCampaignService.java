@@ -1,5 +1,7 @@
 package com.example.mcp.server;
 
+import reactor.core.publisher.Flux;
+
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -49,6 +51,22 @@ public interface MarketingCampaignService {
      * @return Budget optimization recommendations
      */
     CompletableFuture<Map<String, Object>> optimizeBudgetAllocation(String request);
+
+    /**
+     * Stream the generated text of a marketing request as it is produced
+     * @param type Request type: campaign, segment, strategy, template, analysis or optimization
+     * @param request User's natural language request
+     * @return Text chunks in generation order
+     */
+    Flux<String> streamContent(String type, String request);
+
+    /**
+     * Extract the structured fields of a marketing response from its full text
+     * @param type Request type, as passed to {@link #streamContent}
+     * @param content Complete generated text
+     * @return The same map the non-streaming method for this type returns
+     */
+    Map<String, Object> buildResponse(String type, String content);
     
     /**
      * Process chat message and get AI response
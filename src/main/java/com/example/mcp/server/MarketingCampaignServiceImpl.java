@@ -1,13 +1,19 @@
 package com.example.mcp.server;
 
-import com.example.mcp.server.MarketingCampaignService;
+import com.example.mcp.cache.SemanticResponseCache;
+import com.example.mcp.prompt.PromptRegistry;
+import com.example.mcp.prompt.PromptUsageTracker;
 import org.springframework.ai.chat.client.ChatClient;
-import org.springframework.ai.chat.prompt.PromptTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -18,158 +24,171 @@ public class MarketingCampaignServiceImpl implements MarketingCampaignService {
     private ChatClient chatClient;
     
     @Autowired
-    private PromptTemplate marketingPromptTemplate;
+    private PromptRegistry prompts;
+
+    @Autowired
+    private PromptUsageTracker usage;
+
+    @Autowired
+    @Qualifier("llmExecutor")
+    private ExecutorService llmExecutor;
+
+    @Autowired
+    private SemanticResponseCache responseCache;
 
     @Override
     public CompletableFuture<Map<String, Object>> createCampaign(String request) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                String prompt = "Create a comprehensive marketing campaign for: " + request + 
-                    ". Include campaign name, objectives, target audience, channels, budget, timeline, and KPIs.";
-
-                String content = chatClient.prompt().user(prompt).call().content();
-                
-                return Map.of(
-                    "type", "campaign",
-                    "content", content,
-                    "name", extractCampaignName(content),
-                    "period", extractCampaignPeriod(content),
-                    "budget", extractBudget(content),
-                    "desc", extractDescription(content),
-                    "status", "success",
-                    "timestamp", System.currentTimeMillis()
-                );
-            } catch (Exception e) {
-                return createErrorResponse("campaign", e.getMessage());
-            }
-        });
+        return generate("campaign", request);
     }
 
     @Override
     public CompletableFuture<Map<String, Object>> defineAudienceSegments(String request) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                String prompt = "Define target audience segments for: " + request + 
-                    ". Include demographics, psychographics, behavior patterns, and segment priorities.";
-
-
-                String content = chatClient.prompt().user(prompt).call().content();
-                
-                return Map.of(
-                    "type", "segment",
-                    "content", content,
-                    "segments", extractSegments(content),
-                    "demographics", extractDemographics(content),
-                    "priorities", extractPriorities(content),
-                    "status", "success",
-                    "timestamp", System.currentTimeMillis()
-                );
-            } catch (Exception e) {
-                return createErrorResponse("segment", e.getMessage());
-            }
-        });
+        return generate("segment", request);
     }
 
     @Override
     public CompletableFuture<Map<String, Object>> developChannelStrategy(String request) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                String prompt = "Develop a comprehensive channel strategy for: " + request + 
-                    ". Include channel selection, budget allocation, timing, and integration approach.";
-
-                String content = chatClient.prompt().user(prompt).call().content();
-                
-                return Map.of(
-                    "type", "strategy",
-                    "content", content,
-                    "channels", extractChannels(content),
-                    "frequency", extractFrequency(content),
-                    "budgetAllocation", extractBudgetAllocation(content),
-                    "timing", extractTiming(content),
-                    "integration", extractIntegrationApproach(content),
-                    "status", "success",
-                    "timestamp", System.currentTimeMillis()
-                );
-            } catch (Exception e) {
-                return createErrorResponse("strategy", e.getMessage());
-            }
-        });
+        return generate("strategy", request);
     }
 
     @Override
     public CompletableFuture<Map<String, Object>> generateEmailTemplate(String request) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                String prompt = "Generate an email template for: " + request + 
-                    ". Include subject line, header, body content, call-to-action, and footer.";
-
-                String content = chatClient.prompt().user(prompt).call().content();
-                
-                return Map.of(
-                    "type", "template",
-                    "content", content,
-                    "subject", extractSubjectLine(content),
-                    "header", extractHeader(content),
-                    "body", extractBodyContent(content),
-                    "cta", extractCallToAction(content),
-                    "footer", extractFooter(content),
-                    "status", "success",
-                    "timestamp", System.currentTimeMillis()
-                );
-            } catch (Exception e) {
-                return createErrorResponse("template", e.getMessage());
-            }
-        });
+        return generate("template", request);
     }
 
     @Override
     public CompletableFuture<Map<String, Object>> analyzeCampaignPerformance(String request) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                String prompt = "Analyze campaign performance for: " + request + 
-                    ". Include key metrics, ROI analysis, conversion rates, and optimization recommendations.";
-
-                String content = chatClient.prompt().user(prompt).call().content();
-                
-                return Map.of(
-                    "type", "analysis",
-                    "content", content,
-                    "metrics", extractMetrics(content),
-                    "roi", extractROI(content),
-                    "conversions", extractConversions(content),
-                    "recommendations", extractRecommendations(content),
-                    "status", "success",
-                    "timestamp", System.currentTimeMillis()
-                );
-            } catch (Exception e) {
-                return createErrorResponse("analysis", e.getMessage());
-            }
-        });
+        return generate("analysis", request);
     }
 
     @Override
     public CompletableFuture<Map<String, Object>> optimizeBudgetAllocation(String request) {
-        return CompletableFuture.supplyAsync(() -> {
+        return generate("optimization", request);
+    }
+
+    @Override
+    public Flux<String> streamContent(String type, String request) {
+        String endpoint = "marketing." + type;
+        Optional<SemanticResponseCache.Hit> hit = responseCache.lookup(endpoint, "", request);
+        if (hit.isPresent()) {
+            sampleHit(type, request, hit.get());
+            return Flux.just(hit.get().value());
+        }
+        StringBuilder content = new StringBuilder();
+        return usage.stream(endpoint, chatClient.prompt().user(buildPrompt(type, request)))
+            .doOnNext(content::append)
+            .doOnComplete(() -> responseCache.put(endpoint, "", request, content.toString()));
+    }
+
+    @Override
+    public Map<String, Object> buildResponse(String type, String content) {
+        return switch (type) {
+            case "campaign" -> Map.of(
+                "type", "campaign",
+                "content", content,
+                "name", extractCampaignName(content),
+                "period", extractCampaignPeriod(content),
+                "budget", extractBudget(content),
+                "desc", extractDescription(content),
+                "status", "success",
+                "timestamp", System.currentTimeMillis()
+            );
+            case "segment" -> Map.of(
+                "type", "segment",
+                "content", content,
+                "segments", extractSegments(content),
+                "demographics", extractDemographics(content),
+                "priorities", extractPriorities(content),
+                "status", "success",
+                "timestamp", System.currentTimeMillis()
+            );
+            case "strategy" -> Map.of(
+                "type", "strategy",
+                "content", content,
+                "channels", extractChannels(content),
+                "frequency", extractFrequency(content),
+                "budgetAllocation", extractBudgetAllocation(content),
+                "timing", extractTiming(content),
+                "integration", extractIntegrationApproach(content),
+                "status", "success",
+                "timestamp", System.currentTimeMillis()
+            );
+            case "template" -> Map.of(
+                "type", "template",
+                "content", content,
+                "subject", extractSubjectLine(content),
+                "header", extractHeader(content),
+                "body", extractBodyContent(content),
+                "cta", extractCallToAction(content),
+                "footer", extractFooter(content),
+                "status", "success",
+                "timestamp", System.currentTimeMillis()
+            );
+            case "analysis" -> Map.of(
+                "type", "analysis",
+                "content", content,
+                "metrics", extractMetrics(content),
+                "roi", extractROI(content),
+                "conversions", extractConversions(content),
+                "recommendations", extractRecommendations(content),
+                "status", "success",
+                "timestamp", System.currentTimeMillis()
+            );
+            case "optimization" -> Map.of(
+                "type", "optimization",
+                "content", content,
+                "currentAllocation", extractCurrentAllocation(content),
+                "recommendedAllocation", extractRecommendedAllocation(content),
+                "expectedOutcomes", extractExpectedOutcomes(content),
+                "riskAssessment", extractRiskAssessment(content),
+                "status", "success",
+                "timestamp", System.currentTimeMillis()
+            );
+            default -> throw new IllegalArgumentException("Unknown marketing request type: " + type);
+        };
+    }
+
+    /**
+     * Blocking generation on the LLM pool; the whole response is assembled before the future completes
+     */
+    private CompletableFuture<Map<String, Object>> generate(String type, String request) {
+        // Cache hits are answered on the caller's thread without taking an LLM worker
+        Optional<SemanticResponseCache.Hit> hit = responseCache.lookup("marketing." + type, "", request);
+        if (hit.isPresent()) {
+            sampleHit(type, request, hit.get());
+            return CompletableFuture.completedFuture(cachedResponse(type, hit.get()));
+        }
+        String prompt = buildPrompt(type, request);
+        return CancellableTask.supplyAsync(() -> {
             try {
-                String prompt = "Optimize budget allocation for: " + request + 
-                    ". Include channel performance analysis, budget redistribution, and expected outcomes.";
-
-                String content = chatClient.prompt().user(prompt).call().content();
-                
-                return Map.of(
-                    "type", "optimization",
-                    "content", content,
-                    "currentAllocation", extractCurrentAllocation(content),
-                    "recommendedAllocation", extractRecommendedAllocation(content),
-                    "expectedOutcomes", extractExpectedOutcomes(content),
-                    "riskAssessment", extractRiskAssessment(content),
-                    "status", "success",
-                    "timestamp", System.currentTimeMillis()
-                );
+                String content = usage.call("marketing." + type, chatClient.prompt().user(prompt));
+                responseCache.put("marketing." + type, "", request, content);
+                return buildResponse(type, content);
             } catch (Exception e) {
-                return createErrorResponse("optimization", e.getMessage());
+                return createErrorResponse(type, e.getMessage());
             }
-        });
+        }, llmExecutor);
+    }
+
+    private Map<String, Object> cachedResponse(String type, SemanticResponseCache.Hit hit) {
+        Map<String, Object> response = new HashMap<>(buildResponse(type, hit.value()));
+        response.put("cache", Map.of(
+            "tier", hit.tier(),
+            "similarity", hit.similarity(),
+            "matchedRequest", hit.matchedRequest()
+        ));
+        return response;
+    }
+
+    private void sampleHit(String type, String request, SemanticResponseCache.Hit hit) {
+        if (hit.tier().equals("semantic")) {
+            responseCache.sample("marketing." + type, hit,
+                () -> usage.call("marketing." + type, chatClient.prompt().user(buildPrompt(type, request))));
+        }
+    }
+
+    private String buildPrompt(String type, String request) {
+        return prompts.render("marketing." + type, "request", request);
     }
 
     // Helper methods for extracting structured data
@@ -335,11 +354,9 @@ public class MarketingCampaignServiceImpl implements MarketingCampaignService {
     @Override
     public String processChatMessage(String message) {
         try {
-            String prompt = "You are a marketing campaign expert. Please respond to this user message: " + message + 
-                "\n\nProvide helpful, actionable advice related to marketing campaigns, audience segmentation, " +
-                "channel strategy, email templates, or campaign optimization. Keep your response concise but informative.";
+            String prompt = prompts.render("marketing.chat", "message", message);
             
-            return  chatClient.prompt().user(prompt).call().content();
+            return usage.call("marketing.chat", chatClient.prompt().user(prompt));
         } catch (Exception e) {
             return "I apologize, but I encountered an error processing your message: " + e.getMessage() + 
                 ". Please try rephrasing your question or contact support if the issue persists.";
@@ -349,23 +366,11 @@ public class MarketingCampaignServiceImpl implements MarketingCampaignService {
     @Override
     public String generateCampaignAdvice(String campaignType, String targetAudience, Double budget) {
         try {
-            String prompt = String.format(
-                "Generate comprehensive marketing campaign advice for:\n" +
-                "- Campaign Type: %s\n" +
-                "- Target Audience: %s\n" +
-                "- Budget: $%.2f\n\n" +
-                "Please provide specific recommendations for:\n" +
-                "1. Campaign strategy and objectives\n" +
-                "2. Target audience insights and segmentation\n" +
-                "3. Channel recommendations and budget allocation\n" +
-                "4. Timeline and milestones\n" +
-                "5. Key performance indicators\n" +
-                "6. Risk assessment and mitigation strategies\n\n" +
-                "Format your response in a clear, structured manner with actionable insights.",
-                campaignType, targetAudience, budget
-            );
+            String prompt = prompts.render("marketing.advice",
+                "campaignType", campaignType, "targetAudience", targetAudience, "budget", budget);
+
             
-            return chatClient.prompt().user(prompt).call().content();
+            return usage.call("marketing.advice", chatClient.prompt().user(prompt));
         } catch (Exception e) {
             return "I apologize, but I encountered an error generating campaign advice: " + e.getMessage() + 
                 ". Please try again or contact support if the issue persists.";
@@ -0,0 +1,184 @@
+package com.example.mcp.server;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Marketing Request Router
+ * Picks the marketing service for a chat message. All intent keywords are found in one pass with a
+ * {@link KeywordAutomaton}; each route scores the summed weight of its distinct keywords in the message,
+ * the highest score wins and ties go to the route listed first in campaign.router.priority.
+ * Weak verbs such as "create" carry little weight, so "create an audience segment" routes to segments.
+ */
+@Component
+public class MarketingRequestRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(MarketingRequestRouter.class);
+
+    /** Route -> "keyword=weight,..." (weight defaults to 1); overridable per route under campaign.router.keywords */
+    private static final Map<String, String> DEFAULT_KEYWORDS = new LinkedHashMap<>();
+
+    static {
+        DEFAULT_KEYWORDS.put("campaign", "campaign=3,launch=2,promotion=2,promo=2,create,generate,make");
+        DEFAULT_KEYWORDS.put("segment", "segment=3,audience=3,demographic=3,persona=3,people=2,target=2,customers");
+        DEFAULT_KEYWORDS.put("strategy", "channel=3,strategy=3,omnichannel=3,multi-channel=3,media mix=3,plan=2,approach=2");
+        DEFAULT_KEYWORDS.put("template", "template=3,email=3,newsletter=3,subject line=3,content=2,message=2,copy");
+        DEFAULT_KEYWORDS.put("analysis", "performance=3,analyze=3,analyse=3,metrics=3,kpi=3,conversion=2,report=2,results");
+        DEFAULT_KEYWORDS.put("optimization", "budget=3,optimize=3,optimise=3,roi=3,allocation=3,reallocate=3,spend=2");
+    }
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${campaign.router.priority:campaign,segment,strategy,template,analysis,optimization}")
+    private List<String> priority;
+
+    /** Messages scoring below this for every route get the help response */
+    @Value("${campaign.router.min-score:1}")
+    private double minScore;
+
+    private List<String> routes;
+    private KeywordAutomaton automaton;
+    private String[] keywords;
+    private int[] keywordRoutes;
+    private double[] keywordWeights;
+
+    @PostConstruct
+    public void init() {
+        Map<String, String> configured = Binder.get(environment)
+            .bind("campaign.router.keywords", Bindable.mapOf(String.class, String.class))
+            .orElse(Map.of());
+        for (String route : configured.keySet()) {
+            if (!DEFAULT_KEYWORDS.containsKey(route)) {
+                throw new IllegalArgumentException("Unknown route in campaign.router.keywords: " + route);
+            }
+        }
+
+        // Route order is the tie-break order: configured priority first, then any route it leaves out
+        routes = new ArrayList<>();
+        for (String route : priority) {
+            String name = route.trim().toLowerCase(Locale.ROOT);
+            if (!DEFAULT_KEYWORDS.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown route in campaign.router.priority: " + route);
+            }
+            if (!routes.contains(name)) {
+                routes.add(name);
+            }
+        }
+        DEFAULT_KEYWORDS.keySet().stream().filter(route -> !routes.contains(route)).forEach(routes::add);
+
+        List<String> keywordList = new ArrayList<>();
+        List<Integer> routeList = new ArrayList<>();
+        List<Double> weightList = new ArrayList<>();
+        for (int route = 0; route < routes.size(); route++) {
+            String spec = configured.getOrDefault(routes.get(route), DEFAULT_KEYWORDS.get(routes.get(route)));
+            for (String entry : spec.split(",")) {
+                if (entry.isBlank()) {
+                    continue;
+                }
+                int separator = entry.lastIndexOf('=');
+                keywordList.add((separator < 0 ? entry : entry.substring(0, separator)).trim().toLowerCase(Locale.ROOT));
+                weightList.add(separator < 0 ? 1.0 : Double.parseDouble(entry.substring(separator + 1).trim()));
+                routeList.add(route);
+            }
+        }
+
+        automaton = KeywordAutomaton.compile(keywordList);
+        keywords = keywordList.toArray(new String[0]);
+        keywordRoutes = routeList.stream().mapToInt(Integer::intValue).toArray();
+        keywordWeights = weightList.stream().mapToDouble(Double::doubleValue).toArray();
+        log.info("Marketing request router compiled {} keywords for routes {}", keywords.length, routes);
+    }
+
+    /**
+     * Route a message; use {@link #route(String)} when only the winning route is needed
+     */
+    public RoutingDecision decide(String message) {
+        BitSet found = new BitSet(keywords.length);
+        automaton.match(message, found::set);
+
+        double[] scores = new double[routes.size()];
+        List<String> matched = new ArrayList<>();
+        for (int id = found.nextSetBit(0); id >= 0; id = found.nextSetBit(id + 1)) {
+            scores[keywordRoutes[id]] += keywordWeights[id];
+            matched.add(keywords[id]);
+        }
+
+        int best = winner(scores);
+        boolean tie = false;
+        for (int route = best + 1; best >= 0 && route < scores.length; route++) {
+            // Earlier routes have priority among equal scores
+            tie |= scores[route] == scores[best];
+        }
+
+        Map<String, Double> routeScores = new LinkedHashMap<>();
+        for (int route = 0; route < scores.length; route++) {
+            if (scores[route] > 0) {
+                routeScores.put(routes.get(route), scores[route]);
+            }
+        }
+        return new RoutingDecision(best < 0 ? null : routes.get(best), best < 0 ? 0 : scores[best], routeScores, matched, tie);
+    }
+
+    /**
+     * Winning route, or null when the message matches none
+     */
+    public String route(String message) {
+        boolean[] found = new boolean[keywords.length];
+        double[] scores = new double[routes.size()];
+        automaton.match(message, id -> {
+            if (!found[id]) {
+                found[id] = true;
+                scores[keywordRoutes[id]] += keywordWeights[id];
+            }
+        });
+        int best = winner(scores);
+        return best < 0 ? null : routes.get(best);
+    }
+
+    /**
+     * Index of the highest scoring route at or above the minimum score, the earliest one among equals; -1 if none
+     */
+    private int winner(double[] scores) {
+        int best = -1;
+        for (int route = 0; route < scores.length; route++) {
+            if (scores[route] >= minScore && scores[route] > 0 && (best < 0 || scores[route] > scores[best])) {
+                best = route;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Outcome of routing one message: the winning route (null for help), every route's score, the keywords
+     * found and whether the winner was picked by priority among equal scores
+     */
+    public record RoutingDecision(String route, double score, Map<String, Double> scores, List<String> matchedKeywords,
+                                  boolean tieBroken) {
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> decision = new HashMap<>();
+            decision.put("route", route == null ? "help" : route);
+            decision.put("score", score);
+            decision.put("scores", scores);
+            decision.put("matchedKeywords", matchedKeywords);
+            decision.put("tieBroken", tieBroken);
+            return decision;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.mcp.server;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MCP HTTP Session Filter
+ * Admission control and session affinity for the HTTP/SSE MCP transport (spring.ai.mcp.server.stdio: false).
+ * Each MCP client holds one SSE stream and posts its messages with the sessionId the stream announced; the
+ * session lives in this instance's memory, so the stream response sets an affinity cookie and header naming the
+ * instance for sticky load balancers, and a post that carries another instance's cookie is refused with 421 so
+ * the client reconnects instead of hitting "session not found". At most max-clients streams are open at once
+ * (503 beyond), and each session may have max-in-flight-per-client messages in progress (429 beyond). The
+ * transport holds a request thread until a posted request has been answered, so messages in progress across all
+ * sessions are also capped at max-in-flight (503 beyond), by default three quarters of the Tomcat request
+ * threads; the rest stay free for new streams, the REST API and health checks.
+ */
+@Component
+@ConditionalOnProperty(prefix = "spring.ai.mcp.server", name = "stdio", havingValue = "false", matchIfMissing = true)
+public class McpHttpSessionFilter extends OncePerRequestFilter {
+
+    public static final String AFFINITY_COOKIE = "MCP_ROUTE";
+    public static final String INSTANCE_HEADER = "X-MCP-Instance";
+
+    @Value("${spring.ai.mcp.server.sse-endpoint:/sse}")
+    private String sseEndpoint;
+
+    @Value("${spring.ai.mcp.server.sse-message-endpoint:/mcp/message}")
+    private String messageEndpoint;
+
+    @Value("${campaign.mcp.server.http.max-clients:256}")
+    private int maxClients;
+
+    @Value("${campaign.mcp.server.http.max-in-flight-per-client:8}")
+    private int maxInFlightPerClient;
+
+    /** Messages in progress across all sessions; 0 = three quarters of server.tomcat.threads.max */
+    @Value("${campaign.mcp.server.http.max-in-flight:0}")
+    private int configuredMaxInFlight;
+
+    @Value("${server.tomcat.threads.max:200}")
+    private int requestThreads;
+
+    /** How long an SSE stream may stay open; also reclaims slots of clients that vanished without closing it */
+    @Value("${campaign.mcp.server.http.stream-timeout:1h}")
+    private Duration streamTimeout;
+
+    @Value("${campaign.mcp.server.http.instance-id:}")
+    private String configuredInstanceId;
+
+    private String instanceId;
+    private int maxInFlight;
+
+    private final AtomicInteger openStreams = new AtomicInteger();
+    private final AtomicInteger messagesInProgress = new AtomicInteger();
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong streamsOpened = new AtomicLong();
+    private final AtomicLong streamsRejected = new AtomicLong();
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicLong messagesThrottled = new AtomicLong();
+    private final AtomicLong messagesShed = new AtomicLong();
+    private final AtomicLong misrouted = new AtomicLong();
+
+    @Override
+    protected void initFilterBean() {
+        instanceId = configuredInstanceId.isBlank() ? UUID.randomUUID().toString().substring(0, 8) : configuredInstanceId;
+        maxInFlight = configuredMaxInFlight > 0 ? configuredMaxInFlight : Math.max(1, requestThreads * 3 / 4);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.equals(sseEndpoint) && !path.equals(messageEndpoint);
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        response.setHeader(INSTANCE_HEADER, instanceId);
+        if (request.getMethod().equals("GET")) {
+            openStream(request, response, chain);
+        } else {
+            postMessage(request, response, chain);
+        }
+    }
+
+    private void openStream(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (openStreams.incrementAndGet() > maxClients) {
+            openStreams.decrementAndGet();
+            streamsRejected.incrementAndGet();
+            reject(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many MCP clients on this instance");
+            return;
+        }
+        streamsOpened.incrementAndGet();
+        Cookie affinity = new Cookie(AFFINITY_COOKIE, instanceId);
+        affinity.setPath("/");
+        affinity.setHttpOnly(true);
+        response.addCookie(affinity);
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // The stream stays open after this thread returns; count it until the connection ends
+                request.getAsyncContext().setTimeout(streamTimeout.toMillis());
+                request.getAsyncContext().addListener(new StreamListener());
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                openStreams.decrementAndGet();
+            }
+        }
+    }
+
+    private void postMessage(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String route = affinityCookie(request);
+        if (route != null && !route.equals(instanceId)) {
+            misrouted.incrementAndGet();
+            reject(response, 421, "MCP session belongs to instance " + route + ", not " + instanceId);
+            return;
+        }
+        String sessionId = request.getParameter("sessionId");
+        if (sessionId == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        AtomicInteger count = inFlight.compute(sessionId, (id, current) -> {
+            AtomicInteger counter = current == null ? new AtomicInteger() : current;
+            counter.incrementAndGet();
+            return counter;
+        });
+        try {
+            if (count.get() > maxInFlightPerClient) {
+                messagesThrottled.incrementAndGet();
+                reject(response, 429, "Too many MCP requests in progress for session " + sessionId);
+                return;
+            }
+            if (messagesInProgress.incrementAndGet() > maxInFlight) {
+                messagesInProgress.decrementAndGet();
+                messagesShed.incrementAndGet();
+                reject(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                    "Too many MCP requests in progress on this instance");
+                return;
+            }
+            try {
+                messages.incrementAndGet();
+                chain.doFilter(request, response);
+            } finally {
+                messagesInProgress.decrementAndGet();
+            }
+        } finally {
+            inFlight.computeIfPresent(sessionId, (id, counter) -> counter.decrementAndGet() == 0 ? null : counter);
+        }
+    }
+
+    private static String affinityCookie(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return null;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (cookie.getName().equals(AFFINITY_COOKIE)) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static void reject(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write(message);
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * Open streams, sessions with requests in progress, and rejected or throttled traffic
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("instanceId", instanceId);
+        stats.put("openStreams", openStreams.get());
+        stats.put("maxClients", maxClients);
+        stats.put("busySessions", inFlight.size());
+        stats.put("maxInFlightPerClient", maxInFlightPerClient);
+        stats.put("messagesInProgress", messagesInProgress.get());
+        stats.put("maxInFlight", maxInFlight);
+        stats.put("streamsOpened", streamsOpened.get());
+        stats.put("streamsRejected", streamsRejected.get());
+        stats.put("messages", messages.get());
+        stats.put("messagesThrottled", messagesThrottled.get());
+        stats.put("messagesShed", messagesShed.get());
+        stats.put("misrouted", misrouted.get());
+        return stats;
+    }
+
+    private final class StreamListener implements AsyncListener {
+        private final AtomicInteger closed = new AtomicInteger();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        private void close() {
+            if (closed.getAndIncrement() == 0) {
+                openStreams.decrementAndGet();
+            }
+        }
+    }
+}
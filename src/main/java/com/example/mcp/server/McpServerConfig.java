@@ -1,13 +1,30 @@
 package com.example.mcp.server;
 
+import com.example.mcp.prompt.PromptRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.server.transport.StdioServerTransportProvider;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpServerTransportProvider;
 import org.springframework.ai.azure.openai.AzureOpenAiChatModel;
 import org.springframework.ai.chat.client.ChatClient;
-import org.springframework.ai.chat.prompt.PromptTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 /**
  * MCP Server Configuration
@@ -20,6 +37,9 @@ public class McpServerConfig {
     @Qualifier("azureOpenAiChatModel")
     private AzureOpenAiChatModel chatModel;
 
+    @Autowired
+    private PromptRegistry prompts;
+
     /**
      * ChatClient bean for MCP server
      * Provides AI chat capabilities for marketing campaign assistance
@@ -27,20 +47,7 @@ public class McpServerConfig {
     @Bean
     public ChatClient chatClient() {
         return ChatClient.builder(chatModel)
-            .defaultSystem("""
-                You are a marketing campaign assistant specialized in creating comprehensive marketing campaigns.
-                You can help with:
-                1. Creating marketing campaigns with detailed strategies
-                2. Defining target audience segments
-                3. Developing channel strategies (Email, SMS, Social Media, etc.)
-                4. Creating email templates and content
-                5. Budget allocation and campaign planning
-                6. Campaign performance metrics and KPIs
-                7. Multi-channel marketing optimization
-                
-                Always provide structured, actionable marketing advice with specific recommendations.
-                Format your responses in a clear, professional manner suitable for business use.
-                """)
+            .defaultSystem(prompts.render("system"))
             .build();
     }
 
@@ -52,41 +59,88 @@ public class McpServerConfig {
     @Primary
     public ChatClient.Builder chatClientBuilder() {
         return ChatClient.builder(chatModel)
-            .defaultSystem("""
-                You are a marketing campaign assistant specialized in creating comprehensive marketing campaigns.
-                You can help with:
-                1. Creating marketing campaigns with detailed strategies
-                2. Defining target audience segments
-                3. Developing channel strategies (Email, SMS, Social Media, etc.)
-                4. Creating email templates and content
-                5. Budget allocation and campaign planning
-                6. Campaign performance metrics and KPIs
-                7. Multi-channel marketing optimization
-                
-                Always provide structured, actionable marketing advice with specific recommendations.
-                Format your responses in a clear, professional manner suitable for business use.
-                """);
+            .defaultSystem(prompts.render("system"));
+    }
+
+    /**
+     * Worker pool for blocking LLM calls
+     * Keeps them off the common fork-join pool and lets {@link CancellableTask} interrupt a call when its caller cancels
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService llmExecutor(@Value("${campaign.llm.max-concurrency:32}") int maxConcurrency) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "llm-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     /**
-     * Marketing prompt template for campaign creation
-     * Provides structured prompts for AI marketing assistance
+     * stdio transport of the MCP server (spring.ai.mcp.server.stdio: true)
+     * Replaces the auto-configured one with the same transport whose outbound messages are all sent from one
+     * thread, see {@link SerializedServerTransportProvider}
      */
     @Bean
-    public PromptTemplate marketingPromptTemplate() {
-        return new PromptTemplate("""
-            Create a marketing campaign for:
-            Industry: {industry}
-            Target Audience: {targetAudience}
-            Budget: ${budget}
-            
-            Please provide:
-            1. Campaign strategy overview
-            2. Target audience analysis
-            3. Channel recommendations
-            4. Content suggestions
-            5. Timeline and milestones
-            6. Success metrics
-            """);
+    @ConditionalOnProperty(prefix = "spring.ai.mcp.server", name = "stdio", havingValue = "true")
+    public McpServerTransportProvider mcpStdioTransportProvider(ObjectMapper objectMapper) {
+        return new SerializedServerTransportProvider(new StdioServerTransportProvider(objectMapper), "mcp-stdio-out");
+    }
+
+    /**
+     * Marketing tools of the MCP server
+     * Async tool specifications (spring.ai.mcp.server.type: ASYNC): each handler returns the service's future as a
+     * Mono without waiting on it, so the transport thread is never blocked and concurrent tool calls over one stdio
+     * connection run in parallel on the LLM worker pool. A call cancelled by the host cancels the future, which
+     * interrupts its model call. Results are sent from the thread that completed them; the transport takes care
+     * of ordering its writes.
+     */
+    @Bean
+    public List<McpServerFeatures.AsyncToolSpecification> marketingToolSpecifications(MarketingCampaignService marketingService,
+                                                                                      ObjectMapper objectMapper) {
+        return List.of(
+            marketingTool("campaign_creation", "Create comprehensive marketing campaigns",
+                "Campaign request, e.g. product, audience, budget and goals", marketingService::createCampaign, objectMapper),
+            marketingTool("audience_segmentation", "Define and analyze target audience segments",
+                "Audience to segment", marketingService::defineAudienceSegments, objectMapper),
+            marketingTool("channel_strategy", "Develop multi-channel marketing strategies",
+                "Campaign and channels to plan", marketingService::developChannelStrategy, objectMapper),
+            marketingTool("content_generation", "Generate marketing content and email templates",
+                "Content or template to write", marketingService::generateEmailTemplate, objectMapper),
+            marketingTool("performance_metrics", "Analyze campaign performance and define KPIs",
+                "Campaign results to analyze", marketingService::analyzeCampaignPerformance, objectMapper),
+            marketingTool("budget_planning", "Plan and optimize campaign budget allocation",
+                "Budget and channels to optimize", marketingService::optimizeBudgetAllocation, objectMapper)
+        );
+    }
+
+    private static McpServerFeatures.AsyncToolSpecification marketingTool(String name, String description, String requestDescription,
+                                                                          Function<String, CompletableFuture<Map<String, Object>>> operation,
+                                                                          ObjectMapper objectMapper) {
+        String schema;
+        try {
+            schema = objectMapper.writeValueAsString(Map.of(
+                "type", "object",
+                "properties", Map.of("request", Map.of("type", "string", "description", requestDescription)),
+                "required", List.of("request")
+            ));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot write input schema of tool " + name, e);
+        }
+        return new McpServerFeatures.AsyncToolSpecification(new McpSchema.Tool(name, description, schema),
+            (exchange, arguments) -> {
+                if (!(arguments.get("request") instanceof String request) || request.isBlank()) {
+                    return Mono.just(new McpSchema.CallToolResult("The request argument is required", true));
+                }
+                return Mono.fromFuture(() -> operation.apply(request))
+                    .map(result -> {
+                        try {
+                            return new McpSchema.CallToolResult(objectMapper.writeValueAsString(result), result.containsKey("error"));
+                        } catch (JsonProcessingException e) {
+                            return new McpSchema.CallToolResult(String.valueOf(result), result.containsKey("error"));
+                        }
+                    })
+                    .onErrorResume(e -> Mono.just(new McpSchema.CallToolResult(name + " failed: " + e.getMessage(), true)));
+            });
     }
 } 
\ No newline at end of file
@@ -1,14 +1,23 @@
 package com.example.mcp.server;
 
+import com.example.mcp.cache.RecommendationCache;
+import com.example.mcp.cache.SemanticResponseCache;
+import com.example.mcp.prompt.PromptRegistry;
+import com.example.mcp.prompt.PromptUsageTracker;
+import com.example.mcp.prompt.TokenCounter;
+import com.example.mcp.vector.CampaignVectorStore;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -25,6 +34,39 @@ public class McpServerController {
     @Autowired
     private McpServerService mcpServerService;
 
+    @Autowired
+    private PromptRegistry prompts;
+
+    @Autowired
+    private PromptUsageTracker usage;
+
+    @Autowired
+    private TokenCounter tokenCounter;
+
+    @Autowired
+    private SemanticResponseCache responseCache;
+
+    @Autowired
+    private RecommendationCache recommendationCache;
+
+    @Autowired
+    private CampaignVectorStore vectorStore;
+
+    @Autowired
+    private AIRecommendationGenerator recommendationGenerator;
+
+    @Autowired
+    private RecommendationRetriever retriever;
+
+    @Autowired
+    private RecommendationPrefetcher prefetcher;
+
+    @Autowired
+    private ObjectProvider<McpHttpSessionFilter> httpSessions;
+
+    @Value("${campaign.vector.max-search-limit:50}")
+    private int maxSearchLimit;
+
     /**
      * Test basic chat functionality
      */
@@ -153,4 +195,112 @@ public class McpServerController {
         
         return ResponseEntity.ok(config);
     }
+
+    /**
+     * List prompt templates
+     */
+    @GetMapping("/prompts")
+    @Operation(summary = "Prompt Templates", description = "Loaded prompt templates and token usage per call site, including the share of prompt tokens served from the provider's prefix cache")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Templates retrieved successfully")
+    })
+    public ResponseEntity<Map<String, Object>> getPrompts() {
+        List<Map<String, Object>> templates = prompts.describe();
+        return ResponseEntity.ok(Map.of(
+            "templates", templates,
+            "count", templates.size(),
+            "usage", usage.getStats(),
+            "tokenizer", tokenCounter.getStats(),
+            "timestamp", System.currentTimeMillis()
+        ));
+    }
+
+    /**
+     * Semantic response cache statistics
+     */
+    @GetMapping("/cache")
+    @Operation(summary = "Response Cache", description = "Exact and semantic hits, hit similarity and sampled answer agreement per endpoint, and node recommendation cache hits per kind, and speculative prefetches")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Cache statistics retrieved successfully")
+    })
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        Map<String, Object> stats = new HashMap<>(responseCache.getStats());
+        stats.put("recommendations", recommendationCache.getStats());
+        stats.put("prefetch", prefetcher.getStats());
+        stats.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Vector store statistics
+     */
+    @GetMapping("/vectors")
+    @Operation(summary = "Vector Store", description = "Indexed past campaign configurations per kind, index memory, search latency, snapshot state, and the LLM-skip rate and latency saved by retrieval")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Vector store statistics retrieved successfully")
+    })
+    public ResponseEntity<Map<String, Object>> getVectorStats() {
+        Map<String, Object> stats = new HashMap<>(vectorStore.getStats());
+        stats.put("retrieval", retriever.getStats());
+        stats.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Search past campaign configurations
+     */
+    @GetMapping("/vectors/search")
+    @Operation(summary = "Similar Configurations", description = "Top-k past segment, strategy or email template configurations for a campaign type and audience")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Search completed"),
+        @ApiResponse(responseCode = "400", description = "Unknown kind or limit out of range")
+    })
+    public ResponseEntity<Map<String, Object>> searchConfigurations(
+            @RequestParam String kind,
+            @RequestParam String campaignType,
+            @RequestParam(defaultValue = "") String targetAudience,
+            @Parameter(description = "Number of matches, 1 to campaign.vector.max-search-limit") @RequestParam(defaultValue = "5") int limit,
+            @RequestParam(defaultValue = "false") boolean sameCampaignType) {
+        if (!AIRecommendationGenerator.RETRIEVABLE_KINDS.contains(kind)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "kind must be one of " + AIRecommendationGenerator.RETRIEVABLE_KINDS,
+                "timestamp", System.currentTimeMillis()
+            ));
+        }
+        if (limit < 1 || limit > maxSearchLimit) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "limit must be between 1 and " + maxSearchLimit,
+                "timestamp", System.currentTimeMillis()
+            ));
+        }
+        long start = System.nanoTime();
+        List<Map<String, Object>> matches = recommendationGenerator.findSimilarConfigurations(kind, campaignType, targetAudience,
+                limit, sameCampaignType ? Map.of("campaignType", campaignType) : Map.of())
+            .stream().map(CampaignVectorStore.Match::toMap).toList();
+        return ResponseEntity.ok(Map.of(
+            "matches", matches,
+            "count", matches.size(),
+            "micros", (System.nanoTime() - start) / 1000,
+            "timestamp", System.currentTimeMillis()
+        ));
+    }
+
+    /**
+     * MCP server transport
+     */
+    @GetMapping("/transport")
+    @Operation(summary = "MCP Transport", description = "Active MCP server transport; for HTTP/SSE also open client streams, busy sessions and rejected or throttled traffic")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Transport information retrieved successfully")
+    })
+    public ResponseEntity<Map<String, Object>> getTransport() {
+        McpHttpSessionFilter sessions = httpSessions.getIfAvailable();
+        Map<String, Object> transport = new HashMap<>();
+        transport.put("transport", sessions == null ? "stdio" : "http-sse");
+        if (sessions != null) {
+            transport.put("sse", sessions.getStats());
+        }
+        transport.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(transport);
+    }
 }
@@ -1,5 +1,8 @@
 package com.example.mcp.server;
 
+import com.example.mcp.cache.SemanticResponseCache;
+import com.example.mcp.prompt.PromptRegistry;
+import com.example.mcp.prompt.PromptUsageTracker;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.prompt.PromptTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,8 +20,18 @@ public class McpServerService {
 
     private final ChatClient chatClient;
 
-    public McpServerService(ChatClient.Builder chatClientBuilder) {
+    private final PromptRegistry prompts;
+
+    private final PromptUsageTracker usage;
+
+    private final SemanticResponseCache responseCache;
+
+    public McpServerService(ChatClient.Builder chatClientBuilder, PromptRegistry prompts, PromptUsageTracker usage,
+              SemanticResponseCache responseCache) {
         this.chatClient = chatClientBuilder.build();
+        this.prompts = prompts;
+        this.usage = usage;
+        this.responseCache = responseCache;
     }
 
     /**
@@ -29,10 +42,7 @@ public class McpServerService {
      */
     public String processChatMessage(String userMessage) {
         try {
-            String response = this.chatClient.prompt()
-                .user(userMessage)
-                .call()
-                .content();
+            String response = usage.call("chat", this.chatClient.prompt().user(userMessage));
             return response;
         } catch (Exception e) {
             return "Error processing message: " + e.getMessage();
@@ -49,25 +59,13 @@ public class McpServerService {
      */
     public String generateCampaignAdvice(String industry, String targetAudience, double budget) {
         try {
-            String prompt = String.format("""
-                Create a marketing campaign for:
-                Industry: %s
-                Target Audience: %s
-                Budget: $%.2f
-                
-                Please provide:
-                1. Campaign strategy overview
-                2. Target audience analysis
-                3. Channel recommendations
-                4. Content suggestions
-                5. Timeline and milestones
-                6. Success metrics
-                """, industry, targetAudience, budget);
+            String prompt = prompts.render("campaign.advice",
+                "industry", industry, "targetAudience", targetAudience, "budget", budget);
 
-            String response = this.chatClient.prompt()
-                .user(prompt)
-                .call()
-                .content();
+            // Same industry and audience in other words, at the same budget, gets the cached advice
+            String response = responseCache.getOrGenerate("campaign.advice", String.valueOf(budget),
+                industry + " | " + targetAudience,
+                () -> usage.call("campaign.advice", this.chatClient.prompt().user(prompt))).value();
             return response;
         } catch (Exception e) {
             return "Error generating campaign advice: " + e.getMessage();
@@ -0,0 +1,238 @@
+package com.example.mcp.server;
+
+import com.example.mcp.cache.CampaignKeyNormalizer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recommendation Prefetcher
+ * Speculatively generates the segment and customer journey recommendations while a conversation is still
+ * gathering information, as soon as campaignType, targetAudience and budget are known. The results land in the
+ * recommendation cache, so when the required parameters are complete the node recommendations are cached
+ * already, or join the generation still in flight instead of starting another. When those three parameters
+ * change, the running prefetch is cancelled (its model call is interrupted) and a new one starts. Each session
+ * may start at most campaign.prefetch.max-per-session prefetches, and at most max-concurrent run at once; a
+ * permit is held until the worker actually returns, so an interrupted call that is slow to unwind still counts.
+ * Sessions are forgotten when their recommendations are generated, when the conversation ends, or after
+ * session-ttl without a parameter update, and their running prefetch is cancelled.
+ */
+@Component
+public class RecommendationPrefetcher {
+
+    private static final Logger log = LoggerFactory.getLogger(RecommendationPrefetcher.class);
+
+    @Autowired
+    private AIRecommendationGenerator recommendationGenerator;
+
+    @Autowired
+    private CampaignKeyNormalizer normalizer;
+
+    @Autowired
+    @Qualifier("llmExecutor")
+    private ExecutorService llmExecutor;
+
+    @Value("${campaign.prefetch.enabled:true}")
+    private boolean enabled;
+
+    /** Prefetches a session may start; each costs up to two model calls */
+    @Value("${campaign.prefetch.max-per-session:3}")
+    private int maxPerSession;
+
+    @Value("${campaign.prefetch.max-concurrent:8}")
+    private int maxConcurrent;
+
+    /** Sessions without a parameter update for this long are dropped */
+    @Value("${campaign.prefetch.session-ttl:30m}")
+    private Duration sessionTtl;
+
+    private Semaphore running;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepAt = new AtomicLong();
+
+    private final LongAdder started = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder cappedPerSession = new LongAdder();
+    private final LongAdder cappedConcurrent = new LongAdder();
+    private final LongAdder readyAtUse = new LongAdder();
+    private final LongAdder inFlightAtUse = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        running = new Semaphore(maxConcurrent);
+    }
+
+    private static final class Session {
+        private String signature;
+        private CompletableFuture<Void> task;
+        private int count;
+        private volatile long lastUpdateAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Start, keep or replace the session's prefetch after its parameters were updated
+     */
+    public void onParameters(ConversationContext context) {
+        String campaignType = (String) context.getParameter("campaignType");
+        String targetAudience = (String) context.getParameter("targetAudience");
+        Double budget = context.getParameter("budget") instanceof Number number ? number.doubleValue() : null;
+        if (!enabled || campaignType == null || targetAudience == null || budget == null) {
+            return;
+        }
+        String signature = normalizer.key(campaignType, targetAudience, budget).toString();
+        sweepExpired();
+        Session session = sessions.computeIfAbsent(context.getSessionId(), id -> new Session());
+        session.lastUpdateAt = System.currentTimeMillis();
+        synchronized (session) {
+            if (signature.equals(session.signature)) {
+                return;
+            }
+            if (session.task != null && session.task.cancel(true)) {
+                cancelled.increment();
+            }
+            session.signature = signature;
+            session.task = null;
+            if (session.count >= maxPerSession) {
+                cappedPerSession.increment();
+                return;
+            }
+            if (!running.tryAcquire()) {
+                cappedConcurrent.increment();
+                return;
+            }
+            session.count++;
+            started.increment();
+            // Whoever claims the permit releases it: the worker when it runs, otherwise the cancellation.
+            // Cancelling completes the future at once while an interrupted model call may still be unwinding.
+            AtomicBoolean claimed = new AtomicBoolean();
+            session.task = CancellableTask.supplyAsync(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return null;
+                }
+                try {
+                    Map<String, Object> segment = recommendationGenerator.generateSegmentRecommendations(campaignType, targetAudience, budget);
+                    recommendationGenerator.generateCustomerJourneyRecommendations(campaignType, targetAudience, segment);
+                    return null;
+                } finally {
+                    running.release();
+                }
+            }, llmExecutor);
+            session.task.whenComplete((ignored, error) -> {
+                if (claimed.compareAndSet(false, true)) {
+                    running.release();
+                }
+                if (error == null) {
+                    completed.increment();
+                } else if (!(error instanceof CancellationException)) {
+                    failed.increment();
+                    log.warn("Recommendation prefetch for session {} failed: {}", context.getSessionId(), error.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Called when the node recommendations are generated for real: records whether the prefetch was ready, still
+     * running or made for other parameters, and forgets the session
+     */
+    public void onRecommendations(ConversationContext context) {
+        Session session = sessions.remove(context.getSessionId());
+        if (session == null || session.task == null) {
+            return;
+        }
+        synchronized (session) {
+            Double budget = context.getParameter("budget") instanceof Number number ? number.doubleValue() : null;
+            String signature = normalizer.key((String) context.getParameter("campaignType"),
+                (String) context.getParameter("targetAudience"), budget).toString();
+            if (!signature.equals(session.signature)) {
+                stale.increment();
+                session.task.cancel(true);
+            } else if (!session.task.isDone()) {
+                inFlightAtUse.increment();
+            } else if (!session.task.isCompletedExceptionally()) {
+                readyAtUse.increment();
+            }
+        }
+    }
+
+    /**
+     * Called when the conversation ends: cancels the session's prefetch and forgets the session
+     */
+    public void onSessionEnd(ConversationContext context) {
+        Session session = sessions.remove(context.getSessionId());
+        if (session != null) {
+            cancel(session);
+        }
+    }
+
+    /**
+     * Drop sessions idle for longer than session-ttl; runs at most once per ttl/10
+     */
+    private void sweepExpired() {
+        long now = System.currentTimeMillis();
+        long next = nextSweepAt.get();
+        if (now < next || !nextSweepAt.compareAndSet(next, now + Math.max(1, sessionTtl.toMillis() / 10))) {
+            return;
+        }
+        sessions.entrySet().removeIf(entry -> {
+            if (now - entry.getValue().lastUpdateAt <= sessionTtl.toMillis()) {
+                return false;
+            }
+            expired.increment();
+            cancel(entry.getValue());
+            return true;
+        });
+    }
+
+    private void cancel(Session session) {
+        synchronized (session) {
+            if (session.task != null && session.task.cancel(true)) {
+                cancelled.increment();
+            }
+        }
+    }
+
+    /**
+     * Prefetches started, finished, cancelled and capped, and how often they were ready when used
+     */
+    public Map<String, Object> getStats() {
+        long used = readyAtUse.sum() + inFlightAtUse.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("maxPerSession", maxPerSession);
+        stats.put("sessions", sessions.size());
+        stats.put("running", maxConcurrent - running.availablePermits());
+        stats.put("started", started.sum());
+        stats.put("completed", completed.sum());
+        stats.put("cancelled", cancelled.sum());
+        stats.put("failed", failed.sum());
+        stats.put("cappedPerSession", cappedPerSession.sum());
+        stats.put("cappedConcurrent", cappedConcurrent.sum());
+        stats.put("readyAtUse", readyAtUse.sum());
+        stats.put("inFlightAtUse", inFlightAtUse.sum());
+        stats.put("stale", stale.sum());
+        stats.put("expiredSessions", expired.sum());
+        stats.put("readyRate", used == 0 ? 0.0 : (double) readyAtUse.sum() / used);
+        return stats;
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.mcp.server;
+
+import com.example.mcp.audience.AudienceSegmentService;
+import com.example.mcp.cache.CampaignKeyNormalizer;
+import com.example.mcp.cache.RecommendationCache;
+import com.example.mcp.prompt.TokenCounter;
+import com.example.mcp.vector.CampaignVectorStore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Recommendation Retriever
+ * Retrieval-first path for node recommendations. Confirmed configurations of past campaigns in the same budget
+ * band are looked up by campaign type and audience. A match with the same normalized campaign type and audience
+ * ({@link CampaignKeyNormalizer}) is adapted and returned without calling the model. Embedding similarity alone
+ * never decides reuse, since audiences that differ in one word ("female" vs "male") embed close together;
+ * it only picks the closest matches above campaign.retrieval.example-threshold, which are handed to the prompt
+ * as few-shot examples. Skips, few-shot calls and the
+ * model latency saved (average model latency of the kind minus the retrieval time) are counted per kind.
+ */
+@Component
+public class RecommendationRetriever {
+
+    @Autowired
+    private CampaignVectorStore vectorStore;
+
+    @Autowired
+    private AudienceSegmentService audienceSegmentService;
+
+    @Autowired
+    private CampaignKeyNormalizer normalizer;
+
+    @Autowired
+    private TokenCounter tokenCounter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${campaign.retrieval.enabled:true}")
+    private boolean enabled;
+
+    @Value("${campaign.retrieval.example-threshold:0.6}")
+    private double exampleThreshold;
+
+    @Value("${campaign.retrieval.examples:2}")
+    private int exampleCount;
+
+    @Value("${campaign.retrieval.max-example-tokens:200}")
+    private int maxExampleTokens;
+
+    private final Map<String, Kind> kinds = new ConcurrentHashMap<>();
+
+    /**
+     * The adapted configuration of a close enough past campaign, or the model's recommendation generated with
+     * the closest past configurations as examples
+     * @param generator calls the model with the rendered examples ("" when there are none)
+     */
+    public Map<String, Object> recommend(String kind, String campaignType, String targetAudience, Double budget,
+                                         Function<String, Map<String, Object>> generator) {
+        Kind stats = kinds.computeIfAbsent(kind, key -> new Kind());
+        if (!enabled) {
+            return timed(stats, () -> generator.apply(""));
+        }
+        long start = System.nanoTime();
+        List<CampaignVectorStore.Match> matches = vectorStore.search(
+            AIRecommendationGenerator.describeCampaign(campaignType, targetAudience), Math.max(exampleCount, 1),
+            Map.of("kind", kind, "budgetBand", CampaignKeyNormalizer.budgetBand(budget)));
+        long retrievalNanos = System.nanoTime() - start;
+        stats.lookups.increment();
+        stats.retrievalNanos.add(retrievalNanos);
+
+        String type = normalizer.campaignType(campaignType);
+        String audience = normalizer.audience(targetAudience);
+        Optional<CampaignVectorStore.Match> reusable = matches.stream()
+            .filter(match -> type.equals(normalizer.campaignType(match.document().metadata().get("campaignType"))))
+            .filter(match -> audience.equals(normalizer.audience(match.document().metadata().get("targetAudience"))))
+            .findFirst();
+        if (reusable.isPresent()) {
+            stats.skips.increment();
+            long llmNanos = stats.averageLlmNanos();
+            if (llmNanos > 0) {
+                stats.savedNanos.add(Math.max(0, llmNanos - retrievalNanos));
+            }
+            return adapt(kind, reusable.get());
+        }
+
+        List<CampaignVectorStore.Match> examples = matches.stream()
+            .filter(match -> match.similarity() >= exampleThreshold)
+            .limit(exampleCount)
+            .toList();
+        if (!examples.isEmpty()) {
+            stats.fewShot.increment();
+        }
+        Map<String, Object> result = timed(stats, () -> generator.apply(renderExamples(examples)));
+        result.put("retrieval", Map.of("mode", examples.isEmpty() ? "generated" : "few-shot", "examples", examples.size()));
+        return result;
+    }
+
+    /**
+     * Skip rate, few-shot calls and latency saved per kind
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> perKind = new TreeMap<>();
+        kinds.forEach((name, kind) -> perKind.put(name, kind.toMap()));
+        long lookups = kinds.values().stream().mapToLong(kind -> kind.lookups.sum()).sum();
+        long skips = kinds.values().stream().mapToLong(kind -> kind.skips.sum()).sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("exampleThreshold", exampleThreshold);
+        stats.put("llmSkipRate", lookups == 0 ? 0.0 : (double) skips / lookups);
+        stats.put("savedMs", kinds.values().stream().mapToLong(kind -> kind.savedNanos.sum()).sum() / 1_000_000);
+        stats.put("kinds", perKind);
+        return stats;
+    }
+
+    private Map<String, Object> adapt(String kind, CampaignVectorStore.Match match) {
+        Map<String, Object> adapted = new HashMap<>(match.document().payload());
+        RecommendationCache.TRANSIENT_KEYS.forEach(adapted::remove);
+        Map<String, String> source = match.document().metadata();
+        adapted.put("reasoning", "Reused the confirmed " + kind + " configuration of campaign " + source.get("campaignId")
+            + " (" + source.get("campaignType") + " for " + source.get("targetAudience") + ")");
+        if (kind.equals("segment") && audienceSegmentService.getIndex().size() > 0) {
+            // Reach depends on today's profiles, not on those of the campaign the segment came from
+            adapted.put("reach", audienceSegmentService.estimate(AudienceSegmentService.toSegmentConfig(adapted)));
+        }
+        Map<String, Object> retrieval = new HashMap<>();
+        retrieval.put("mode", "reused");
+        retrieval.put("campaignId", source.get("campaignId"));
+        retrieval.put("similarity", match.similarity());
+        adapted.put("retrieval", retrieval);
+        return adapted;
+    }
+
+    private String renderExamples(List<CampaignVectorStore.Match> examples) {
+        StringBuilder text = new StringBuilder();
+        for (CampaignVectorStore.Match example : examples) {
+            Map<String, Object> configuration = new LinkedHashMap<>(new TreeMap<>(example.document().payload()));
+            RecommendationCache.TRANSIENT_KEYS.forEach(configuration::remove);
+            String json;
+            try {
+                json = objectMapper.writeValueAsString(configuration);
+            } catch (JsonProcessingException e) {
+                json = configuration.toString();
+            }
+            Map<String, String> metadata = example.document().metadata();
+            text.append("- ").append(metadata.get("campaignType")).append(" for ").append(metadata.get("targetAudience"))
+                .append(": ").append(tokenCounter.truncate(json, maxExampleTokens)).append('\n');
+        }
+        return text.toString();
+    }
+
+    private Map<String, Object> timed(Kind stats, Supplier<Map<String, Object>> call) {
+        long start = System.nanoTime();
+        Map<String, Object> result = call.get();
+        stats.llmCalls.increment();
+        stats.llmNanos.add(System.nanoTime() - start);
+        return result;
+    }
+
+    private static final class Kind {
+        private final LongAdder lookups = new LongAdder();
+        private final LongAdder skips = new LongAdder();
+        private final LongAdder fewShot = new LongAdder();
+        private final LongAdder llmCalls = new LongAdder();
+        private final LongAdder llmNanos = new LongAdder();
+        private final LongAdder retrievalNanos = new LongAdder();
+        private final LongAdder savedNanos = new LongAdder();
+
+        long averageLlmNanos() {
+            long calls = llmCalls.sum();
+            return calls == 0 ? 0 : llmNanos.sum() / calls;
+        }
+
+        Map<String, Object> toMap() {
+            long lookupCount = lookups.sum();
+            Map<String, Object> map = new HashMap<>();
+            map.put("lookups", lookupCount);
+            map.put("llmSkips", skips.sum());
+            map.put("llmSkipRate", lookupCount == 0 ? 0.0 : (double) skips.sum() / lookupCount);
+            map.put("fewShotCalls", fewShot.sum());
+            map.put("llmCalls", llmCalls.sum());
+            map.put("avgLlmMs", averageLlmNanos() / 1_000_000);
+            map.put("avgRetrievalMicros", lookupCount == 0 ? 0 : retrievalNanos.sum() / 1000 / lookupCount);
+            map.put("savedMs", savedNanos.sum() / 1_000_000);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.mcp.server;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpServerSession;
+import io.modelcontextprotocol.spec.McpServerTransport;
+import io.modelcontextprotocol.spec.McpServerTransportProvider;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Serialized Server Transport Provider
+ * Sends every outbound message of the wrapped transport from one thread. The stdio transport queues messages in
+ * a unicast sink that rejects emissions from two threads at once, and replies, notifications and errors are
+ * emitted from whichever thread finished the work (inbound reader, LLM workers, timers); rejected messages would
+ * be lost. Sending is only enqueueing, so one thread keeps up with any number of concurrent requests.
+ */
+public class SerializedServerTransportProvider implements McpServerTransportProvider {
+
+    private final McpServerTransportProvider delegate;
+    private final Scheduler outbound;
+
+    public SerializedServerTransportProvider(McpServerTransportProvider delegate, String threadName) {
+        this.delegate = delegate;
+        this.outbound = Schedulers.newSingle(threadName, true);
+    }
+
+    @Override
+    public void setSessionFactory(McpServerSession.Factory sessionFactory) {
+        delegate.setSessionFactory(transport -> sessionFactory.create(new SerializedTransport(transport)));
+    }
+
+    @Override
+    public Mono<Void> notifyClients(String method, Object params) {
+        // Goes through the sessions, whose transports are the serialized ones
+        return delegate.notifyClients(method, params);
+    }
+
+    @Override
+    public Mono<Void> closeGracefully() {
+        return delegate.closeGracefully().doFinally(signal -> outbound.dispose());
+    }
+
+    private final class SerializedTransport implements McpServerTransport {
+        private final McpServerTransport transport;
+
+        SerializedTransport(McpServerTransport transport) {
+            this.transport = transport;
+        }
+
+        @Override
+        public Mono<Void> sendMessage(McpSchema.JSONRPCMessage message) {
+            return Mono.defer(() -> transport.sendMessage(message)).subscribeOn(outbound);
+        }
+
+        @Override
+        public <T> T unmarshalFrom(Object data, TypeReference<T> typeRef) {
+            return transport.unmarshalFrom(data, typeRef);
+        }
+
+        @Override
+        public Mono<Void> closeGracefully() {
+            return transport.closeGracefully();
+        }
+
+        @Override
+        public void close() {
+            transport.close();
+        }
+    }
+}
@@ -1,26 +1,53 @@
 package com.example.mcp.server;
 
-/*
-import com.example.mcp.server.MCPWebSocketHandler;
-import io.modelcontextprotocol.server.McpServer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
 import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
 
+import java.time.Duration;
+
+/**
+ * WebSocket Configuration
+ * Registers the dashboard chat endpoint next to the stdio MCP transport
+ */
 @Configuration
 @EnableWebSocket
+@ConditionalOnProperty(prefix = "campaign.websocket", name = "enabled", havingValue = "true", matchIfMissing = true)
 public class WebSocketConfig implements WebSocketConfigurer {
-    
+
     @Autowired
-    private McpServer mcpServer;
-    
+    private MCPWebSocketHandler webSocketHandler;
+
+    @Value("${campaign.websocket.path:/chat}")
+    private String path;
+
+    @Value("${campaign.websocket.allowed-origins:*}")
+    private String[] allowedOrigins;
+
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
-        registry.addHandler(new MCPWebSocketHandler(mcpServer), "/chat").setAllowedOrigins("*");
+        registry.addHandler(webSocketHandler, path).setAllowedOrigins(allowedOrigins);
     }
-}
-*/
 
-// WebSocket configuration disabled - using stdio transport only 
\ No newline at end of file
+    /**
+     * Container limits: inbound message size (text and CBOR/Smile binary frames) and how long an idle session is kept open
+     */
+    @Bean
+    public ServletServerContainerFactoryBean createWebSocketContainer(
+        @Value("${campaign.websocket.max-text-message-size:65536}") int maxTextMessageSize,
+        @Value("${campaign.websocket.max-binary-message-size:${campaign.websocket.max-text-message-size:65536}}") int maxBinaryMessageSize,
+        @Value("${campaign.websocket.max-idle-timeout:30m}") Duration maxIdleTimeout
+    ) {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxTextMessageBufferSize(maxTextMessageSize);
+        container.setMaxBinaryMessageBufferSize(maxBinaryMessageSize);
+        container.setMaxSessionIdleTimeout(maxIdleTimeout.toMillis());
+        return container;
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.mcp.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * WebSocket Payload Codec
+ * Encodes chat frames as JSON text or as CBOR/Smile binary messages. The encoding is picked per connection
+ * with the handshake query parameter ({@code /chat?encoding=cbor}); permessage-deflate is negotiated by the
+ * container on top of either. Bytes and serialization time are counted per encoding, and every
+ * comparison-sample-rate-th binary message is also serialized as JSON so the savings can be read off the stats.
+ */
+@Component
+public class WebSocketPayloadCodec {
+
+    public enum Encoding { JSON, CBOR, SMILE }
+
+    private final Map<Encoding, ObjectMapper> mappers = new EnumMap<>(Encoding.class);
+    private final Map<Encoding, ObjectWriter> writers = new EnumMap<>(Encoding.class);
+    // Envelope writers with the ChatFrame serializer resolved up front
+    private final Map<Encoding, ObjectWriter> frameWriters = new EnumMap<>(Encoding.class);
+    private final Map<Encoding, EncodingStats> stats = new EnumMap<>(Encoding.class);
+    private final AtomicLong messageCount = new AtomicLong();
+
+    // Sampled binary messages: their own size and time next to what JSON would have cost
+    private final LongAdder sampledBytes = new LongAdder();
+    private final LongAdder sampledNanos = new LongAdder();
+    private final LongAdder sampledJsonBytes = new LongAdder();
+    private final LongAdder sampledJsonNanos = new LongAdder();
+    private final LongAdder sampledMessages = new LongAdder();
+
+    @Value("${campaign.websocket.encoding:json}")
+    private String defaultEncoding;
+
+    /** 0 disables the JSON comparison */
+    @Value("${campaign.websocket.comparison-sample-rate:64}")
+    private int comparisonSampleRate;
+
+    /**
+     * Binary mappers come from the application's builder, so they share its modules and settings
+     */
+    public WebSocketPayloadCodec(ObjectMapper objectMapper, Jackson2ObjectMapperBuilder builder) {
+        mappers.put(Encoding.JSON, objectMapper);
+        mappers.put(Encoding.CBOR, builder.factory(new CBORFactory()).build());
+        mappers.put(Encoding.SMILE, builder.factory(new SmileFactory()).build());
+        for (Encoding encoding : Encoding.values()) {
+            // Frames embed arbitrary tool results; an empty bean among them is sent as {} instead of failing the reply
+            writers.put(encoding, mappers.get(encoding).writer().without(SerializationFeature.FAIL_ON_EMPTY_BEANS));
+            frameWriters.put(encoding, mappers.get(encoding).writerFor(ChatFrame.class)
+                .without(SerializationFeature.FAIL_ON_EMPTY_BEANS));
+            stats.put(encoding, new EncodingStats());
+        }
+    }
+
+    /**
+     * Encoding requested in the handshake URI, or the configured default
+     */
+    public Encoding negotiate(URI uri) {
+        String requested = uri == null ? null
+            : UriComponentsBuilder.fromUri(uri).build().getQueryParams().getFirst("encoding");
+        return parse(requested != null ? requested : defaultEncoding);
+    }
+
+    public WebSocketMessage<?> encode(Object payload, Encoding encoding) throws Exception {
+        ObjectWriter writer = writerFor(payload, encoding);
+        long start = System.nanoTime();
+        byte[] bytes = writer.writeValueAsBytes(payload);
+        long nanos = System.nanoTime() - start;
+        stats.get(encoding).record(bytes.length, nanos);
+
+        if (encoding != Encoding.JSON && comparisonSampleRate > 0
+            && messageCount.incrementAndGet() % comparisonSampleRate == 0) {
+            long jsonStart = System.nanoTime();
+            int jsonBytes = writerFor(payload, Encoding.JSON).writeValueAsBytes(payload).length;
+            sampledJsonNanos.add(System.nanoTime() - jsonStart);
+            sampledJsonBytes.add(jsonBytes);
+            sampledBytes.add(bytes.length);
+            sampledNanos.add(nanos);
+            sampledMessages.increment();
+        }
+
+        return encoding == Encoding.JSON
+            ? new TextMessage(bytes)
+            : new BinaryMessage(bytes);
+    }
+
+    public JsonNode decode(String text) throws Exception {
+        return mappers.get(Encoding.JSON).readTree(text);
+    }
+
+    public JsonNode decode(ByteBuffer payload, Encoding encoding) throws Exception {
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        return mappers.get(encoding).readTree(bytes);
+    }
+
+    /**
+     * Messages, bytes and serialization time per encoding, plus the sampled comparison against JSON
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new HashMap<>();
+        stats.forEach((encoding, encodingStats) -> result.put(encoding.name().toLowerCase(Locale.ROOT), encodingStats.toMap()));
+
+        long samples = sampledMessages.sum();
+        if (samples > 0) {
+            Map<String, Object> comparison = new HashMap<>();
+            comparison.put("samples", samples);
+            comparison.put("binaryBytes", sampledBytes.sum());
+            comparison.put("jsonBytes", sampledJsonBytes.sum());
+            comparison.put("bytesRatio", (double) sampledBytes.sum() / Math.max(1, sampledJsonBytes.sum()));
+            comparison.put("binaryMicrosPerMessage", sampledNanos.sum() / 1000.0 / samples);
+            comparison.put("jsonMicrosPerMessage", sampledJsonNanos.sum() / 1000.0 / samples);
+            result.put("comparedToJson", comparison);
+        }
+        return result;
+    }
+
+    private ObjectWriter writerFor(Object payload, Encoding encoding) {
+        return payload instanceof ChatFrame ? frameWriters.get(encoding) : writers.get(encoding);
+    }
+
+    private static Encoding parse(String encoding) {
+        try {
+            return Encoding.valueOf(encoding.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported WebSocket encoding: " + encoding + " (json, cbor or smile)");
+        }
+    }
+
+    private static final class EncodingStats {
+        private final LongAdder messages = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        void record(int size, long elapsedNanos) {
+            messages.increment();
+            bytes.add(size);
+            nanos.add(elapsedNanos);
+        }
+
+        Map<String, Object> toMap() {
+            long count = messages.sum();
+            Map<String, Object> map = new HashMap<>();
+            map.put("messages", count);
+            map.put("bytes", bytes.sum());
+            map.put("avgBytes", count == 0 ? 0 : bytes.sum() / count);
+            map.put("avgSerializeMicros", count == 0 ? 0 : nanos.sum() / 1000.0 / count);
+            return map;
+        }
+    }
+}
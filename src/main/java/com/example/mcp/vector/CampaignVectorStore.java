@@ -0,0 +1,251 @@
+package com.example.mcp.vector;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Campaign Vector Store
+ * Past campaign configurations (segments, strategies, email templates) indexed by the embedding of their
+ * description, for top-k retrieval with exact-match metadata filters such as kind and campaignType.
+ * Documents are appended; ids are positions in the store and in the HNSW index. With
+ * campaign.vector.store-directory set, the index is snapshotted to index.hnsw (memory-mapped on load) and the
+ * documents to documents.jsonl every snapshot-interval when something changed, and once more on shutdown.
+ * A snapshot made with a different embedder is re-embedded on load.
+ */
+@Component
+public class CampaignVectorStore {
+
+    private static final Logger log = LoggerFactory.getLogger(CampaignVectorStore.class);
+
+    private static final String INDEX_FILE = "index.hnsw";
+    private static final String DOCUMENTS_FILE = "documents.jsonl";
+    private static final String META_FILE = "store.json";
+
+    @Autowired
+    private TextEmbedder embedder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${campaign.vector.store-directory:}")
+    private String directory;
+
+    @Value("${campaign.vector.snapshot-interval:60s}")
+    private Duration snapshotInterval;
+
+    @Value("${campaign.vector.ef-search:64}")
+    private int efSearch;
+
+    private volatile HnswIndex index;
+    private volatile List<Document> documents = new ArrayList<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+    private volatile long lastSnapshotAt;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "vector-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public record Document(int id, String kind, String text, Map<String, String> metadata, Map<String, Object> payload) { }
+
+    public record Match(Document document, float similarity) {
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("id", document.id());
+            map.put("kind", document.kind());
+            map.put("text", document.text());
+            map.put("metadata", document.metadata());
+            map.put("payload", document.payload());
+            map.put("similarity", similarity);
+            return map;
+        }
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        index = newIndex();
+        if (directory.isBlank()) {
+            return;
+        }
+        Path root = Paths.get(directory);
+        Files.createDirectories(root);
+        load(root);
+        long interval = snapshotInterval.toMillis();
+        if (interval > 0) {
+            scheduler.scheduleWithFixedDelay(this::snapshotIfDirty, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Index a document; the text is what gets embedded and matched
+     */
+    public synchronized int add(String kind, String text, Map<String, String> metadata, Map<String, Object> payload) {
+        int id = documents.size();
+        Document document = new Document(id, kind, text, Map.copyOf(metadata), payload);
+        List<Document> grown = new ArrayList<>(documents);
+        grown.add(document);
+        // Publish the document before its vector: a search that finds the id must be able to resolve it
+        documents = grown;
+        index.add(embedder.embed(text));
+        dirty.set(true);
+        return id;
+    }
+
+    /**
+     * The k documents most similar to the text among those whose metadata has every filter value
+     * ("kind" filters on the document kind)
+     */
+    public List<Match> search(String text, int k, Map<String, String> filters) {
+        long start = System.nanoTime();
+        List<Document> snapshot = documents;
+        List<HnswIndex.Result> results = index.search(embedder.embed(text), k, Math.max(efSearch, k),
+            filters.isEmpty() ? null : id -> id < snapshot.size() && matches(snapshot.get(id), filters));
+        List<Match> matches = new ArrayList<>(results.size());
+        for (HnswIndex.Result result : results) {
+            if (result.id() < snapshot.size()) {
+                matches.add(new Match(snapshot.get(result.id()), result.similarity()));
+            }
+        }
+        searches.increment();
+        searchNanos.add(System.nanoTime() - start);
+        return matches;
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * Documents per kind, index memory, search latency and last snapshot time
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Long> kinds = new HashMap<>();
+        documents.forEach(document -> kinds.merge(document.kind(), 1L, Long::sum));
+        long count = searches.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("documents", documents.size());
+        stats.put("kinds", kinds);
+        stats.put("embedder", embedder.name());
+        stats.put("offHeapBytes", index.offHeapBytes());
+        stats.put("searches", count);
+        stats.put("avgSearchMicros", count == 0 ? 0 : searchNanos.sum() / 1000.0 / count);
+        stats.put("directory", directory.isBlank() ? null : directory);
+        stats.put("lastSnapshotAt", lastSnapshotAt == 0 ? null : lastSnapshotAt);
+        return stats;
+    }
+
+    private static boolean matches(Document document, Map<String, String> filters) {
+        for (Map.Entry<String, String> filter : filters.entrySet()) {
+            String value = filter.getKey().equals("kind") ? document.kind() : document.metadata().get(filter.getKey());
+            if (!filter.getValue().equals(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void load(Path root) throws IOException {
+        Path documentsFile = root.resolve(DOCUMENTS_FILE);
+        if (!Files.exists(documentsFile)) {
+            return;
+        }
+        List<Document> loaded = new ArrayList<>();
+        for (String line : Files.readAllLines(documentsFile, StandardCharsets.UTF_8)) {
+            if (!line.isBlank()) {
+                loaded.add(objectMapper.readValue(line, Document.class));
+            }
+        }
+
+        Path indexFile = root.resolve(INDEX_FILE);
+        Path metaFile = root.resolve(META_FILE);
+        Map<String, Object> meta = Files.exists(metaFile)
+            ? objectMapper.readValue(metaFile.toFile(), new TypeReference<Map<String, Object>>() { })
+            : Map.of();
+        HnswIndex mapped = Files.exists(indexFile) && embedder.name().equals(meta.get("embedder"))
+            ? HnswIndex.load(indexFile)
+            : null;
+        if (mapped != null && mapped.size() == loaded.size()) {
+            index = mapped;
+        } else {
+            log.info("Vector store snapshot in {} does not match embedder {}, re-embedding {} documents", root,
+                embedder.name(), loaded.size());
+            index = newIndex();
+            loaded.forEach(document -> index.add(embedder.embed(document.text())));
+            dirty.set(true);
+        }
+        documents = loaded;
+        log.info("Vector store loaded {} documents from {}", loaded.size(), root);
+    }
+
+    private void snapshotIfDirty() {
+        if (dirty.get()) {
+            snapshot();
+        }
+    }
+
+    /**
+     * Documents first, then the index: a crash in between leaves more documents than vectors, which the
+     * next load repairs by re-embedding
+     */
+    private synchronized void snapshot() {
+        Path root = Paths.get(directory);
+        try {
+            dirty.set(false);
+            Path documentsTemp = root.resolve(DOCUMENTS_FILE + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(documentsTemp, StandardCharsets.UTF_8)) {
+                for (Document document : documents) {
+                    writer.write(objectMapper.writeValueAsString(document));
+                    writer.newLine();
+                }
+            }
+            Files.move(documentsTemp, root.resolve(DOCUMENTS_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            index.save(root.resolve(INDEX_FILE));
+            objectMapper.writeValue(root.resolve(META_FILE).toFile(), Map.of("embedder", embedder.name(), "documents", documents.size()));
+            lastSnapshotAt = System.currentTimeMillis();
+        } catch (IOException e) {
+            dirty.set(true);
+            log.warn("Vector store snapshot to {} failed: {}", root, e.getMessage());
+        }
+    }
+
+    private HnswIndex newIndex() {
+        return new HnswIndex(embedder.dimensions(), 16, 100, 1024);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        if (!directory.isBlank() && dirty.get()) {
+            snapshot();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.mcp.vector;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Hashing Text Embedder
+ * Local embedding by feature hashing: words, character trigrams of words, and characters and bigrams of CJK text
+ * are hashed into a fixed number of signed buckets, then the vector is normalized. Request filler words
+ * ("create", "please", "一个") are skipped so phrasing differences weigh less than the subject, and numbers
+ * weigh double so a different budget or date moves a request away from an otherwise identical one.
+ */
+public class HashingTextEmbedder implements TextEmbedder {
+
+    private static final Set<String> FILLER = Set.of(
+        "a", "an", "the", "for", "of", "to", "in", "on", "with", "and", "or", "our", "my", "me", "i", "we", "us",
+        "please", "can", "you", "could", "would", "want", "need", "create", "make", "build", "generate", "design",
+        "write", "give", "help", "some", "new",
+        "一个", "帮我", "请", "我们", "我", "的", "为", "做", "创建", "生成", "设计", "需要", "想要", "产品");
+
+    private static final float WORD_WEIGHT = 1.0f;
+    private static final float TRIGRAM_WEIGHT = 0.35f;
+    private static final float NUMBER_WEIGHT = 2.0f;
+    private static final float CJK_WEIGHT = 1.0f;
+    private static final float CJK_CHAR_WEIGHT = 0.5f;
+
+    private final int dimensions;
+
+    public HashingTextEmbedder(int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        float[] vector = new float[dimensions];
+        String lower = text.toLowerCase(Locale.ROOT);
+        StringBuilder word = new StringBuilder();
+        StringBuilder cjk = new StringBuilder();
+        for (int i = 0; i <= lower.length(); i++) {
+            char c = i < lower.length() ? lower.charAt(i) : ' ';
+            if (isCjk(c)) {
+                flushWord(vector, word);
+                cjk.append(c);
+            } else if (Character.isLetterOrDigit(c)) {
+                flushCjk(vector, cjk);
+                word.append(c);
+            } else {
+                flushWord(vector, word);
+                flushCjk(vector, cjk);
+            }
+        }
+        return normalize(vector);
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public String name() {
+        return "hashing-" + dimensions;
+    }
+
+    private void flushWord(float[] vector, StringBuilder word) {
+        if (word.isEmpty()) {
+            return;
+        }
+        String token = word.toString();
+        word.setLength(0);
+        if (FILLER.contains(token)) {
+            return;
+        }
+        if (Character.isDigit(token.charAt(0))) {
+            add(vector, "#" + token, NUMBER_WEIGHT);
+            return;
+        }
+        add(vector, token, WORD_WEIGHT);
+        String padded = "^" + token + "$";
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            add(vector, padded.substring(i, i + 3), TRIGRAM_WEIGHT);
+        }
+    }
+
+    private void flushCjk(float[] vector, StringBuilder run) {
+        if (run.isEmpty()) {
+            return;
+        }
+        String text = run.toString();
+        run.setLength(0);
+        for (String filler : FILLER) {
+            if (!filler.isEmpty() && isCjk(filler.charAt(0))) {
+                text = text.replace(filler, " ");
+            }
+        }
+        for (String part : text.split(" ")) {
+            for (int i = 0; i < part.length(); i++) {
+                add(vector, part.substring(i, i + 1), CJK_CHAR_WEIGHT);
+            }
+            for (int i = 0; i + 2 <= part.length(); i++) {
+                add(vector, part.substring(i, i + 2), CJK_WEIGHT);
+            }
+        }
+    }
+
+    private void add(float[] vector, String feature, float weight) {
+        int hash = murmur(feature.getBytes(StandardCharsets.UTF_8));
+        int bucket = Math.floorMod(hash, dimensions);
+        vector[bucket] += (hash & 0x40000000) == 0 ? weight : -weight;
+    }
+
+    static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm == 0) {
+            return vector;
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+
+    private static boolean isCjk(char c) {
+        return Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN;
+    }
+
+    /** 32-bit MurmurHash3 */
+    private static int murmur(byte[] data) {
+        int h = 0x9747b28c;
+        int length = data.length;
+        int i = 0;
+        while (i + 4 <= length) {
+            int k = (data[i] & 0xff) | (data[i + 1] & 0xff) << 8 | (data[i + 2] & 0xff) << 16 | (data[i + 3] & 0xff) << 24;
+            h ^= mixK(k);
+            h = Integer.rotateLeft(h, 13) * 5 + 0xe6546b64;
+            i += 4;
+        }
+        int k = 0;
+        switch (length - i) {
+            case 3: k ^= (data[i + 2] & 0xff) << 16;
+            case 2: k ^= (data[i + 1] & 0xff) << 8;
+            case 1: k ^= data[i] & 0xff;
+                h ^= mixK(k);
+            default:
+        }
+        h ^= length;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static int mixK(int k) {
+        k *= 0xcc9e2d51;
+        k = Integer.rotateLeft(k, 15);
+        return k * 0x1b873593;
+    }
+}
@@ -0,0 +1,422 @@
+package com.example.mcp.vector;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntPredicate;
+
+/**
+ * HNSW Index
+ * Hierarchical navigable small-world graph over unit-length float vectors, scored by cosine similarity
+ * (dot product). Vectors live off-heap in fixed-size chunks, so growing the index never copies them and
+ * they add nothing to GC work; neighbour lists stay on the heap. Inserts are serialized; searches run
+ * without locks while inserts are in progress. A node is only linked into the graph after its vector is
+ * stored, and neighbour lists are replaced, never edited, so a search sees either the old or the new list.
+ * Node ids are dense insertion indexes. {@link #save} writes a snapshot through a memory-mapped file and
+ * {@link #load} maps it back, serving the stored vectors straight from the mapping.
+ */
+public class HnswIndex {
+
+    private static final int MAGIC = 0x484e5357; // "HNSW"
+    private static final int FORMAT = 1;
+    private static final int HEADER_INTS = 8;
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_NODES = 1 << CHUNK_SHIFT;
+
+    private final int dimensions;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+
+    // Replaced as a whole when it grows; a search keeps the storage it started with
+    private volatile Storage storage;
+    private volatile int size;
+    private volatile int entryPoint = -1;
+    private volatile int maxLevel = -1;
+
+    public HnswIndex(int dimensions, int m, int efConstruction, int initialCapacity) {
+        this.dimensions = dimensions;
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+        this.storage = new Storage(new FloatBuffer[0], newLinkChunks(0)).ensure(Math.max(1, initialCapacity), dimensions);
+    }
+
+    public record Result(int id, float similarity) { }
+
+    /**
+     * Add a unit-length vector and return its id
+     */
+    public synchronized int add(float[] vector) {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException("Expected a " + dimensions + "-dimensional vector, got " + vector.length);
+        }
+        int id = size;
+        Storage current = storage.ensure(id + 1, dimensions);
+        storage = current;
+        int level = (int) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * levelMultiplier);
+        current.write(id, vector, dimensions);
+        AtomicReferenceArray<int[]> links = new AtomicReferenceArray<>(level + 1);
+        for (int l = 0; l <= level; l++) {
+            links.set(l, new int[0]);
+        }
+        current.setLinks(id, links);
+
+        int entry = entryPoint;
+        if (entry < 0) {
+            size = id + 1;
+            maxLevel = level;
+            entryPoint = id;
+            return id;
+        }
+
+        for (int l = maxLevel; l > level; l--) {
+            entry = greedyClosest(current, vector, entry, l, id + 1);
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Result> candidates = searchLayer(current, vector, entry, efConstruction, l, id + 1, null);
+            int limit = l == 0 ? maxM0 : m;
+            int[] selected = closest(candidates, limit);
+            links.set(l, selected);
+            for (int neighbour : selected) {
+                link(current, neighbour, id, l, limit);
+            }
+            entry = candidates.get(0).id();
+        }
+
+        size = id + 1;
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = id;
+        }
+        return id;
+    }
+
+    /**
+     * The k most similar vectors, most similar first; ef is the size of the candidate list (at least k)
+     */
+    public List<Result> search(float[] query, int k, int ef) {
+        return search(query, k, ef, null);
+    }
+
+    /**
+     * The k most similar vectors whose id passes the filter. Rejected nodes are still walked through, so
+     * a selective filter costs more visits but does not disconnect the graph.
+     */
+    public List<Result> search(float[] query, int k, int ef, IntPredicate filter) {
+        int entry = entryPoint;
+        if (entry < 0) {
+            return List.of();
+        }
+        Storage current = storage;
+        int visible = Math.min(size, current.capacity());
+        for (int l = maxLevel; l > 0; l--) {
+            entry = greedyClosest(current, query, entry, l, visible);
+        }
+        List<Result> results = searchLayer(current, query, entry, Math.max(ef, k), 0, visible, filter);
+        return results.size() > k ? new ArrayList<>(results.subList(0, k)) : results;
+    }
+
+    public float[] vector(int id) {
+        float[] vector = new float[dimensions];
+        storage.read(id, vector, dimensions);
+        return vector;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Off-heap bytes held by vector chunks (mapped chunks included)
+     */
+    public long offHeapBytes() {
+        return (long) storage.vectors.length * CHUNK_NODES * dimensions * Float.BYTES;
+    }
+
+    /**
+     * Write a snapshot: a header, the vectors, then each node's neighbour lists. Inserts wait while it is
+     * written; searches do not. The file is written next to the target and moved into place.
+     */
+    public synchronized void save(Path file) throws IOException {
+        int count = size;
+        Storage current = storage;
+        long linkInts = 0;
+        for (int id = 0; id < count; id++) {
+            AtomicReferenceArray<int[]> links = current.linksOf(id);
+            linkInts += 1;
+            for (int l = 0; l < links.length(); l++) {
+                linkInts += 1 + links.get(l).length;
+            }
+        }
+        long bytes = (HEADER_INTS + (long) count * dimensions + linkInts) * Integer.BYTES;
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            out.order(ByteOrder.LITTLE_ENDIAN);
+            out.putInt(MAGIC).putInt(FORMAT).putInt(dimensions).putInt(m).putInt(efConstruction)
+                .putInt(count).putInt(entryPoint).putInt(maxLevel);
+            float[] vector = new float[dimensions];
+            for (int id = 0; id < count; id++) {
+                current.read(id, vector, dimensions);
+                for (float value : vector) {
+                    out.putFloat(value);
+                }
+            }
+            for (int id = 0; id < count; id++) {
+                AtomicReferenceArray<int[]> links = current.linksOf(id);
+                out.putInt(links.length());
+                for (int l = 0; l < links.length(); l++) {
+                    int[] neighbours = links.get(l);
+                    out.putInt(neighbours.length);
+                    for (int neighbour : neighbours) {
+                        out.putInt(neighbour);
+                    }
+                }
+            }
+            out.force();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Map a snapshot written by {@link #save}. Full chunks of vectors are read from the mapping in place;
+     * the last partial chunk is copied so new inserts can go after it.
+     */
+    public static HnswIndex load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            in.order(ByteOrder.LITTLE_ENDIAN);
+            if (in.getInt() != MAGIC || in.getInt() != FORMAT) {
+                throw new IOException("Not an HNSW snapshot: " + file);
+            }
+            int dimensions = in.getInt();
+            int m = in.getInt();
+            int efConstruction = in.getInt();
+            int count = in.getInt();
+            int entryPoint = in.getInt();
+            int maxLevel = in.getInt();
+
+            HnswIndex index = new HnswIndex(dimensions, m, efConstruction, 1);
+            int chunkFloats = CHUNK_NODES * dimensions;
+            int fullChunks = count / CHUNK_NODES;
+            int vectorStart = in.position();
+            FloatBuffer[] vectors = new FloatBuffer[fullChunks];
+            for (int c = 0; c < fullChunks; c++) {
+                vectors[c] = in.slice(vectorStart + c * chunkFloats * Float.BYTES, chunkFloats * Float.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            }
+            Storage storage = new Storage(vectors, newLinkChunks(fullChunks)).ensure(Math.max(1, count), dimensions);
+            float[] vector = new float[dimensions];
+            for (int id = fullChunks * CHUNK_NODES; id < count; id++) {
+                in.position(vectorStart + id * dimensions * Float.BYTES);
+                for (int i = 0; i < dimensions; i++) {
+                    vector[i] = in.getFloat();
+                }
+                storage.write(id, vector, dimensions);
+            }
+
+            in.position(vectorStart + count * dimensions * Float.BYTES);
+            for (int id = 0; id < count; id++) {
+                AtomicReferenceArray<int[]> links = new AtomicReferenceArray<>(in.getInt());
+                for (int l = 0; l < links.length(); l++) {
+                    int[] neighbours = new int[in.getInt()];
+                    for (int i = 0; i < neighbours.length; i++) {
+                        neighbours[i] = in.getInt();
+                    }
+                    links.set(l, neighbours);
+                }
+                storage.setLinks(id, links);
+            }
+
+            index.storage = storage;
+            index.entryPoint = entryPoint;
+            index.maxLevel = maxLevel;
+            index.size = count;
+            return index;
+        }
+    }
+
+    private float dot(Storage current, float[] query, int id) {
+        FloatBuffer chunk = current.vectors[id >>> CHUNK_SHIFT];
+        int offset = (id & (CHUNK_NODES - 1)) * dimensions;
+        float sum = 0;
+        for (int i = 0; i < dimensions; i++) {
+            sum += query[i] * chunk.get(offset + i);
+        }
+        return sum;
+    }
+
+    /**
+     * Closest node reachable by greedy hops on one layer; like {@link #searchLayer}, ids at or above
+     * {@code limit} are skipped
+     */
+    private int greedyClosest(Storage current, float[] query, int entry, int level, int limit) {
+        int best = entry;
+        float bestSimilarity = dot(current, query, best);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int neighbour : neighbours(current, best, level)) {
+                if (neighbour >= limit) {
+                    continue;
+                }
+                float similarity = dot(current, query, neighbour);
+                if (similarity > bestSimilarity) {
+                    bestSimilarity = similarity;
+                    best = neighbour;
+                    improved = true;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Best-first search of one layer; returns up to ef accepted results, most similar first. Ids at or
+     * above {@code limit} are not visible yet and are skipped.
+     */
+    private List<Result> searchLayer(Storage current, float[] query, int entry, int ef, int level, int limit, IntPredicate filter) {
+        BitSet visited = new BitSet(limit);
+        PriorityQueue<Result> candidates = new PriorityQueue<>((a, b) -> Float.compare(b.similarity(), a.similarity()));
+        PriorityQueue<Result> found = new PriorityQueue<>((a, b) -> Float.compare(a.similarity(), b.similarity()));
+        Result start = new Result(entry, dot(current, query, entry));
+        visited.set(entry);
+        candidates.add(start);
+        if (filter == null || filter.test(entry)) {
+            found.add(start);
+        }
+
+        while (!candidates.isEmpty()) {
+            Result candidate = candidates.poll();
+            if (found.size() >= ef && candidate.similarity() < found.peek().similarity()) {
+                break;
+            }
+            for (int neighbour : neighbours(current, candidate.id(), level)) {
+                if (neighbour >= limit || visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+                float similarity = dot(current, query, neighbour);
+                if (found.size() < ef || similarity > found.peek().similarity()) {
+                    Result result = new Result(neighbour, similarity);
+                    candidates.add(result);
+                    if (filter == null || filter.test(neighbour)) {
+                        found.add(result);
+                        if (found.size() > ef) {
+                            found.poll();
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Result> results = new ArrayList<>(found);
+        results.sort((a, b) -> Float.compare(b.similarity(), a.similarity()));
+        return results;
+    }
+
+    private void link(Storage current, int node, int neighbour, int level, int limit) {
+        AtomicReferenceArray<int[]> links = current.linksOf(node);
+        int[] existing = links.get(level);
+        int[] updated = Arrays.copyOf(existing, existing.length + 1);
+        updated[existing.length] = neighbour;
+        if (updated.length > limit) {
+            float[] base = new float[dimensions];
+            current.read(node, base, dimensions);
+            List<Result> scored = new ArrayList<>(updated.length);
+            for (int id : updated) {
+                scored.add(new Result(id, dot(current, base, id)));
+            }
+            scored.sort((a, b) -> Float.compare(b.similarity(), a.similarity()));
+            updated = closest(scored, limit);
+        }
+        links.set(level, updated);
+    }
+
+    private static int[] neighbours(Storage current, int node, int level) {
+        AtomicReferenceArray<int[]> links = current.linksOf(node);
+        return links == null || level >= links.length() ? new int[0] : links.get(level);
+    }
+
+    private static int[] closest(List<Result> sorted, int limit) {
+        int count = Math.min(limit, sorted.size());
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = sorted.get(i).id();
+        }
+        return ids;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AtomicReferenceArray<AtomicReferenceArray<int[]>>[] newLinkChunks(int chunks) {
+        AtomicReferenceArray<AtomicReferenceArray<int[]>>[] links = new AtomicReferenceArray[chunks];
+        for (int c = 0; c < chunks; c++) {
+            links[c] = new AtomicReferenceArray<>(CHUNK_NODES);
+        }
+        return links;
+    }
+
+    /**
+     * Chunked vector and link storage; growing appends chunks and shares the existing ones
+     */
+    private record Storage(FloatBuffer[] vectors, AtomicReferenceArray<AtomicReferenceArray<int[]>>[] linkChunks) {
+
+        int capacity() {
+            return vectors.length * CHUNK_NODES;
+        }
+
+        Storage ensure(int nodes, int dimensions) {
+            int chunks = (nodes + CHUNK_NODES - 1) >>> CHUNK_SHIFT;
+            if (chunks <= vectors.length) {
+                return this;
+            }
+            FloatBuffer[] grownVectors = Arrays.copyOf(vectors, chunks);
+            AtomicReferenceArray<AtomicReferenceArray<int[]>>[] grownLinks = Arrays.copyOf(linkChunks, chunks);
+            for (int c = vectors.length; c < chunks; c++) {
+                grownVectors[c] = ByteBuffer.allocateDirect(CHUNK_NODES * dimensions * Float.BYTES)
+                    .order(ByteOrder.nativeOrder()).asFloatBuffer();
+                grownLinks[c] = new AtomicReferenceArray<>(CHUNK_NODES);
+            }
+            return new Storage(grownVectors, grownLinks);
+        }
+
+        void write(int id, float[] vector, int dimensions) {
+            vectors[id >>> CHUNK_SHIFT].put((id & (CHUNK_NODES - 1)) * dimensions, vector);
+        }
+
+        void read(int id, float[] vector, int dimensions) {
+            vectors[id >>> CHUNK_SHIFT].get((id & (CHUNK_NODES - 1)) * dimensions, vector);
+        }
+
+        AtomicReferenceArray<int[]> linksOf(int id) {
+            return linkChunks[id >>> CHUNK_SHIFT].get(id & (CHUNK_NODES - 1));
+        }
+
+        void setLinks(int id, AtomicReferenceArray<int[]> links) {
+            linkChunks[id >>> CHUNK_SHIFT].set(id & (CHUNK_NODES - 1), links);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.mcp.vector;
+
+import org.springframework.ai.embedding.EmbeddingModel;
+
+/**
+ * Model Text Embedder
+ * Embeds with the configured Spring AI embedding model (a remote call per text); better recall on paraphrases
+ * than {@link HashingTextEmbedder} at the cost of a round trip per lookup.
+ */
+public class ModelTextEmbedder implements TextEmbedder {
+
+    private final EmbeddingModel model;
+    private final int dimensions;
+
+    public ModelTextEmbedder(EmbeddingModel model) {
+        this.model = model;
+        this.dimensions = model.dimensions();
+    }
+
+    @Override
+    public float[] embed(String text) {
+        return HashingTextEmbedder.normalize(model.embed(text));
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public String name() {
+        return "model:" + model.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.mcp.vector;
+
+/**
+ * Text Embedder
+ * Maps text to a unit-length vector so that similar requests end up close by cosine similarity.
+ * The default is {@link HashingTextEmbedder}; define another bean to replace it.
+ */
+public interface TextEmbedder {
+
+    float[] embed(String text);
+
+    int dimensions();
+
+    String name();
+}
@@ -0,0 +1,29 @@
+package com.example.mcp.vector;
+
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Vector Configuration
+ * Selects the text embedder with campaign.vector.embedder: "hashing" (local, default) or "model"
+ * (the Spring AI embedding model of the configured provider).
+ */
+@Configuration
+public class VectorConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public TextEmbedder textEmbedder(@Value("${campaign.vector.embedder:hashing}") String embedder,
+                                     @Value("${campaign.vector.dimensions:512}") int dimensions,
+                                     ObjectProvider<EmbeddingModel> embeddingModel) {
+        return switch (embedder) {
+            case "hashing" -> new HashingTextEmbedder(dimensions);
+            case "model" -> new ModelTextEmbedder(embeddingModel.getObject());
+            default -> throw new IllegalArgumentException("Unknown campaign.vector.embedder: " + embedder + " (hashing or model)");
+        };
+    }
+}
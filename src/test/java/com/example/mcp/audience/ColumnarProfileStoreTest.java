@@ -0,0 +1,79 @@
+package com.example.mcp.audience;
+
+import com.example.mcp.condition.ConditionExpressionCompiler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarProfileStoreTest {
+
+    @TempDir
+    Path temp;
+
+    private ColumnarProfileStore writeStore() throws IOException {
+        Path source = Files.writeString(temp.resolve("customers.csv"), String.join("\n",
+            "id,age,location,occupation,interests,behavior,spend",
+            "c1,34,Beijing,Engineer,travel|sports,email_open,1250",
+            "c2,27,Shanghai,Designer,sports,,80",
+            "c3,,Beijing,Teacher,,app_login|email_open,",
+            ""));
+        Path directory = temp.resolve("store");
+        new ProfileStoreWriter(new CustomerDataLoader(new ObjectMapper()), 2).write(source, directory);
+        return ColumnarProfileStore.open(directory);
+    }
+
+    private static RoaringBitmap select(ColumnarProfileStore store, String expression) {
+        return store.select(ConditionExpressionCompiler.compile(expression), System.currentTimeMillis());
+    }
+
+    @Test
+    void readsColumnsOfARow() throws IOException {
+        try (ColumnarProfileStore store = writeStore()) {
+            assertEquals(3, store.getRowCount());
+            assertEquals(34, store.getAge(0));
+            assertEquals(-1, store.getAge(2));
+            assertTrue(Float.isNaN(store.getSpend(2)));
+            assertEquals("c2", store.getId(1));
+            assertEquals("travel|sports", store.getString(ColumnarProfileStore.StringColumn.INTERESTS, 0));
+            assertArrayEquals(new String[]{"travel", "sports"}, store.getValues(ColumnarProfileStore.StringColumn.INTERESTS, 0));
+            assertArrayEquals(new String[0], store.getValues(ColumnarProfileStore.StringColumn.INTERESTS, 2));
+        }
+    }
+
+    @Test
+    void matchesMultiValuedColumnsByMembership() throws IOException {
+        try (ColumnarProfileStore store = writeStore()) {
+            assertEquals(RoaringBitmap.bitmapOf(0, 1), select(store, "interests == \"sports\""));
+            assertEquals(RoaringBitmap.bitmapOf(0), select(store, "interests == \"TRAVEL\""));
+            assertEquals(RoaringBitmap.bitmapOf(2), select(store, "interests != \"sports\""));
+            assertEquals(RoaringBitmap.bitmapOf(0, 2), select(store, "behavior in (\"email_open\", \"sms_click\")"));
+            assertEquals(RoaringBitmap.bitmapOf(0, 2), select(store, "location == \"beijing\""));
+            assertEquals(RoaringBitmap.bitmapOf(1), select(store, "age < 30 and spend between 50 and 100"));
+        }
+    }
+
+    @Test
+    void staysOpenUntilTheLastReferenceIsReleased() throws IOException {
+        ColumnarProfileStore store = writeStore();
+        assertTrue(store.retain());
+
+        store.close();
+        store.close();
+        assertEquals("c1", store.getId(0));
+
+        store.release();
+        assertFalse(store.retain());
+        assertThrows(IllegalStateException.class, () -> store.getId(0));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.mcp.audience;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DataPathsTest {
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void resolvesFilesInsideTheRoot() throws IOException {
+        Path root = Files.createDirectories(temp.resolve("data"));
+        Path file = Files.writeString(Files.createDirectories(root.resolve("q3")).resolve("customers.csv"), "id\n");
+
+        assertEquals(file, DataPaths.resolveFile(root, "q3/customers.csv"));
+        assertEquals(file, DataPaths.resolveFile(root, "q3/../q3/customers.csv"));
+        assertEquals(file, DataPaths.resolveFile(root, file.toString()));
+    }
+
+    @Test
+    void rejectsPathsOutsideTheRoot() throws IOException {
+        Path root = Files.createDirectories(temp.resolve("data"));
+        Path outside = Files.writeString(temp.resolve("secret.csv"), "id\n");
+        Files.createSymbolicLink(root.resolve("link.csv"), outside);
+
+        assertThrows(IllegalArgumentException.class, () -> DataPaths.resolveFile(root, "../secret.csv"));
+        assertThrows(IllegalArgumentException.class, () -> DataPaths.resolveFile(root, outside.toString()));
+        assertThrows(IllegalArgumentException.class, () -> DataPaths.resolveFile(root, "link.csv"));
+        assertThrows(IllegalArgumentException.class, () -> DataPaths.resolveFile(root, "missing.csv"));
+        assertThrows(IllegalArgumentException.class, () -> DataPaths.resolveFile(root, " "));
+    }
+}
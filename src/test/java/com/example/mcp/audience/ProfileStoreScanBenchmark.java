@@ -0,0 +1,111 @@
+package com.example.mcp.audience;
+
+import com.example.mcp.condition.ConditionEvaluator;
+import com.example.mcp.condition.ConditionExpressionCompiler;
+import com.example.mcp.condition.MapCustomerRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Profile Store Scan Benchmark
+ * Milliseconds per full scan of a generated store with a compiled condition: reading the mapped columns
+ * through the row cursor, compared with materializing every profile first (what a row-object layer would do).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx512m"})
+public class ProfileStoreScanBenchmark {
+
+    private static final String[] LOCATIONS = {"Beijing", "Shanghai", "Guangzhou", "Shenzhen", "Chengdu", "Hangzhou"};
+    private static final String[] OCCUPATIONS = {"Engineer", "Designer", "Teacher", "Doctor", "Student", "Manager"};
+    private static final String[] INTERESTS = {"travel", "sports", "fashion", "tech", "food", "music", "books"};
+
+    @Param({"1000000"})
+    private int rows;
+
+    @Param({
+        "age >= 30 and location in (\"Shanghai\", \"Beijing\")",
+        "interests == \"travel\" and spend > 500"
+    })
+    private String expression;
+
+    private Path directory;
+    private ColumnarProfileStore store;
+    private ConditionEvaluator condition;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("profile-store-benchmark");
+        Path source = directory.resolve("customers.csv");
+        Random random = new Random(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(source)) {
+            writer.write("id,age,location,occupation,interests,spend\n");
+            for (int row = 0; row < rows; row++) {
+                writer.write("c" + row + "," + (18 + random.nextInt(60)) + ","
+                    + LOCATIONS[random.nextInt(LOCATIONS.length)] + "," + OCCUPATIONS[random.nextInt(OCCUPATIONS.length)] + ","
+                    + INTERESTS[random.nextInt(INTERESTS.length)] + "|" + INTERESTS[random.nextInt(INTERESTS.length)] + ","
+                    + random.nextInt(2000) + "\n");
+            }
+        }
+        new ProfileStoreWriter(new CustomerDataLoader(new ObjectMapper()), 1).write(source, directory.resolve("store"));
+        store = ColumnarProfileStore.open(directory.resolve("store"));
+        condition = ConditionExpressionCompiler.compile(expression);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public RoaringBitmap columnarScan() {
+        return store.select(condition, System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public RoaringBitmap materializedScan() {
+        long now = System.currentTimeMillis();
+        RoaringBitmap result = new RoaringBitmap();
+        for (int row = 0; row < store.getRowCount(); row++) {
+            CustomerProfile profile = store.materialize(row);
+            Map<String, Object> attributes = new HashMap<>();
+            attributes.put("age", profile.getAge());
+            attributes.put("location", profile.getLocation());
+            attributes.put("occupation", profile.getOccupation());
+            attributes.put("interests", profile.getInterests());
+            attributes.put("spend", profile.getSpend());
+            if (condition.evaluate(new MapCustomerRecord(attributes), now)) {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.mcp.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecommendationCacheTest {
+
+    private RecommendationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RecommendationCache();
+        ReflectionTestUtils.setField(cache, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofHours(1));
+        ReflectionTestUtils.setField(cache, "capacity", 100);
+    }
+
+    @Test
+    void fingerprintsIgnoreKeyOrderAndTransientKeys() {
+        Map<String, Object> segment = new LinkedHashMap<>();
+        segment.put("ageRange", "25-35");
+        segment.put("interests", List.of("travel", "sports"));
+        Map<String, Object> reordered = new LinkedHashMap<>();
+        reordered.put("interests", List.of("travel", "sports"));
+        reordered.put("ageRange", "25-35");
+        Map<String, Object> annotated = new LinkedHashMap<>(segment);
+        RecommendationCache.TRANSIENT_KEYS.forEach(key -> annotated.put(key, key + " details"));
+
+        assertEquals(cache.fingerprint(segment), cache.fingerprint(reordered));
+        assertEquals(cache.fingerprint(segment), cache.fingerprint(annotated));
+        assertNotEquals(cache.fingerprint(segment), cache.fingerprint(Map.of("ageRange", "35-45",
+            "interests", List.of("travel", "sports"))));
+    }
+
+    @Test
+    void keysDependentNodesOnTheirUpstreamConfigurations() {
+        AtomicInteger generations = new AtomicInteger();
+        Map<String, Object> segment = Map.of("ageRange", "25-35");
+
+        Map<String, Object> first = cache.getOrGenerate("strategy", "promo", List.of(segment),
+            () -> Map.of("channels", "email", "n", generations.incrementAndGet()));
+        Map<String, Object> hit = cache.getOrGenerate("strategy", "promo",
+            List.of(Map.of("ageRange", "25-35", "cache", Map.of("hit", true))),
+            () -> Map.of("channels", "email", "n", generations.incrementAndGet()));
+        cache.getOrGenerate("strategy", "promo", List.of(Map.of("ageRange", "35-45")),
+            () -> Map.of("channels", "email", "n", generations.incrementAndGet()));
+
+        assertFalse(first.containsKey("cache"));
+        assertEquals(1, hit.get("n"));
+        assertTrue(hit.containsKey("cache"));
+        assertEquals(2, generations.get());
+    }
+
+    @Test
+    void callersWaitingOnAFailedGenerationGenerateThemselves() throws Exception {
+        CountDownLatch generating = new CountDownLatch(1);
+        CountDownLatch fail = new CountDownLatch(1);
+        CompletableFuture<Map<String, Object>> failing = CompletableFuture.supplyAsync(() ->
+            cache.getOrGenerate("segment", "promo", List.of(), () -> {
+                generating.countDown();
+                await(fail);
+                throw new IllegalStateException("model unavailable");
+            }));
+        assertTrue(generating.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Map<String, Object>> waiting = CompletableFuture.supplyAsync(() ->
+            cache.getOrGenerate("segment", "promo", List.of(), () -> Map.of("ageRange", "25-35")));
+        Thread.sleep(100);
+        assertFalse(waiting.isDone());
+        fail.countDown();
+
+        assertThrows(Exception.class, () -> failing.get(5, TimeUnit.SECONDS));
+        assertEquals("25-35", waiting.get(5, TimeUnit.SECONDS).get("ageRange"));
+        // The retried generation is cached, the failed one is not
+        Map<String, Object> hit = cache.getOrGenerate("segment", "promo", List.of(), () -> Map.of("ageRange", "other"));
+        assertEquals("25-35", hit.get("ageRange"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.mcp.cache;
+
+import com.example.mcp.vector.HashingTextEmbedder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SemanticResponseCacheTest {
+
+    private static final String REQUEST = "Singles Day promotion for office workers in Shanghai";
+    private static final String PARAPHRASE = "Create a Singles Day promotion for Shanghai office workers";
+    private static final String LONG_REQUEST = "Create a three month awareness campaign for life insurance products "
+        + "targeting young families in tier one cities, with email, social media and search ads and a focus on "
+        + "online quotes and agent referrals";
+
+    private final HashingTextEmbedder embedder = new HashingTextEmbedder(256);
+    private SemanticResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SemanticResponseCache();
+        ReflectionTestUtils.setField(cache, "embedder", embedder);
+        // The thresholds of application.yml
+        ReflectionTestUtils.setField(cache, "environment", new MockEnvironment()
+            .withProperty("campaign.semantic-cache.thresholds[campaign.advice]", "0.88"));
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "defaultThreshold", 0.85);
+        ReflectionTestUtils.setField(cache, "capacity", 100);
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofHours(1));
+        ReflectionTestUtils.setField(cache, "sampleRate", 0);
+        cache.init();
+    }
+
+    @Test
+    void servesExactAndSemanticHitsWithinAPartition() {
+        cache.put("campaign", "budget:5000", REQUEST, "plan A");
+
+        Optional<SemanticResponseCache.Hit> exact = cache.lookup("campaign", "budget:5000", "singles day promotion, for office workers in shanghai!");
+        assertEquals("exact", exact.orElseThrow().tier());
+
+        Optional<SemanticResponseCache.Hit> semantic = cache.lookup("campaign", "budget:5000", PARAPHRASE);
+        assertEquals("semantic", semantic.orElseThrow().tier());
+        assertEquals("plan A", semantic.get().value());
+
+        assertTrue(cache.lookup("campaign", "budget:9000", PARAPHRASE).isEmpty());
+    }
+
+    @Test
+    void servesParaphrasesThatOnlyDifferInPhrasingWords() {
+        cache.put("marketing.campaign", "", "Create a campaign for life insurance products", "life plan");
+
+        SemanticResponseCache.Hit hit = cache.lookup("marketing.campaign", "", "make a life insurance campaign")
+            .orElseThrow();
+        assertEquals("semantic", hit.tier());
+        assertEquals("life plan", hit.value());
+    }
+
+    @Test
+    void missesRequestsForAnotherProductAudienceOrCityHoweverSimilar() {
+        String otherProduct = LONG_REQUEST.replace("life insurance", "car insurance");
+        String otherAudience = LONG_REQUEST.replace("young families", "retired couples");
+        assertTrue(similarity(LONG_REQUEST, otherProduct) >= 0.85);
+        assertTrue(similarity(LONG_REQUEST, otherAudience) >= 0.85);
+        cache.put("marketing.campaign", "", LONG_REQUEST, "life plan");
+        assertEquals("life plan", cache.lookup("marketing.campaign", "", LONG_REQUEST.replace("Create a", "Make a"))
+            .orElseThrow().value());
+        assertTrue(cache.lookup("marketing.campaign", "", otherProduct).isEmpty());
+        assertTrue(cache.lookup("marketing.campaign", "", otherAudience).isEmpty());
+        assertTrue(cache.lookup("marketing.campaign", "", LONG_REQUEST + " for 2025").isEmpty());
+
+        cache.put("marketing.campaign", "", "spring sale of running shoes", "shoes plan");
+        assertTrue(cache.lookup("marketing.campaign", "", "spring sale of hiking boots").isEmpty());
+
+        cache.put("campaign.advice", "5000.0", "retail | office workers in Shanghai", "shanghai advice");
+        assertEquals("shanghai advice", cache.lookup("campaign.advice", "5000.0", "Retail | Shanghai office workers")
+            .orElseThrow().value());
+        assertTrue(cache.lookup("campaign.advice", "5000.0", "retail | office workers in Beijing").isEmpty());
+    }
+
+    @Test
+    void findsThePartitionEntryBehindCloserEntriesOfOtherPartitions() {
+        // Identical requests in other partitions score 1.0 and would fill any fixed-size candidate list
+        for (int i = 0; i < 20; i++) {
+            cache.put("campaign", "budget:" + i, PARAPHRASE, "other " + i);
+        }
+        cache.put("campaign", "budget:5000", REQUEST, "plan A");
+
+        SemanticResponseCache.Hit hit = cache.lookup("campaign", "budget:5000", PARAPHRASE).orElseThrow();
+        assertEquals("semantic", hit.tier());
+        assertEquals("plan A", hit.value());
+    }
+
+    @Test
+    void replacesTheEntryOfARequestThatIsAlreadyCached() {
+        cache.put("campaign", "budget:5000", REQUEST, "plan A");
+        cache.put("campaign", "budget:5000", REQUEST + ".", "plan B");
+
+        assertEquals("plan B", cache.lookup("campaign", "budget:5000", REQUEST).orElseThrow().value());
+        assertEquals("plan B", cache.lookup("campaign", "budget:5000", PARAPHRASE).orElseThrow().value());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> endpoints = (Map<String, Object>) cache.getStats().get("endpoints");
+        assertEquals(1L, ((Map<?, ?>) endpoints.get("campaign")).get("entries"));
+    }
+
+    private double similarity(String a, String b) {
+        float[] x = embedder.embed(a);
+        float[] y = embedder.embed(b);
+        double sum = 0;
+        for (int i = 0; i < x.length; i++) {
+            sum += x[i] * y[i];
+        }
+        return sum;
+    }
+}
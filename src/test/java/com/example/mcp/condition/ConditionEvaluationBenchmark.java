@@ -0,0 +1,65 @@
+package com.example.mcp.condition;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Condition Evaluation Benchmark
+ * Nanoseconds per evaluation of a compiled condition against one customer, compared with parsing the expression
+ * for every customer (what interpreting flow path strings per customer would cost).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConditionEvaluationBenchmark {
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    @Param({
+        "age >= 30 and location in (\"Shanghai\", \"Beijing\")",
+        "segment(\"vip\") or (event(\"email_open\", 7d) and eventCount(\"email_click\") >= 2)",
+        "within(lastPurchaseAt, 30d) and spend between 100 and 5000 and not segment(\"churned\")"
+    })
+    private String expression;
+
+    private ConditionEvaluator compiled;
+    private CustomerRecord customer;
+    private long now;
+
+    @Setup
+    public void setUp() {
+        now = System.currentTimeMillis();
+        compiled = ConditionExpressionCompiler.compile(expression);
+        customer = new MapCustomerRecord(
+            Map.of("age", 34, "location", "Beijing", "spend", 1250.0, "lastPurchaseAt", (double) (now - 12 * DAY)),
+            Set.of("newsletter"),
+            Map.of("email_open", now - 2 * DAY),
+            Map.of("email_click", 3L));
+    }
+
+    @Benchmark
+    public boolean compiled() {
+        return compiled.evaluate(customer, now);
+    }
+
+    @Benchmark
+    public boolean parsePerEvaluation() {
+        return ConditionExpressionCompiler.compile(expression).evaluate(customer, now);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.mcp.condition;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConditionEvaluationServiceTest {
+
+    private ConditionEvaluationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ConditionEvaluationService();
+        ReflectionTestUtils.setField(service, "expressionCacheSize", 3);
+    }
+
+    @Test
+    void evaluatesComparisonsListsAndSegments() {
+        CustomerRecord customer = new MapCustomerRecord(Map.of("age", 34, "location", "Beijing"),
+            Set.of("vip"), Map.of(), Map.of());
+
+        assertTrue(service.compile("age >= 30 and location in (\"Shanghai\", \"Beijing\")").evaluate(customer, 0));
+        assertTrue(service.compile("segment(\"vip\") and not segment(\"churned\")").evaluate(customer, 0));
+        assertFalse(service.compile("age between 40 and 50").evaluate(customer, 0));
+        assertFalse(service.compile("income > 1000").evaluate(customer, 0));
+    }
+
+    @Test
+    void evaluatesEventsWithinTimeWindows() {
+        long now = 1_000_000_000L;
+        long day = 86_400_000L;
+        CustomerRecord customer = new MapCustomerRecord(Map.of(), Set.of(),
+            Map.of("email_open", now - 2 * day), Map.of("email_click", 3L));
+
+        assertTrue(service.compile("event(\"email_open\", 7d) and eventCount(\"email_click\") >= 2").evaluate(customer, now));
+        assertFalse(service.compile("event(\"email_open\", 1d)").evaluate(customer, now));
+    }
+
+    @Test
+    void reusesCompiledExpressions() {
+        assertSame(service.compile("age > 1"), service.compile("  age > 1 "));
+    }
+
+    @Test
+    void keepsOnlyTheMostRecentlyUsedExpressions() {
+        ConditionEvaluator first = service.compile("age > 1");
+        service.compile("age > 2");
+        service.compile("age > 3");
+        service.compile("age > 1");
+        service.compile("age > 4");
+
+        assertEquals(3, service.getCachedExpressionCount());
+        assertSame(first, service.compile("age > 1"));
+    }
+
+    @Test
+    void rejectsMalformedExpressions() {
+        assertThrows(IllegalArgumentException.class, () -> service.compile("age >"));
+        Map<String, Object> validation = service.validate(Map.of("flowPaths", List.of(Map.of("condition", "age >"))));
+        assertEquals(false, validation.get("valid"));
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.mcp.prompt;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PromptRegistryTest {
+
+    @TempDir
+    Path overrides;
+
+    private PromptRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new PromptRegistry();
+        ReflectionTestUtils.setField(registry, "directory", overrides.toString());
+        ReflectionTestUtils.setField(registry, "reloadInterval", Duration.ZERO);
+        ReflectionTestUtils.setField(registry, "minStaticShare", 0.75);
+    }
+
+    @Test
+    void bundledTemplatesAreStaticFirst() throws IOException {
+        registry.init();
+
+        assertTrue(registry.describe().size() > 0);
+        registry.describe().forEach(template ->
+            assertTrue((double) template.get("staticShare") >= 0.75, () -> template.get("name") + " " + template.get("staticShare")));
+    }
+
+    @Test
+    void rejectsAnOverrideWhosePlaceholdersComeFirst() throws IOException {
+        Files.writeString(overrides.resolve("campaign.advice.prompt"), "# version: 9\n{{industry}} {{audience}} campaign plan");
+        registry.init();
+
+        assertEquals("classpath:prompts/campaign.advice.prompt", registry.get("campaign.advice").getSource());
+    }
+
+    @Test
+    void acceptsStaticFirstAndFreeLayoutOverrides() throws IOException {
+        Files.writeString(overrides.resolve("custom.first.prompt"),
+            "# version: 3\nYou are a marketing assistant. Answer in three short bullet points.\n\nQuestion: {{question}}");
+        Files.writeString(overrides.resolve("custom.free.prompt"), "# layout: free\n{{question}}?");
+        registry.init();
+
+        assertEquals(3, registry.get("custom.first").getVersion());
+        assertEquals("Why?", registry.render("custom.free", "question", "Why"));
+        assertThrows(IllegalArgumentException.class, () -> registry.get("missing"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.mcp.prompt;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token Counter Benchmark
+ * Tokens per second counted by {@link TokenCounter} on prompt-sized mixed Chinese/English text, reported as the
+ * "tokens" secondary result next to the calls per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenCounterBenchmark {
+
+    private static final String PARAGRAPH = "为25-35岁的一线城市白领策划一次双十一促销活动，"
+        + "channels: email, SMS and in-app push; budget 50000 CNY, target conversion rate 3.5%. "
+        + "请根据历史活动数据推荐节点配置，并说明每个节点的触发条件。\n";
+
+    @Param({"1", "32"})
+    private int paragraphs;
+
+    private TokenCounter counter;
+    private String text;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Tokens {
+        public long tokens;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            tokens = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        counter = new TokenCounter();
+        ReflectionTestUtils.setField(counter, "encodingName", "cl100k_base");
+        ReflectionTestUtils.setField(counter, "deploymentName", "gpt-4");
+        ReflectionTestUtils.setField(counter, "vocabularyFile", "");
+        ReflectionTestUtils.setField(counter, "pattern", "");
+        counter.init();
+        text = PARAGRAPH.repeat(paragraphs);
+    }
+
+    @Benchmark
+    public int count(Tokens tokens) {
+        int count = counter.count(text);
+        tokens.tokens += count;
+        return count;
+    }
+}
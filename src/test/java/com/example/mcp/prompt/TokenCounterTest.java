@@ -0,0 +1,50 @@
+package com.example.mcp.prompt;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenCounterTest {
+
+    private TokenCounter counter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        counter = new TokenCounter();
+        ReflectionTestUtils.setField(counter, "encodingName", "");
+        ReflectionTestUtils.setField(counter, "deploymentName", "gpt-4");
+        ReflectionTestUtils.setField(counter, "vocabularyFile", "");
+        ReflectionTestUtils.setField(counter, "pattern", "");
+        counter.init();
+    }
+
+    @Test
+    void countsWithTheDeploymentEncoding() {
+        assertEquals("cl100k_base", counter.getEncodingName());
+        assertEquals(0, counter.count(""));
+        assertEquals(2, counter.count("hello world"));
+        assertTrue(counter.count("<|endoftext|>") > 1);
+    }
+
+    @Test
+    void truncatesOnATokenBoundary() {
+        String text = "Plan a Singles' Day promotion for white-collar workers in tier-one cities";
+        String truncated = counter.truncate(text, 5);
+        assertTrue(text.startsWith(truncated));
+        assertTrue(counter.count(truncated) <= 5);
+        assertEquals(text, counter.truncate(text, 1000));
+        assertEquals("", counter.truncate(text, 0));
+    }
+
+    @Test
+    void tracksCountingThroughput() {
+        counter.count("hello world");
+        assertEquals(1L, counter.getStats().get("counts"));
+        assertEquals(2L, counter.getStats().get("tokens"));
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.mcp.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chat Frame Serialization Benchmark
+ * Response frames per second before and after the shared mapper: a HashMap envelope written by a handler-local
+ * {@code new ObjectMapper()}, against the typed {@link ChatFrame} written by the pre-resolved frame writer of the
+ * Boot-style mapper, with and without Blackbird. The payload is either a recommendation map or a list of
+ * campaign node beans.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChatFrameSerializationBenchmark {
+
+    private ObjectMapper handlerMapper;
+    private ObjectWriter frameWriter;
+    private ObjectWriter blackbirdFrameWriter;
+    @Param({"map", "nodes"})
+    private String payload;
+
+    private Object response;
+
+    @Setup
+    public void setUp() {
+        handlerMapper = new ObjectMapper();
+        frameWriter = Jackson2ObjectMapperBuilder.json().build().writerFor(ChatFrame.class);
+        blackbirdFrameWriter = Jackson2ObjectMapperBuilder.json().modules(new BlackbirdModule()).build().writerFor(ChatFrame.class);
+
+        if (payload.equals("map")) {
+            Map<String, Object> recommendations = new LinkedHashMap<>();
+            recommendations.put("type", "NODE_RECOMMENDATIONS");
+            recommendations.put("message", "Here are the recommended nodes for your spring tea campaign");
+            recommendations.put("segment", Map.of("ageGroup", "25-35 years", "location", "Shanghai, Beijing", "interests", List.of("tea", "gifts")));
+            recommendations.put("strategy", Map.of("channels", List.of("email", "wechat"), "budget", 12000.5, "cadence", "weekly"));
+            recommendations.put("emailTemplate", Map.of("subject", "Spring tea gifts for your team",
+                "body", "Hi {{firstName}}, our spring collection is here. Free delivery on orders over 300 yuan."));
+            recommendations.put("requiresUserAction", true);
+            response = recommendations;
+        } else {
+            List<CampaignNode> nodes = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                CampaignNode node = new CampaignNode("node_" + i, CampaignNode.NodeType.values()[i % 7], "Step " + i);
+                node.setData(Map.of("budget", 500.0 * i));
+                node.setConnections(List.of("node_" + (i + 1)));
+                node.setStatus(CampaignNode.NodeStatus.READY);
+                nodes.add(node);
+            }
+            response = nodes;
+        }
+    }
+
+    @Benchmark
+    public byte[] hashMapEnvelope() throws Exception {
+        Map<String, Object> reply = new HashMap<>();
+        reply.put("id", "req-1");
+        reply.put("type", "response");
+        reply.put("status", "ok");
+        reply.put("data", response);
+        reply.put("elapsedMs", 1840L);
+        return handlerMapper.writeValueAsBytes(reply);
+    }
+
+    @Benchmark
+    public byte[] chatFrame() throws Exception {
+        return frameWriter.writeValueAsBytes(ChatFrame.response("req-1", response, 1840));
+    }
+
+    @Benchmark
+    public byte[] chatFrameBlackbird() throws Exception {
+        return blackbirdFrameWriter.writeValueAsBytes(ChatFrame.response("req-1", response, 1840));
+    }
+}
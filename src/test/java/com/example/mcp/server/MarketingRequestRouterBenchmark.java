@@ -0,0 +1,85 @@
+package com.example.mcp.server;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marketing Request Router Benchmark
+ * Nanoseconds per routed chat message: the compiled keyword router, compared with the chain of
+ * lowercase + String.contains checks it replaced in MCPWebSocketHandler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarketingRequestRouterBenchmark {
+
+    private static final String SHORT = "Create an audience segment of young professionals in Shanghai";
+    private static final String LONG = "We are planning the autumn launch of our premium tea range and need help. "
+        + "Last quarter the newsletter had a 21% open rate but conversion from the landing page was weak, and most of "
+        + "the paid social spend went to people who had already bought from us. The goal is to reach office workers "
+        + "aged 25-40 in tier one cities who buy gifts for colleagues. Please look at the metrics from the spring "
+        + "promotion, tell us which channels performed best and suggest how to reallocate the budget for better ROI.";
+
+    @Param({"short", "long"})
+    private String length;
+
+    private MarketingRequestRouter router;
+    private String message;
+
+    @Setup
+    public void setUp() {
+        router = new MarketingRequestRouter();
+        ReflectionTestUtils.setField(router, "environment", new StandardEnvironment());
+        ReflectionTestUtils.setField(router, "priority", List.of("campaign", "segment", "strategy", "template", "analysis", "optimization"));
+        ReflectionTestUtils.setField(router, "minScore", 1.0);
+        router.init();
+        message = length.equals("short") ? SHORT : LONG;
+    }
+
+    @Benchmark
+    public String keywordAutomaton() {
+        return router.route(message);
+    }
+
+    @Benchmark
+    public String containsChain() {
+        String lowerRequest = message.toLowerCase();
+        if (lowerRequest.contains("campaign") || lowerRequest.contains("create") ||
+            lowerRequest.contains("generate") || lowerRequest.contains("make")) {
+            return "campaign";
+        } else if (lowerRequest.contains("segment") || lowerRequest.contains("audience") ||
+                   lowerRequest.contains("people") || lowerRequest.contains("target")) {
+            return "segment";
+        } else if (lowerRequest.contains("channel") || lowerRequest.contains("strategy") ||
+                   lowerRequest.contains("plan") || lowerRequest.contains("approach")) {
+            return "strategy";
+        } else if (lowerRequest.contains("template") || lowerRequest.contains("email") ||
+                   lowerRequest.contains("content") || lowerRequest.contains("message")) {
+            return "template";
+        } else if (lowerRequest.contains("performance") || lowerRequest.contains("analyze") ||
+                   lowerRequest.contains("metrics") || lowerRequest.contains("kpi")) {
+            return "analysis";
+        } else if (lowerRequest.contains("budget") || lowerRequest.contains("optimize") ||
+                   lowerRequest.contains("roi") || lowerRequest.contains("allocation")) {
+            return "optimization";
+        }
+        return null;
+    }
+}
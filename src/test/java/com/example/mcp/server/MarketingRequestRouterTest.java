@@ -0,0 +1,55 @@
+package com.example.mcp.server;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MarketingRequestRouterTest {
+
+    private MarketingRequestRouter router;
+
+    @BeforeEach
+    void setUp() {
+        router = new MarketingRequestRouter();
+        ReflectionTestUtils.setField(router, "environment", new StandardEnvironment());
+        ReflectionTestUtils.setField(router, "priority", List.of("campaign", "segment", "strategy", "template", "analysis", "optimization"));
+        ReflectionTestUtils.setField(router, "minScore", 1.0);
+        router.init();
+    }
+
+    @Test
+    void weakVerbsDoNotOverrideTheTopic() {
+        assertEquals("segment", router.route("Create an audience segment of young professionals"));
+        assertEquals("template", router.route("Make an EMAIL newsletter for the spring sale"));
+        assertEquals("optimization", router.route("How should I reallocate budget for better ROI?"));
+    }
+
+    @Test
+    void matchesKeywordsOnlyAtWordStarts() {
+        assertNull(router.route("A heroic tale"));
+        assertEquals("strategy", router.route("planning our approach"));
+    }
+
+    @Test
+    void routeAgreesWithTheDecision() {
+        for (String message : List.of("launch a campaign for our audience", "email campaign", "segment audience", "hello")) {
+            assertEquals(router.decide(message).route(), router.route(message), message);
+        }
+    }
+
+    @Test
+    void equalScoresGoToTheRouteWithPriority() {
+        MarketingRequestRouter.RoutingDecision decision = router.decide("email segment");
+        assertEquals("segment", decision.route());
+        assertTrue(decision.tieBroken());
+        assertFalse(router.decide("segment").tieBroken());
+    }
+}
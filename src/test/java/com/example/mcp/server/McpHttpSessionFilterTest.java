@@ -0,0 +1,141 @@
+package com.example.mcp.server;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class McpHttpSessionFilterTest {
+
+    private final CountDownLatch entered = new CountDownLatch(2);
+    private final CountDownLatch answer = new CountDownLatch(1);
+    private ExecutorService executor;
+    private McpHttpSessionFilter filter;
+
+    /** The transport: a post holds its thread until the answer is released, a stream goes async */
+    private final FilterChain transport = (request, response) -> {
+        if (((MockHttpServletRequest) request).getMethod().equals("GET")) {
+            request.startAsync();
+            return;
+        }
+        entered.countDown();
+        try {
+            answer.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    };
+
+    @BeforeEach
+    void setUp() throws ServletException {
+        executor = Executors.newFixedThreadPool(2);
+        filter = new McpHttpSessionFilter();
+        ReflectionTestUtils.setField(filter, "sseEndpoint", "/mcp/sse");
+        ReflectionTestUtils.setField(filter, "messageEndpoint", "/mcp/message");
+        ReflectionTestUtils.setField(filter, "maxClients", 1);
+        ReflectionTestUtils.setField(filter, "maxInFlightPerClient", 1);
+        ReflectionTestUtils.setField(filter, "configuredMaxInFlight", 0);
+        ReflectionTestUtils.setField(filter, "requestThreads", 3);
+        ReflectionTestUtils.setField(filter, "streamTimeout", Duration.ofHours(1));
+        ReflectionTestUtils.setField(filter, "configuredInstanceId", "node-a");
+        filter.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        answer.countDown();
+        executor.shutdownNow();
+    }
+
+    private static MockHttpServletRequest stream() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/mcp/sse");
+        request.setAsyncSupported(true);
+        return request;
+    }
+
+    private static MockHttpServletRequest post(String sessionId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/mcp/message");
+        request.setParameter("sessionId", sessionId);
+        return request;
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, transport);
+        return response;
+    }
+
+    private Future<MockHttpServletResponse> sendAsync(MockHttpServletRequest request) {
+        return executor.submit(() -> send(request));
+    }
+
+    @Test
+    void admitsMaxClientsStreamsUntilOneCloses() throws Exception {
+        MockHttpServletRequest first = stream();
+        MockHttpServletResponse opened = send(first);
+        assertEquals(200, opened.getStatus());
+        assertEquals("node-a", opened.getCookie(McpHttpSessionFilter.AFFINITY_COOKIE).getValue());
+
+        assertEquals(503, send(stream()).getStatus());
+        first.getAsyncContext().complete();
+        assertEquals(200, send(stream()).getStatus());
+        assertEquals(1L, filter.getStats().get("streamsRejected"));
+    }
+
+    @Test
+    void throttlesASessionWithTooManyMessagesInProgress() throws Exception {
+        Future<MockHttpServletResponse> pending = sendAsync(post("s1"));
+        Future<MockHttpServletResponse> other = sendAsync(post("s2"));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        assertEquals(429, send(post("s1")).getStatus());
+        answer.countDown();
+        assertEquals(200, pending.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(200, other.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(1L, filter.getStats().get("messagesThrottled"));
+        assertEquals(0, filter.getStats().get("busySessions"));
+    }
+
+    @Test
+    void shedsMessagesBeyondTheInstanceWideCap() throws Exception {
+        // Three quarters of three request threads
+        assertEquals(2, filter.getStats().get("maxInFlight"));
+        Future<MockHttpServletResponse> first = sendAsync(post("s1"));
+        Future<MockHttpServletResponse> second = sendAsync(post("s2"));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        assertEquals(503, send(post("s3")).getStatus());
+        answer.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertEquals(0, filter.getStats().get("messagesInProgress"));
+        assertEquals(200, send(post("s3")).getStatus());
+        assertEquals(1L, filter.getStats().get("messagesShed"));
+    }
+
+    @Test
+    void refusesPostsRoutedFromAnotherInstance() throws Exception {
+        MockHttpServletRequest misrouted = post("s1");
+        misrouted.setCookies(new Cookie(McpHttpSessionFilter.AFFINITY_COOKIE, "node-b"));
+        MockHttpServletResponse response = send(misrouted);
+
+        assertEquals(421, response.getStatus());
+        assertEquals("node-a", response.getHeader(McpHttpSessionFilter.INSTANCE_HEADER));
+        assertEquals(1L, filter.getStats().get("misrouted"));
+    }
+}
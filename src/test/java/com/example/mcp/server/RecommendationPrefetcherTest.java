@@ -0,0 +1,119 @@
+package com.example.mcp.server;
+
+import com.example.mcp.cache.CampaignKeyNormalizer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecommendationPrefetcherTest {
+
+    private final CountDownLatch generating = new CountDownLatch(1);
+    private final CountDownLatch unwound = new CountDownLatch(1);
+    private final CountDownLatch returned = new CountDownLatch(1);
+    private ExecutorService executor;
+    private RecommendationPrefetcher prefetcher;
+
+    /** A model call that ignores interruption for a while, like an HTTP request that is slow to abort */
+    private class SlowGenerator extends AIRecommendationGenerator {
+        @Override
+        public Map<String, Object> generateSegmentRecommendations(String campaignType, String targetAudience, Double budget) {
+            generating.countDown();
+            try {
+                unwound.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                try {
+                    unwound.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return Map.of();
+        }
+
+        @Override
+        public Map<String, Object> generateCustomerJourneyRecommendations(String campaignType, String targetAudience,
+                                                                          Map<String, Object> segmentConfig) {
+            returned.countDown();
+            return Map.of();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        CampaignKeyNormalizer normalizer = new CampaignKeyNormalizer();
+        ReflectionTestUtils.setField(normalizer, "environment", new MockEnvironment());
+        normalizer.init();
+        prefetcher = new RecommendationPrefetcher();
+        ReflectionTestUtils.setField(prefetcher, "recommendationGenerator", new SlowGenerator());
+        ReflectionTestUtils.setField(prefetcher, "normalizer", normalizer);
+        ReflectionTestUtils.setField(prefetcher, "llmExecutor", executor);
+        ReflectionTestUtils.setField(prefetcher, "enabled", true);
+        ReflectionTestUtils.setField(prefetcher, "maxPerSession", 3);
+        ReflectionTestUtils.setField(prefetcher, "maxConcurrent", 1);
+        ReflectionTestUtils.setField(prefetcher, "sessionTtl", Duration.ofMinutes(30));
+        prefetcher.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static ConversationContext context(String user, double budget) {
+        ConversationContext context = new ConversationContext(user);
+        context.addParameter("campaignType", "promotion");
+        context.addParameter("targetAudience", "young professionals");
+        context.addParameter("budget", budget);
+        return context;
+    }
+
+    @Test
+    void holdsThePermitUntilACancelledWorkerReturns() throws Exception {
+        ConversationContext context = context("u1", 5000);
+        prefetcher.onParameters(context);
+        assertTrue(generating.await(5, TimeUnit.SECONDS));
+
+        prefetcher.onSessionEnd(context);
+        Map<String, Object> stats = prefetcher.getStats();
+        assertEquals(1L, stats.get("cancelled"));
+        assertEquals(0, stats.get("sessions"));
+        assertEquals(1, stats.get("running"));
+
+        // The worker is still inside the model call, so another session cannot start a prefetch yet
+        prefetcher.onParameters(context("u2", 5000));
+        assertEquals(1L, prefetcher.getStats().get("cappedConcurrent"));
+
+        unwound.countDown();
+        assertTrue(returned.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 50 && !prefetcher.getStats().get("running").equals(0); i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, prefetcher.getStats().get("running"));
+    }
+
+    @Test
+    void forgetsSessionsIdleForLongerThanTheTtl() throws InterruptedException {
+        ReflectionTestUtils.setField(prefetcher, "maxPerSession", 0);
+        ReflectionTestUtils.setField(prefetcher, "sessionTtl", Duration.ofMillis(1));
+        prefetcher.onParameters(context("u1", 5000));
+        assertEquals(1, prefetcher.getStats().get("sessions"));
+
+        Thread.sleep(5);
+        prefetcher.onParameters(context("u2", 5000));
+        assertEquals(1, prefetcher.getStats().get("sessions"));
+        assertEquals(1L, prefetcher.getStats().get("expiredSessions"));
+    }
+}
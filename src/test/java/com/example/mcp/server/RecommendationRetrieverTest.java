@@ -0,0 +1,134 @@
+package com.example.mcp.server;
+
+import com.example.mcp.cache.CampaignKeyNormalizer;
+import com.example.mcp.prompt.TokenCounter;
+import com.example.mcp.vector.CampaignVectorStore;
+import com.example.mcp.vector.HashingTextEmbedder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecommendationRetrieverTest {
+
+    private final List<String> prompts = new ArrayList<>();
+    private CampaignVectorStore vectorStore;
+    private RecommendationRetriever retriever;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        vectorStore = new CampaignVectorStore();
+        ReflectionTestUtils.setField(vectorStore, "embedder", new HashingTextEmbedder(256));
+        ReflectionTestUtils.setField(vectorStore, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(vectorStore, "directory", "");
+        ReflectionTestUtils.setField(vectorStore, "snapshotInterval", Duration.ZERO);
+        ReflectionTestUtils.setField(vectorStore, "efSearch", 64);
+        vectorStore.init();
+
+        CampaignKeyNormalizer normalizer = new CampaignKeyNormalizer();
+        ReflectionTestUtils.setField(normalizer, "environment", new MockEnvironment()
+            .withProperty("campaign.recommendation-cache.campaign-types.sale", "promotion"));
+        normalizer.init();
+        TokenCounter tokenCounter = new TokenCounter();
+        ReflectionTestUtils.setField(tokenCounter, "encodingName", "");
+        ReflectionTestUtils.setField(tokenCounter, "deploymentName", "gpt-4");
+        ReflectionTestUtils.setField(tokenCounter, "vocabularyFile", "");
+        ReflectionTestUtils.setField(tokenCounter, "pattern", "");
+        tokenCounter.init();
+
+        retriever = new RecommendationRetriever();
+        ReflectionTestUtils.setField(retriever, "vectorStore", vectorStore);
+        ReflectionTestUtils.setField(retriever, "normalizer", normalizer);
+        ReflectionTestUtils.setField(retriever, "tokenCounter", tokenCounter);
+        ReflectionTestUtils.setField(retriever, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(retriever, "enabled", true);
+        ReflectionTestUtils.setField(retriever, "exampleThreshold", 0.6);
+        ReflectionTestUtils.setField(retriever, "exampleCount", 2);
+        ReflectionTestUtils.setField(retriever, "maxExampleTokens", 200);
+    }
+
+    private void confirm(String campaignId, String campaignType, String targetAudience, double budget, String channels) {
+        vectorStore.add("strategy", AIRecommendationGenerator.describeCampaign(campaignType, targetAudience),
+            Map.of("campaignId", campaignId, "campaignType", campaignType, "targetAudience", targetAudience,
+                "budgetBand", CampaignKeyNormalizer.budgetBand(budget)),
+            Map.of("channels", channels, "reasoning", "why " + campaignId));
+    }
+
+    private Map<String, Object> recommend(String campaignType, String targetAudience, double budget) {
+        return retriever.recommend("strategy", campaignType, targetAudience, budget, examples -> {
+            prompts.add(examples);
+            return new HashMap<>(Map.of("channels", "generated"));
+        });
+    }
+
+    private double similarity(String campaignType, String confirmedAudience, String requestedAudience) {
+        return vectorStore.search(AIRecommendationGenerator.describeCampaign(campaignType, requestedAudience), 10,
+                Map.of("kind", "strategy")).stream()
+            .filter(match -> match.document().metadata().get("targetAudience").equals(confirmedAudience))
+            .findFirst().orElseThrow().similarity();
+    }
+
+    private Map<?, ?> strategyStats() {
+        return (Map<?, ?>) ((Map<?, ?>) retriever.getStats().get("kinds")).get("strategy");
+    }
+
+    @Test
+    void reusesTheConfigurationOfTheSameCampaignTypeAndAudience() {
+        confirm("c1", "promotion", "young professionals", 5000, "email, social");
+
+        Map<String, Object> reused = recommend("Sale", "Professionals, young", 6000);
+        assertTrue(prompts.isEmpty());
+        assertEquals("email, social", reused.get("channels"));
+        assertEquals("reused", ((Map<?, ?>) reused.get("retrieval")).get("mode"));
+        assertEquals("c1", ((Map<?, ?>) reused.get("retrieval")).get("campaignId"));
+
+        // Another budget band is not looked at
+        Map<String, Object> otherBand = recommend("promotion", "young professionals", 50000);
+        assertEquals("generated", ((Map<?, ?>) otherBand.get("retrieval")).get("mode"));
+        assertEquals(1L, strategyStats().get("llmSkips"));
+    }
+
+    @Test
+    void generatesWithCloseConfigurationsAsExamples() {
+        confirm("c1", "promotion", "young professionals", 5000, "email, social");
+
+        Map<String, Object> generated = recommend("promotion", "young professionals in Shanghai", 5000);
+        assertEquals("generated", generated.get("channels"));
+        assertEquals("few-shot", ((Map<?, ?>) generated.get("retrieval")).get("mode"));
+        assertEquals(1, prompts.size());
+        assertTrue(prompts.get(0).startsWith("- promotion for young professionals: "));
+        assertTrue(prompts.get(0).contains("email, social"));
+        // Per-campaign explanations are not examples of a configuration
+        assertFalse(prompts.get(0).contains("why c1"));
+    }
+
+    @Test
+    void neverReusesTheConfigurationOfAnotherAudienceHoweverSimilar() {
+        String female = "female customers aged 25-35 interested in life insurance";
+        String male = "male customers aged 25-35 interested in life insurance";
+        String car = "female customers aged 25-35 interested in car insurance";
+        confirm("c1", "promotion", female, 5000, "email, social");
+        assertTrue(similarity("promotion", female, male) >= 0.92);
+        assertTrue(similarity("promotion", female, car) >= 0.92);
+
+        for (String audience : List.of(male, car)) {
+            Map<String, Object> result = recommend("promotion", audience, 5000);
+            assertEquals("generated", result.get("channels"));
+            assertEquals("few-shot", ((Map<?, ?>) result.get("retrieval")).get("mode"));
+        }
+        assertEquals(2, prompts.size());
+        assertEquals(0L, strategyStats().get("llmSkips"));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.mcp.server;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpServerSession;
+import io.modelcontextprotocol.spec.McpServerTransport;
+import io.modelcontextprotocol.spec.McpServerTransportProvider;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SerializedServerTransportProviderTest {
+
+    /** Enqueues like the stdio transport: a unicast sink that fails emissions from two threads at once */
+    private static final class SinkTransport implements McpServerTransport {
+        private final Sinks.Many<McpSchema.JSONRPCMessage> outbound = Sinks.many().unicast().onBackpressureBuffer();
+        private final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public Mono<Void> sendMessage(McpSchema.JSONRPCMessage message) {
+            return Mono.defer(() -> {
+                threads.add(Thread.currentThread().getName());
+                return outbound.tryEmitNext(message).isSuccess()
+                    ? Mono.empty()
+                    : Mono.error(new IllegalStateException("Failed to enqueue message"));
+            });
+        }
+
+        @Override
+        public <T> T unmarshalFrom(Object data, TypeReference<T> typeRef) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Mono<Void> closeGracefully() {
+            return Mono.empty();
+        }
+    }
+
+    private static final class SingleSessionProvider implements McpServerTransportProvider {
+        private final SinkTransport transport = new SinkTransport();
+
+        @Override
+        public void setSessionFactory(McpServerSession.Factory sessionFactory) {
+            sessionFactory.create(transport);
+        }
+
+        @Override
+        public Mono<Void> notifyClients(String method, Object params) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Void> closeGracefully() {
+            return Mono.empty();
+        }
+    }
+
+    @Test
+    void sendsEveryMessageFromOneThread() {
+        SingleSessionProvider stdio = new SingleSessionProvider();
+        SerializedServerTransportProvider provider = new SerializedServerTransportProvider(stdio, "test-out");
+        AtomicReference<McpServerTransport> sessionTransport = new AtomicReference<>();
+        provider.setSessionFactory(transport -> {
+            sessionTransport.set(transport);
+            return null;
+        });
+
+        int messages = 2000;
+        Flux.range(0, messages)
+            .parallel(4)
+            .runOn(Schedulers.parallel())
+            .flatMap(id -> sessionTransport.get().sendMessage(new McpSchema.JSONRPCResponse("2.0", id, "pong", null)))
+            .sequential()
+            .blockLast(Duration.ofSeconds(10));
+        stdio.transport.outbound.tryEmitComplete();
+
+        List<McpSchema.JSONRPCMessage> sent = stdio.transport.outbound.asFlux().collectList().block(Duration.ofSeconds(5));
+        assertEquals(messages, sent.size());
+        assertEquals(Set.of("test-out-1"), stdio.transport.threads);
+        provider.closeGracefully().block();
+    }
+}
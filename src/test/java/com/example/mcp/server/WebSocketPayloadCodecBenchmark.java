@@ -0,0 +1,114 @@
+package com.example.mcp.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+/**
+ * WebSocket Payload Codec Benchmark
+ * Microseconds to encode a campaign graph response frame as JSON, CBOR and Smile. The setup prints the bytes
+ * on the wire for each encoding, raw and after deflate (what permessage-deflate sends).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WebSocketPayloadCodecBenchmark {
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    private WebSocketPayloadCodec.Encoding encoding;
+
+    @Param({"12", "60"})
+    private int nodes;
+
+    private WebSocketPayloadCodec codec;
+    private ChatFrame frame;
+
+    @Setup
+    public void setUp() throws Exception {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        ObjectMapper objectMapper = builder.build();
+        codec = new WebSocketPayloadCodec(objectMapper, builder);
+        frame = ChatFrame.response("req-1", campaignGraph(nodes), 1840);
+
+        byte[] encoded = bytes(codec.encode(frame, encoding));
+        System.out.printf("%n%s, %d nodes: %d bytes, %d bytes deflated%n", encoding, nodes, encoded.length, deflatedSize(encoded));
+    }
+
+    @Benchmark
+    public WebSocketMessage<?> encode() throws Exception {
+        return codec.encode(frame, encoding);
+    }
+
+    private static Map<String, Object> campaignGraph(int nodeCount) {
+        List<CampaignNode> nodes = new ArrayList<>();
+        CampaignNode.NodeType[] types = CampaignNode.NodeType.values();
+        for (int i = 0; i < nodeCount; i++) {
+            CampaignNode node = new CampaignNode("node_" + i, types[i % types.length], "Spring sale step " + i);
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("ageGroup", "25-35 years");
+            data.put("location", "Shanghai, Beijing, Shenzhen");
+            data.put("interests", List.of("tea", "gifts", "wellness"));
+            data.put("budget", 12000.5 + i);
+            data.put("openRate", 0.214);
+            data.put("subject", "Spring tea gifts for your team, 20% off this week only");
+            data.put("body", "Hi {{firstName}}, our spring collection is here. Pick a gift box for your colleagues "
+                + "and get free delivery on orders over 300 yuan. The offer ends on Sunday.");
+            data.put("flowPaths", List.of(Map.of("name", "opened", "condition", "event(\"email_open\", 3d)", "targetNodeId", "node_" + (i + 1)),
+                Map.of("name", "default", "condition", "true", "targetNodeId", "node_" + (i + 2))));
+            node.setData(data);
+            node.setConnections(List.of("node_" + (i + 1)));
+            node.setStatus(CampaignNode.NodeStatus.READY);
+            nodes.add(node);
+        }
+        Map<String, Object> graph = new LinkedHashMap<>();
+        graph.put("campaignId", "campaign_1718000000000");
+        graph.put("name", "Spring tea gifting");
+        graph.put("nodes", nodes);
+        return graph;
+    }
+
+    private static byte[] bytes(WebSocketMessage<?> message) {
+        ByteBuffer buffer = message.getPayload() instanceof ByteBuffer
+            ? ((ByteBuffer) message.getPayload()).duplicate()
+            : ByteBuffer.wrap(((String) message.getPayload()).getBytes(StandardCharsets.UTF_8));
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static int deflatedSize(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(input);
+        deflater.finish();
+        byte[] buffer = new byte[input.length + 64];
+        int size = 0;
+        while (!deflater.finished()) {
+            size += deflater.deflate(buffer);
+        }
+        deflater.end();
+        return size;
+    }
+}
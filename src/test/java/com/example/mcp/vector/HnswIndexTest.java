@@ -0,0 +1,126 @@
+package com.example.mcp.vector;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HnswIndexTest {
+
+    private static final int DIMENSIONS = 32;
+
+    @TempDir
+    Path temp;
+
+    private static float[] randomUnitVector(Random random) {
+        float[] vector = new float[DIMENSIONS];
+        double norm = 0;
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian();
+            norm += vector[i] * vector[i];
+        }
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] /= (float) Math.sqrt(norm);
+        }
+        return vector;
+    }
+
+    private static List<float[]> fill(HnswIndex index, int count, Random random) {
+        List<float[]> vectors = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            float[] vector = randomUnitVector(random);
+            assertEquals(i, index.add(vector));
+            vectors.add(vector);
+        }
+        return vectors;
+    }
+
+    private static int bruteForceNearest(List<float[]> vectors, float[] query) {
+        int best = 0;
+        for (int id = 1; id < vectors.size(); id++) {
+            if (dot(vectors.get(id), query) > dot(vectors.get(best), query)) {
+                best = id;
+            }
+        }
+        return best;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    @Test
+    void findsStoredVectorsAndNearestNeighbours() {
+        Random random = new Random(7);
+        HnswIndex index = new HnswIndex(DIMENSIONS, 16, 100, 16);
+        List<float[]> vectors = fill(index, 2000, random);
+
+        assertEquals(2000, index.size());
+        for (int id = 0; id < vectors.size(); id += 97) {
+            HnswIndex.Result top = index.search(vectors.get(id), 1, 64).get(0);
+            assertEquals(id, top.id());
+            assertEquals(1.0f, top.similarity(), 1e-5);
+        }
+
+        int found = 0;
+        for (int i = 0; i < 100; i++) {
+            float[] query = randomUnitVector(random);
+            if (index.search(query, 1, 64).get(0).id() == bruteForceNearest(vectors, query)) {
+                found++;
+            }
+        }
+        assertTrue(found >= 90, "recall@1 " + found + "%");
+        assertThrows(IllegalArgumentException.class, () -> index.add(new float[DIMENSIONS + 1]));
+    }
+
+    @Test
+    void returnsOnlyFilteredIdsInSimilarityOrder() {
+        HnswIndex index = new HnswIndex(DIMENSIONS, 16, 100, 16);
+        List<float[]> vectors = fill(index, 500, new Random(11));
+
+        List<HnswIndex.Result> results = index.search(vectors.get(10), 5, 64, id -> id % 7 == 3);
+        assertEquals(5, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(3, results.get(i).id() % 7);
+            if (i > 0) {
+                assertTrue(results.get(i - 1).similarity() >= results.get(i).similarity());
+            }
+        }
+        assertTrue(index.search(vectors.get(10), 5, 64, id -> false).isEmpty());
+    }
+
+    @Test
+    void savesAndLoadsASnapshotThatAcceptsNewVectors() throws IOException {
+        Random random = new Random(3);
+        HnswIndex index = new HnswIndex(DIMENSIONS, 16, 100, 16);
+        // More than one full chunk, so the load maps a chunk in place and copies the partial one
+        List<float[]> vectors = fill(index, 1500, random);
+        Path file = temp.resolve("index.hnsw");
+        index.save(file);
+
+        HnswIndex loaded = HnswIndex.load(file);
+        assertEquals(1500, loaded.size());
+        assertEquals(DIMENSIONS, loaded.dimensions());
+        for (int id : new int[]{0, 1023, 1024, 1499}) {
+            assertArrayEquals(vectors.get(id), loaded.vector(id));
+            assertEquals(index.search(vectors.get(id), 3, 64), loaded.search(vectors.get(id), 3, 64));
+        }
+
+        float[] added = randomUnitVector(random);
+        assertEquals(1500, loaded.add(added));
+        assertEquals(1500, loaded.search(added, 1, 64).get(0).id());
+    }
+}
@@ -0,0 +1,21 @@
+#!/bin/bash
+
+# Start MCP Server with stdio transport from the fast-start build (for hosts that spawn one server per session)
+#   - bean definitions pre-computed at build time (Spring AOT)
+#   - classes mapped from the AppCDS archive recorded at build time
+#   - controllers, Swagger and CORS created on first HTTP use (fast-start profile)
+# Build once with: mvn -Pfast-start clean package -DskipTests
+
+cd "$(dirname "$0")"
+
+# stdout is the MCP channel, and a host would time out waiting for a build, so never build here
+if [ ! -f target/fast-start/mcp-backend.jsa ] || [ ! -f target/fast-start/mcp-backend-1.0.0.jar ]; then
+  echo "Fast-start build not found in target/fast-start; build it with: mvn -Pfast-start clean package -DskipTests" >&2
+  exit 1
+fi
+
+exec java -XX:SharedArchiveFile=target/fast-start/mcp-backend.jsa \
+  -Dspring.aot.enabled=true \
+  -jar target/fast-start/mcp-backend-1.0.0.jar \
+  --spring.profiles.active=fast-start \
+  "$@"